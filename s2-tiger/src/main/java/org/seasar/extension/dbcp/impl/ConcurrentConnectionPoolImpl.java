@@ -0,0 +1,613 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.transaction.Transaction;
+
+import org.seasar.extension.dbcp.ConnectionPool;
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.extension.timer.TimeoutManager;
+import org.seasar.extension.timer.TimeoutTarget;
+import org.seasar.extension.timer.TimeoutTask;
+import org.seasar.framework.exception.SIllegalStateException;
+import org.seasar.framework.exception.SQLRuntimeException;
+import org.seasar.framework.exception.SSQLException;
+import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.StringUtil;
+import org.seasar.framework.util.TransactionUtil;
+
+import static org.seasar.framework.util.tiger.CollectionsUtil.*;
+
+/**
+ * グローバルなロックを使用しない{@link ConnectionPool}の実装クラスです。
+ * <p>
+ * {@link ConnectionPoolImpl}はプール全体のモニタを保持したまま物理コネクションの作成や検証用クエリの実行を行いますが、
+ * このクラスは空きコネクションとアクティブなコネクションを並行コレクションで管理し、
+ * コネクション数の上限を{@link Semaphore}で制御します。
+ * 物理コネクションの作成や検証はロックの外で行われるため、
+ * 遅いデータベース接続が他のスレッドのチェックアウトを妨げることはありません。
+ * </p>
+ * <p>
+ * 空きコネクションは先入れ先出しで再利用されます。
+ * トランザクションに関連付けられたコネクションの扱いや{@link #setMaxWait(long) maxWait}の意味は
+ * {@link ConnectionPoolImpl}と同じです。
+ * </p>
+ * <p>
+ * 統計情報を収集する場合は、記録時にロックを使用しない{@link ConcurrentConnectionPoolMetrics}を
+ * {@link #setMetrics(ConnectionPoolMetrics) metrics}に設定してください。
+ * </p>
+ */
+public class ConcurrentConnectionPoolImpl extends ConnectionPoolImpl {
+
+    private static final Logger logger = Logger
+            .getLogger(ConcurrentConnectionPoolImpl.class);
+
+    /** アクティブなコネクションを表すマップの値です。 */
+    protected static final Object PRESENT = new Object();
+
+    /** トランザクション外でアクティブなコネクションのマップです。 */
+    protected final ConcurrentHashMap<ConnectionWrapper, Object> activePool = newConcurrentHashMap();
+
+    /** トランザクション中でアクティブなコネクションのマップです。 */
+    protected final ConcurrentHashMap<Transaction, ConnectionWrapper> txActivePool = newConcurrentHashMap();
+
+    /** 空きコネクションのキューです。 */
+    protected final ConcurrentLinkedQueue<FreeItem> freePool = newConcurrentLinkedQueue();
+
+    /** 空きコネクションの数です。 */
+    protected final AtomicInteger freePoolSize = new AtomicInteger();
+
+    /** アクティブなコネクションの数を制限するセマフォです。 */
+    protected volatile Semaphore permits;
+
+    /**
+     * インスタンスを構築します。
+     */
+    public ConcurrentConnectionPoolImpl() {
+        permits = createPermits();
+    }
+
+    @Override
+    public void setMaxPoolSize(final int maxPoolSize) {
+        super.setMaxPoolSize(maxPoolSize);
+        permits = createPermits();
+    }
+
+    @Override
+    public int getActivePoolSize() {
+        return activePool.size();
+    }
+
+    @Override
+    public int getTxActivePoolSize() {
+        return txActivePool.size();
+    }
+
+    @Override
+    public int getFreePoolSize() {
+        return freePoolSize.get();
+    }
+
+    @Override
+    public ConnectionWrapper checkOut() throws SQLException {
+        final Transaction tx = getTransaction();
+        if (tx == null && !isAllowLocalTx()) {
+            throw new SIllegalStateException("ESSR0311", null);
+        }
+
+        ConnectionWrapper con = tx == null ? null : txActivePool.get(tx);
+        if (con != null) {
+            if (logger.isDebugEnabled()) {
+                logger.log("DSSR0007", new Object[] { tx });
+            }
+            return con;
+        }
+        final long checkOutTime = System.currentTimeMillis();
+        final Semaphore semaphore = acquirePermit();
+        try {
+            con = checkOutFreePool(tx);
+            if (con == null) {
+                con = createConnection(tx);
+            }
+            if (tx == null) {
+                activePool.put(con, PRESENT);
+            } else {
+                TransactionUtil.enlistResource(tx, con.getXAResource());
+                TransactionUtil.registerSynchronization(tx,
+                        new SynchronizationImpl(tx));
+                txActivePool.put(tx, con);
+            }
+            con.setReadOnly(isReadOnly());
+            if (getTransactionIsolationLevel() != DEFAULT_TRANSACTION_ISOLATION_LEVEL) {
+                con.setTransactionIsolation(getTransactionIsolationLevel());
+            }
+        } catch (final SQLException e) {
+            abortCheckOut(tx, con, semaphore);
+            throw e;
+        } catch (final RuntimeException e) {
+            abortCheckOut(tx, con, semaphore);
+            throw e;
+        }
+        final ConnectionPoolMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.connectionCheckedOut(con, System.currentTimeMillis()
+                    - checkOutTime);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.log("DSSR0007", new Object[] { tx });
+        }
+        return con;
+    }
+
+    /**
+     * コネクションを取り出す許可を取得します。
+     * <p>
+     * 許可が得られない場合は{@link #getMaxWait() maxWait}に従って待機します。
+     * </p>
+     *
+     * @return 許可を取得したセマフォ、コネクション数を制限しない場合は<code>null</code>
+     * @throws SQLException
+     *             許可を取得できなかった場合
+     */
+    protected Semaphore acquirePermit() throws SQLException {
+        final Semaphore semaphore = permits;
+        if (semaphore == null) {
+            return null;
+        }
+        final long maxWait = getMaxWait();
+        try {
+            if (maxWait == -1L) {
+                semaphore.acquire();
+            } else if (!semaphore.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                checkOutTimedOut();
+                throw new SSQLException("ESSR0104", null);
+            }
+        } catch (final InterruptedException e) {
+            checkOutTimedOut();
+            throw new SSQLException("ESSR0104", null, e);
+        }
+        return semaphore;
+    }
+
+    /**
+     * コネクションを戻したことをセマフォに通知します。
+     */
+    protected void releasePermit() {
+        final Semaphore semaphore = permits;
+        if (semaphore != null) {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * 失敗したチェックアウトを取り消します。
+     *
+     * @param tx
+     *            トランザクション
+     * @param con
+     *            コネクション
+     * @param semaphore
+     *            許可を取得したセマフォ
+     */
+    protected void abortCheckOut(final Transaction tx,
+            final ConnectionWrapper con, final Semaphore semaphore) {
+        if (con != null) {
+            if (tx == null) {
+                activePool.remove(con);
+            } else {
+                txActivePool.remove(tx, con);
+            }
+            con.closeReally();
+        }
+        if (semaphore != null && semaphore == permits) {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * 空きコネクションを取り出します。
+     *
+     * @param tx
+     *            トランザクション
+     * @return 空きコネクション、利用可能な空きコネクションがない場合は<code>null</code>
+     */
+    protected ConnectionWrapper checkOutFreePool(final Transaction tx) {
+        for (FreeItem item = freePool.poll(); item != null; item = freePool
+                .poll()) {
+            if (!item.acquire()) {
+                continue;
+            }
+            freePoolSize.decrementAndGet();
+            final ConnectionWrapper con = item.getConnection();
+            item.destroy();
+            con.init(tx);
+            if (StringUtil.isEmpty(getValidationQuery())
+                    || validateConnection(con, item.getValidatedTime())) {
+                return con;
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * コネクションの死活を検証します。
+     * <p>
+     * 検証に失敗した場合、そのコネクションとすべての空きコネクションを破棄します。
+     * </p>
+     *
+     * @param con
+     *            コネクション
+     * @param pooledTime
+     *            プールされた時刻(ミリ秒)
+     * @return コネクションが有効な場合は<code>true</code>
+     */
+    protected boolean validateConnection(final ConnectionWrapper con,
+            final long pooledTime) {
+        if (System.currentTimeMillis() - pooledTime < getValidationInterval()) {
+            return true;
+        }
+        try {
+            final PreparedStatement ps = con
+                    .prepareStatement(getValidationQuery());
+            try {
+                ps.executeQuery();
+            } finally {
+                ps.close();
+            }
+        } catch (final Exception e) {
+            con.closeReally();
+            clearFreePool();
+            validationFailed();
+            logger.log("ESSR0096", null, e);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void validateFreePool() {
+        if (!isValidationSupported()) {
+            return;
+        }
+        final long startTime = System.currentTimeMillis();
+        final int count = getCloseCount();
+        for (final FreeItem item : freePool) {
+            if (item.getValidatedTime() >= startTime || !freePool.remove(item)) {
+                continue;
+            }
+            if (!item.acquire()) {
+                continue;
+            }
+            freePoolSize.decrementAndGet();
+            final long pooledTime = item.getPooledTime();
+            final ConnectionWrapper con = item.getConnection();
+            item.destroy();
+            final long validatedTime = System.currentTimeMillis();
+            if (isValid(con.getPhysicalConnection())) {
+                offerFreePool(new FreeItem(con, pooledTime, validatedTime),
+                        count);
+            } else {
+                validationFailed();
+                con.closeReally();
+            }
+        }
+    }
+
+    @Override
+    protected void fillFreePool() {
+        final int count = getCloseCount();
+        while (getMaxPoolSize() > 0) {
+            final int size = getFreePoolSize() + getActivePoolSize()
+                    + getTxActivePoolSize();
+            if (size >= getMinPoolSize() || size >= getMaxPoolSize()) {
+                return;
+            }
+            final ConnectionWrapper con;
+            try {
+                con = createConnection(null);
+            } catch (final SQLException e) {
+                logger.log(e);
+                return;
+            }
+            if (!offerFreePool(new FreeItem(con), count)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 空きコネクションをキューに追加します。
+     * <p>
+     * 保守を開始した後にプールがクローズされていた場合はコネクションを破棄します。
+     * </p>
+     *
+     * @param item
+     *            空きコネクション
+     * @param count
+     *            保守を開始した時点で{@link #close()}が呼び出された回数
+     * @return 空きコネクションを追加した場合は<code>true</code>
+     */
+    protected boolean offerFreePool(final FreeItem item, final int count) {
+        freePoolSize.incrementAndGet();
+        freePool.offer(item);
+        if (count == getCloseCount()) {
+            return true;
+        }
+        clearFreePool();
+        return false;
+    }
+
+    @Override
+    public void release(final ConnectionWrapper connection) {
+        connectionCheckedIn(connection);
+        boolean removed = activePool.remove(connection) != null;
+        final Transaction tx = getTransaction();
+        if (tx != null && txActivePool.remove(tx, connection)) {
+            removed = true;
+        }
+        connection.closeReally();
+        if (removed) {
+            releasePermit();
+        }
+    }
+
+    @Override
+    public void checkIn(final ConnectionWrapper connection) {
+        connectionCheckedIn(connection);
+        final boolean removed = activePool.remove(connection) != null;
+        try {
+            checkInFreePool(connection);
+        } finally {
+            if (removed) {
+                releasePermit();
+            }
+        }
+    }
+
+    @Override
+    public void checkInTx(final Transaction tx) {
+        if (tx == null) {
+            return;
+        }
+        if (getTransaction() != null) {
+            return;
+        }
+        final ConnectionWrapper con = txActivePool.remove(tx);
+        if (con == null) {
+            return;
+        }
+        connectionCheckedIn(con);
+        try {
+            checkInFreePool(con);
+        } finally {
+            releasePermit();
+        }
+    }
+
+    /**
+     * コネクションを空きコネクションのキューに戻します。
+     *
+     * @param con
+     *            コネクション
+     */
+    protected void checkInFreePool(final ConnectionWrapper con) {
+        if (getMaxPoolSize() <= 0) {
+            con.closeReally();
+            return;
+        }
+        try {
+            final Connection pc = con.getPhysicalConnection();
+            try {
+                pc.setAutoCommit(true);
+            } catch (final SQLException e) {
+                con.closeReally();
+                throw e;
+            }
+            final ConnectionWrapper newCon = new ConnectionWrapperImpl(con
+                    .getXAConnection(), pc, this, null,
+                    getPreparedStatementCache(con));
+            con.cleanup();
+            freePoolSize.incrementAndGet();
+            freePool.offer(new FreeItem(newCon));
+        } catch (final SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    /**
+     * すべての空きコネクションを破棄します。
+     */
+    protected void clearFreePool() {
+        for (FreeItem item = freePool.poll(); item != null; item = freePool
+                .poll()) {
+            if (!item.acquire()) {
+                continue;
+            }
+            freePoolSize.decrementAndGet();
+            final ConnectionWrapper con = item.getConnection();
+            item.destroy();
+            con.closeReally();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        clearFreePool();
+        for (final ConnectionWrapper con : txActivePool.values()) {
+            con.closeReally();
+        }
+        txActivePool.clear();
+        for (final ConnectionWrapper con : activePool.keySet()) {
+            con.closeReally();
+        }
+        activePool.clear();
+        permits = createPermits();
+    }
+
+    /**
+     * アクティブなコネクションの数を制限するセマフォを作成します。
+     * <p>
+     * すでにアクティブなコネクションがある場合はその分の許可を差し引いて作成します。
+     * </p>
+     *
+     * @return セマフォ、コネクション数を制限しない場合は<code>null</code>
+     */
+    protected Semaphore createPermits() {
+        final int maxPoolSize = getMaxPoolSize();
+        if (maxPoolSize <= 0) {
+            return null;
+        }
+        return new Semaphore(maxPoolSize
+                - (getActivePoolSize() + getTxActivePoolSize()));
+    }
+
+    /**
+     * 空きコネクションを管理するクラスです。
+     */
+    protected class FreeItem implements TimeoutTarget {
+
+        private final AtomicBoolean acquired = new AtomicBoolean();
+
+        private final long pooledTime;
+
+        private final long validatedTime;
+
+        private volatile ConnectionWrapper connectionWrapper;
+
+        private volatile TimeoutTask timeoutTask;
+
+        /**
+         * インスタンスを構築します。
+         *
+         * @param connectionWrapper
+         *            コネクション
+         */
+        protected FreeItem(final ConnectionWrapper connectionWrapper) {
+            this(connectionWrapper, System.currentTimeMillis(), System
+                    .currentTimeMillis());
+        }
+
+        /**
+         * インスタンスを構築します。
+         * <p>
+         * 空きコネクションをクローズするまでのタイムアウトは、プールされた時刻から計算されます。
+         * </p>
+         *
+         * @param connectionWrapper
+         *            コネクション
+         * @param pooledTime
+         *            プールされた時刻(ミリ秒)
+         * @param validatedTime
+         *            最後に死活を検証された時刻(ミリ秒)
+         */
+        protected FreeItem(final ConnectionWrapper connectionWrapper,
+                final long pooledTime, final long validatedTime) {
+            this.connectionWrapper = connectionWrapper;
+            this.pooledTime = pooledTime;
+            this.validatedTime = validatedTime;
+            final long elapsed = (System.currentTimeMillis() - pooledTime) / 1000L;
+            timeoutTask = TimeoutManager.getInstance().addTimeoutTarget(this,
+                    (int) Math.max(0L, getTimeout() - elapsed), false);
+        }
+
+        /**
+         * コネクションを返します。
+         *
+         * @return コネクション
+         */
+        public ConnectionWrapper getConnection() {
+            return connectionWrapper;
+        }
+
+        /**
+         * プールされた時刻(ミリ秒)を返します。
+         *
+         * @return プールされた時刻(ミリ秒)
+         */
+        public long getPooledTime() {
+            return pooledTime;
+        }
+
+        /**
+         * 最後に死活を検証された時刻(ミリ秒)を返します。
+         *
+         * @return 最後に死活を検証された時刻(ミリ秒)
+         */
+        public long getValidatedTime() {
+            return validatedTime;
+        }
+
+        /**
+         * この空きコネクションの所有権を取得します。
+         * <p>
+         * チェックアウトとタイムアウトが競合した場合、どちらか一方だけが所有権を取得できます。
+         * </p>
+         *
+         * @return 所有権を取得できた場合は<code>true</code>
+         */
+        public boolean acquire() {
+            return acquired.compareAndSet(false, true);
+        }
+
+        public void expired() {
+            for (;;) {
+                final int size = freePoolSize.get();
+                if (size <= getMinPoolSize()) {
+                    return;
+                }
+                if (freePoolSize.compareAndSet(size, size - 1)) {
+                    break;
+                }
+            }
+            if (!acquire()) {
+                freePoolSize.incrementAndGet();
+                return;
+            }
+            freePool.remove(this);
+            final ConnectionWrapper con = connectionWrapper;
+            destroy();
+            if (con != null) {
+                con.closeReally();
+            }
+        }
+
+        /**
+         * 破棄します。
+         */
+        public void destroy() {
+            final TimeoutTask task = timeoutTask;
+            if (task != null) {
+                task.cancel();
+                timeoutTask = null;
+            }
+            connectionWrapper = null;
+        }
+
+    }
+
+}
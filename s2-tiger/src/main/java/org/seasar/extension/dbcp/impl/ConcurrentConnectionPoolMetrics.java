@@ -0,0 +1,179 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.framework.util.ConcurrentTimeHistogram;
+
+/**
+ * ロックを使用せずに統計情報を収集する{@link ConnectionPoolMetrics}です。
+ * <p>
+ * {@link ConnectionPoolMetrics}は記録のたびにインスタンスのモニタを取得するため、
+ * {@link ConcurrentConnectionPoolImpl}のチェックアウトとチェックインが直列化されてしまいます。
+ * このクラスはカウンタとヒストグラムをアトミックに更新し、
+ * チェックアウト中のコネクションの情報を並行マップで管理します。
+ * </p>
+ * <p>
+ * {@link #snapshot()}や{@link #reset()}は記録と並行して実行されるため、
+ * 取得した統計情報の各値は厳密に同じ時点のものとは限りません。
+ * </p>
+ */
+public class ConcurrentConnectionPoolMetrics extends ConnectionPoolMetrics {
+
+    private volatile long leakThreshold;
+
+    private volatile boolean captureCheckOutStack;
+
+    private volatile long startTime = System.currentTimeMillis();
+
+    private final AtomicLong checkOutCount = new AtomicLong();
+
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    private final AtomicLong physicalConnectCount = new AtomicLong();
+
+    private final AtomicLong physicalCloseCount = new AtomicLong();
+
+    private final AtomicLong validationFailureCount = new AtomicLong();
+
+    private final AtomicLong leakSuspectCount = new AtomicLong();
+
+    private final ConcurrentTimeHistogram waitTimeHistogram = new ConcurrentTimeHistogram();
+
+    private final ConcurrentTimeHistogram holdTimeHistogram = new ConcurrentTimeHistogram();
+
+    private final ConcurrentMap<ConnectionWrapper, CheckOutInfo> checkOutInfos = new ConcurrentHashMap<ConnectionWrapper, CheckOutInfo>();
+
+    @Override
+    public long getLeakThreshold() {
+        return leakThreshold;
+    }
+
+    @Override
+    public void setLeakThreshold(final long leakThreshold) {
+        this.leakThreshold = leakThreshold;
+    }
+
+    @Override
+    public boolean isCaptureCheckOutStack() {
+        return captureCheckOutStack;
+    }
+
+    @Override
+    public void setCaptureCheckOutStack(final boolean captureCheckOutStack) {
+        this.captureCheckOutStack = captureCheckOutStack;
+    }
+
+    @Override
+    public void connectionCheckedOut(final ConnectionWrapper con,
+            final long waitTime) {
+        checkOutCount.incrementAndGet();
+        waitTimeHistogram.record(waitTime);
+        checkOutInfos.put(con, new CheckOutInfo(System.currentTimeMillis(),
+                Thread.currentThread().getName(),
+                captureCheckOutStack ? new Throwable("checked out") : null));
+    }
+
+    @Override
+    public void connectionCheckedIn(final ConnectionWrapper con) {
+        final CheckOutInfo info = checkOutInfos.remove(con);
+        if (info == null) {
+            return;
+        }
+        final long holdTime = info.getHeldTime(System.currentTimeMillis());
+        holdTimeHistogram.record(holdTime);
+        final long threshold = leakThreshold;
+        if (threshold > 0L && holdTime >= threshold) {
+            leakSuspectCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void checkOutTimedOut() {
+        timeoutCount.incrementAndGet();
+    }
+
+    @Override
+    public void physicalConnectionOpened() {
+        physicalConnectCount.incrementAndGet();
+    }
+
+    @Override
+    public void physicalConnectionClosed() {
+        physicalCloseCount.incrementAndGet();
+    }
+
+    @Override
+    public void validationFailed() {
+        validationFailureCount.incrementAndGet();
+    }
+
+    @Override
+    public CheckOutInfo[] getLeakSuspects() {
+        final long threshold = leakThreshold;
+        if (threshold <= 0L) {
+            return new CheckOutInfo[0];
+        }
+        final long now = System.currentTimeMillis();
+        final List<CheckOutInfo> list = new ArrayList<CheckOutInfo>();
+        for (final CheckOutInfo info : checkOutInfos.values()) {
+            if (info.getHeldTime(now) >= threshold) {
+                list.add(info);
+            }
+        }
+        return list.toArray(new CheckOutInfo[list.size()]);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public CheckOutInfo[] getCheckedOutConnections() {
+        final CheckOutInfo[] infos = checkOutInfos.values().toArray(
+                new CheckOutInfo[0]);
+        Arrays.sort(infos, CHECK_OUT_TIME_COMPARATOR);
+        return infos;
+    }
+
+    @Override
+    public ConnectionPoolStatistics snapshot() {
+        return new ConnectionPoolStatistics(startTime, System
+                .currentTimeMillis(), checkOutCount.get(), timeoutCount.get(),
+                physicalConnectCount.get(), physicalCloseCount.get(),
+                validationFailureCount.get(), leakSuspectCount.get(),
+                waitTimeHistogram.copy(), holdTimeHistogram.copy(),
+                getLeakSuspects(), getCheckedOutConnections());
+    }
+
+    @Override
+    public void reset() {
+        startTime = System.currentTimeMillis();
+        checkOutCount.set(0L);
+        timeoutCount.set(0L);
+        physicalConnectCount.set(0L);
+        physicalCloseCount.set(0L);
+        validationFailureCount.set(0L);
+        leakSuspectCount.set(0L);
+        waitTimeHistogram.clear();
+        holdTimeHistogram.clear();
+    }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.seasar.extension.dbcp.impl.ConnectionPoolMetrics.CheckOutInfo;
+import org.seasar.framework.exception.SRuntimeException;
+import org.seasar.framework.util.TimeHistogram;
+
+/**
+ * コネクションプールの状態と統計情報をJMXで公開するMBeanです。
+ * <p>
+ * {@link #register()}を呼び出すと、
+ * <code>org.seasar.extension.dbcp:type=ConnectionPool,name=<i>name</i></code>
+ * という名前でプラットフォームのMBeanサーバに登録されます。
+ * コネクションプールに{@link ConnectionPoolMetrics}が設定されていない場合は、
+ * 登録時に新しい{@link ConcurrentConnectionPoolMetrics}が設定されます。
+ * </p>
+ *
+ * <pre>
+ * &lt;component class=&quot;org.seasar.extension.dbcp.impl.ConnectionPoolMonitor&quot;&gt;
+ *     &lt;property name=&quot;name&quot;&gt;&quot;jdbc&quot;&lt;/property&gt;
+ *     &lt;initMethod name=&quot;register&quot;/&gt;
+ *     &lt;destroyMethod name=&quot;unregister&quot;/&gt;
+ * &lt;/component&gt;
+ * </pre>
+ */
+public class ConnectionPoolMonitor implements ConnectionPoolMonitorMBean {
+
+    /** オブジェクト名のドメインです。 */
+    public static final String DOMAIN = "org.seasar.extension.dbcp";
+
+    /** コネクションプール */
+    protected ConnectionPoolImpl connectionPool;
+
+    /** MBeanの名前 */
+    protected String name = "default";
+
+    /** MBeanサーバ */
+    protected MBeanServer mbeanServer;
+
+    /** 登録したオブジェクト名 */
+    protected ObjectName objectName;
+
+    /**
+     * インスタンスを構築します。
+     */
+    public ConnectionPoolMonitor() {
+    }
+
+    /**
+     * インスタンスを構築します。
+     *
+     * @param connectionPool
+     *            コネクションプール
+     */
+    public ConnectionPoolMonitor(final ConnectionPoolImpl connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * コネクションプールを設定します。
+     *
+     * @param connectionPool
+     *            コネクションプール
+     */
+    public void setConnectionPool(final ConnectionPoolImpl connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    /**
+     * MBeanの名前を設定します。
+     *
+     * @param name
+     *            MBeanの名前
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * MBeanサーバを設定します。
+     * <p>
+     * 設定されていない場合はプラットフォームのMBeanサーバが使われます。
+     * </p>
+     *
+     * @param mbeanServer
+     *            MBeanサーバ
+     */
+    public void setMbeanServer(final MBeanServer mbeanServer) {
+        this.mbeanServer = mbeanServer;
+    }
+
+    /**
+     * 登録したオブジェクト名を返します。
+     *
+     * @return 登録したオブジェクト名、登録されていない場合は<code>null</code>
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * MBeanサーバに登録します。
+     */
+    public synchronized void register() {
+        if (objectName != null) {
+            return;
+        }
+        if (connectionPool.getMetrics() == null) {
+            connectionPool.setMetrics(new ConcurrentConnectionPoolMetrics());
+        }
+        if (mbeanServer == null) {
+            mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        }
+        try {
+            final ObjectName on = new ObjectName(DOMAIN
+                    + ":type=ConnectionPool,name=" + ObjectName.quote(name));
+            mbeanServer.registerMBean(this, on);
+            objectName = on;
+        } catch (final JMException e) {
+            throw new SRuntimeException("ESSR0017", new Object[] { e }, e);
+        }
+    }
+
+    /**
+     * MBeanサーバから登録を解除します。
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            mbeanServer.unregisterMBean(objectName);
+        } catch (final JMException e) {
+            throw new SRuntimeException("ESSR0017", new Object[] { e }, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    /**
+     * 統計情報のスナップショットを返します。
+     *
+     * @return 統計情報のスナップショット
+     */
+    public ConnectionPoolStatistics getStatistics() {
+        final ConnectionPoolMetrics metrics = connectionPool.getMetrics();
+        if (metrics == null) {
+            return new ConnectionPoolMetrics().snapshot();
+        }
+        return metrics.snapshot();
+    }
+
+    public int getMaxPoolSize() {
+        return connectionPool.getMaxPoolSize();
+    }
+
+    public int getActivePoolSize() {
+        return connectionPool.getActivePoolSize();
+    }
+
+    public int getTxActivePoolSize() {
+        return connectionPool.getTxActivePoolSize();
+    }
+
+    public int getFreePoolSize() {
+        return connectionPool.getFreePoolSize();
+    }
+
+    public long getCheckOutCount() {
+        return getStatistics().getCheckOutCount();
+    }
+
+    public long getTimeoutCount() {
+        return getStatistics().getTimeoutCount();
+    }
+
+    public long getPhysicalConnectCount() {
+        return getStatistics().getPhysicalConnectCount();
+    }
+
+    public long getPhysicalCloseCount() {
+        return getStatistics().getPhysicalCloseCount();
+    }
+
+    public long getValidationFailureCount() {
+        return getStatistics().getValidationFailureCount();
+    }
+
+    public long getLeakSuspectCount() {
+        return getStatistics().getLeakSuspectCount();
+    }
+
+    public int getCurrentLeakSuspectCount() {
+        return getStatistics().getLeakSuspects().length;
+    }
+
+    public long getLongestHeldTime() {
+        return getStatistics().getLongestHeldTime();
+    }
+
+    public double getWaitTimeMean() {
+        return getStatistics().getWaitTimeHistogram().getMean();
+    }
+
+    public long getWaitTime95thPercentile() {
+        return getStatistics().getWaitTimeHistogram().getPercentile(95);
+    }
+
+    public long getWaitTime99thPercentile() {
+        return getStatistics().getWaitTimeHistogram().getPercentile(99);
+    }
+
+    public long getWaitTimeMax() {
+        return getStatistics().getWaitTimeHistogram().getMax();
+    }
+
+    public double getHoldTimeMean() {
+        return getStatistics().getHoldTimeHistogram().getMean();
+    }
+
+    public long getHoldTime95thPercentile() {
+        return getStatistics().getHoldTimeHistogram().getPercentile(95);
+    }
+
+    public long getHoldTime99thPercentile() {
+        return getStatistics().getHoldTimeHistogram().getPercentile(99);
+    }
+
+    public long getHoldTimeMax() {
+        return getStatistics().getHoldTimeHistogram().getMax();
+    }
+
+    public String[] getWaitTimeHistogram() {
+        return toStrings(getStatistics().getWaitTimeHistogram());
+    }
+
+    public String[] getHoldTimeHistogram() {
+        return toStrings(getStatistics().getHoldTimeHistogram());
+    }
+
+    public String[] dumpLeakSuspects() {
+        return toStrings(getStatistics().getLeakSuspects());
+    }
+
+    public String[] dumpCheckedOutConnections() {
+        return toStrings(getStatistics().getCheckedOutConnections());
+    }
+
+    public void resetMetrics() {
+        final ConnectionPoolMetrics metrics = connectionPool.getMetrics();
+        if (metrics != null) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * チェックアウトされたコネクションの情報を文字列の配列に変換します。
+     * <p>
+     * スタックトレースが記録されている場合は、スタックトレースも含めます。
+     * </p>
+     *
+     * @param infos
+     *            チェックアウトされたコネクションの情報
+     * @return 文字列の配列
+     */
+    protected static String[] toStrings(final CheckOutInfo[] infos) {
+        final String[] result = new String[infos.length];
+        for (int i = 0; i < infos.length; ++i) {
+            final Throwable stack = infos[i].getCheckOutStack();
+            if (stack == null) {
+                result[i] = infos[i].toString();
+                continue;
+            }
+            final StringWriter writer = new StringWriter();
+            writer.write(infos[i].toString());
+            writer.write(System.getProperty("line.separator"));
+            stack.printStackTrace(new PrintWriter(writer));
+            result[i] = writer.toString();
+        }
+        return result;
+    }
+
+    /**
+     * ヒストグラムを区間ごとの文字列の配列に変換します。
+     *
+     * @param histogram
+     *            ヒストグラム
+     * @return 区間ごとの文字列の配列
+     */
+    protected static String[] toStrings(final TimeHistogram histogram) {
+        final long[] bounds = histogram.getBounds();
+        final long[] counts = histogram.getCounts();
+        final String[] result = new String[counts.length];
+        for (int i = 0; i < bounds.length; ++i) {
+            result[i] = "<=" + bounds[i] + "ms: " + counts[i];
+        }
+        result[bounds.length] = ">" + bounds[bounds.length - 1] + "ms: "
+                + counts[bounds.length];
+        return result;
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+/**
+ * コネクションプールの状態と統計情報を公開するMBeanのインタフェースです。
+ * <p>
+ * 時間の単位はすべてミリ秒です。
+ * </p>
+ */
+public interface ConnectionPoolMonitorMBean {
+
+    /**
+     * 最大のプールサイズを返します。
+     *
+     * @return 最大のプールサイズ
+     */
+    int getMaxPoolSize();
+
+    /**
+     * 使用中のコネクションの数を返します。
+     *
+     * @return 使用中のコネクションの数
+     */
+    int getActivePoolSize();
+
+    /**
+     * トランザクション中で使用中のコネクションの数を返します。
+     *
+     * @return トランザクション中で使用中のコネクションの数
+     */
+    int getTxActivePoolSize();
+
+    /**
+     * 空きコネクションの数を返します。
+     *
+     * @return 空きコネクションの数
+     */
+    int getFreePoolSize();
+
+    /**
+     * チェックアウトの回数を返します。
+     *
+     * @return チェックアウトの回数
+     */
+    long getCheckOutCount();
+
+    /**
+     * 空きコネクションを待ってタイムアウトした回数を返します。
+     *
+     * @return タイムアウトの回数
+     */
+    long getTimeoutCount();
+
+    /**
+     * 物理コネクションを作成した回数を返します。
+     *
+     * @return 物理コネクションを作成した回数
+     */
+    long getPhysicalConnectCount();
+
+    /**
+     * 物理コネクションをクローズした回数を返します。
+     *
+     * @return 物理コネクションをクローズした回数
+     */
+    long getPhysicalCloseCount();
+
+    /**
+     * コネクションの検証に失敗した回数を返します。
+     *
+     * @return 検証に失敗した回数
+     */
+    long getValidationFailureCount();
+
+    /**
+     * リークの疑いがある保持時間でチェックインされた回数を返します。
+     *
+     * @return リークの疑いがある保持時間でチェックインされた回数
+     */
+    long getLeakSuspectCount();
+
+    /**
+     * チェックアウトされたままリークの疑いがあるコネクションの数を返します。
+     *
+     * @return リークの疑いがあるコネクションの数
+     */
+    int getCurrentLeakSuspectCount();
+
+    /**
+     * チェックアウト中のコネクションのうち、最も長い保持時間(ミリ秒)を返します。
+     *
+     * @return 最も長い保持時間(ミリ秒)
+     */
+    long getLongestHeldTime();
+
+    /**
+     * チェックアウトの待ち時間の平均値を返します。
+     *
+     * @return チェックアウトの待ち時間の平均値
+     */
+    double getWaitTimeMean();
+
+    /**
+     * チェックアウトの待ち時間の95パーセンタイル値を返します。
+     *
+     * @return チェックアウトの待ち時間の95パーセンタイル値
+     */
+    long getWaitTime95thPercentile();
+
+    /**
+     * チェックアウトの待ち時間の99パーセンタイル値を返します。
+     *
+     * @return チェックアウトの待ち時間の99パーセンタイル値
+     */
+    long getWaitTime99thPercentile();
+
+    /**
+     * チェックアウトの待ち時間の最大値を返します。
+     *
+     * @return チェックアウトの待ち時間の最大値
+     */
+    long getWaitTimeMax();
+
+    /**
+     * 保持時間の平均値を返します。
+     *
+     * @return 保持時間の平均値
+     */
+    double getHoldTimeMean();
+
+    /**
+     * 保持時間の95パーセンタイル値を返します。
+     *
+     * @return 保持時間の95パーセンタイル値
+     */
+    long getHoldTime95thPercentile();
+
+    /**
+     * 保持時間の99パーセンタイル値を返します。
+     *
+     * @return 保持時間の99パーセンタイル値
+     */
+    long getHoldTime99thPercentile();
+
+    /**
+     * 保持時間の最大値を返します。
+     *
+     * @return 保持時間の最大値
+     */
+    long getHoldTimeMax();
+
+    /**
+     * チェックアウトの待ち時間のヒストグラムを文字列の配列で返します。
+     *
+     * @return チェックアウトの待ち時間のヒストグラム
+     */
+    String[] getWaitTimeHistogram();
+
+    /**
+     * 保持時間のヒストグラムを文字列の配列で返します。
+     *
+     * @return 保持時間のヒストグラム
+     */
+    String[] getHoldTimeHistogram();
+
+    /**
+     * チェックアウトされたままリークの疑いがあるコネクションの情報を返します。
+     *
+     * @return リークの疑いがあるコネクションの情報
+     */
+    String[] dumpLeakSuspects();
+
+    /**
+     * チェックアウト中のすべてのコネクションの情報を、チェックアウトした時刻の古い順に返します。
+     *
+     * @return チェックアウト中のコネクションの情報
+     */
+    String[] dumpCheckedOutConnections();
+
+    /**
+     * 統計情報を消去します。
+     */
+    void resetMetrics();
+
+}
@@ -42,4 +42,28 @@ public interface AutoBatchInsert<T> extends BatchUpdate<AutoBatchInsert<T>> {
      */
     AutoBatchInsert<T> excludes(CharSequence... propertyNames);
 
+    /**
+     * 複数行を<code>VALUES</code>句に指定した1つのINSERT文で挿入します。
+     * <p>
+     * 1つのINSERT文で挿入する行数は、バッチ更新のサイズと{@link DbmsDialect#getMaxBindParameterSize()}
+     * を超えないように決定されます。
+     * </p>
+     * <p>
+     * 次の場合は通常のバッチ挿入で実行されます。
+     * </p>
+     * <ul>
+     * <li>{@link DbmsDialect#supportsMultiRowValuesInsert()}が<code>false</code>を返す場合</li>
+     * <li>{@link javax.persistence.GenerationType#IDENTITY}方式で識別子の値を自動生成し、
+     * {@link DbmsDialect#supportsIdentityReturning()}が<code>false</code>を返す場合</li>
+     * </ul>
+     * <p>
+     * {@link DbmsDialect#supportsIdentityReturning()}が<code>true</code>を返す場合、
+     * {@link javax.persistence.GenerationType#IDENTITY}方式で識別子の値を自動生成するエンティティは
+     * このメソッドを呼び出さなくても<code>RETURNING</code>句を付加した複数行のINSERT文で挿入されます。
+     * </p>
+     * 
+     * @return このインスタンス自身
+     */
+    AutoBatchInsert<T> multiRowValues();
+
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+/**
+ * SQLを自動生成するバッチ挿入または更新です。
+ * <p>
+ * 識別子が同じ行が存在しなければエンティティを挿入し、存在すればエンティティの値で更新します。
+ * {@link DbmsDialect#supportsUpsert()}が<code>true</code>の場合
+ * (挿入できても更新できないカラムがある場合は{@link DbmsDialect#supportsPartialUpdateUpsert()}も<code>true</code>の場合)は
+ * <code>merge</code>文などの1つのSQLをバッチ実行し、
+ * そうでない場合はエンティティごとに更新して該当する行がなければ挿入します。
+ * </p>
+ * <p>
+ * 識別子の値はあらかじめ設定しておく必要があります。
+ * バージョンプロパティは他のプロパティと同じようにエンティティの値で挿入または更新され、 バージョンチェックは行われません。
+ * 更新行数はDBMSによって異なります(MySQLでは更新した行は2と数えられます)。
+ * </p>
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public interface AutoBatchInsertOrUpdate<T> extends
+        BatchUpdate<AutoBatchInsertOrUpdate<T>> {
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+import java.io.Serializable;
+import java.util.Calendar;
+
+import org.seasar.extension.jdbc.exception.SWhereClauseEmptyRuntimeException;
+import org.seasar.extension.jdbc.parameter.Parameter;
+
+/**
+ * SQLを自動生成する一括削除です。
+ * <p>
+ * エンティティを検索せずに、where句の条件に一致するすべての行を1つのDELETE文で削除します。
+ * </p>
+ * 
+ * <pre>
+ * int rows = jdbcManager.deleteAll(Order.class)
+ *     .where(new SimpleWhere().lt(&quot;orderDate&quot;, date))
+ *     .execute();
+ * </pre>
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public interface AutoBulkDelete<T> extends Update<AutoBulkDelete<T>> {
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param criteria
+     *            クライテリア
+     * @param params
+     *            パラメータの配列
+     *            <p>
+     *            パラメータの配列の要素が{@link Date}、{@link Calendar}のいずれか場合、
+     *            {@link Parameter}に定義されたメソッドによりパラメータの時制を指定できます。
+     *            </p>
+     *            <p>
+     *            パラメータの配列の要素が{@link String}、<code>ｂyte[]</code>、
+     *            {@link Serializable}のいずれかの場合、{@link Parameter}
+     *            に定義されたメソッドによりパラメータをラージオブジェクトとして扱えます。
+     *            </p>
+     * @return このインスタンス自身
+     * @see Parameter
+     */
+    AutoBulkDelete<T> where(String criteria, Object... params);
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param where
+     *            where句のビルダー
+     * 
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    AutoBulkDelete<T> where(Where where)
+            throws SWhereClauseEmptyRuntimeException;
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param wheres
+     *            where句のビルダーの並び
+     * 
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    AutoBulkDelete<T> where(Where... wheres)
+            throws SWhereClauseEmptyRuntimeException;
+
+    /**
+     * where句の条件がなくてもすべての行を削除することを指定します。
+     * <p>
+     * このメソッドを呼び出さずにwhere句の条件が空のまま実行すると、
+     * 誤ってすべての行を削除しないように{@link SWhereClauseEmptyRuntimeException}をスローします。
+     * where句の条件が空になる可能性がある{@link Where}を指定する場合は、このメソッドを先に呼び出してください。
+     * </p>
+     * 
+     * @return このインスタンス自身
+     */
+    AutoBulkDelete<T> all();
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+import java.io.Serializable;
+import java.util.Calendar;
+
+import org.seasar.extension.jdbc.exception.SWhereClauseEmptyRuntimeException;
+import org.seasar.extension.jdbc.parameter.Parameter;
+
+/**
+ * SQLを自動生成する一括更新です。
+ * <p>
+ * エンティティを検索せずに、where句の条件に一致するすべての行を1つのUPDATE文で更新します。
+ * </p>
+ * 
+ * <pre>
+ * int rows = jdbcManager.updateAll(Order.class)
+ *     .set(&quot;status&quot;, Status.SHIPPED)
+ *     .incrementVersion()
+ *     .where(new SimpleWhere().eq(&quot;status&quot;, Status.PAID))
+ *     .execute();
+ * </pre>
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public interface AutoBulkUpdate<T> extends Update<AutoBulkUpdate<T>> {
+
+    /**
+     * set句に設定するプロパティとその値を指定します。
+     * <p>
+     * 識別子、バージョン、および<code>updatable</code>が<code>false</code>のプロパティは指定できません。
+     * バージョンを増加させる場合は{@link #incrementVersion()}を使用してください。
+     * </p>
+     * 
+     * @param propertyName
+     *            プロパティ名
+     * @param value
+     *            値
+     * @return このインスタンス自身
+     */
+    AutoBulkUpdate<T> set(CharSequence propertyName, Object value);
+
+    /**
+     * バージョンプロパティの値を1増加させます。
+     * 
+     * @return このインスタンス自身
+     */
+    AutoBulkUpdate<T> incrementVersion();
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param criteria
+     *            クライテリア
+     * @param params
+     *            パラメータの配列
+     *            <p>
+     *            パラメータの配列の要素が{@link Date}、{@link Calendar}のいずれか場合、
+     *            {@link Parameter}に定義されたメソッドによりパラメータの時制を指定できます。
+     *            </p>
+     *            <p>
+     *            パラメータの配列の要素が{@link String}、<code>ｂyte[]</code>、
+     *            {@link Serializable}のいずれかの場合、{@link Parameter}
+     *            に定義されたメソッドによりパラメータをラージオブジェクトとして扱えます。
+     *            </p>
+     * @return このインスタンス自身
+     * @see Parameter
+     */
+    AutoBulkUpdate<T> where(String criteria, Object... params);
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param where
+     *            where句のビルダー
+     * 
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    AutoBulkUpdate<T> where(Where where)
+            throws SWhereClauseEmptyRuntimeException;
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param wheres
+     *            where句のビルダーの並び
+     * 
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    AutoBulkUpdate<T> where(Where... wheres)
+            throws SWhereClauseEmptyRuntimeException;
+
+    /**
+     * where句の条件がなくてもすべての行を更新することを指定します。
+     * <p>
+     * このメソッドを呼び出さずにwhere句の条件が空のまま実行すると、
+     * 誤ってすべての行を更新しないように{@link SWhereClauseEmptyRuntimeException}をスローします。
+     * where句の条件が空になる可能性がある{@link Where}を指定する場合は、このメソッドを先に呼び出してください。
+     * </p>
+     * 
+     * @return このインスタンス自身
+     */
+    AutoBulkUpdate<T> all();
+
+}
@@ -19,6 +19,7 @@ import java.io.Serializable;
 import java.util.Calendar;
 import java.util.Map;
 
+import org.seasar.extension.jdbc.exception.NullSeekValueRuntimeException;
 import org.seasar.extension.jdbc.parameter.Parameter;
 
 /**
@@ -737,6 +738,56 @@ public interface AutoSelect<T> extends Select<T, AutoSelect<T>> {
      */
     AutoSelect<T> hint(String hint);
 
+    /**
+     * order by句の項目の値が指定した値より後になる行だけを検索します。
+     * <p>
+     * 前のページの最後の行が持つorder by句の各項目の値を指定すると、
+     * 次のページを先頭から読み飛ばさずに検索できます(キーセットページング)。
+     * {@link #offset(int)}を使うページングと異なり、後ろのページでも検索にかかる時間が増えません。
+     * ページの大きさは{@link #limit(int)}で指定します。
+     * </p>
+     * <p>
+     * order by句の項目は行を一意に識別できる組み合わせにしてください(通常は最後に識別子を含めます)。
+     * 値に<code>null</code>を指定した場合は、検索時に{@link NullSeekValueRuntimeException}をスローします。
+     * </p>
+     * 
+     * @param lastValues
+     *            前のページの最後の行が持つorder by句の各項目の値の並び
+     * @return このインスタンス自身
+     */
+    AutoSelect<T> seekAfter(Object... lastValues);
+
+    /**
+     * キーセットページングで指定した行数ずつ検索し、検索結果を反復します。
+     * <p>
+     * order by句の項目(指定していない場合は識別子)の順に、
+     * 前回検索した最後のエンティティの値より後になる行を<code>chunkSize</code>行ずつ検索します。
+     * 検索ごとに結果セットを閉じるため、大きなテーブル全体を長時間カーソルを開いたままにせずに処理できます。
+     * </p>
+     * <p>
+     * order by句に識別子が含まれていない場合は、行を一意に識別できるように識別子をorder by句の末尾に追加します。
+     * {@link #seekAfter(Object...)}で最初の位置を指定する場合は、追加された識別子の値も指定してください。
+     * </p>
+     * <p>
+     * order by句の項目はベースのエンティティのプロパティでなければなりません。
+     * 値が<code>null</code>になる項目は指定できません。
+     * 検索した最後のエンティティの値が<code>null</code>の場合は{@link NullSeekValueRuntimeException}をスローします。
+     * {@link #limit(int)}と{@link #offset(int)}は無視されます。
+     * 1対多の関連をフェッチする結合を指定した場合、検索ごとの行数はエンティティの数と一致しないため、
+     * このメソッドを使うことはできません。
+     * </p>
+     * 
+     * @param <RESULT>
+     *            反復コールバックの戻り値の型
+     * @param chunkSize
+     *            1回に検索する行数
+     * @param callback
+     *            反復コールバック
+     * @return 最後に呼び出した反復コールバックの戻り値
+     */
+    <RESULT> RESULT iterateInChunks(int chunkSize,
+            IterationCallback<T, RESULT> callback);
+
     /**
      * SELECT COUNT(*)の結果である行数を返します。
      * 
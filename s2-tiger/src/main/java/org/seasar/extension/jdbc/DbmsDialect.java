@@ -190,6 +190,34 @@ public interface DbmsDialect {
      */
     boolean supportsGetGeneratedKeys();
 
+    /**
+     * 識別子が{@link GenerationType#IDENTITY}で自動生成される場合に、 バッチ更新で生成されたすべての主キーの値を
+     * {@link Statement#getGeneratedKeys()}で取得できる場合は<code>true</code>を返します。
+     * 
+     * @return バッチ更新で生成されたすべての主キーの値を{@link Statement#getGeneratedKeys()}で取得できる場合は
+     *         <code>true</code>
+     */
+    boolean supportsBatchGetGeneratedKeys();
+
+    /**
+     * 識別子が{@link GenerationType#IDENTITY}で自動生成される場合に、 生成された主キーの値を
+     * INSERT文の<code>RETURNING</code>句で取得できる場合は<code>true</code>を返します。
+     * 
+     * @return 生成された主キーの値をINSERT文の<code>RETURNING</code>句で取得できる場合は
+     *         <code>true</code>
+     */
+    boolean supportsIdentityReturning();
+
+    /**
+     * INSERT文に付加する、生成された主キーの値を返す<code>RETURNING</code>句のSQLを返します。
+     * 
+     * @param columnName
+     *            識別子のカラム名
+     * @return INSERT文に付加する<code>RETURNING</code>句のSQL
+     * @see #supportsIdentityReturning()
+     */
+    String getIdentityReturningString(String columnName);
+
     /**
      * 識別子が{@link GenerationType#IDENTITY}で自動生成される場合に、 生成された主キーの値を取得するSQLを返します。
      * 
@@ -233,6 +261,105 @@ public interface DbmsDialect {
      */
     boolean supportsBatchUpdateResults();
 
+    /**
+     * INSERT文の<code>VALUES</code>句に複数行を指定できる場合は<code>true</code>を返します。
+     * 
+     * @return INSERT文の<code>VALUES</code>句に複数行を指定できる場合は<code>true</code>
+     */
+    boolean supportsMultiRowValuesInsert();
+
+    /**
+     * <code>(a, b) &gt; (?, ?)</code>のような行値式の大小比較を正しく評価できる場合は<code>true</code>を返します。
+     * 
+     * @return 行値式の大小比較を正しく評価できる場合は<code>true</code>
+     */
+    boolean supportsRowValueComparison();
+
+    /**
+     * <code>count(*) over()</code>のようなウィンドウ関数をサポートしている場合は<code>true</code>を返します。
+     * 
+     * @return ウィンドウ関数をサポートしている場合は<code>true</code>
+     */
+    boolean supportsWindowFunction();
+
+    /**
+     * 結果セットをメモリに読み込まずに逐次取得する場合のフェッチサイズを返します。
+     * <p>
+     * {@link Select#iterate(IterationCallback)}でフェッチサイズが指定されていない場合に使われます。
+     * MySQLのように負の値(<code>Integer.MIN_VALUE</code>)で逐次取得を指定するJDBCドライバもあります。
+     * </p>
+     * 
+     * @return 逐次取得する場合のフェッチサイズ、JDBCドライバのデフォルトを使う場合は<code>0</code>
+     */
+    int getStreamingFetchSize();
+
+    /**
+     * 結果セットを逐次取得するためにオートコミットを無効にする必要がある場合は<code>true</code>を返します。
+     * 
+     * @return 結果セットを逐次取得するためにオートコミットを無効にする必要がある場合は<code>true</code>
+     */
+    boolean needsNoAutoCommitForStreaming();
+
+    /**
+     * 行が存在しなければ挿入し、存在すれば更新する1つのSQL(UPSERT)をサポートしている場合は<code>true</code>を返します。
+     * 
+     * @return UPSERTをサポートしている場合は<code>true</code>
+     */
+    boolean supportsUpsert();
+
+    /**
+     * 挿入するカラムのうち一部のカラムだけを更新するUPSERTをサポートしている場合は<code>true</code>を返します。
+     * <p>
+     * <code>false</code>の場合、挿入できても更新できないカラムがあるエンティティは、
+     * UPSERTを使用せずに更新して行が存在しなければ挿入します。
+     * </p>
+     * 
+     * @return 一部のカラムだけを更新するUPSERTをサポートしている場合は<code>true</code>
+     * @see #supportsUpsert()
+     */
+    boolean supportsPartialUpdateUpsert();
+
+    /**
+     * 行が存在しなければ挿入し、存在すれば更新するSQLを返します。
+     * <p>
+     * 返されるSQLのバインド変数は、<code>columnNames</code>の順に挿入する値を指定します。
+     * 行が存在した場合は、<code>updateColumnNames</code>のカラムを挿入しようとした値で更新します。
+     * </p>
+     * 
+     * @param tableName
+     *            テーブル名
+     * @param columnNames
+     *            挿入するカラム名の配列
+     * @param keyColumnNames
+     *            行を識別するキーのカラム名の配列
+     * @param updateColumnNames
+     *            行が存在した場合に更新するカラム名の配列
+     * @return 挿入または更新するSQL
+     * @throws UnsupportedOperationException
+     *             UPSERTをサポートしていない場合、または一部のカラムだけを更新するUPSERTをサポートしていない場合に
+     *             <code>updateColumnNames</code>に含まれない挿入するカラムがある場合
+     * @see #supportsUpsert()
+     * @see #supportsPartialUpdateUpsert()
+     */
+    String getUpsertSql(String tableName, String[] columnNames,
+            String[] keyColumnNames, String[] updateColumnNames)
+            throws UnsupportedOperationException;
+
+    /**
+     * 1つのSQLにバインドできるパラメータ数の上限を返します。
+     * 
+     * @return 1つのSQLにバインドできるパラメータ数の上限、制限がない場合は<code>0</code>
+     */
+    int getMaxBindParameterSize();
+
+    /**
+     * SQLの実行に失敗するとトランザクション全体が中断されるため、
+     * 同じトランザクションで処理を続けるには失敗したSQLの前に設定したセーブポイントまでロールバックする必要がある場合は<code>true</code>を返します。
+     * 
+     * @return 失敗したSQLの後で処理を続けるにはセーブポイントまでロールバックする必要がある場合は<code>true</code>
+     */
+    boolean needsSavepointForRetry();
+
     /**
      * 一意制約違反を原因とする例外であれば<code>true</code>を返します。
      * 
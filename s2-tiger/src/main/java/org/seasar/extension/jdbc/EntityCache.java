@@ -0,0 +1,93 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+import org.seasar.extension.jdbc.annotation.Cacheable;
+
+/**
+ * エンティティのキャッシュです。
+ * <p>
+ * {@link Cacheable}で注釈されたエンティティを識別子をキーにしてキャッシュします。
+ * キャッシュには検索したエンティティのコピーが格納され、 取得するたびに新しいコピーが返されるため、
+ * 返されたエンティティを変更してもキャッシュには影響しません。
+ * </p>
+ * <p>
+ * 別のスレッドによる検索と更新が並行した場合に古いエンティティがキャッシュされないように、
+ * エンティティごとに破棄された回数を数えます。 検索前に取得した回数と格納時の回数が異なる場合、
+ * エンティティはキャッシュに格納されません。
+ * </p>
+ */
+public interface EntityCache {
+
+    /**
+     * キャッシュされたエンティティのコピーを返します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param idValues
+     *            識別子の値の配列
+     * @return キャッシュされたエンティティのコピー、 キャッシュされていない場合は<code>null</code>
+     */
+    Object get(EntityMeta entityMeta, Object[] idValues);
+
+    /**
+     * エンティティがキャッシュから破棄された回数を返します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @return エンティティがキャッシュから破棄された回数
+     */
+    long getEvictionCount(EntityMeta entityMeta);
+
+    /**
+     * エンティティのコピーをキャッシュに格納します。
+     * <p>
+     * <code>evictionCount</code>が現在の破棄された回数と異なる場合は格納しません。
+     * </p>
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param entity
+     *            エンティティ
+     * @param evictionCount
+     *            検索前に{@link #getEvictionCount(EntityMeta)}で取得した破棄された回数
+     */
+    void put(EntityMeta entityMeta, Object entity, long evictionCount);
+
+    /**
+     * エンティティをキャッシュから破棄します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param entity
+     *            エンティティ
+     */
+    void evict(EntityMeta entityMeta, Object entity);
+
+    /**
+     * エンティティクラスのすべてのエンティティをキャッシュから破棄します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     */
+    void evictAll(EntityMeta entityMeta);
+
+    /**
+     * すべてのエンティティをキャッシュから破棄します。
+     */
+    void clear();
+
+}
@@ -85,6 +85,21 @@ public class EntityMeta {
      */
     protected volatile boolean relationshipResolved = false;
 
+    /**
+     * キャッシュの対象かどうかです。
+     */
+    protected boolean cacheable;
+
+    /**
+     * キャッシュするエンティティの最大数です。
+     */
+    protected int cacheMaxSize;
+
+    /**
+     * キャッシュしたエンティティの有効期間(ミリ秒)です。
+     */
+    protected long cacheTimeToLive;
+
     /**
      * {@link EntityMeta}を作成します。
      */
@@ -421,6 +436,63 @@ public class EntityMeta {
         this.relationshipResolved = relationshipResolved;
     }
 
+    /**
+     * キャッシュの対象かどうかを返します。
+     * 
+     * @return キャッシュの対象かどうか
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * キャッシュの対象かどうかを設定します。
+     * 
+     * @param cacheable
+     *            キャッシュの対象かどうか
+     */
+    public void setCacheable(boolean cacheable) {
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * キャッシュするエンティティの最大数を返します。
+     * 
+     * @return キャッシュするエンティティの最大数
+     */
+    public int getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    /**
+     * キャッシュするエンティティの最大数を設定します。
+     * 
+     * @param cacheMaxSize
+     *            キャッシュするエンティティの最大数
+     */
+    public void setCacheMaxSize(int cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * キャッシュしたエンティティの有効期間(ミリ秒)を返します。
+     * 
+     * @return キャッシュしたエンティティの有効期間(ミリ秒)、<code>0</code>の場合は無期限
+     */
+    public long getCacheTimeToLive() {
+        return cacheTimeToLive;
+    }
+
+    /**
+     * キャッシュしたエンティティの有効期間(ミリ秒)を設定します。
+     * 
+     * @param cacheTimeToLive
+     *            キャッシュしたエンティティの有効期間(ミリ秒)、<code>0</code>の場合は無期限
+     */
+    public void setCacheTimeToLive(long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
     /**
      * 名前に対応した追加情報を返します。
      * 
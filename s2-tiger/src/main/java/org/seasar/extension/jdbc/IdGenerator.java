@@ -16,6 +16,7 @@
 package org.seasar.extension.jdbc;
 
 import java.sql.Statement;
+import java.util.List;
 
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 
@@ -45,6 +46,16 @@ public interface IdGenerator {
      */
     boolean useGetGeneratedKeys(JdbcManagerImplementor jdbcManager);
 
+    /**
+     * バッチ更新で生成された識別子の値をINSERT文の<code>RETURNING</code>句で取得する場合は<code>true</code>を返します。
+     * 
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @return バッチ更新で生成された識別子の値をINSERT文の<code>RETURNING</code>句で取得する場合は
+     *         <code>true</code>
+     */
+    boolean useReturning(JdbcManagerImplementor jdbcManager);
+
     /**
      * 自動生成される識別子をINSERT文に含める場合は<code>true</code>を返します。
      * 
@@ -83,4 +94,19 @@ public interface IdGenerator {
     void postInsert(JdbcManagerImplementor jdbcManager, Object entity,
             Statement statement, SqlLogger sqlLogger);
 
+    /**
+     * バッチ更新によるINSERTの実行後処理を行います。
+     * 
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entities
+     *            INSERT対象のエンティティのリスト
+     * @param statement
+     *            INSERT文をバッチ実行した{@link Statement}
+     * @param sqlLogger
+     *            SQLのロガー
+     */
+    void postInsertBatch(JdbcManagerImplementor jdbcManager,
+            List<?> entities, Statement statement, SqlLogger sqlLogger);
+
 }
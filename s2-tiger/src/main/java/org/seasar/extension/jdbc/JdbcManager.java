@@ -241,6 +241,46 @@ public interface JdbcManager {
      */
     <T> AutoBatchUpdate<T> updateBatch(List<T> entities);
 
+    /**
+     * 自動挿入または更新を作成します。
+     * <p>
+     * 識別子が同じ行が存在しなければエンティティを挿入し、存在すれば更新します。
+     * DBMSがサポートしていれば、<code>merge</code>文などの1つのSQLで実行します。
+     * </p>
+     * 
+     * @param <T>
+     *            挿入または更新するエンティティの型です。
+     * @param entity
+     *            エンティティ
+     * @return 自動挿入または更新
+     * @see AutoInsertOrUpdate
+     */
+    <T> AutoInsertOrUpdate<T> insertOrUpdate(T entity);
+
+    /**
+     * 自動バッチ挿入または更新を作成します。
+     * 
+     * @param <T>
+     *            挿入または更新するエンティティの型です。
+     * @param entities
+     *            エンティティの並び
+     * @return 自動バッチ挿入または更新
+     * @see AutoBatchInsertOrUpdate
+     */
+    <T> AutoBatchInsertOrUpdate<T> insertOrUpdateBatch(T... entities);
+
+    /**
+     * 自動バッチ挿入または更新を作成します。
+     * 
+     * @param <T>
+     *            挿入または更新するエンティティの型です。
+     * @param entities
+     *            エンティティのリスト
+     * @return 自動バッチ挿入または更新
+     * @see AutoBatchInsertOrUpdate
+     */
+    <T> AutoBatchInsertOrUpdate<T> insertOrUpdateBatch(List<T> entities);
+
     /**
      * SQL更新を返します。
      * 
@@ -376,6 +416,71 @@ public interface JdbcManager {
      */
     <T> AutoBatchDelete<T> deleteBatch(List<T> entities);
 
+    /**
+     * 自動一括更新を作成します。
+     * <p>
+     * エンティティを検索せずに、where句の条件に一致する行を1つのUPDATE文でまとめて更新します。
+     * 更新した行はエンティティのキャッシュから破棄されます。
+     * where句の条件を指定せずにすべての行を更新する場合は{@link AutoBulkUpdate#all()}を呼び出します。
+     * </p>
+     * 
+     * <pre>
+     * jdbcManager.updateAll(Order.class).set(&quot;status&quot;, Status.SHIPPED)
+     *         .incrementVersion().where(
+     *                 new SimpleWhere().eq(&quot;status&quot;, Status.PAID))
+     *         .execute();
+     * </pre>
+     * 
+     * @param <T>
+     *            更新するエンティティの型です。
+     * @param entityClass
+     *            エンティティクラス
+     * @return 自動一括更新
+     */
+    <T> AutoBulkUpdate<T> updateAll(Class<T> entityClass);
+
+    /**
+     * 自動一括削除を作成します。
+     * <p>
+     * エンティティを検索せずに、where句の条件に一致する行を1つのDELETE文でまとめて削除します。
+     * 削除した行はエンティティのキャッシュから破棄されます。
+     * where句の条件を指定せずにすべての行を削除する場合は{@link AutoBulkDelete#all()}を呼び出します。
+     * </p>
+     * 
+     * @param <T>
+     *            削除するエンティティの型です。
+     * @param entityClass
+     *            エンティティクラス
+     * @return 自動一括削除
+     */
+    <T> AutoBulkDelete<T> deleteAll(Class<T> entityClass);
+
+    /**
+     * 検索済みのエンティティのリストに関連エンティティを設定します。
+     * <p>
+     * 関連エンティティは結合を使わずに、関連元のエンティティの結合カラムの値を<code>IN</code>述語に指定した別のSQLで検索します。
+     * 検索するキーが多い場合はSQLを分割して実行します。 結合して検索した場合と同じように、逆側の関連も設定されます。
+     * </p>
+     * <p>
+     * 戻り値の関連エンティティのリストを引数にしてこのメソッドを呼び出すと、さらに先の関連を設定できます。
+     * </p>
+     * 
+     * <pre>
+     * List&lt;Employee&gt; employees = jdbcManager.from(Employee.class).limit(100)
+     *         .getResultList();
+     * List&lt;?&gt; departments = jdbcManager.fetchRelationship(employees,
+     *         &quot;department&quot;);
+     * jdbcManager.fetchRelationship(departments, &quot;addresses&quot;);
+     * </pre>
+     * 
+     * @param entities
+     *            エンティティのリスト
+     * @param propertyName
+     *            関連のプロパティ名
+     * @return 検索した関連エンティティのリスト
+     */
+    List<?> fetchRelationship(List<?> entities, String propertyName);
+
     /**
      * 自動プロシージャ呼び出しを返します。
      * 
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * ページングした検索結果と、ページングを指定しない場合の行数です。
+ * 
+ * @param <T>
+ *            要素の型
+ * @see Select#getPagedResult()
+ */
+public class PagedResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 検索結果のリストです。
+     */
+    protected final List<T> resultList;
+
+    /**
+     * ページングを指定しない場合の行数です。
+     */
+    protected final long totalCount;
+
+    /**
+     * {@link PagedResult}を作成します。
+     * 
+     * @param resultList
+     *            検索結果のリスト
+     * @param totalCount
+     *            ページングを指定しない場合の行数
+     */
+    public PagedResult(final List<T> resultList, final long totalCount) {
+        this.resultList = resultList;
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * 検索結果のリストを返します。
+     * 
+     * @return 検索結果のリスト
+     */
+    public List<T> getResultList() {
+        return resultList;
+    }
+
+    /**
+     * ページングを指定しない場合の行数を返します。
+     * 
+     * @return ページングを指定しない場合の行数
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+}
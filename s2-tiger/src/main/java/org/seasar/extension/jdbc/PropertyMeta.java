@@ -86,6 +86,11 @@ public class PropertyMeta {
      */
     protected IdGenerator tableIdGenerator;
 
+    /**
+     * {@link org.seasar.extension.jdbc.annotation.TimeBasedGenerator}で識別子を自動生成するIDジェネレータです。
+     */
+    protected IdGenerator timeBasedIdGenerator;
+
     /**
      * フェッチタイプです。
      */
@@ -283,6 +288,9 @@ public class PropertyMeta {
      * @return 識別子を自動生成するIDジェネレータ
      */
     public IdGenerator getIdGenerator(EntityMeta entityMeta, DbmsDialect dialect) {
+        if (timeBasedIdGenerator != null) {
+            return timeBasedIdGenerator;
+        }
         switch (generationType == GenerationType.AUTO ? dialect
                 .getDefaultGenerationType() : generationType) {
         case IDENTITY:
@@ -333,6 +341,19 @@ public class PropertyMeta {
         tableIdGenerator = idGenerator;
     }
 
+    /**
+     * {@link org.seasar.extension.jdbc.annotation.TimeBasedGenerator}で識別子を自動生成するIDジェネレータを設定します。
+     * <p>
+     * 設定された場合は{@link #getGenerationType()}に関わらずこのIDジェネレータが使用されます。
+     * </p>
+     * 
+     * @param idGenerator
+     *            {@link org.seasar.extension.jdbc.annotation.TimeBasedGenerator}で識別子を自動生成するIDジェネレータ
+     */
+    public void setTimeBasedIdGenerator(IdGenerator idGenerator) {
+        timeBasedIdGenerator = idGenerator;
+    }
+
     /**
      * フェッチタイプを返します。
      * 
@@ -121,6 +121,24 @@ public interface Select<T, S extends Select<T, S>> extends Query<S> {
      */
     List<T> getResultList() throws OrderByNotFoundRuntimeException;
 
+    /**
+     * 検索してベースオブジェクトのリストと、ページングを指定しない場合の行数を返します。
+     * <p>
+     * 一覧画面のように{@link #limit(int)}と{@link #offset(int)}で取得したページと総行数を同時に必要とする場合に使用します。
+     * DBMSがウィンドウ関数をサポートしていて、クエリが対応している場合は、
+     * 選択リストに<code>count(*) over()</code>を追加して1回の検索でページと総行数を取得します。
+     * それ以外の場合や、ページに行がなかった場合は、総行数を求めるSQLを続けて実行します。
+     * </p>
+     * 
+     * @return ベースオブジェクトのリストと、ページングを指定しない場合の行数
+     * @throws OrderByNotFoundRuntimeException
+     *             ページング処理で<code>order by</code>が見つからない場合
+     * @throws NoResultException
+     *             {@link #disallowNoResult()}が呼び出された場合で、検索結果がなかった場合
+     * @see DbmsDialect#supportsWindowFunction()
+     */
+    PagedResult<T> getPagedResult() throws OrderByNotFoundRuntimeException;
+
     /**
      * 検索してベースオブジェクトを返します。
      * 
@@ -145,9 +163,20 @@ public interface Select<T, S extends Select<T, S>> extends Query<S> {
      * {@link IterationCallback#iterate(Object, IterationContext)}メソッドに通知されます。
      * 問い合わせ結果全体のリストを作成しないため、 問い合わせ結果が膨大になる場合でもメモリ消費量を抑えることが出来ます。
      * </p>
+     * <p>
+     * {@link #fetchSize(int)}を指定していない場合は、方言が返す逐次取得用のフェッチサイズ({@link DbmsDialect#getStreamingFetchSize()})を使用します。
+     * MySQLで逐次取得を有効にした場合({@link org.seasar.extension.jdbc.dialect.MysqlDialect#setUseStreamingResultSet(boolean)})は、
+     * 反復が終わるまで同じコネクションで他のSQLを実行することは出来ません。
+     * コールバックの中でSQLを実行する場合は、{@link #fetchSize(int)}で正のフェッチサイズを指定して逐次取得を無効にしてください。
+     * </p>
      * <h4>SQL自動生成による問い合わせの場合</h4>
      * <p>
      * 問い合わせ結果は基点となるエンティティでソートされている必要があります．
+     * 1対多の関連をフェッチする場合は、基点となるエンティティの識別子が、
+     * order by句で基点となるエンティティ以外の項目より前に自動的に追加されます。
+     * 基点となるエンティティが変わるたびにマッピング中の状態は破棄されるため、
+     * 反復中に保持されるのは1つの基点となるエンティティとその関連だけになります。
+     * 関連エンティティのプロパティによる並び順は、基点となるエンティティごとの中でだけ適用されます。
      * 基点となるエンティティがAで、1対多の関連を持つエンティティBを結合した問い合わせの場合、 結果セットは以下のような並びでなくてはなりません。
      * </p>
      * <table border="1">
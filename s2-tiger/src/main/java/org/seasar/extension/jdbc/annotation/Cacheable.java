@@ -0,0 +1,43 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * エンティティをキャッシュの対象にすることを表します。
+ * <p>
+ * このアノテーションで注釈されたエンティティは、
+ * JDBCマネージャに{@link org.seasar.extension.jdbc.EntityCache}が設定されている場合に、
+ * 識別子による検索の結果がキャッシュされます。
+ * キャッシュされたエンティティはS2JDBCによる更新や削除のたびに破棄されます。
+ * SQLやSQLファイルによる更新はキャッシュに反映されないため、
+ * マスタテーブルなど変更の少ないエンティティにだけ指定してください。
+ * </p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target( { ElementType.TYPE })
+public @interface Cacheable {
+
+    /** キャッシュするエンティティの最大数 */
+    int maxSize() default 1000;
+
+    /** キャッシュしたエンティティの有効期間(秒)、<code>0</code>の場合は無期限 */
+    int timeToLive() default 0;
+}
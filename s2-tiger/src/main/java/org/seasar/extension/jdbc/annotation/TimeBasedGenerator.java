@@ -0,0 +1,64 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * データベースにアクセスせずに時刻順の識別子を生成するIDジェネレータを定義します。
+ * <p>
+ * {@link javax.persistence.GeneratedValue#generator()}にこのアノテーションの{@link #name()}を指定すると、
+ * {@link javax.persistence.GeneratedValue#strategy()}に関わらず
+ * {@link org.seasar.extension.jdbc.id.TimeBasedIdGenerator}で識別子が生成されます。
+ * 識別子のプロパティの型は<code>long</code>または{@link Long}でなければなりません。
+ * </p>
+ * <p>
+ * 生成される識別子は、上位ビットから順にエポックからの経過ミリ秒、ノードID、 同じミリ秒内のシーケンスで構成される正の64ビット整数です。
+ * 複数のプロセスで同じテーブルに挿入する場合は、プロセスごとに異なるノードIDを指定してください。
+ * </p>
+ * 
+ * <pre>
+ * &#064;Id
+ * &#064;GeneratedValue(generator = &quot;timeBased&quot;)
+ * &#064;TimeBasedGenerator(name = &quot;timeBased&quot;)
+ * public Long id;
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target( { ElementType.TYPE, ElementType.FIELD })
+public @interface TimeBasedGenerator {
+
+    /** ジェネレータ名 */
+    String name();
+
+    /**
+     * ノードID、負の場合はシステムプロパティ
+     * <code>org.seasar.extension.jdbc.id.nodeId</code>の値(指定されていない場合は<code>0</code>)
+     */
+    int nodeId() default -1;
+
+    /** エポック(1970-01-01T00:00:00Zからのミリ秒) */
+    long epoch() default 1262304000000L;
+
+    /** ノードIDのビット数 */
+    int nodeBits() default 10;
+
+    /** 同じミリ秒内のシーケンスのビット数 */
+    int sequenceBits() default 12;
+}
@@ -33,4 +33,19 @@ public class Db2390Dialect extends Db2Dialect {
 		return convertLimitOnlySql(sql, offset + limit);
 
 	}
+
+	@Override
+	public boolean supportsMultiRowValuesInsert() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsUpsert() {
+		return false;
+	}
+
+	@Override
+	public boolean supportsWindowFunction() {
+		return false;
+	}
 }
\ No newline at end of file
@@ -128,4 +128,47 @@ public class Db2Dialect extends StandardDialect {
         return uniqueConstraintViolationCode.equals(state);
     }
 
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxBindParameterSize() {
+        return 32767;
+    }
+
+    @Override
+    public boolean supportsWindowFunction() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        final StringBuilder buf = new StringBuilder(100);
+        buf.append("(values (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("?");
+        }
+        buf.append(")) S_ (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(columnNames[i]);
+        }
+        buf.append(")");
+        return getMergeSql(tableName, buf.toString(), columnNames,
+                keyColumnNames, updateColumnNames);
+    }
 }
@@ -17,6 +17,8 @@ package org.seasar.extension.jdbc.dialect;
 
 import javax.persistence.GenerationType;
 
+import org.seasar.framework.message.MessageFormatter;
+
 /**
  * H2用の方言をあつかうクラスです。
  * 
@@ -102,4 +104,58 @@ public class H2Dialect extends StandardDialect {
         return false;
     }
 
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsPartialUpdateUpsert() {
+        return false;
+    }
+
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        if (columnNames.length != keyColumnNames.length
+                + updateColumnNames.length) {
+            throw new UnsupportedOperationException(MessageFormatter
+                    .getMessage("ESSR0775", new Object[] { getClass()
+                            .getName() }));
+        }
+        final StringBuilder buf = new StringBuilder(100);
+        buf.append("merge into ").append(tableName).append(" (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(columnNames[i]);
+        }
+        buf.append(") key (");
+        for (int i = 0; i < keyColumnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(keyColumnNames[i]);
+        }
+        buf.append(") values (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("?");
+        }
+        return buf.append(")").toString();
+    }
 }
@@ -50,4 +50,9 @@ public class Mssql2005Dialect extends MssqlDialect {
         }
         return false;
     }
+
+    @Override
+    public boolean supportsWindowFunction() {
+        return true;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.dialect;
+
+/**
+ * MS SQLServer 2008以降用の方言をあつかうクラスです。
+ */
+public class Mssql2008Dialect extends Mssql2005Dialect {
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    /**
+     * <code>MERGE</code>文によるUPSERTのSQLを返します。
+     * <p>
+     * 同時に実行された<code>MERGE</code>文がどちらも<code>INSERT</code>を選択して
+     * 一意制約違反にならないように、対象テーブルに<code>HOLDLOCK</code>ヒントを指定します。
+     * </p>
+     */
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        return getMergeSql(tableName + " with (holdlock)", "("
+                + getSelectParamsSql(columnNames) + ") S_", columnNames,
+                keyColumnNames, updateColumnNames)
+                + ";";
+    }
+}
@@ -20,6 +20,8 @@ import java.util.Set;
 
 import javax.persistence.GenerationType;
 
+import org.seasar.extension.jdbc.IterationCallback;
+import org.seasar.extension.jdbc.Select;
 import org.seasar.framework.util.tiger.CollectionsUtil;
 
 /**
@@ -36,6 +38,9 @@ public class MysqlDialect extends StandardDialect {
     protected static final Set<Integer> uniqueConstraintViolationCode = CollectionsUtil
             .newHashSet(Arrays.asList(1022, 1062));
 
+    /** 結果セットを逐次取得する場合は{@literal true} */
+    protected boolean useStreamingResultSet = false;
+
     @Override
     public String getName() {
         return "mysql";
@@ -84,6 +89,11 @@ public class MysqlDialect extends StandardDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsBatchGetGeneratedKeys() {
+        return true;
+    }
+
     @Override
     public boolean isUniqueConstraintViolation(Throwable t) {
         final Integer code = getErrorCode(t);
@@ -92,4 +102,75 @@ public class MysqlDialect extends StandardDialect {
         }
         return false;
     }
+
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return useStreamingResultSet ? Integer.MIN_VALUE : 0;
+    }
+
+    /**
+     * 結果セットを逐次取得する場合は{@literal true}を返します。
+     * 
+     * @return 結果セットを逐次取得する場合は{@literal true}
+     */
+    public boolean isUseStreamingResultSet() {
+        return useStreamingResultSet;
+    }
+
+    /**
+     * 結果セットを逐次取得する場合は{@literal true}を設定します。
+     * <p>
+     * {@literal true}を設定すると、{@link Select#iterate(IterationCallback)}はフェッチサイズに
+     * <code>Integer.MIN_VALUE</code>を設定して結果セットをメモリに読み込まずに逐次取得します。
+     * MySQLのJDBCドライバは逐次取得中の結果セットを閉じるまで同じコネクションで他のSQLを実行できないため、
+     * 反復コールバックの中でSQLを実行する問い合わせでは{@link Select#fetchSize(int)}で正のフェッチサイズを指定してください。
+     * </p>
+     * 
+     * @param useStreamingResultSet
+     *            結果セットを逐次取得する場合は{@literal true}
+     */
+    public void setUseStreamingResultSet(boolean useStreamingResultSet) {
+        this.useStreamingResultSet = useStreamingResultSet;
+    }
+
+    @Override
+    public int getMaxBindParameterSize() {
+        return 65535;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        final StringBuilder buf = new StringBuilder(200);
+        buf.append(getInsertSql(tableName, columnNames)).append(
+                " on duplicate key update ");
+        if (updateColumnNames.length == 0) {
+            return buf.append(keyColumnNames[0]).append(" = ").append(
+                    keyColumnNames[0]).toString();
+        }
+        for (int i = 0; i < updateColumnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(updateColumnNames[i]).append(" = values(").append(
+                    updateColumnNames[i]).append(")");
+        }
+        return buf.toString();
+    }
 }
@@ -293,4 +293,27 @@ public class OracleDialect extends StandardDialect {
         return false;
     }
 
+    @Override
+    public boolean supportsWindowFunction() {
+        return true;
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return 500;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        return getMergeSql(tableName, "(" + getSelectParamsSql(columnNames)
+                + " from dual) S_", columnNames, keyColumnNames,
+                updateColumnNames);
+    }
 }
@@ -38,4 +38,9 @@ public class Postgre81Dialect extends PostgreDialect {
         return type == SelectForUpdateType.NOWAIT ? sql + " nowait" : sql;
     }
 
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return false;
+    }
+
 }
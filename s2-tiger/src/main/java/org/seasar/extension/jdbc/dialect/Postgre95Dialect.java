@@ -0,0 +1,85 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.dialect;
+
+/**
+ * PostgreSQL9.5以降用の方言をあつかうクラスです。
+ * <p>
+ * <code>INSERT ... ON CONFLICT</code>によるUPSERTと、<code>INSERT ... RETURNING</code>
+ * による生成された識別子のまとめての取得をサポートします。
+ * </p>
+ */
+public class Postgre95Dialect extends Postgre81Dialect {
+
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsWindowFunction() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsIdentityReturning() {
+        return true;
+    }
+
+    @Override
+    public String getIdentityReturningString(final String columnName) {
+        return " returning " + columnName;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        final StringBuilder buf = new StringBuilder(200);
+        buf.append(getInsertSql(tableName, columnNames)).append(
+                " on conflict (");
+        for (int i = 0; i < keyColumnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(keyColumnNames[i]);
+        }
+        buf.append(")");
+        if (updateColumnNames.length == 0) {
+            return buf.append(" do nothing").toString();
+        }
+        buf.append(" do update set ");
+        for (int i = 0; i < updateColumnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(updateColumnNames[i]).append(" = excluded.").append(
+                    updateColumnNames[i]);
+        }
+        return buf.toString();
+    }
+
+}
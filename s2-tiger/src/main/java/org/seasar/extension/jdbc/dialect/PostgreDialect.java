@@ -201,6 +201,16 @@ public class PostgreDialect extends StandardDialect {
         return uniqueConstraintViolationCode.equals(state);
     }
 
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxBindParameterSize() {
+        return 32767;
+    }
+
     /**
      * {@link Blob}を扱うトレイトです。
      * 
@@ -312,4 +322,18 @@ public class PostgreDialect extends StandardDialect {
 
     }
 
+    @Override
+    public int getStreamingFetchSize() {
+        return 500;
+    }
+
+    @Override
+    public boolean needsNoAutoCommitForStreaming() {
+        return true;
+    }
+
+    @Override
+    public boolean needsSavepointForRetry() {
+        return true;
+    }
 }
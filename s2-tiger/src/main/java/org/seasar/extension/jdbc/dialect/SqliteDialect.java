@@ -75,4 +75,14 @@ public class SqliteDialect extends StandardDialect {
         return false;
     }
 
+    @Override
+    public boolean supportsMultiRowValuesInsert() {
+        return true;
+    }
+
+    @Override
+    public int getMaxBindParameterSize() {
+        return 999;
+    }
+
 }
@@ -38,6 +38,7 @@ import org.seasar.extension.jdbc.WhereClause;
 import org.seasar.extension.jdbc.exception.OrderByNotFoundRuntimeException;
 import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.jdbc.util.QueryTokenizer;
+import org.seasar.framework.message.MessageFormatter;
 import org.seasar.framework.util.StringUtil;
 import org.seasar.framework.util.tiger.CollectionsUtil;
 import org.seasar.framework.util.tiger.Pair;
@@ -200,10 +201,172 @@ public class StandardDialect implements DbmsDialect {
         return 0;
     }
 
+    public boolean supportsBatchGetGeneratedKeys() {
+        return false;
+    }
+
+    public boolean supportsIdentityReturning() {
+        return false;
+    }
+
+    public String getIdentityReturningString(final String columnName) {
+        return null;
+    }
+
     public boolean supportsBatchUpdateResults() {
         return true;
     }
 
+    public boolean supportsMultiRowValuesInsert() {
+        return false;
+    }
+
+    public boolean supportsRowValueComparison() {
+        return false;
+    }
+
+    public boolean supportsWindowFunction() {
+        return false;
+    }
+
+    public int getStreamingFetchSize() {
+        return 0;
+    }
+
+    public boolean needsNoAutoCommitForStreaming() {
+        return false;
+    }
+
+    public boolean supportsUpsert() {
+        return false;
+    }
+
+    public boolean supportsPartialUpdateUpsert() {
+        return supportsUpsert();
+    }
+
+    public boolean needsSavepointForRetry() {
+        return false;
+    }
+
+    public String getUpsertSql(final String tableName,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        throw new UnsupportedOperationException(MessageFormatter.getMessage(
+                "ESSR0774", new Object[] { getClass().getName() }));
+    }
+
+    /**
+     * <code>merge</code>文を返します。
+     * <p>
+     * <code>source</code>には、挿入する値を持つ1行を別名<code>S_</code>で参照できるように指定します。
+     * </p>
+     * 
+     * @param tableName
+     *            テーブル名
+     * @param source
+     *            <code>using</code>句に指定するテーブル参照
+     * @param columnNames
+     *            挿入するカラム名の配列
+     * @param keyColumnNames
+     *            行を識別するキーのカラム名の配列
+     * @param updateColumnNames
+     *            行が存在した場合に更新するカラム名の配列
+     * @return <code>merge</code>文
+     */
+    protected String getMergeSql(final String tableName, final String source,
+            final String[] columnNames, final String[] keyColumnNames,
+            final String[] updateColumnNames) {
+        final StringBuilder buf = new StringBuilder(200);
+        buf.append("merge into ").append(tableName).append(" T_ using ")
+                .append(source).append(" on (");
+        for (int i = 0; i < keyColumnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(" and ");
+            }
+            buf.append("T_.").append(keyColumnNames[i]).append(" = S_.")
+                    .append(keyColumnNames[i]);
+        }
+        buf.append(")");
+        if (updateColumnNames.length > 0) {
+            buf.append(" when matched then update set ");
+            for (int i = 0; i < updateColumnNames.length; ++i) {
+                if (i > 0) {
+                    buf.append(", ");
+                }
+                buf.append(updateColumnNames[i]).append(" = S_.").append(
+                        updateColumnNames[i]);
+            }
+        }
+        buf.append(" when not matched then insert (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(columnNames[i]);
+        }
+        buf.append(") values (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("S_.").append(columnNames[i]);
+        }
+        return buf.append(")").toString();
+    }
+
+    /**
+     * 挿入する値をバインド変数で選択する選択リストを返します。
+     * 
+     * @param columnNames
+     *            挿入するカラム名の配列
+     * @return <code>select ? as カラム名, ...</code>形式の選択リスト
+     */
+    protected String getSelectParamsSql(final String[] columnNames) {
+        final StringBuilder buf = new StringBuilder(100);
+        buf.append("select ");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("? as ").append(columnNames[i]);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * <code>insert</code>文を返します。
+     * 
+     * @param tableName
+     *            テーブル名
+     * @param columnNames
+     *            挿入するカラム名の配列
+     * @return <code>insert</code>文
+     */
+    protected String getInsertSql(final String tableName,
+            final String[] columnNames) {
+        final StringBuilder buf = new StringBuilder(100);
+        buf.append("insert into ").append(tableName).append(" (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(columnNames[i]);
+        }
+        buf.append(") values (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("?");
+        }
+        return buf.append(")").toString();
+    }
+
+    public int getMaxBindParameterSize() {
+        return 0;
+    }
+
     /**
      * 行番号ファンクション名を返します。
      * 
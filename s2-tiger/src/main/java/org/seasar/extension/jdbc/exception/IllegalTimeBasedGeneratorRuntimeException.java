@@ -0,0 +1,92 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.exception;
+
+import org.seasar.extension.jdbc.annotation.TimeBasedGenerator;
+import org.seasar.framework.exception.SRuntimeException;
+
+/**
+ * {@link TimeBasedGenerator}の指定が不正な場合の例外です。
+ */
+public class IllegalTimeBasedGeneratorRuntimeException extends
+        SRuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** エンティティ名 */
+    protected String entityName;
+
+    /** 識別子のプロパティ名 */
+    protected String propertyName;
+
+    /** ジェネレータ名 */
+    protected String generatorName;
+
+    /**
+     * {@link IllegalTimeBasedGeneratorRuntimeException}を作成します。
+     * 
+     * @param entityName
+     *            エンティティ名
+     * @param propertyName
+     *            プロパティ名
+     * @param generatorName
+     *            ジェネレータ名
+     * @param nodeId
+     *            ノードID
+     * @param nodeBits
+     *            ノードIDのビット数
+     * @param sequenceBits
+     *            シーケンスのビット数
+     */
+    public IllegalTimeBasedGeneratorRuntimeException(final String entityName,
+            final String propertyName, final String generatorName,
+            final long nodeId, final int nodeBits, final int sequenceBits) {
+        super("ESSR0767", new Object[] { entityName, propertyName,
+                generatorName, String.valueOf(nodeId), nodeBits,
+                sequenceBits });
+        this.entityName = entityName;
+        this.propertyName = propertyName;
+        this.generatorName = generatorName;
+    }
+
+    /**
+     * エンティティ名を返します。
+     * 
+     * @return エンティティ名
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+
+    /**
+     * プロパティ名を返します。
+     * 
+     * @return プロパティ名
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * ジェネレータ名を返します。
+     * 
+     * @return ジェネレータ名
+     */
+    public String getGeneratorName() {
+        return generatorName;
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.exception;
+
+import org.seasar.framework.exception.SRuntimeException;
+
+/**
+ * 一括更新で設定できないプロパティが指定された場合の例外です。
+ * <p>
+ * 識別子、バージョン、および<code>updatable</code>が<code>false</code>のプロパティは一括更新で設定できません。
+ * </p>
+ */
+public class NonUpdatablePropertyRuntimeException extends SRuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private String entityName;
+
+    private String propertyName;
+
+    /**
+     * {@link NonUpdatablePropertyRuntimeException}を作成します。
+     * 
+     * @param entityName
+     *            エンティティ名
+     * @param propertyName
+     *            プロパティ名
+     */
+    public NonUpdatablePropertyRuntimeException(String entityName,
+            String propertyName) {
+        super("ESSR0776", new Object[] { entityName, propertyName });
+        this.entityName = entityName;
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * エンティティ名を返します。
+     * 
+     * @return エンティティ名
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+
+    /**
+     * プロパティ名を返します。
+     * 
+     * @return プロパティ名
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+}
\ No newline at end of file
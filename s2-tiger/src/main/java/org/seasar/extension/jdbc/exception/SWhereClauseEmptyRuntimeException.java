@@ -0,0 +1,49 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.exception;
+
+import org.seasar.framework.exception.SRuntimeException;
+
+/**
+ * 一括更新または一括削除のwhere句が空の場合の例外です。
+ */
+public class SWhereClauseEmptyRuntimeException extends SRuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private String entityName;
+
+    /**
+     * {@link SWhereClauseEmptyRuntimeException}を作成します。
+     * 
+     * @param entityName
+     *            エンティティ名
+     */
+    public SWhereClauseEmptyRuntimeException(String entityName) {
+        super("ESSR0773", new Object[] { entityName });
+        this.entityName = entityName;
+    }
+
+    /**
+     * エンティティ名を返します。
+     * 
+     * @return エンティティ名
+     */
+    public String getEntityName() {
+        return entityName;
+    }
+
+}
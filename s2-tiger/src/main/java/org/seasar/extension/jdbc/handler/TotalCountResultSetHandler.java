@@ -0,0 +1,120 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.handler;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import org.seasar.extension.jdbc.ResultSetHandler;
+import org.seasar.extension.jdbc.impl.ResultSetWrapper;
+
+/**
+ * 結果セットの最初の行からページングを指定しない場合の行数を取得する{@link ResultSetHandler}です。
+ * <p>
+ * 結果セットをラッパで包んで元の{@link ResultSetHandler}に委譲し、
+ * 最初の行に移動した時点で{@link #TOTAL_COUNT_COLUMN}列の値を読み取ります。
+ * 結果セットに行がない場合や列がない場合、行数は<code>-1</code>のままです。
+ * </p>
+ */
+public class TotalCountResultSetHandler implements ResultSetHandler {
+
+    /**
+     * ページングを指定しない場合の行数を格納する列の名前です。
+     */
+    public static final String TOTAL_COUNT_COLUMN = "TOTAL_COUNT_";
+
+    private final ResultSetHandler resultSetHandler;
+
+    private long totalCount = -1;
+
+    /**
+     * インスタンスを構築します。
+     * 
+     * @param resultSetHandler
+     *            委譲先の{@link ResultSetHandler}
+     */
+    public TotalCountResultSetHandler(final ResultSetHandler resultSetHandler) {
+        this.resultSetHandler = resultSetHandler;
+    }
+
+    public Object handle(final ResultSet resultSet) throws SQLException {
+        return resultSetHandler.handle(new TotalCountResultSet(resultSet));
+    }
+
+    /**
+     * ページングを指定しない場合の行数を返します。
+     * 
+     * @return ページングを指定しない場合の行数、取得できなかった場合は<code>-1</code>
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 最初の行に移動した時点でページングを指定しない場合の行数を読み取る結果セットです。
+     */
+    protected class TotalCountResultSet extends ResultSetWrapper {
+
+        /** 最初の行に移動したかどうか */
+        protected boolean first = true;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param original
+         *            オリジナル
+         */
+        public TotalCountResultSet(final ResultSet original) {
+            super(original);
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            final boolean next = super.next();
+            if (next && first) {
+                first = false;
+                final int index = findColumn(getMetaData());
+                if (index > 0) {
+                    totalCount = getLong(index);
+                }
+            }
+            return next;
+        }
+
+        /**
+         * ページングを指定しない場合の行数を格納する列の位置を返します。
+         * 
+         * @param metaData
+         *            結果セットのメタデータ
+         * @return 列の位置、見つからない場合は<code>0</code>
+         * @throws SQLException
+         *             SQL例外が発生した場合
+         */
+        protected int findColumn(final ResultSetMetaData metaData)
+                throws SQLException {
+            for (int i = metaData.getColumnCount(); i > 0; --i) {
+                if (TOTAL_COUNT_COLUMN.equalsIgnoreCase(metaData
+                        .getColumnLabel(i))) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+    }
+
+}
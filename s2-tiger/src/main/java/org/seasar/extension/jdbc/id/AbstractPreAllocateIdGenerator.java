@@ -16,23 +16,47 @@
 package org.seasar.extension.jdbc.id;
 
 import java.sql.Statement;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.PropertyMeta;
 import org.seasar.extension.jdbc.SqlLogger;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.Disposable;
+import org.seasar.framework.util.DisposableUtil;
 import org.seasar.framework.util.tiger.CollectionsUtil;
 
 /**
  * INSERT前に識別子を自動生成するIDジェネレータの抽象クラスです。
+ * <p>
+ * 識別子は割り当てサイズごとのブロック単位でデータベースから取得し、 ブロック内の識別子はロックを取得せずに割り当てます。
+ * {@link JdbcManagerImplementor#getIdPrefetchRatio()}が<code>0</code>より大きい場合は、
+ * ブロックの残りが少なくなった時点で次のブロックを別スレッドで取得します。
+ * </p>
  * 
  * @author koichik
  */
 public abstract class AbstractPreAllocateIdGenerator extends
         AbstractIdGenerator {
 
+    /** ロガー */
+    protected static final Logger logger = Logger
+            .getLogger(AbstractPreAllocateIdGenerator.class);
+
+    /** 識別子のブロックを先読みする{@link ExecutorService} */
+    protected static ExecutorService prefetchExecutor;
+
     /** {@link #idContextMap}に対するデフォルトのキー */
     protected static String DEFAULT_ID_CONTEXT_KEY = IdContext.class.getName();
 
@@ -67,6 +91,10 @@ public abstract class AbstractPreAllocateIdGenerator extends
         return false;
     }
 
+    public boolean useReturning(final JdbcManagerImplementor jdbcManager) {
+        return false;
+    }
+
     public boolean isInsertInto(final JdbcManagerImplementor jdbcManager) {
         return true;
     }
@@ -84,6 +112,11 @@ public abstract class AbstractPreAllocateIdGenerator extends
             final SqlLogger sqlLogger) {
     }
 
+    public void postInsertBatch(final JdbcManagerImplementor jdbcManager,
+            final List<?> entities, final Statement statement,
+            final SqlLogger sqlLogger) {
+    }
+
     /**
      * IDコンテキストを返します。
      * 
@@ -101,6 +134,48 @@ public abstract class AbstractPreAllocateIdGenerator extends
         return CollectionsUtil.putIfAbsent(idContextMap, key, new IdContext());
     }
 
+    /**
+     * 識別子のブロックを先読みする{@link Executor}を返します。
+     * 
+     * @return 識別子のブロックを先読みする{@link Executor}
+     */
+    protected static synchronized Executor getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors
+                    .newSingleThreadExecutor(new ThreadFactory() {
+
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(runnable,
+                                    "S2JDBC-IdPrefetcher");
+                            thread.setDaemon(true);
+                            thread.setContextClassLoader(
+                                    AbstractPreAllocateIdGenerator.class
+                                            .getClassLoader());
+                            return thread;
+                        }
+
+                    });
+            DisposableUtil.add(new Disposable() {
+
+                public void dispose() {
+                    shutdownPrefetchExecutor();
+                }
+
+            });
+        }
+        return prefetchExecutor;
+    }
+
+    /**
+     * 識別子のブロックを先読みする{@link ExecutorService}を終了します。
+     */
+    protected static synchronized void shutdownPrefetchExecutor() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdown();
+            prefetchExecutor = null;
+        }
+    }
+
     /**
      * 次の初期値を返します。
      * 
@@ -114,17 +189,41 @@ public abstract class AbstractPreAllocateIdGenerator extends
             JdbcManagerImplementor jdbcManager, SqlLogger sqlLogger);
 
     /**
-     * 自動生成される識別子のコンテキスト情報を保持するクラスです。
-     * 
-     * @author koichik
+     * 識別子のブロックです。
      */
-    public class IdContext {
+    protected static class IdBlock {
 
         /** 初期値 */
-        protected long initialValue;
+        protected final long initialValue;
 
         /** 割り当て済みの値 */
-        protected long allocated = Long.MAX_VALUE;
+        protected final AtomicLong allocated = new AtomicLong();
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param initialValue
+         *            初期値
+         */
+        public IdBlock(final long initialValue) {
+            this.initialValue = initialValue;
+        }
+
+    }
+
+    /**
+     * 自動生成される識別子のコンテキスト情報を保持するクラスです。
+     */
+    public class IdContext {
+
+        /** 割り当て中のブロック */
+        protected final AtomicReference<IdBlock> currentBlock = new AtomicReference<IdBlock>();
+
+        /** 先読みしたブロック */
+        protected final AtomicReference<IdBlock> prefetchedBlock = new AtomicReference<IdBlock>();
+
+        /** ブロックを先読み中なら<code>true</code> */
+        protected final AtomicBoolean prefetching = new AtomicBoolean();
 
         /**
          * 自動生成された識別子の値を返します。
@@ -135,15 +234,106 @@ public abstract class AbstractPreAllocateIdGenerator extends
          *            SQLロガー
          * @return 自動生成された識別子の値
          */
-        public synchronized long getNextValue(
+        public long getNextValue(final JdbcManagerImplementor jdbcManager,
+                final SqlLogger sqlLogger) {
+            for (;;) {
+                final IdBlock block = currentBlock.get();
+                if (block != null) {
+                    final long allocated = block.allocated.getAndIncrement();
+                    if (allocated < allocationSize) {
+                        final long remaining = allocationSize - allocated - 1;
+                        if (remaining == getLowWaterMark(jdbcManager)) {
+                            prefetch(jdbcManager, sqlLogger);
+                        }
+                        return block.initialValue + allocated;
+                    }
+                }
+                allocate(block, jdbcManager, sqlLogger);
+            }
+        }
+
+        /**
+         * 使い切ったブロックを次のブロックに置き換えます。
+         * <p>
+         * 先読みしたブロックがない場合は、呼び出したスレッドでデータベースから取得します。
+         * </p>
+         * 
+         * @param exhaustedBlock
+         *            使い切ったブロック
+         * @param jdbcManager
+         *            内部的なJDBCマネージャ
+         * @param sqlLogger
+         *            SQLロガー
+         */
+        protected synchronized void allocate(final IdBlock exhaustedBlock,
                 final JdbcManagerImplementor jdbcManager,
                 final SqlLogger sqlLogger) {
-            if (allocated < allocationSize) {
-                return initialValue + allocated++;
+            if (currentBlock.get() != exhaustedBlock) {
+                return;
+            }
+            IdBlock block = prefetchedBlock.getAndSet(null);
+            if (block == null) {
+                block = new IdBlock(getNewInitialValue(jdbcManager, sqlLogger));
+            }
+            currentBlock.set(block);
+        }
+
+        /**
+         * 次のブロックの先読みを開始するブロックの残りの数を返します。
+         * 
+         * @param jdbcManager
+         *            内部的なJDBCマネージャ
+         * @return 次のブロックの先読みを開始するブロックの残りの数、先読みしない場合は<code>-1</code>
+         */
+        protected long getLowWaterMark(
+                final JdbcManagerImplementor jdbcManager) {
+            final int ratio = jdbcManager.getIdPrefetchRatio();
+            if (ratio <= 0) {
+                return -1;
+            }
+            return Math.min(allocationSize * ratio / 100, allocationSize - 1);
+        }
+
+        /**
+         * 次のブロックを別スレッドで先読みします。
+         * <p>
+         * 動的なデータソースはスレッドごとに選択されるため、動的なデータソースを使用している場合は先読みしません。
+         * </p>
+         * 
+         * @param jdbcManager
+         *            内部的なJDBCマネージャ
+         * @param sqlLogger
+         *            SQLロガー
+         */
+        protected void prefetch(final JdbcManagerImplementor jdbcManager,
+                final SqlLogger sqlLogger) {
+            if (jdbcManager.getSelectableDataSourceName() != null
+                    || prefetchedBlock.get() != null
+                    || !prefetching.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                getPrefetchExecutor().execute(new Runnable() {
+
+                    public void run() {
+                        try {
+                            final long initialValue = getNewInitialValue(
+                                    jdbcManager, sqlLogger);
+                            prefetchedBlock.compareAndSet(null, new IdBlock(
+                                    initialValue));
+                        } catch (final Throwable t) {
+                            logger.log("WSSR0019", new Object[] {
+                                    entityMeta.getName(),
+                                    propertyMeta.getName() }, t);
+                        } finally {
+                            prefetching.set(false);
+                        }
+                    }
+
+                });
+            } catch (final RejectedExecutionException e) {
+                prefetching.set(false);
             }
-            initialValue = getNewInitialValue(jdbcManager, sqlLogger);
-            allocated = 1;
-            return initialValue;
         }
 
     }
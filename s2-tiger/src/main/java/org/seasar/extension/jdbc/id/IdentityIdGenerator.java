@@ -19,9 +19,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 import javax.persistence.GenerationType;
 
+import org.seasar.extension.jdbc.DbmsDialect;
 import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.PropertyMeta;
@@ -29,6 +31,7 @@ import org.seasar.extension.jdbc.SqlLogger;
 import org.seasar.extension.jdbc.exception.IdGenerationFailedRuntimeException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 import org.seasar.framework.util.PreparedStatementUtil;
+import org.seasar.framework.util.ResultSetUtil;
 import org.seasar.framework.util.StringUtil;
 
 /**
@@ -52,13 +55,19 @@ public class IdentityIdGenerator extends AbstractIdGenerator {
     }
 
     public boolean supportBatch(final JdbcManagerImplementor jdbcManager) {
-        return false;
+        return jdbcManager.getDialect().supportsBatchGetGeneratedKeys();
     }
 
     public boolean useGetGeneratedKeys(final JdbcManagerImplementor jdbcManager) {
         return jdbcManager.getDialect().supportsGetGeneratedKeys();
     }
 
+    public boolean useReturning(final JdbcManagerImplementor jdbcManager) {
+        final DbmsDialect dialect = jdbcManager.getDialect();
+        return !dialect.supportsBatchGetGeneratedKeys()
+                && dialect.supportsIdentityReturning();
+    }
+
     public boolean isInsertInto(final JdbcManagerImplementor jdbcManager) {
         return jdbcManager.getDialect().isInsertIdentityColumn();
     }
@@ -80,6 +89,29 @@ public class IdentityIdGenerator extends AbstractIdGenerator {
         setId(entity, id);
     }
 
+    public void postInsertBatch(final JdbcManagerImplementor jdbcManager,
+            final List<?> entities, final Statement statement,
+            final SqlLogger sqlLogger) {
+        try {
+            final ResultSet rs = useReturning(jdbcManager) ? statement
+                    .getResultSet() : statement.getGeneratedKeys();
+            try {
+                for (final Object entity : entities) {
+                    if (!rs.next()) {
+                        throw new IdGenerationFailedRuntimeException(entityMeta
+                                .getName(), propertyMeta.getName());
+                    }
+                    setId(entity, rs.getLong(1));
+                }
+            } finally {
+                ResultSetUtil.close(rs);
+            }
+        } catch (final SQLException e) {
+            throw new IdGenerationFailedRuntimeException(entityMeta.getName(),
+                    propertyMeta.getName(), e);
+        }
+    }
+
     /**
      * {@link Statement#getGeneratedKeys()}を使用して自動生成された識別子の値を取得して返します。
      * 
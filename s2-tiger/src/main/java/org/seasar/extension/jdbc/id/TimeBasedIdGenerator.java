@@ -0,0 +1,189 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.id;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.SqlLogger;
+import org.seasar.extension.jdbc.annotation.TimeBasedGenerator;
+import org.seasar.extension.jdbc.exception.IdGenerationFailedRuntimeException;
+import org.seasar.extension.jdbc.exception.IllegalTimeBasedGeneratorRuntimeException;
+import org.seasar.extension.jdbc.exception.IllegalTimeBasedIdPropertyTypeRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.util.ClassUtil;
+
+/**
+ * データベースにアクセスせずに時刻順の識別子を生成するIDジェネレータです。
+ * <p>
+ * 生成される識別子は、上位ビットから順にエポックからの経過ミリ秒、ノードID、 同じミリ秒内のシーケンスで構成される正の64ビット整数です。
+ * 同じミリ秒内でシーケンスを使い切った場合や、システム時刻が戻った場合は、
+ * 最後に生成した識別子の時刻を進めて生成を続けるため、識別子は常に単調に増加します。
+ * </p>
+ * 
+ * @see TimeBasedGenerator
+ */
+public class TimeBasedIdGenerator extends AbstractIdGenerator {
+
+    /** ノードIDを指定するシステムプロパティの名前 */
+    public static final String NODE_ID_PROPERTY = "org.seasar.extension.jdbc.id.nodeId";
+
+    /** ノードID */
+    protected final long nodeId;
+
+    /** エポック */
+    protected final long epoch;
+
+    /** ノードIDのビット数 */
+    protected final int nodeBits;
+
+    /** シーケンスのビット数 */
+    protected final int sequenceBits;
+
+    /** 時刻の最大値 */
+    protected final long maxTimestamp;
+
+    /** 最後に生成した時刻とシーケンス */
+    protected final AtomicLong lastState = new AtomicLong();
+
+    /**
+     * インスタンスを構築します。
+     * 
+     * @param entityMeta
+     *            エンティティのメタデータ
+     * @param propertyMeta
+     *            識別子を表すプロパティのメタデータ
+     * @param timeBasedGenerator
+     *            識別子に付けられたアノテーション
+     * @throws IllegalTimeBasedGeneratorRuntimeException
+     *             ノードIDやビット数の指定が不正な場合
+     * @throws IllegalTimeBasedIdPropertyTypeRuntimeException
+     *             識別子のプロパティの型が<code>long</code>または{@link Long}ではない場合
+     */
+    public TimeBasedIdGenerator(final EntityMeta entityMeta,
+            final PropertyMeta propertyMeta,
+            final TimeBasedGenerator timeBasedGenerator) {
+        super(entityMeta, propertyMeta);
+        if (ClassUtil.getWrapperClassIfPrimitive(propertyMeta
+                .getPropertyClass()) != Long.class) {
+            throw new IllegalTimeBasedIdPropertyTypeRuntimeException(entityMeta
+                    .getName(), propertyMeta.getName(), propertyMeta
+                    .getPropertyClass());
+        }
+        nodeId = getNodeId(timeBasedGenerator);
+        epoch = timeBasedGenerator.epoch();
+        nodeBits = timeBasedGenerator.nodeBits();
+        sequenceBits = timeBasedGenerator.sequenceBits();
+        if (nodeBits < 0 || sequenceBits < 1 || nodeBits + sequenceBits > 31
+                || nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalTimeBasedGeneratorRuntimeException(entityMeta
+                    .getName(), propertyMeta.getName(), timeBasedGenerator
+                    .name(), nodeId, nodeBits, sequenceBits);
+        }
+        maxTimestamp = (1L << (63 - nodeBits - sequenceBits)) - 1;
+    }
+
+    public boolean supportBatch(final JdbcManagerImplementor jdbcManager) {
+        return true;
+    }
+
+    public boolean useGetGeneratedKeys(final JdbcManagerImplementor jdbcManager) {
+        return false;
+    }
+
+    public boolean useReturning(final JdbcManagerImplementor jdbcManager) {
+        return false;
+    }
+
+    public boolean isInsertInto(final JdbcManagerImplementor jdbcManager) {
+        return true;
+    }
+
+    public Object preInsert(final JdbcManagerImplementor jdbcManager,
+            final Object entity, final SqlLogger sqlLogger) {
+        final long id = getNextValue();
+        setId(entity, id);
+        return Long.valueOf(id);
+    }
+
+    public void postInsert(final JdbcManagerImplementor jdbcManager,
+            final Object entity, final Statement statement,
+            final SqlLogger sqlLogger) {
+    }
+
+    public void postInsertBatch(final JdbcManagerImplementor jdbcManager,
+            final List<?> entities, final Statement statement,
+            final SqlLogger sqlLogger) {
+    }
+
+    /**
+     * 自動生成された識別子の値を返します。
+     * 
+     * @return 自動生成された識別子の値
+     */
+    public long getNextValue() {
+        final long now = currentTimeMillis() - epoch;
+        for (;;) {
+            final long last = lastState.get();
+            final long next = Math.max(now << sequenceBits, last + 1);
+            if (lastState.compareAndSet(last, next)) {
+                final long timestamp = next >>> sequenceBits;
+                if (timestamp > maxTimestamp) {
+                    throw new IdGenerationFailedRuntimeException(entityMeta
+                            .getName(), propertyMeta.getName());
+                }
+                final long sequence = next & ((1L << sequenceBits) - 1);
+                return timestamp << (nodeBits + sequenceBits)
+                        | nodeId << sequenceBits | sequence;
+            }
+        }
+    }
+
+    /**
+     * 現在の時刻を返します。
+     * 
+     * @return 現在の時刻(1970-01-01T00:00:00Zからのミリ秒)
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * ノードIDを返します。
+     * 
+     * @param timeBasedGenerator
+     *            識別子に付けられたアノテーション
+     * @return ノードID
+     */
+    protected long getNodeId(final TimeBasedGenerator timeBasedGenerator) {
+        if (timeBasedGenerator.nodeId() >= 0) {
+            return timeBasedGenerator.nodeId();
+        }
+        final String nodeId = System.getProperty(NODE_ID_PROPERTY);
+        if (nodeId == null || nodeId.length() == 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(nodeId.trim());
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
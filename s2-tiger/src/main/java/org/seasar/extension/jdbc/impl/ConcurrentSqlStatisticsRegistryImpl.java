@@ -0,0 +1,107 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.framework.util.ConcurrentTimeHistogram;
+
+/**
+ * ロックを使用せずに実行統計を記録する{@link SqlStatisticsRegistryImpl}です。
+ * <p>
+ * {@link SqlStatisticsRegistryImpl}はエントリごとに同期して記録しますが、
+ * このクラスのエントリは実行時間のヒストグラムと行数をアトミックに更新します。
+ * 同じSQLが多数のスレッドから同時に実行されても記録が直列化されることはありません。
+ * </p>
+ * <p>
+ * スナップショットは記録と並行して作成されるため、 各値は厳密に同じ時点のものとは限りません。
+ * </p>
+ */
+public class ConcurrentSqlStatisticsRegistryImpl extends
+        SqlStatisticsRegistryImpl {
+
+    /**
+     * デフォルトの上限サイズを使用してインスタンスを構築します。
+     */
+    public ConcurrentSqlStatisticsRegistryImpl() {
+    }
+
+    /**
+     * 上限サイズを指定してインスタンスを構築します。
+     * 
+     * @param limitSize
+     *            記録するSQLの数の上限
+     */
+    public ConcurrentSqlStatisticsRegistryImpl(final int limitSize) {
+        super(limitSize);
+    }
+
+    @Override
+    protected Entry createEntry(final String rawSql) {
+        return new ConcurrentEntry(rawSql);
+    }
+
+    /**
+     * ロックを使用せずに実行統計を集計するエントリです。
+     */
+    protected static class ConcurrentEntry extends Entry {
+
+        private final ConcurrentTimeHistogram histogram = new ConcurrentTimeHistogram();
+
+        private final AtomicLong errorCount = new AtomicLong();
+
+        private final AtomicLong fetchedRows = new AtomicLong();
+
+        private final AtomicLong updatedRows = new AtomicLong();
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param rawSql
+         *            未加工のSQL
+         */
+        protected ConcurrentEntry(final String rawSql) {
+            super(rawSql);
+        }
+
+        @Override
+        public void record(final long elapsedTime, final int fetchedRows,
+                final int updatedRows) {
+            histogram.record(elapsedTime);
+            if (fetchedRows > 0) {
+                this.fetchedRows.addAndGet(fetchedRows);
+            }
+            if (updatedRows > 0) {
+                this.updatedRows.addAndGet(updatedRows);
+            }
+        }
+
+        @Override
+        public void recordFailure(final long elapsedTime) {
+            histogram.record(elapsedTime);
+            errorCount.incrementAndGet();
+        }
+
+        @Override
+        public SqlStatistics snapshot() {
+            return new SqlStatisticsImpl(getRawSql(), errorCount.get(),
+                    fetchedRows.get(), updatedRows.get(), histogram.copy());
+        }
+
+    }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistry;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
+import org.seasar.framework.exception.SRuntimeException;
+
+/**
+ * SQLの実行統計をJMXで公開するMBeanです。
+ * <p>
+ * {@link #register()}を呼び出すと、
+ * <code>org.seasar.extension.jdbc:type=SqlStatistics,name=<i>name</i></code>
+ * という名前でプラットフォームのMBeanサーバに登録されます。
+ * {@link SqlStatisticsRegistryLocator}に{@link SqlStatisticsRegistry}が設定されていない場合は、
+ * 登録時に新しい{@link ConcurrentSqlStatisticsRegistryImpl}が設定され、実行統計の記録が開始されます。
+ * </p>
+ *
+ * <pre>
+ * &lt;component class=&quot;org.seasar.extension.jdbc.impl.SqlStatisticsMonitor&quot;&gt;
+ *     &lt;property name=&quot;slowQueryThreshold&quot;&gt;1000L&lt;/property&gt;
+ *     &lt;initMethod name=&quot;register&quot;/&gt;
+ *     &lt;destroyMethod name=&quot;unregister&quot;/&gt;
+ * &lt;/component&gt;
+ * </pre>
+ */
+public class SqlStatisticsMonitor implements SqlStatisticsMonitorMBean {
+
+    /** オブジェクト名のドメインです。 */
+    public static final String DOMAIN = "org.seasar.extension.jdbc";
+
+    /** 実行時間の合計が大きい順に並べる{@link Comparator}です。 */
+    protected static final Comparator<SqlStatistics> TOTAL_TIME_COMPARATOR = new Comparator<SqlStatistics>() {
+
+        public int compare(final SqlStatistics o1, final SqlStatistics o2) {
+            final long t1 = o1.getTotalTime();
+            final long t2 = o2.getTotalTime();
+            return t1 > t2 ? -1 : t1 < t2 ? 1 : 0;
+        }
+    };
+
+    /** MBeanの名前 */
+    protected String name = "default";
+
+    /** 遅いSQLのしきい値 */
+    protected long slowQueryThreshold = -1L;
+
+    /** MBeanサーバ */
+    protected MBeanServer mbeanServer;
+
+    /** 登録したオブジェクト名 */
+    protected ObjectName objectName;
+
+    /**
+     * MBeanの名前を設定します。
+     *
+     * @param name
+     *            MBeanの名前
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * MBeanサーバを設定します。
+     * <p>
+     * 設定されていない場合はプラットフォームのMBeanサーバが使われます。
+     * </p>
+     *
+     * @param mbeanServer
+     *            MBeanサーバ
+     */
+    public void setMbeanServer(final MBeanServer mbeanServer) {
+        this.mbeanServer = mbeanServer;
+    }
+
+    /**
+     * 登録したオブジェクト名を返します。
+     *
+     * @return 登録したオブジェクト名、登録されていない場合は<code>null</code>
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * MBeanサーバに登録します。
+     */
+    public synchronized void register() {
+        if (objectName != null) {
+            return;
+        }
+        SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry == null) {
+            registry = new ConcurrentSqlStatisticsRegistryImpl();
+            SqlStatisticsRegistryLocator.setInstance(registry);
+        }
+        registry.setSlowQueryThreshold(slowQueryThreshold);
+        if (mbeanServer == null) {
+            mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        }
+        try {
+            final ObjectName on = new ObjectName(DOMAIN
+                    + ":type=SqlStatistics,name=" + ObjectName.quote(name));
+            mbeanServer.registerMBean(this, on);
+            objectName = on;
+        } catch (final JMException e) {
+            throw new SRuntimeException("ESSR0017", new Object[] { e }, e);
+        }
+    }
+
+    /**
+     * MBeanサーバから登録を解除します。
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            mbeanServer.unregisterMBean(objectName);
+        } catch (final JMException e) {
+            throw new SRuntimeException("ESSR0017", new Object[] { e }, e);
+        } finally {
+            objectName = null;
+        }
+    }
+
+    /**
+     * SQLごとの実行統計を実行時間の合計が大きい順に返します。
+     *
+     * @return SQLごとの実行統計
+     */
+    public SqlStatistics[] getStatistics() {
+        final SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry == null) {
+            return new SqlStatistics[0];
+        }
+        final SqlStatistics[] statistics = registry.getAll();
+        Arrays.sort(statistics, TOTAL_TIME_COMPARATOR);
+        return statistics;
+    }
+
+    public int getSqlCount() {
+        final SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        return registry == null ? 0 : registry.getSize();
+    }
+
+    public long getExecutionCount() {
+        long count = 0L;
+        for (final SqlStatistics statistics : getStatistics()) {
+            count += statistics.getExecutionCount();
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+        long count = 0L;
+        for (final SqlStatistics statistics : getStatistics()) {
+            count += statistics.getErrorCount();
+        }
+        return count;
+    }
+
+    public long getSlowQueryThreshold() {
+        final SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        return registry == null ? slowQueryThreshold : registry
+                .getSlowQueryThreshold();
+    }
+
+    public void setSlowQueryThreshold(final long slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+        final SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry != null) {
+            registry.setSlowQueryThreshold(slowQueryThreshold);
+        }
+    }
+
+    public String[] dumpStatistics() {
+        return toStrings(getStatistics(), Integer.MAX_VALUE);
+    }
+
+    public String[] dumpTopStatistics(final int size) {
+        return toStrings(getStatistics(), size);
+    }
+
+    public void resetStatistics() {
+        final SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry != null) {
+            registry.clear();
+        }
+    }
+
+    /**
+     * 実行統計を文字列の配列に変換します。
+     *
+     * @param statistics
+     *            実行統計の配列
+     * @param size
+     *            変換する実行統計の最大数
+     * @return 実行統計の文字列の配列
+     */
+    protected static String[] toStrings(final SqlStatistics[] statistics,
+            final int size) {
+        final String[] result = new String[Math.max(0, Math.min(size,
+                statistics.length))];
+        for (int i = 0; i < result.length; ++i) {
+            final SqlStatistics s = statistics[i];
+            final StringBuilder buf = new StringBuilder(200);
+            buf.append("count=").append(s.getExecutionCount()).append(
+                    ", errors=").append(s.getErrorCount()).append(", total=")
+                    .append(s.getTotalTime()).append("ms, mean=").append(
+                            (long) s.getMeanTime()).append("ms, p95=").append(
+                            s.getPercentileTime(95)).append("ms, p99=")
+                    .append(s.getPercentileTime(99)).append("ms, max=")
+                    .append(s.getMaxTime()).append("ms, fetchedRows=")
+                    .append(s.getFetchedRows()).append(", updatedRows=")
+                    .append(s.getUpdatedRows()).append(", sql=").append(
+                            s.getRawSql());
+            result[i] = buf.toString();
+        }
+        return result;
+    }
+
+}
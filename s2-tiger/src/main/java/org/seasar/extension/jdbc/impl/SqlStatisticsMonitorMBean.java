@@ -0,0 +1,83 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+/**
+ * SQLの実行統計を公開するMBeanのインタフェースです。
+ * <p>
+ * 時間の単位はすべてミリ秒です。
+ * </p>
+ */
+public interface SqlStatisticsMonitorMBean {
+
+    /**
+     * 実行統計が記録されているSQLの数を返します。
+     *
+     * @return 実行統計が記録されているSQLの数
+     */
+    int getSqlCount();
+
+    /**
+     * すべてのSQLの実行回数の合計を返します。
+     *
+     * @return 実行回数の合計
+     */
+    long getExecutionCount();
+
+    /**
+     * すべてのSQLの失敗した回数の合計を返します。
+     *
+     * @return 失敗した回数の合計
+     */
+    long getErrorCount();
+
+    /**
+     * 遅いSQLとしてログに出力する実行時間のしきい値を返します。
+     *
+     * @return 遅いSQLのしきい値、ログに出力しない場合は負の値
+     */
+    long getSlowQueryThreshold();
+
+    /**
+     * 遅いSQLとしてログに出力する実行時間のしきい値を設定します。
+     *
+     * @param slowQueryThreshold
+     *            遅いSQLのしきい値、ログに出力しない場合は負の値
+     */
+    void setSlowQueryThreshold(long slowQueryThreshold);
+
+    /**
+     * SQLごとの実行統計を実行時間の合計が大きい順に文字列の配列で返します。
+     *
+     * @return SQLごとの実行統計
+     */
+    String[] dumpStatistics();
+
+    /**
+     * 実行時間の合計が大きい順に指定された数のSQLの実行統計を文字列の配列で返します。
+     *
+     * @param size
+     *            返すSQLの数
+     * @return SQLごとの実行統計
+     */
+    String[] dumpTopStatistics(int size);
+
+    /**
+     * 実行統計を消去します。
+     */
+    void resetStatistics();
+
+}
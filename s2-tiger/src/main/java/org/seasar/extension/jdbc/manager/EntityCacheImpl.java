@@ -0,0 +1,401 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.manager;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.seasar.extension.jdbc.EntityCache;
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.framework.container.annotation.tiger.InitMethod;
+import org.seasar.framework.util.ClassUtil;
+import org.seasar.framework.util.Disposable;
+import org.seasar.framework.util.DisposableUtil;
+import org.seasar.framework.util.FieldUtil;
+import org.seasar.framework.util.NumberConversionUtil;
+
+/**
+ * {@link EntityCache}の実装クラスです。
+ * <p>
+ * エンティティクラスごとに、 {@link org.seasar.extension.jdbc.annotation.Cacheable}で指定された最大数と有効期間で
+ * エンティティをキャッシュします。 最大数を超えた場合は最も長く参照されていないエンティティが破棄されます。
+ * キャッシュにはエンティティのインスタンスではなく、 関連を除く永続化対象のプロパティの値が格納されます。
+ * 日付や配列などの変更可能な値は格納時と取得時にコピーされるため、 エンティティを変更してもキャッシュには影響しません。
+ * </p>
+ */
+public class EntityCacheImpl implements EntityCache {
+
+    /**
+     * エンティティクラスの名前をキーとする領域のマップです。
+     */
+    protected ConcurrentMap<String, Region> regions = new ConcurrentHashMap<String, Region>();
+
+    /**
+     * 初期化されたかどうかです。
+     */
+    protected volatile boolean initialized;
+
+    public Object get(final EntityMeta entityMeta, final Object[] idValues) {
+        if (!entityMeta.isCacheable()) {
+            return null;
+        }
+        final Object[] values = getRegion(entityMeta).get(
+                createKey(entityMeta, idValues));
+        if (values == null) {
+            return null;
+        }
+        final Object entity = ClassUtil.newInstance(entityMeta
+                .getEntityClass());
+        int i = 0;
+        for (final PropertyMeta pm : entityMeta.getAllPropertyMeta()) {
+            if (isTargetProperty(pm)) {
+                FieldUtil.set(pm.getField(), entity, copyValue(values[i++]));
+            }
+        }
+        return entity;
+    }
+
+    public long getEvictionCount(final EntityMeta entityMeta) {
+        if (!entityMeta.isCacheable()) {
+            return 0L;
+        }
+        return getRegion(entityMeta).getEvictionCount();
+    }
+
+    public void put(final EntityMeta entityMeta, final Object entity,
+            final long evictionCount) {
+        if (!entityMeta.isCacheable() || entity == null) {
+            return;
+        }
+        final Object key = getKey(entityMeta, entity);
+        if (key == null) {
+            return;
+        }
+        final Object[] values = new Object[entityMeta.getPropertyMetaSize()];
+        int i = 0;
+        for (final PropertyMeta pm : entityMeta.getAllPropertyMeta()) {
+            if (isTargetProperty(pm)) {
+                values[i++] = copyValue(FieldUtil.get(pm.getField(), entity));
+            }
+        }
+        getRegion(entityMeta).put(key, values, evictionCount);
+    }
+
+    public void evict(final EntityMeta entityMeta, final Object entity) {
+        if (!entityMeta.isCacheable()) {
+            return;
+        }
+        getRegion(entityMeta).evict(getKey(entityMeta, entity));
+    }
+
+    public void evictAll(final EntityMeta entityMeta) {
+        if (!entityMeta.isCacheable()) {
+            return;
+        }
+        getRegion(entityMeta).evictAll();
+    }
+
+    public void clear() {
+        for (final Region region : regions.values()) {
+            region.evictAll();
+        }
+        regions.clear();
+    }
+
+    /**
+     * 初期化を行ないます。
+     */
+    @InitMethod
+    public void initialize() {
+        DisposableUtil.add(new Disposable() {
+
+            public void dispose() {
+                clear();
+                initialized = false;
+            }
+        });
+        initialized = true;
+    }
+
+    /**
+     * エンティティクラスの領域を返します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @return エンティティクラスの領域
+     */
+    protected Region getRegion(final EntityMeta entityMeta) {
+        if (!initialized) {
+            initialize();
+        }
+        final String name = entityMeta.getEntityClass().getName();
+        final Region region = regions.get(name);
+        if (region != null) {
+            return region;
+        }
+        final Region newRegion = new Region(entityMeta.getCacheMaxSize(),
+                entityMeta.getCacheTimeToLive());
+        final Region region2 = regions.putIfAbsent(name, newRegion);
+        return region2 != null ? region2 : newRegion;
+    }
+
+    /**
+     * キャッシュに格納するプロパティなら<code>true</code>を返します。
+     * 
+     * @param propertyMeta
+     *            プロパティメタデータ
+     * @return キャッシュに格納するプロパティなら<code>true</code>
+     */
+    protected boolean isTargetProperty(final PropertyMeta propertyMeta) {
+        return !propertyMeta.isTransient() && !propertyMeta.isRelationship();
+    }
+
+    /**
+     * 変更可能な値のコピーを返します。
+     * <p>
+     * {@link Date}(<code>java.sql.Timestamp</code>などのサブクラスを含む)や{@link Calendar}、
+     * <code>byte[]</code>はコピーされます。 それ以外の値はそのまま返されます。
+     * </p>
+     * 
+     * @param value
+     *            値
+     * @return 値のコピー
+     */
+    protected Object copyValue(final Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return value;
+    }
+
+    /**
+     * エンティティの識別子からキーを作成します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param entity
+     *            エンティティ
+     * @return キー、識別子の値に<code>null</code>が含まれる場合は<code>null</code>
+     */
+    protected Object getKey(final EntityMeta entityMeta, final Object entity) {
+        final List<PropertyMeta> idPropertyMetaList = entityMeta
+                .getIdPropertyMetaList();
+        final Object[] idValues = new Object[idPropertyMetaList.size()];
+        for (int i = 0; i < idValues.length; ++i) {
+            idValues[i] = FieldUtil.get(idPropertyMetaList.get(i).getField(),
+                    entity);
+        }
+        return createKey(entityMeta, idValues);
+    }
+
+    /**
+     * 識別子の値の配列からキーを作成します。
+     * <p>
+     * 数値は識別子のプロパティの型に変換されます。
+     * </p>
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param idValues
+     *            識別子の値の配列
+     * @return キー、識別子の値に<code>null</code>が含まれる場合は<code>null</code>
+     */
+    protected Object createKey(final EntityMeta entityMeta,
+            final Object[] idValues) {
+        final List<PropertyMeta> idPropertyMetaList = entityMeta
+                .getIdPropertyMetaList();
+        if (idValues.length == 0
+                || idValues.length != idPropertyMetaList.size()) {
+            return null;
+        }
+        final Object[] key = new Object[idValues.length];
+        for (int i = 0; i < key.length; ++i) {
+            if (idValues[i] == null) {
+                return null;
+            }
+            key[i] = idValues[i];
+            if (key[i] instanceof Number) {
+                key[i] = NumberConversionUtil.convertNumber(ClassUtil
+                        .getWrapperClassIfPrimitive(idPropertyMetaList.get(i)
+                                .getPropertyClass()), key[i]);
+            }
+        }
+        return key.length == 1 ? key[0] : Arrays.asList(key);
+    }
+
+    /**
+     * エンティティクラスごとのキャッシュの領域です。
+     */
+    protected static class Region {
+
+        /** キャッシュするエンティティの最大数 */
+        protected final int maxSize;
+
+        /** キャッシュしたエンティティの有効期間(ミリ秒) */
+        protected final long timeToLive;
+
+        /** キーとエントリのマップ */
+        protected final Map<Object, Entry> entries;
+
+        /** 破棄された回数 */
+        protected long evictionCount;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param maxSize
+         *            キャッシュするエンティティの最大数
+         * @param timeToLive
+         *            キャッシュしたエンティティの有効期間(ミリ秒)
+         */
+        @SuppressWarnings("serial")
+        public Region(final int maxSize, final long timeToLive) {
+            this.maxSize = maxSize;
+            this.timeToLive = timeToLive;
+            entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<Object, EntityCacheImpl.Entry> eldest) {
+                    return size() > Region.this.maxSize;
+                }
+            };
+        }
+
+        /**
+         * キャッシュされたプロパティの値を返します。
+         * 
+         * @param key
+         *            キー
+         * @return キャッシュされたプロパティの値、キャッシュされていない場合は<code>null</code>
+         */
+        public synchronized Object[] get(final Object key) {
+            if (key == null) {
+                return null;
+            }
+            final Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiration > 0L
+                    && entry.expiration <= System.currentTimeMillis()) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.values;
+        }
+
+        /**
+         * 破棄された回数を返します。
+         * 
+         * @return 破棄された回数
+         */
+        public synchronized long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * プロパティの値をキャッシュに格納します。
+         * 
+         * @param key
+         *            キー
+         * @param values
+         *            プロパティの値
+         * @param expectedEvictionCount
+         *            検索前の破棄された回数
+         */
+        public synchronized void put(final Object key, final Object[] values,
+                final long expectedEvictionCount) {
+            if (maxSize <= 0 || expectedEvictionCount != evictionCount) {
+                return;
+            }
+            entries.put(key, new Entry(values, timeToLive > 0L ? System
+                    .currentTimeMillis()
+                    + timeToLive : 0L));
+        }
+
+        /**
+         * キーに対応するプロパティの値をキャッシュから破棄します。
+         * 
+         * @param key
+         *            キー
+         */
+        public synchronized void evict(final Object key) {
+            ++evictionCount;
+            if (key != null) {
+                entries.remove(key);
+            }
+        }
+
+        /**
+         * すべてのプロパティの値をキャッシュから破棄します。
+         */
+        public synchronized void evictAll() {
+            ++evictionCount;
+            entries.clear();
+        }
+
+        /**
+         * キャッシュされているエンティティの数を返します。
+         * 
+         * @return キャッシュされているエンティティの数
+         */
+        public synchronized int size() {
+            return entries.size();
+        }
+
+    }
+
+    /**
+     * キャッシュのエントリです。
+     */
+    protected static class Entry {
+
+        /** プロパティの値 */
+        protected final Object[] values;
+
+        /** 有効期限、<code>0</code>の場合は無期限 */
+        protected final long expiration;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param values
+         *            プロパティの値
+         * @param expiration
+         *            有効期限
+         */
+        public Entry(final Object[] values, final long expiration) {
+            this.values = values;
+            this.expiration = expiration;
+        }
+
+    }
+
+}
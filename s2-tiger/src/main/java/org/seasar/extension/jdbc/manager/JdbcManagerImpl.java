@@ -16,8 +16,11 @@
 package org.seasar.extension.jdbc.manager;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 import javax.transaction.Status;
@@ -28,14 +31,19 @@ import org.seasar.extension.datasource.DataSourceFactory;
 import org.seasar.extension.datasource.impl.SelectableDataSourceProxy;
 import org.seasar.extension.jdbc.AutoBatchDelete;
 import org.seasar.extension.jdbc.AutoBatchInsert;
+import org.seasar.extension.jdbc.AutoBatchInsertOrUpdate;
 import org.seasar.extension.jdbc.AutoBatchUpdate;
+import org.seasar.extension.jdbc.AutoBulkDelete;
+import org.seasar.extension.jdbc.AutoBulkUpdate;
 import org.seasar.extension.jdbc.AutoDelete;
 import org.seasar.extension.jdbc.AutoFunctionCall;
 import org.seasar.extension.jdbc.AutoInsert;
+import org.seasar.extension.jdbc.AutoInsertOrUpdate;
 import org.seasar.extension.jdbc.AutoProcedureCall;
 import org.seasar.extension.jdbc.AutoSelect;
 import org.seasar.extension.jdbc.AutoUpdate;
 import org.seasar.extension.jdbc.DbmsDialect;
+import org.seasar.extension.jdbc.EntityCache;
 import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.EntityMetaFactory;
 import org.seasar.extension.jdbc.JdbcContext;
@@ -53,13 +61,19 @@ import org.seasar.extension.jdbc.SqlUpdate;
 import org.seasar.extension.jdbc.exception.NoIdPropertyRuntimeException;
 import org.seasar.extension.jdbc.query.AutoBatchDeleteImpl;
 import org.seasar.extension.jdbc.query.AutoBatchInsertImpl;
+import org.seasar.extension.jdbc.query.AutoBatchInsertOrUpdateImpl;
 import org.seasar.extension.jdbc.query.AutoBatchUpdateImpl;
+import org.seasar.extension.jdbc.query.AutoBulkDeleteImpl;
+import org.seasar.extension.jdbc.query.AutoBulkUpdateImpl;
 import org.seasar.extension.jdbc.query.AutoDeleteImpl;
 import org.seasar.extension.jdbc.query.AutoFunctionCallImpl;
 import org.seasar.extension.jdbc.query.AutoInsertImpl;
+import org.seasar.extension.jdbc.query.AutoInsertOrUpdateImpl;
 import org.seasar.extension.jdbc.query.AutoProcedureCallImpl;
 import org.seasar.extension.jdbc.query.AutoSelectImpl;
+import org.seasar.extension.jdbc.query.AutoSelectPlanCache;
 import org.seasar.extension.jdbc.query.AutoUpdateImpl;
+import org.seasar.extension.jdbc.query.RelationshipFetcher;
 import org.seasar.extension.jdbc.query.SqlBatchUpdateImpl;
 import org.seasar.extension.jdbc.query.SqlFileBatchUpdateImpl;
 import org.seasar.extension.jdbc.query.SqlFileFunctionCallImpl;
@@ -135,6 +149,36 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
      */
     protected boolean allowVariableSqlForBatchUpdate = true;
 
+    /**
+     * 結果セットをエンティティにマッピングする際に生成したクラスを使う場合は<code>true</code>です。
+     */
+    protected boolean compiledEntityMapperEnabled = false;
+
+    /**
+     * 識別子の次のブロックを非同期に先読みする割合(パーセント)です。
+     */
+    protected int idPrefetchRatio = 0;
+
+    /**
+     * バッチ更新のSQLのログで見本として保持する行数です。
+     */
+    protected int batchSqlLogSampleSize = -1;
+
+    /**
+     * エンティティのキャッシュです。
+     */
+    protected EntityCache entityCache;
+
+    /**
+     * 自動選択クエリの実行計画のキャッシュです。
+     */
+    protected AutoSelectPlanCache autoSelectPlanCache;
+
+    /**
+     * 関連エンティティを一括して検索する際に1つのSQLで検索するキーの最大数です。
+     */
+    protected int batchFetchSize = 500;
+
     public <T> AutoSelect<T> from(Class<T> baseClass) {
         return new AutoSelectImpl<T>(this, baseClass).maxRows(maxRows)
                 .fetchSize(fetchSize).queryTimeout(queryTimeout);
@@ -230,6 +274,43 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
                 .queryTimeout(queryTimeout);
     }
 
+    public <T> AutoInsertOrUpdate<T> insertOrUpdate(final T entity) {
+        final EntityMeta entityMeta = entityMetaFactory.getEntityMeta(entity
+                .getClass());
+        if (entityMeta.getIdPropertyMetaList().isEmpty()) {
+            throw new NoIdPropertyRuntimeException("ESSR0761", entityMeta
+                    .getName());
+        }
+        return new AutoInsertOrUpdateImpl<T>(this, entity)
+                .queryTimeout(queryTimeout);
+    }
+
+    public <T> AutoBatchInsertOrUpdate<T> insertOrUpdateBatch(
+            final T... entities) {
+        if (entities == null) {
+            throw new NullPointerException("entities");
+        }
+        return insertOrUpdateBatch(Arrays.asList(entities));
+    }
+
+    public <T> AutoBatchInsertOrUpdate<T> insertOrUpdateBatch(
+            final List<T> entities) {
+        if (entities == null) {
+            throw new NullPointerException("entities");
+        }
+        if (entities.isEmpty()) {
+            throw new EmptyRuntimeException("entities");
+        }
+        final EntityMeta entityMeta = entityMetaFactory.getEntityMeta(entities
+                .get(0).getClass());
+        if (entityMeta.getIdPropertyMetaList().isEmpty()) {
+            throw new NoIdPropertyRuntimeException("ESSR0761", entityMeta
+                    .getName());
+        }
+        return new AutoBatchInsertOrUpdateImpl<T>(this, entities)
+                .queryTimeout(queryTimeout);
+    }
+
     public SqlUpdate updateBySql(String sql, Class<?>... paramClasses) {
         return new SqlUpdateImpl(this, sql, paramClasses)
                 .queryTimeout(queryTimeout);
@@ -305,6 +386,28 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
                 .queryTimeout(queryTimeout);
     }
 
+    public <T> AutoBulkUpdate<T> updateAll(final Class<T> entityClass) {
+        return new AutoBulkUpdateImpl<T>(this, entityClass)
+                .queryTimeout(queryTimeout);
+    }
+
+    public <T> AutoBulkDelete<T> deleteAll(final Class<T> entityClass) {
+        return new AutoBulkDeleteImpl<T>(this, entityClass)
+                .queryTimeout(queryTimeout);
+    }
+
+    public List<?> fetchRelationship(final List<?> entities,
+            final String propertyName) {
+        if (entities == null) {
+            throw new NullPointerException("entities");
+        }
+        if (propertyName == null) {
+            throw new NullPointerException("propertyName");
+        }
+        return new RelationshipFetcher(this, batchFetchSize).fetch(entities,
+                propertyName);
+    }
+
     public AutoProcedureCall call(String procedureName) {
         return call(procedureName, null);
     }
@@ -432,8 +535,26 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
     protected void setTxBoundJdbcContext(final JdbcContext ctx) {
         final JdbcContextRegistryKey key = createJdbcContextRegistryKey();
         syncRegistry.putResource(key, ctx);
-        syncRegistry.registerInterposedSynchronization(new SynchronizationImpl(
-                ctx));
+        final SynchronizationImpl synchronization = new SynchronizationImpl(
+                ctx);
+        syncRegistry.putResource(new SynchronizationRegistryKey(key
+                .dataSourceName), synchronization);
+        syncRegistry.registerInterposedSynchronization(synchronization);
+    }
+
+    /**
+     * 現在のトランザクションに関連づけられた{@link SynchronizationImpl}を返します。
+     * 
+     * @return 現在のトランザクションに関連づけられた{@link SynchronizationImpl}、
+     *         存在しない場合は<code>null</code>
+     */
+    protected SynchronizationImpl getTxBoundSynchronization() {
+        if (!hasTransaction()) {
+            return null;
+        }
+        return SynchronizationImpl.class.cast(syncRegistry
+                .getResource(new SynchronizationRegistryKey(
+                        getSelectableDataSourceNameInternal())));
     }
 
     /**
@@ -589,6 +710,155 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
         this.allowVariableSqlForBatchUpdate = allowVariableSqlForBatchUpdate;
     }
 
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * エンティティのキャッシュを設定します。
+     * <p>
+     * {@link org.seasar.extension.jdbc.annotation.Cacheable}で注釈されたエンティティの識別子による検索結果がキャッシュされます。
+     * </p>
+     * 
+     * @param entityCache
+     *            エンティティのキャッシュ
+     */
+    @Binding(bindingType = BindingType.MAY)
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public boolean isEntityCacheAvailable(EntityMeta entityMeta) {
+        if (entityCache == null || !entityMeta.isCacheable()) {
+            return false;
+        }
+        final SynchronizationImpl synchronization = getTxBoundSynchronization();
+        return synchronization == null
+                || !synchronization.isEntityCacheEvicted(entityMeta);
+    }
+
+    public void evictEntityCache(EntityMeta entityMeta, Object entity) {
+        if (entityCache == null || !entityMeta.isCacheable()) {
+            return;
+        }
+        if (entity == null) {
+            entityCache.evictAll(entityMeta);
+        } else {
+            entityCache.evict(entityMeta, entity);
+        }
+        final SynchronizationImpl synchronization = getTxBoundSynchronization();
+        if (synchronization != null) {
+            synchronization.addEntityCacheEviction(entityMeta, entity);
+        }
+    }
+
+    public boolean isCompiledEntityMapperEnabled() {
+        return compiledEntityMapperEnabled;
+    }
+
+    /**
+     * 結果セットをエンティティにマッピングする際に生成したクラスを使う場合は<code>true</code>、
+     * リフレクションを使う場合は<code>false</code>を設定します。
+     * <p>
+     * <code>true</code>を設定すると、エンティティのインスタンス化とプロパティの設定を行なうクラスを
+     * Javassistで生成し、選択リストの形ごとにキャッシュして再利用します。
+     * 生成したクラスからアクセスできないフィールドはリフレクションで設定されます。
+     * </p>
+     * 
+     * @param compiledEntityMapperEnabled
+     *            結果セットをエンティティにマッピングする際に生成したクラスを使う場合は<code>true</code>
+     */
+    public void setCompiledEntityMapperEnabled(
+            boolean compiledEntityMapperEnabled) {
+        this.compiledEntityMapperEnabled = compiledEntityMapperEnabled;
+    }
+
+    public int getIdPrefetchRatio() {
+        return idPrefetchRatio;
+    }
+
+    /**
+     * 識別子の次のブロックを非同期に先読みする割合(パーセント)を設定します。
+     * <p>
+     * {@link javax.persistence.GenerationType#SEQUENCE}および{@link javax.persistence.GenerationType#TABLE}
+     * 方式のIDジェネレータは、割り当て済みのブロックに残っている識別子の数が割り当てサイズのこの割合になると、
+     * 次のブロックを別スレッドで取得します。 ブロックを使い切ったスレッドがデータベースへのアクセスを待たずに済むようになります。
+     * <code>0</code>(デフォルト)の場合は先読みしません。
+     * </p>
+     * 
+     * @param idPrefetchRatio
+     *            識別子の次のブロックを非同期に先読みする割合(パーセント)
+     */
+    public void setIdPrefetchRatio(int idPrefetchRatio) {
+        this.idPrefetchRatio = idPrefetchRatio;
+    }
+
+    /**
+     * 関連エンティティを一括して検索する際に1つのSQLで検索するキーの最大数を返します。
+     * 
+     * @return 関連エンティティを一括して検索する際に1つのSQLで検索するキーの最大数
+     */
+    public int getBatchFetchSize() {
+        return batchFetchSize;
+    }
+
+    /**
+     * 関連エンティティを一括して検索する際に1つのSQLで検索するキーの最大数を設定します。
+     * <p>
+     * デフォルトは<code>500</code>です。 方言がバインドできるパラメータ数に上限を設けている場合は、その上限も超えないように分割されます。
+     * <code>0</code>以下の場合はバインドできるパラメータ数の上限まで1つのSQLで検索します。
+     * </p>
+     * 
+     * @param batchFetchSize
+     *            関連エンティティを一括して検索する際に1つのSQLで検索するキーの最大数
+     * @see #fetchRelationship(List, String)
+     */
+    public void setBatchFetchSize(int batchFetchSize) {
+        this.batchFetchSize = batchFetchSize;
+    }
+
+    public int getBatchSqlLogSampleSize() {
+        return batchSqlLogSampleSize;
+    }
+
+    /**
+     * バッチ更新のSQLのログで見本として保持する行数を設定します。
+     * <p>
+     * <code>0</code>以上を設定すると、バッチ更新の行ごとにSQLをログに出力する代わりに、
+     * バッチ更新の実行ごとに先頭からこの行数だけを見本として保持する{@link org.seasar.extension.jdbc.BatchSqlLog}を
+     * 1つ記録します。 大量の行をバッチ更新する場合に、行ごとにログを記録するコストを削減できます。
+     * 負の値(デフォルト)の場合は従来どおり行ごとに記録します。
+     * </p>
+     * 
+     * @param batchSqlLogSampleSize
+     *            バッチ更新のSQLのログで見本として保持する行数
+     */
+    public void setBatchSqlLogSampleSize(int batchSqlLogSampleSize) {
+        this.batchSqlLogSampleSize = batchSqlLogSampleSize;
+    }
+
+    public AutoSelectPlanCache getAutoSelectPlanCache() {
+        return autoSelectPlanCache;
+    }
+
+    /**
+     * 自動選択クエリの実行計画をキャッシュするクエリの形の最大数を設定します。
+     * <p>
+     * <code>1</code>以上を設定すると、{@link #from(Class)}で作成したクエリが組み立てたSQLと結果セットのマッピングを、
+     * 対象のエンティティや結合、where句の条件、order by句などのクエリの形ごとにキャッシュします。
+     * 同じ形のクエリはSQLを組み立てずにパラメータの値だけをバインドして実行されます。
+     * <code>0</code>(デフォルト)以下の場合はキャッシュしません。
+     * </p>
+     * 
+     * @param autoSelectPlanCacheSize
+     *            自動選択クエリの実行計画をキャッシュするクエリの形の最大数
+     */
+    public void setAutoSelectPlanCacheSize(int autoSelectPlanCacheSize) {
+        autoSelectPlanCache = autoSelectPlanCacheSize > 0 ? new AutoSelectPlanCache(
+                autoSelectPlanCacheSize)
+                : null;
+    }
+
     /**
      * データソースファクトリを返します。
      * 
@@ -671,6 +941,9 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
         /** JDBCコンテキスト */
         protected final JdbcContext context;
 
+        /** トランザクションの完了時にキャッシュから破棄するエンティティのマップ */
+        protected Map<EntityMeta, List<Object>> entityCacheEvictions;
+
         /**
          * インスタンスを構築します。
          * 
@@ -685,7 +958,64 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
         }
 
         public void afterCompletion(final int status) {
-            context.destroy();
+            try {
+                context.destroy();
+            } finally {
+                evictEntityCache();
+            }
+        }
+
+        /**
+         * トランザクションの完了時にキャッシュから破棄するエンティティを追加します。
+         * 
+         * @param entityMeta
+         *            エンティティメタデータ
+         * @param entity
+         *            エンティティ、すべてのエンティティを破棄する場合は<code>null</code>
+         */
+        public void addEntityCacheEviction(final EntityMeta entityMeta,
+                final Object entity) {
+            if (entityCacheEvictions == null) {
+                entityCacheEvictions = new HashMap<EntityMeta, List<Object>>();
+            }
+            List<Object> entities = entityCacheEvictions.get(entityMeta);
+            if (entities == null) {
+                entities = new ArrayList<Object>();
+                entityCacheEvictions.put(entityMeta, entities);
+            }
+            entities.add(entity);
+        }
+
+        /**
+         * このトランザクションでエンティティをキャッシュから破棄した場合は<code>true</code>を返します。
+         * 
+         * @param entityMeta
+         *            エンティティメタデータ
+         * @return このトランザクションでエンティティをキャッシュから破棄した場合は<code>true</code>
+         */
+        public boolean isEntityCacheEvicted(final EntityMeta entityMeta) {
+            return entityCacheEvictions != null
+                    && entityCacheEvictions.containsKey(entityMeta);
+        }
+
+        /**
+         * このトランザクションで更新または削除したエンティティをキャッシュから破棄します。
+         */
+        protected void evictEntityCache() {
+            if (entityCacheEvictions == null || entityCache == null) {
+                return;
+            }
+            for (final Map.Entry<EntityMeta, List<Object>> entry : entityCacheEvictions
+                    .entrySet()) {
+                for (final Object entity : entry.getValue()) {
+                    if (entity == null) {
+                        entityCache.evictAll(entry.getKey());
+                    } else {
+                        entityCache.evict(entry.getKey(), entity);
+                    }
+                }
+            }
+            entityCacheEvictions = null;
         }
 
     }
@@ -751,4 +1081,21 @@ public class JdbcManagerImpl implements JdbcManager, JdbcManagerImplementor {
         }
 
     }
+
+    /**
+     * {@link SynchronizationImpl}を{@link TransactionSynchronizationRegistry}に登録する際のキーです。
+     */
+    public class SynchronizationRegistryKey extends JdbcContextRegistryKey {
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param dataSourceName
+         *            データソース名
+         */
+        public SynchronizationRegistryKey(String dataSourceName) {
+            super(dataSourceName);
+        }
+
+    }
 }
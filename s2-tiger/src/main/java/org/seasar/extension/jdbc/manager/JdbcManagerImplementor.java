@@ -18,8 +18,11 @@ package org.seasar.extension.jdbc.manager;
 import javax.sql.DataSource;
 
 import org.seasar.extension.jdbc.DbmsDialect;
+import org.seasar.extension.jdbc.EntityCache;
+import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.EntityMetaFactory;
 import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.query.AutoSelectPlanCache;
 import org.seasar.framework.convention.PersistenceConvention;
 
 /**
@@ -79,4 +82,74 @@ public interface JdbcManagerImplementor {
      */
     boolean isAllowVariableSqlForBatchUpdate();
 
+    /**
+     * 結果セットをエンティティにマッピングする際に生成したクラスを使う場合は<code>true</code>、
+     * リフレクションを使う場合は<code>false</code>を返します。
+     * 
+     * @return 結果セットをエンティティにマッピングする際に生成したクラスを使う場合は<code>true</code>
+     */
+    boolean isCompiledEntityMapperEnabled();
+
+    /**
+     * 識別子の次のブロックを非同期に先読みする割合を返します。
+     * <p>
+     * 割り当て済みのブロックに残っている識別子の数が割り当てサイズのこの割合(パーセント)になると、
+     * 次のブロックを別スレッドで取得します。<code>0</code>の場合は先読みしません。
+     * </p>
+     * 
+     * @return 識別子の次のブロックを非同期に先読みする割合
+     */
+    int getIdPrefetchRatio();
+
+    /**
+     * バッチ更新のSQLのログで見本として保持する行数を返します。
+     * <p>
+     * 負の値の場合はバッチ更新の行ごとにSQLのログを記録します。
+     * <code>0</code>以上の場合はバッチ更新の実行ごとに{@link org.seasar.extension.jdbc.BatchSqlLog}を1つ記録します。
+     * </p>
+     * 
+     * @return バッチ更新のSQLのログで見本として保持する行数
+     */
+    int getBatchSqlLogSampleSize();
+
+    /**
+     * エンティティのキャッシュを返します。
+     * 
+     * @return エンティティのキャッシュ、キャッシュを使わない場合は<code>null</code>
+     */
+    EntityCache getEntityCache();
+
+    /**
+     * エンティティのキャッシュを参照できる場合は<code>true</code>を返します。
+     * <p>
+     * エンティティのキャッシュが設定されていない場合、エンティティがキャッシュの対象でない場合、
+     * 現在のトランザクションでエンティティを更新または削除した場合は<code>false</code>を返します。
+     * </p>
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @return エンティティのキャッシュを参照できる場合は<code>true</code>
+     */
+    boolean isEntityCacheAvailable(EntityMeta entityMeta);
+
+    /**
+     * エンティティをキャッシュから破棄します。
+     * <p>
+     * トランザクション中の場合は、トランザクションの完了時にも再度破棄します。
+     * </p>
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param entity
+     *            エンティティ、エンティティメタデータのすべてのエンティティを破棄する場合は<code>null</code>
+     */
+    void evictEntityCache(EntityMeta entityMeta, Object entity);
+
+    /**
+     * 自動選択クエリの実行計画のキャッシュを返します。
+     * 
+     * @return 自動選択クエリの実行計画のキャッシュ、キャッシュしない場合は<code>null</code>
+     */
+    AutoSelectPlanCache getAutoSelectPlanCache();
+
 }
@@ -51,6 +51,11 @@ public abstract class AbstractEntityMapper {
      */
     protected List<RelationshipEntityMapper> relationshipEntityMapperList = new ArrayList<RelationshipEntityMapper>();
 
+    /**
+     * エンティティにプロパティを設定するポピュレータです。
+     */
+    protected EntityPopulator entityPopulator;
+
     /**
      * {@link AbstractEntityMapper}を作成します。
      * 
@@ -129,9 +134,15 @@ public abstract class AbstractEntityMapper {
      */
     protected Object createEntity(Object[] values,
             MappingContext mappingContext, Object key) {
-        Object entity = ClassUtil.newInstance(entityClass);
-        for (PropertyMapper propertyMapper : propertyMappers) {
-            propertyMapper.map(entity, values);
+        Object entity;
+        if (entityPopulator != null) {
+            entity = entityPopulator.newEntity();
+            entityPopulator.populate(entity, values);
+        } else {
+            entity = ClassUtil.newInstance(entityClass);
+            for (PropertyMapper propertyMapper : propertyMappers) {
+                propertyMapper.map(entity, values);
+            }
         }
         if (key != null) {
             mappingContext.setCache(entityClass, key, entity);
@@ -186,6 +197,28 @@ public abstract class AbstractEntityMapper {
         return propertyMappers;
     }
 
+    /**
+     * エンティティにプロパティを設定するポピュレータを返します。
+     * 
+     * @return エンティティにプロパティを設定するポピュレータ
+     */
+    public EntityPopulator getEntityPopulator() {
+        return entityPopulator;
+    }
+
+    /**
+     * エンティティにプロパティを設定するポピュレータを設定します。
+     * <p>
+     * ポピュレータが設定されていない場合は、プロパティマッパーを使ってリフレクションで設定します。
+     * </p>
+     * 
+     * @param entityPopulator
+     *            エンティティにプロパティを設定するポピュレータ
+     */
+    public void setEntityPopulator(EntityPopulator entityPopulator) {
+        this.entityPopulator = entityPopulator;
+    }
+
     /**
      * 関連のエンティティマッパーの配列を返します。
      * 
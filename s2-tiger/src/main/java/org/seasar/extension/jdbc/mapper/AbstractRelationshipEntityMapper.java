@@ -88,6 +88,22 @@ public abstract class AbstractRelationshipEntityMapper extends
      */
     protected abstract void mapRelationship(Object target, Object entity);
 
+    /**
+     * 結果セットとは別に取得したエンティティを関連としてマッピングします。
+     * <p>
+     * 関連元のエンティティと関連エンティティを別のSQLで取得した場合に、
+     * 結合して取得した場合と同じように関連と逆側の関連を設定します。
+     * </p>
+     * 
+     * @param target
+     *            関連元のエンティティ
+     * @param entity
+     *            エンティティ、関連するエンティティがない場合は<code>null</code>
+     */
+    public void relate(Object target, Object entity) {
+        mapRelationship(target, entity);
+    }
+
     /**
      * 関連エンティティのフィールドを返します。
      * 
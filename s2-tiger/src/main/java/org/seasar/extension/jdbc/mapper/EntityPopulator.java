@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.mapper;
+
+import org.seasar.extension.jdbc.PropertyMapper;
+import org.seasar.framework.util.ClassUtil;
+
+/**
+ * 結果セットから取得した値をエンティティに設定するクラスです。
+ * <p>
+ * このクラスのサブクラスは{@link EntityPopulatorGenerator}によってエンティティクラスと
+ * プロパティマッパーの組み合わせごとに生成され、 エンティティのフィールドにリフレクションを使わずに値を設定します。
+ * 生成されたクラスからアクセスできないフィールドは{@link PropertyMapper}で設定されます。
+ * </p>
+ */
+public abstract class EntityPopulator {
+
+    /**
+     * エンティティクラスです。
+     */
+    protected Class<?> entityClass;
+
+    /**
+     * プロパティマッパーの配列です。
+     */
+    protected PropertyMapper[] propertyMappers;
+
+    /**
+     * 初期化します。
+     * 
+     * @param entityClass
+     *            エンティティクラス
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     */
+    public void initialize(Class<?> entityClass,
+            PropertyMapper[] propertyMappers) {
+        this.entityClass = entityClass;
+        this.propertyMappers = propertyMappers;
+    }
+
+    /**
+     * エンティティクラスを返します。
+     * 
+     * @return エンティティクラス
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * プロパティマッパーの配列を返します。
+     * 
+     * @return プロパティマッパーの配列
+     */
+    public PropertyMapper[] getPropertyMappers() {
+        return propertyMappers;
+    }
+
+    /**
+     * 生成されたクラスのシグニチャを返します。
+     * 
+     * @return 生成されたクラスのシグニチャ
+     * @see EntityPopulatorGenerator#getSignature(Class, PropertyMapperImpl[])
+     */
+    public abstract String getSignature();
+
+    /**
+     * エンティティを作成します。
+     * 
+     * @return エンティティ
+     */
+    public Object newEntity() {
+        return ClassUtil.newInstance(entityClass);
+    }
+
+    /**
+     * 値をエンティティに設定します。
+     * <p>
+     * <code>null</code>の値は設定されません。
+     * </p>
+     * 
+     * @param entity
+     *            エンティティ
+     * @param values
+     *            値の配列
+     */
+    public abstract void populate(Object entity, Object[] values);
+
+}
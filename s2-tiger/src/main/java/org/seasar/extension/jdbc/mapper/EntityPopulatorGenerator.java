@@ -0,0 +1,429 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.mapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+
+import org.seasar.extension.jdbc.PropertyMapper;
+import org.seasar.framework.aop.javassist.AbstractGenerator;
+import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.ClassPoolUtil;
+import org.seasar.framework.util.ClassUtil;
+import org.seasar.framework.util.Disposable;
+import org.seasar.framework.util.DisposableUtil;
+
+/**
+ * {@link EntityPopulator}のサブクラスを生成するクラスです。
+ * <p>
+ * 生成されるクラスはエンティティクラスと同じクラスローダ、同じパッケージに定義されます。
+ * 生成した{@link EntityPopulator}はエンティティクラスとプロパティマッパーの組み合わせ(選択リストの形)ごとにキャッシュされます。
+ * </p>
+ */
+public class EntityPopulatorGenerator extends AbstractGenerator {
+
+    /**
+     * 生成されるクラス名のサフィックスです。
+     */
+    public static final String SUFFIX = "$$EntityPopulator$$";
+
+    private static final Logger logger = Logger
+            .getLogger(EntityPopulatorGenerator.class);
+
+    private static volatile boolean initialized;
+
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, EntityPopulator>> populatorCache = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, EntityPopulator>>(
+            200);
+
+    static {
+        initialize();
+    }
+
+    /**
+     * エンティティクラスです。
+     */
+    protected final Class<?> entityClass;
+
+    /**
+     * プロパティマッパーの配列です。
+     */
+    protected final PropertyMapperImpl[] propertyMappers;
+
+    /**
+     * {@link EntityPopulatorGenerator}を作成します。
+     * 
+     * @param classPool
+     *            クラスプール
+     * @param entityClass
+     *            エンティティクラス
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     */
+    public EntityPopulatorGenerator(final ClassPool classPool,
+            final Class<?> entityClass,
+            final PropertyMapperImpl[] propertyMappers) {
+        super(classPool);
+        this.entityClass = entityClass;
+        this.propertyMappers = propertyMappers;
+    }
+
+    /**
+     * {@link EntityPopulator}を返します。
+     * 
+     * @param entityClass
+     *            エンティティクラス
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     * @return {@link EntityPopulator}、生成できない場合は<code>null</code>
+     */
+    public static EntityPopulator getEntityPopulator(
+            final Class<?> entityClass, final PropertyMapper[] propertyMappers) {
+        if (!initialized) {
+            initialize();
+        }
+        final PropertyMapperImpl[] mappers = toPropertyMapperImplArray(propertyMappers);
+        if (mappers == null || !isGeneratable(entityClass)) {
+            return null;
+        }
+        final String signature = getSignature(entityClass, mappers);
+        ConcurrentMap<String, EntityPopulator> populators = populatorCache
+                .get(entityClass);
+        if (populators == null) {
+            populators = new ConcurrentHashMap<String, EntityPopulator>();
+            final ConcurrentMap<String, EntityPopulator> populators2 = populatorCache
+                    .putIfAbsent(entityClass, populators);
+            if (populators2 != null) {
+                populators = populators2;
+            }
+        }
+        final EntityPopulator populator = populators.get(signature);
+        if (populator != null) {
+            return populator;
+        }
+        final EntityPopulator newPopulator;
+        try {
+            newPopulator = createEntityPopulator(entityClass, mappers,
+                    signature);
+        } catch (final Throwable t) {
+            logger.log("WSSR0018", new Object[] { entityClass.getName() }, t);
+            return null;
+        }
+        if (newPopulator == null) {
+            return null;
+        }
+        final EntityPopulator populator2 = populators.putIfAbsent(signature,
+                newPopulator);
+        return populator2 != null ? populator2 : newPopulator;
+    }
+
+    /**
+     * 初期化を行ないます。
+     */
+    public static void initialize() {
+        DisposableUtil.add(new Disposable() {
+            public void dispose() {
+                clear();
+            }
+        });
+        initialized = true;
+    }
+
+    /**
+     * キャッシュをクリアします。
+     */
+    public static void clear() {
+        populatorCache.clear();
+        initialized = false;
+    }
+
+    /**
+     * エンティティクラスとプロパティマッパーの組み合わせをあらわすシグニチャを返します。
+     * 
+     * @param entityClass
+     *            エンティティクラス
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     * @return シグニチャ
+     */
+    public static String getSignature(final Class<?> entityClass,
+            final PropertyMapperImpl[] propertyMappers) {
+        final StringBuilder buf = new StringBuilder(200);
+        buf.append(entityClass.getName());
+        for (final PropertyMapperImpl mapper : propertyMappers) {
+            final Field field = mapper.getField();
+            buf.append(',').append(field.getDeclaringClass().getName()).append(
+                    '#').append(field.getName()).append('=').append(
+                    mapper.getPropertyIndex());
+        }
+        return new String(buf);
+    }
+
+    /**
+     * {@link EntityPopulator}を生成できるクラスなら<code>true</code>を返します。
+     * 
+     * @param entityClass
+     *            エンティティクラス
+     * @return {@link EntityPopulator}を生成できるクラスなら<code>true</code>
+     */
+    protected static boolean isGeneratable(final Class<?> entityClass) {
+        final ClassLoader classLoader = entityClass.getClassLoader();
+        if (classLoader == null || entityClass.isInterface()
+                || entityClass.getName().startsWith("java.")) {
+            return false;
+        }
+        try {
+            return classLoader.loadClass(EntityPopulator.class.getName()) == EntityPopulator.class;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * {@link EntityPopulator}を作成します。
+     * <p>
+     * すでに生成されたクラスがある場合はそのクラスを再利用します。
+     * </p>
+     * 
+     * @param entityClass
+     *            エンティティクラス
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     * @param signature
+     *            シグニチャ
+     * @return {@link EntityPopulator}、生成できない場合は<code>null</code>
+     */
+    protected static EntityPopulator createEntityPopulator(
+            final Class<?> entityClass,
+            final PropertyMapperImpl[] propertyMappers, final String signature) {
+        final ClassLoader classLoader = entityClass.getClassLoader();
+        final String className = entityClass.getName() + SUFFIX
+                + Integer.toHexString(signature.hashCode());
+        Class<?> populatorClass;
+        synchronized (EntityPopulatorGenerator.class) {
+            populatorClass = findClass(classLoader, className);
+            if (populatorClass == null) {
+                final EntityPopulatorGenerator generator = new EntityPopulatorGenerator(
+                        ClassPoolUtil.getClassPool(entityClass), entityClass,
+                        propertyMappers);
+                populatorClass = generator.generate(classLoader, className,
+                        signature);
+            }
+        }
+        final EntityPopulator populator = EntityPopulator.class
+                .cast(ClassUtil.newInstance(populatorClass));
+        if (!signature.equals(populator.getSignature())) {
+            return null;
+        }
+        populator.initialize(entityClass, propertyMappers);
+        return populator;
+    }
+
+    /**
+     * 生成済みのクラスを返します。
+     * 
+     * @param classLoader
+     *            クラスローダ
+     * @param className
+     *            クラス名
+     * @return 生成済みのクラス、見つからない場合は<code>null</code>
+     */
+    protected static Class<?> findClass(final ClassLoader classLoader,
+            final String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (final ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@link PropertyMapperImpl}の配列に変換します。
+     * 
+     * @param propertyMappers
+     *            プロパティマッパーの配列
+     * @return {@link PropertyMapperImpl}の配列、 {@link PropertyMapperImpl}
+     *         以外のプロパティマッパーが含まれている場合は<code>null</code>
+     */
+    protected static PropertyMapperImpl[] toPropertyMapperImplArray(
+            final PropertyMapper[] propertyMappers) {
+        final PropertyMapperImpl[] mappers = new PropertyMapperImpl[propertyMappers.length];
+        for (int i = 0; i < propertyMappers.length; ++i) {
+            if (propertyMappers[i].getClass() != PropertyMapperImpl.class) {
+                return null;
+            }
+            mappers[i] = PropertyMapperImpl.class.cast(propertyMappers[i]);
+        }
+        return mappers;
+    }
+
+    /**
+     * {@link EntityPopulator}のサブクラスを生成します。
+     * 
+     * @param classLoader
+     *            クラスローダ
+     * @param className
+     *            生成するクラスの名前
+     * @param signature
+     *            シグニチャ
+     * @return 生成したクラス
+     */
+    public Class<?> generate(final ClassLoader classLoader,
+            final String className, final String signature) {
+        final CtClass populatorClass = createCtClass(className,
+                EntityPopulator.class);
+        try {
+            createDefaultConstructor(populatorClass);
+            createMethod(populatorClass,
+                    "public java.lang.String getSignature() { return \""
+                            + signature + "\";}");
+            if (isInstantiatable()) {
+                createMethod(populatorClass,
+                        "public java.lang.Object newEntity() { return new "
+                                + entityClass.getName() + "();}");
+            }
+            createMethod(populatorClass, createPopulateSource());
+            return toClass(classLoader, populatorClass);
+        } finally {
+            populatorClass.detach();
+        }
+    }
+
+    /**
+     * <code>populate(Object, Object[])</code>メソッドのソースを作成します。
+     * <p>
+     * スーパークラスで宣言されたフィールドは、サブクラスで同じ名前のフィールドに隠蔽されていても
+     * {@link PropertyMapperImpl}と同じフィールドに設定されるように、宣言したクラスにキャストして参照します。
+     * </p>
+     * 
+     * @return <code>populate(Object, Object[])</code>メソッドのソース
+     */
+    protected String createPopulateSource() {
+        final String entityClassName = entityClass.getName();
+        final StringBuilder buf = new StringBuilder(2000);
+        buf.append("public void populate(java.lang.Object entity, "
+                + "java.lang.Object[] values) {");
+        buf.append(entityClassName).append(" e = (").append(entityClassName)
+                .append(") entity;");
+        buf.append("java.lang.Object v;");
+        for (int i = 0; i < propertyMappers.length; ++i) {
+            final Field field = propertyMappers[i].getField();
+            if (!isAccessible(field)) {
+                buf.append("propertyMappers[").append(i).append(
+                        "].map(entity, values);");
+                continue;
+            }
+            buf.append("v = values[").append(
+                    propertyMappers[i].getPropertyIndex()).append("];");
+            buf.append("if (v != null) {");
+            final Class<?> declaringClass = field.getDeclaringClass();
+            if (declaringClass == entityClass) {
+                buf.append("e.");
+            } else {
+                buf.append("((").append(declaringClass.getName()).append(
+                        ") e).");
+            }
+            buf.append(field.getName()).append(" = ").append(
+                    fromObject(field.getType(), "v")).append(";}");
+        }
+        buf.append("}");
+        return new String(buf);
+    }
+
+    /**
+     * 生成されるクラスからエンティティをインスタンス化できる場合は<code>true</code>を返します。
+     * 
+     * @return 生成されるクラスからエンティティをインスタンス化できる場合は<code>true</code>
+     */
+    protected boolean isInstantiatable() {
+        if (Modifier.isAbstract(entityClass.getModifiers())) {
+            return false;
+        }
+        try {
+            final Constructor<?> constructor = entityClass
+                    .getDeclaredConstructor();
+            return !Modifier.isPrivate(constructor.getModifiers());
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成されるクラスからフィールドに値を設定できる場合は<code>true</code>を返します。
+     * 
+     * @param field
+     *            フィールド
+     * @return 生成されるクラスからフィールドに値を設定できる場合は<code>true</code>
+     */
+    protected boolean isAccessible(final Field field) {
+        final int modifiers = field.getModifiers();
+        if (Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)
+                || Modifier.isStatic(modifiers)) {
+            return false;
+        }
+        if (!isAccessible(field.getType())) {
+            return false;
+        }
+        final Class<?> declaringClass = field.getDeclaringClass();
+        if (Modifier.isPublic(modifiers)
+                && Modifier.isPublic(declaringClass.getModifiers())) {
+            return true;
+        }
+        return isSamePackage(declaringClass);
+    }
+
+    /**
+     * 生成されるクラスから型にアクセスできる場合は<code>true</code>を返します。
+     * 
+     * @param type
+     *            型
+     * @return 生成されるクラスから型にアクセスできる場合は<code>true</code>
+     */
+    protected boolean isAccessible(final Class<?> type) {
+        Class<?> clazz = type;
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz.isPrimitive() || Modifier.isPublic(clazz.getModifiers())) {
+            return true;
+        }
+        return isSamePackage(clazz);
+    }
+
+    /**
+     * エンティティクラスと同じクラスローダの同じパッケージのクラスなら<code>true</code>を返します。
+     * 
+     * @param clazz
+     *            クラス
+     * @return エンティティクラスと同じクラスローダの同じパッケージのクラスなら<code>true</code>
+     */
+    protected boolean isSamePackage(final Class<?> clazz) {
+        return clazz.getClassLoader() == entityClass.getClassLoader()
+                && getPackageName(clazz).equals(getPackageName(entityClass));
+    }
+
+    private static String getPackageName(final Class<?> clazz) {
+        final String name = clazz.getName();
+        final int pos = name.lastIndexOf('.');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+
+}
@@ -30,6 +30,7 @@ import org.seasar.extension.jdbc.PropertyMetaFactory;
 import org.seasar.extension.jdbc.RelationshipType;
 import org.seasar.extension.jdbc.TableMeta;
 import org.seasar.extension.jdbc.TableMetaFactory;
+import org.seasar.extension.jdbc.annotation.Cacheable;
 import org.seasar.extension.jdbc.exception.FieldDuplicatedRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinColumnAutoConfigurationRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinColumnNotFoundRuntimeException;
@@ -140,6 +141,7 @@ public class EntityMetaFactoryImpl implements EntityMetaFactory {
         doName(entityMeta, entityClass, entity);
         doTableMeta(entityMeta, entityClass);
         doPropertyMeta(entityMeta, entityClass);
+        doCache(entityMeta, entityClass);
         doCustomize(entityMeta, entityClass);
         return entityMeta;
     }
@@ -218,6 +220,24 @@ public class EntityMetaFactoryImpl implements EntityMetaFactory {
         }
     }
 
+    /**
+     * キャッシュを処理します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param entityClass
+     *            エンティティクラス
+     */
+    protected void doCache(EntityMeta entityMeta, Class<?> entityClass) {
+        Cacheable cacheable = entityClass.getAnnotation(Cacheable.class);
+        if (cacheable == null) {
+            return;
+        }
+        entityMeta.setCacheable(true);
+        entityMeta.setCacheMaxSize(cacheable.maxSize());
+        entityMeta.setCacheTimeToLive(cacheable.timeToLive() * 1000L);
+    }
+
     /**
      * フィールドの配列を返します。
      * 
@@ -51,6 +51,7 @@ import org.seasar.extension.jdbc.PropertyMeta;
 import org.seasar.extension.jdbc.PropertyMetaFactory;
 import org.seasar.extension.jdbc.RelationshipType;
 import org.seasar.extension.jdbc.ValueType;
+import org.seasar.extension.jdbc.annotation.TimeBasedGenerator;
 import org.seasar.extension.jdbc.exception.BothMappedByAndJoinColumnRuntimeException;
 import org.seasar.extension.jdbc.exception.IdGeneratorNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinColumnNameAndReferencedColumnNameMandatoryRuntimeException;
@@ -66,6 +67,7 @@ import org.seasar.extension.jdbc.exception.VersionPropertyNotNumberRuntimeExcept
 import org.seasar.extension.jdbc.id.IdentityIdGenerator;
 import org.seasar.extension.jdbc.id.SequenceIdGenerator;
 import org.seasar.extension.jdbc.id.TableIdGenerator;
+import org.seasar.extension.jdbc.id.TimeBasedIdGenerator;
 import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.framework.container.annotation.tiger.Binding;
 import org.seasar.framework.container.annotation.tiger.BindingType;
@@ -229,6 +231,9 @@ public class PropertyMetaFactoryImpl implements PropertyMetaFactory {
         }
         GenerationType generationType = generatedValue.strategy();
         propertyMeta.setGenerationType(generationType);
+        if (doTimeBasedIdGenerator(propertyMeta, generatedValue, entityMeta)) {
+            return;
+        }
         switch (generationType) {
         case AUTO:
             doIdentityIdGenerator(propertyMeta, entityMeta);
@@ -340,6 +345,40 @@ public class PropertyMetaFactoryImpl implements PropertyMetaFactory {
         return true;
     }
 
+    /**
+     * {@link TimeBasedGenerator}で識別子の値を自動生成するIDジェネレータを処理します。
+     * 
+     * @param propertyMeta
+     *            プロパティメタデータ
+     * @param generatedValue
+     *            識別子に付けられた{@link GeneratedValue}アノテーション
+     * @param entityMeta
+     *            エンティティのメタデータ
+     * @return {@link TimeBasedGenerator}で識別子の値を自動生成するIDジェネレータが存在した場合に
+     *         <code>true</code>
+     */
+    protected boolean doTimeBasedIdGenerator(PropertyMeta propertyMeta,
+            GeneratedValue generatedValue, EntityMeta entityMeta) {
+        String name = generatedValue.generator();
+        if (StringUtil.isEmpty(name)) {
+            return false;
+        }
+        TimeBasedGenerator timeBasedGenerator = propertyMeta.getField()
+                .getAnnotation(TimeBasedGenerator.class);
+        if (timeBasedGenerator == null
+                || !name.equals(timeBasedGenerator.name())) {
+            timeBasedGenerator = entityMeta.getEntityClass().getAnnotation(
+                    TimeBasedGenerator.class);
+            if (timeBasedGenerator == null
+                    || !name.equals(timeBasedGenerator.name())) {
+                return false;
+            }
+        }
+        propertyMeta.setTimeBasedIdGenerator(new TimeBasedIdGenerator(
+                entityMeta, propertyMeta, timeBasedGenerator));
+        return true;
+    }
+
     /**
      * フェッチタイプを処理します。
      * 
@@ -16,6 +16,7 @@
 package org.seasar.extension.jdbc.query;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.OptimisticLockException;
@@ -24,6 +25,7 @@ import org.seasar.extension.jdbc.BatchUpdate;
 import org.seasar.extension.jdbc.DbmsDialect;
 import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.exception.SEntityExistsException;
 import org.seasar.extension.jdbc.exception.SOptimisticLockException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
@@ -138,12 +140,25 @@ public abstract class AbstractAutoBatchUpdate<T, S extends BatchUpdate<S>>
             }
             return rows;
         } finally {
+            evictEntityCache();
             if (!jdbcContext.isTransactional()) {
                 jdbcContext.destroy();
             }
         }
     }
 
+    /**
+     * 更新したエンティティをキャッシュから破棄します。
+     */
+    protected void evictEntityCache() {
+        if (!entityMeta.isCacheable()) {
+            return;
+        }
+        for (final T entity : entities) {
+            jdbcManager.evictEntityCache(entityMeta, entity);
+        }
+    }
+
     /**
      * バッチ更新を実行します。
      * 
@@ -157,19 +172,22 @@ public abstract class AbstractAutoBatchUpdate<T, S extends BatchUpdate<S>>
                 .getDefaultBatchSize();
         final int size = entities.size();
         final int[] updateRows = new int[size];
+        final List<SqlLog> samples = new ArrayList<SqlLog>();
         int pos = 0;
         for (int i = 0; i < size; ++i) {
             final T entity = entities.get(i);
             prepareParams(entity);
-            logSql();
+            logBatchRow(samples);
             prepareInParams(ps);
             PreparedStatementUtil.addBatch(ps);
             resetParams();
             if (i == size - 1 || (batchSize > 0 && (i + 1) % batchSize == 0)) {
-                final int[] rows = PreparedStatementUtil.executeBatch(ps);
+                logBatchSql(i + 1 - pos, samples);
+                final int[] rows = executeBatchUpdate(ps);
                 if (isOptimisticLock()) {
                     validateRows(ps, rows);
                 }
+                postExecuteBatch(ps, entities.subList(pos, i + 1));
                 System.arraycopy(rows, 0, updateRows, pos, rows.length);
                 pos = i + 1;
             }
@@ -177,6 +195,18 @@ public abstract class AbstractAutoBatchUpdate<T, S extends BatchUpdate<S>>
         return updateRows;
     }
 
+    /**
+     * バッチ更新の実行後処理を行います。
+     * 
+     * @param ps
+     *            バッチ更新を実行したステートメント
+     * @param executedEntities
+     *            バッチ更新を実行したエンティティのリスト
+     */
+    protected void postExecuteBatch(final PreparedStatement ps,
+            final List<T> executedEntities) {
+    }
+
     /**
      * 準備されたステートメントを返します。
      * 
@@ -0,0 +1,372 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.Update;
+import org.seasar.extension.jdbc.ValueType;
+import org.seasar.extension.jdbc.Where;
+import org.seasar.extension.jdbc.WhereClause;
+import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
+import org.seasar.extension.jdbc.exception.SWhereClauseEmptyRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.extension.jdbc.util.QueryTokenizer;
+import org.seasar.extension.jdbc.where.ComplexWhere;
+import org.seasar.framework.util.StatementUtil;
+import org.seasar.framework.util.StringUtil;
+import org.seasar.framework.util.tiger.CollectionsUtil;
+
+/**
+ * 条件に一致する行をまとめて更新または削除する一括更新の抽象クラスです。
+ * <p>
+ * where句の条件はプロパティ名で記述し、{@link PropertyMeta}をもとにカラム名に変換します。
+ * </p>
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ * @param <S>
+ *            <code>Update</code>のサブタイプです。
+ */
+public abstract class AbstractAutoBulkUpdate<T, S extends Update<S>> extends
+        AbstractQuery<S> implements Update<S> {
+
+    /** エンティティクラス */
+    protected final Class<T> entityClass;
+
+    /** エンティティメタデータ */
+    protected final EntityMeta entityMeta;
+
+    /** where句 */
+    protected final WhereClause whereClause = new WhereClause();
+
+    /** クライテリア */
+    protected String criteria;
+
+    /** where句のパラメータ */
+    protected final List<Object> whereParams = CollectionsUtil.newArrayList();
+
+    /** クライテリアのパラメータ */
+    protected Object[] criteriaParams = new Object[] {};
+
+    /** クライテリアのパラメータに対応するプロパティ名 */
+    protected String[] criteriaPropertyNames = new String[] {};
+
+    /** where句の条件がなくてもすべての行を対象にする場合は<code>true</code> */
+    protected boolean all;
+
+    /**
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entityClass
+     *            エンティティクラス
+     */
+    public AbstractAutoBulkUpdate(final JdbcManagerImplementor jdbcManager,
+            final Class<T> entityClass) {
+        super(jdbcManager);
+        if (entityClass == null) {
+            throw new NullPointerException("entityClass");
+        }
+        this.entityClass = entityClass;
+        this.entityMeta = jdbcManager.getEntityMetaFactory().getEntityMeta(
+                entityClass);
+    }
+
+    /**
+     * エンティティクラスを返します。
+     * 
+     * @return エンティティクラス
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * エンティティのメタデータを返します。
+     * 
+     * @return エンティティのメタデータ
+     */
+    public EntityMeta getEntityMeta() {
+        return entityMeta;
+    }
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param criteria
+     *            クライテリア
+     * @param params
+     *            パラメータの配列
+     * @return このインスタンス自身
+     */
+    @SuppressWarnings("unchecked")
+    public S where(final String criteria, final Object... params) {
+        if (criteria == null) {
+            throw new NullPointerException("criteria");
+        }
+        if (params == null) {
+            throw new NullPointerException("params");
+        }
+        this.criteria = criteria;
+        for (final Object o : params) {
+            whereParams.add(o);
+        }
+        return (S) this;
+    }
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param where
+     *            where句のビルダー
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    @SuppressWarnings("unchecked")
+    public S where(final Where where)
+            throws SWhereClauseEmptyRuntimeException {
+        if (where == null) {
+            throw new NullPointerException("where");
+        }
+        final String criteria = where.getCriteria();
+        if (StringUtil.isEmpty(criteria)) {
+            if (!all) {
+                throw new SWhereClauseEmptyRuntimeException(entityMeta
+                        .getName());
+            }
+            return (S) this;
+        }
+        this.criteria = criteria;
+        this.criteriaParams = where.getParams();
+        this.criteriaPropertyNames = where.getPropertyNames();
+        return (S) this;
+    }
+
+    /**
+     * where句の条件を指定します。
+     * 
+     * @param wheres
+     *            where句のビルダーの並び
+     * @return このインスタンス自身
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    @SuppressWarnings("unchecked")
+    public S where(final Where... wheres)
+            throws SWhereClauseEmptyRuntimeException {
+        if (wheres == null) {
+            throw new NullPointerException("whereList");
+        }
+        final ComplexWhere where = new ComplexWhere();
+        for (final Where w : wheres) {
+            where.and(w);
+        }
+        final String criteria = where.getCriteria().trim();
+        if (StringUtil.isEmpty(criteria)) {
+            if (!all) {
+                throw new SWhereClauseEmptyRuntimeException(entityMeta
+                        .getName());
+            }
+            return (S) this;
+        }
+        this.criteria = criteria;
+        this.criteriaParams = where.getParams();
+        this.criteriaPropertyNames = where.getPropertyNames();
+        return (S) this;
+    }
+
+    /**
+     * where句の条件がなくてもすべての行を対象にすることを指定します。
+     * 
+     * @return このインスタンス自身
+     */
+    @SuppressWarnings("unchecked")
+    public S all() {
+        all = true;
+        return (S) this;
+    }
+
+    public int execute() {
+        prepare("execute");
+        try {
+            return executeInternal();
+        } finally {
+            completed();
+        }
+    }
+
+    /**
+     * where句の準備をします。
+     * 
+     * @throws SWhereClauseEmptyRuntimeException
+     *             where句の条件が空で、{@link #all()}が呼び出されていない場合
+     */
+    protected void prepareWhereClause()
+            throws SWhereClauseEmptyRuntimeException {
+        if (StringUtil.isEmpty(criteria)) {
+            if (!all) {
+                logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                        callerMethodName });
+                throw new SWhereClauseEmptyRuntimeException(entityMeta
+                        .getName());
+            }
+            return;
+        }
+        whereClause.addAndSql(convertCriteria(criteria));
+    }
+
+    /**
+     * where句のバインド変数を準備します。
+     */
+    protected void prepareWhereParams() {
+        for (final Object param : whereParams) {
+            addParam(param);
+        }
+        for (int i = 0; i < criteriaParams.length; ++i) {
+            final PropertyMeta propertyMeta = getPropertyMeta(
+                    criteriaPropertyNames[i]);
+            final ValueType valueType = jdbcManager.getDialect().getValueType(
+                    propertyMeta);
+            final Object value = criteriaParams[i];
+            addParam(value, value.getClass(), valueType);
+        }
+    }
+
+    /**
+     * SQLを準備します。
+     */
+    protected void prepareSql() {
+        executedSql = toSql();
+    }
+
+    /**
+     * SQLに変換します。
+     * 
+     * @return SQL
+     */
+    protected abstract String toSql();
+
+    /**
+     * カラムを持つプロパティのメタデータを返します。
+     * 
+     * @param propertyName
+     *            プロパティ名
+     * @return プロパティメタデータ
+     * @throws PropertyNotFoundRuntimeException
+     *             カラムを持つプロパティが見つからない場合
+     */
+    protected PropertyMeta getPropertyMeta(final String propertyName)
+            throws PropertyNotFoundRuntimeException {
+        if (!hasColumnPropertyMeta(propertyName)) {
+            logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                    callerMethodName });
+            throw new PropertyNotFoundRuntimeException(entityMeta.getName(),
+                    propertyName);
+        }
+        return entityMeta.getPropertyMeta(propertyName);
+    }
+
+    /**
+     * カラムを持つプロパティがある場合は<code>true</code>を返します。
+     * 
+     * @param propertyName
+     *            プロパティ名
+     * @return カラムを持つプロパティがある場合は<code>true</code>
+     */
+    protected boolean hasColumnPropertyMeta(final String propertyName) {
+        if (!entityMeta.hasPropertyMeta(propertyName)) {
+            return false;
+        }
+        return entityMeta.getPropertyMeta(propertyName).getColumnMeta() != null;
+    }
+
+    /**
+     * プロパティ名で記述されたクライテリアをカラム名に変換します。
+     * <p>
+     * 一括更新ではテーブルの別名を使用しないため、カラム名は修飾されません。
+     * </p>
+     * 
+     * @param str
+     *            クライテリア
+     * @return カラム名で記述されたクライテリア
+     */
+    protected String convertCriteria(final String str) {
+        if (StringUtil.isEmpty(str)) {
+            return str;
+        }
+        final StringBuilder sb = new StringBuilder(20 + str.length());
+        final QueryTokenizer tokenizer = new QueryTokenizer(str);
+        for (int type = tokenizer.nextToken(); type != QueryTokenizer.TT_EOF; type = tokenizer
+                .nextToken()) {
+            final String token = tokenizer.getToken();
+            if (type == QueryTokenizer.TT_WORD
+                    && hasColumnPropertyMeta(token)) {
+                sb.append(entityMeta.getPropertyMeta(token).getColumnMeta()
+                        .getName());
+            } else {
+                sb.append(token);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * データベースの更新を実行します。
+     * <p>
+     * 更新した行はどれか特定できないため、エンティティのキャッシュからこのエンティティのすべてのインスタンスを破棄します。
+     * </p>
+     * 
+     * @return 更新した行数
+     */
+    protected int executeInternal() {
+        final JdbcContext jdbcContext = jdbcManager.getJdbcContext();
+        try {
+            logSql();
+            final PreparedStatement ps = getPreparedStatement(jdbcContext);
+            final int rows = executeUpdate(ps);
+            jdbcManager.evictEntityCache(entityMeta, null);
+            return rows;
+        } finally {
+            if (!jdbcContext.isTransactional()) {
+                jdbcContext.destroy();
+            }
+        }
+    }
+
+    /**
+     * 準備されたステートメントを返します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @return 準備されたステートメント
+     */
+    protected PreparedStatement getPreparedStatement(
+            final JdbcContext jdbcContext) {
+        final PreparedStatement ps = jdbcContext
+                .getPreparedStatement(executedSql);
+        if (queryTimeout > 0) {
+            StatementUtil.setQueryTimeout(ps, queryTimeout);
+        }
+        prepareInParams(ps);
+        return ps;
+    }
+
+}
@@ -25,7 +25,6 @@ import org.seasar.extension.jdbc.Update;
 import org.seasar.extension.jdbc.exception.SEntityExistsException;
 import org.seasar.extension.jdbc.exception.SOptimisticLockException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
-import org.seasar.framework.util.PreparedStatementUtil;
 import org.seasar.framework.util.StatementUtil;
 
 /**
@@ -122,8 +121,9 @@ public abstract class AbstractAutoUpdate<T, S extends Update<S>> extends
         try {
             logSql();
             final PreparedStatement ps = getPreparedStatement(jdbcContext);
-            final int rows = PreparedStatementUtil.executeUpdate(ps);
+            final int rows = executeUpdate(ps);
             postExecute(ps);
+            jdbcManager.evictEntityCache(entityMeta, entity);
             if (isOptimisticLock()) {
                 validateRows(rows);
             }
@@ -23,6 +23,7 @@ import java.util.List;
 
 import javax.persistence.TemporalType;
 
+import org.seasar.extension.jdbc.BatchSqlLog;
 import org.seasar.extension.jdbc.ParamType;
 import org.seasar.extension.jdbc.PropertyMeta;
 import org.seasar.extension.jdbc.Query;
@@ -31,8 +32,11 @@ import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
 import org.seasar.extension.jdbc.SqlLogRegistryLocator;
 import org.seasar.extension.jdbc.SqlLogger;
+import org.seasar.extension.jdbc.SqlStatisticsRegistry;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.jdbc.ValueType;
 import org.seasar.extension.jdbc.exception.QueryTwiceExecutionRuntimeException;
+import org.seasar.extension.jdbc.impl.BatchSqlLogImpl;
 import org.seasar.extension.jdbc.impl.SqlLogImpl;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 import org.seasar.extension.jdbc.parameter.LobParameter;
@@ -41,6 +45,7 @@ import org.seasar.extension.jdbc.util.BindVariableUtil;
 import org.seasar.extension.sql.SqlArgWrapper;
 import org.seasar.framework.exception.SQLRuntimeException;
 import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.PreparedStatementUtil;
 import org.seasar.framework.util.ResultSetUtil;
 
 /**
@@ -133,14 +138,12 @@ public abstract class AbstractQuery<S extends Query<S>> implements Query<S>,
         }
         SqlLogRegistry sqlLogRegistry = SqlLogRegistryLocator.getInstance();
         if (sqlLogRegistry != null) {
-            if (completeSql == null) {
-                completeSql = BindVariableUtil.getCompleteSql(sql, vars);
-            }
             Class<?>[] classes = new Class[vars.length];
             for (int i = 0; i < vars.length; ++i) {
                 classes[i] = vars[i].getClass();
             }
-            SqlLog sqlLog = new SqlLogImpl(sql, completeSql, vars, classes);
+            SqlLog sqlLog = completeSql == null ? new SqlLogImpl(sql, vars,
+                    classes) : new SqlLogImpl(sql, completeSql, vars, classes);
             sqlLogRegistry.add(sqlLog);
         }
     }
@@ -155,32 +158,179 @@ public abstract class AbstractQuery<S extends Query<S>> implements Query<S>,
 
     /**
      * SQLをログに出力します。
+     * <p>
+     * デバッグログが無効な場合、{@link SqlLogRegistry}に登録される{@link SqlLog}の完全なSQLは参照された時点で組み立てられます。
+     * </p>
      */
     protected void logSql() {
-        String completeSql = null;
-        Object[] vars = null;
-        ValueType[] valueTypes = null;
+        SqlLog sqlLog = null;
         if (logger.isDebugEnabled()) {
-            vars = getParamValues();
-            valueTypes = getParamValueTypes();
-            completeSql = BindVariableUtil.getCompleteSql(executedSql, vars,
-                    valueTypes);
-            logger.debug(completeSql);
+            sqlLog = createSqlLog();
+            logger.debug(sqlLog.getCompleteSql());
         }
         SqlLogRegistry sqlLogRegistry = SqlLogRegistryLocator.getInstance();
         if (sqlLogRegistry != null) {
-            if (completeSql == null) {
-                vars = getParamValues();
-                valueTypes = getParamValueTypes();
-                completeSql = BindVariableUtil.getCompleteSql(executedSql,
-                        vars, valueTypes);
+            if (sqlLog == null) {
+                sqlLog = createSqlLog();
+            }
+            sqlLogRegistry.add(sqlLog);
+        }
+    }
+
+    /**
+     * 実行されるSQLと現在のパラメータから、完全なSQLを遅延して組み立てる{@link SqlLog}を作成します。
+     * 
+     * @return {@link SqlLog}
+     */
+    protected SqlLog createSqlLog() {
+        return new SqlLogImpl(executedSql, getParamValues(),
+                getParamClasses(), getParamValueTypes());
+    }
+
+    /**
+     * バッチ更新のSQLのログをバッチ更新の実行ごとに記録する場合は<code>true</code>を返します。
+     * 
+     * @return バッチ更新のSQLのログをバッチ更新の実行ごとに記録する場合は<code>true</code>
+     * @see JdbcManagerImplementor#getBatchSqlLogSampleSize()
+     */
+    protected boolean isBatchSqlLogEnabled() {
+        return jdbcManager.getBatchSqlLogSampleSize() >= 0;
+    }
+
+    /**
+     * バッチ更新に追加する行のSQLをログに出力します。
+     * <p>
+     * バッチ更新の実行ごとに記録する場合は、見本の行数に達するまで現在のパラメータを見本に追加します。
+     * そうでない場合は{@link #logSql()}を呼び出します。
+     * </p>
+     * 
+     * @param samples
+     *            見本の{@link SqlLog}のリスト
+     */
+    protected void logBatchRow(List<SqlLog> samples) {
+        if (!isBatchSqlLogEnabled()) {
+            logSql();
+            return;
+        }
+        if (samples.size() < jdbcManager.getBatchSqlLogSampleSize()) {
+            samples.add(createSqlLog());
+        }
+    }
+
+    /**
+     * バッチ更新の実行ごとのSQLをログに出力します。
+     * <p>
+     * バッチ更新の実行ごとに記録しない場合は何もしません。 出力後に見本のリストは空になります。
+     * </p>
+     * 
+     * @param batchSize
+     *            バッチ更新で実行する行数
+     * @param samples
+     *            見本の{@link SqlLog}のリスト
+     */
+    protected void logBatchSql(int batchSize, List<SqlLog> samples) {
+        if (!isBatchSqlLogEnabled()) {
+            return;
+        }
+        BatchSqlLog sqlLog = new BatchSqlLogImpl(executedSql, batchSize,
+                samples.toArray(new SqlLog[samples.size()]));
+        samples.clear();
+        if (logger.isDebugEnabled()) {
+            if (sqlLog.getSampleSize() == 0) {
+                logger.debug(executedSql);
+            }
+            for (int i = 0; i < sqlLog.getSampleSize(); ++i) {
+                logger.debug(sqlLog.getSample(i).getCompleteSql());
             }
-            SqlLog sqlLog = new SqlLogImpl(executedSql, completeSql, vars,
-                    getParamClasses());
+        }
+        SqlLogRegistry sqlLogRegistry = SqlLogRegistryLocator.getInstance();
+        if (sqlLogRegistry != null) {
             sqlLogRegistry.add(sqlLog);
         }
     }
 
+    /**
+     * SQLの実行統計を記録する場合は<code>true</code>を返します。
+     * 
+     * @return SQLの実行統計を記録する場合は<code>true</code>
+     */
+    protected boolean isStatisticsEnabled() {
+        return SqlStatisticsRegistryLocator.getInstance() != null;
+    }
+
+    /**
+     * 実行されるSQLの実行統計を記録します。
+     * 
+     * @param startTime
+     *            実行を開始した時刻
+     * @param fetchedRows
+     *            取得した行数
+     * @param updatedRows
+     *            更新した行数
+     * @param succeeded
+     *            実行に成功した場合は<code>true</code>
+     */
+    protected void recordStatistics(long startTime, int fetchedRows,
+            int updatedRows, boolean succeeded) {
+        SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry == null) {
+            return;
+        }
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        if (succeeded) {
+            registry.record(executedSql, elapsedTime, fetchedRows,
+                    updatedRows);
+        } else {
+            registry.recordFailure(executedSql, elapsedTime);
+        }
+    }
+
+    /**
+     * 更新を実行し、実行統計を記録します。
+     * 
+     * @param ps
+     *            準備されたステートメント
+     * @return 更新した行数
+     */
+    protected int executeUpdate(PreparedStatement ps) {
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        int rows = 0;
+        try {
+            rows = PreparedStatementUtil.executeUpdate(ps);
+            succeeded = true;
+            return rows;
+        } finally {
+            recordStatistics(startTime, 0, rows, succeeded);
+        }
+    }
+
+    /**
+     * バッチ更新を実行し、実行統計を記録します。
+     * 
+     * @param ps
+     *            準備されたステートメント
+     * @return 更新した行数の配列
+     */
+    protected int[] executeBatchUpdate(PreparedStatement ps) {
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        int updatedRows = 0;
+        try {
+            int[] rows = PreparedStatementUtil.executeBatch(ps);
+            for (int row : rows) {
+                if (row > 0) {
+                    updatedRows += row;
+                }
+            }
+            succeeded = true;
+            return rows;
+        } finally {
+            recordStatistics(startTime, 0, updatedRows, succeeded);
+        }
+    }
+
     /**
      * 検索を呼び出すクラスとメソッド名を準備します。
      * 
@@ -15,8 +15,10 @@
  */
 package org.seasar.extension.jdbc.query;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -25,12 +27,17 @@ import javax.persistence.TemporalType;
 import org.seasar.extension.jdbc.DbmsDialect;
 import org.seasar.extension.jdbc.IterationCallback;
 import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.PagedResult;
 import org.seasar.extension.jdbc.ResultSetHandler;
 import org.seasar.extension.jdbc.Select;
 import org.seasar.extension.jdbc.StatementHandler;
 import org.seasar.extension.jdbc.exception.SNoResultException;
 import org.seasar.extension.jdbc.exception.SNonUniqueResultException;
+import org.seasar.extension.jdbc.handler.ObjectResultSetHandler;
+import org.seasar.extension.jdbc.handler.TotalCountResultSetHandler;
+import org.seasar.extension.jdbc.impl.RowCountingResultSetHandler;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.exception.SQLRuntimeException;
 import org.seasar.framework.util.PreparedStatementUtil;
 import org.seasar.framework.util.ResultSetUtil;
 import org.seasar.framework.util.StatementUtil;
@@ -92,6 +99,26 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
      */
     protected boolean count;
 
+    /**
+     * 検索結果とともにページングを指定しない場合の行数を取得する場合に<code>true</code>です。
+     */
+    protected boolean pagedResult;
+
+    /**
+     * ページングを指定しない場合の行数を選択リストの{@link TotalCountResultSetHandler#TOTAL_COUNT_COLUMN}列で取得する場合に<code>true</code>です。
+     */
+    protected boolean totalCountColumn;
+
+    /**
+     * ページングを指定しない場合の行数を取得するSQLです。
+     */
+    protected String totalCountSql;
+
+    /**
+     * 結果セットをメモリに読み込まずに逐次取得する場合に<code>true</code>です。
+     */
+    protected boolean streaming;
+
     /**
      * {@link AbstractSelect}を作成します。
      * 
@@ -186,6 +213,7 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
     }
 
     public <RESULT> RESULT iterate(IterationCallback<T, RESULT> callback) {
+        streaming = true;
         prepare("iterate");
         logSql();
         try {
@@ -195,6 +223,30 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
         }
     }
 
+    public PagedResult<T> getPagedResult() {
+        pagedResult = true;
+        totalCountColumn = isTotalCountColumnSupported();
+        prepare("getPagedResult");
+        logSql();
+        try {
+            return getPagedResultInternal();
+        } finally {
+            completed();
+        }
+    }
+
+    /**
+     * ページングを指定しない場合の行数を選択リストの列で取得できる場合は<code>true</code>を返します。
+     * <p>
+     * このメソッドは<code>false</code>を返します。選択リストに列を追加できるサブクラスでオーバーライドしてください。
+     * </p>
+     * 
+     * @return ページングを指定しない場合の行数を選択リストの列で取得できる場合は<code>true</code>
+     */
+    protected boolean isTotalCountColumnSupported() {
+        return false;
+    }
+
     /**
      * SQLが返す結果セットの行数を返します。
      * 
@@ -234,6 +286,60 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
         return ret;
     }
 
+    /**
+     * 検索してベースオブジェクトのリストと、ページングを指定しない場合の行数を返します。
+     * 
+     * @return ベースオブジェクトのリストと、ページングを指定しない場合の行数
+     */
+    @SuppressWarnings("unchecked")
+    protected PagedResult<T> getPagedResultInternal() {
+        final TotalCountResultSetHandler handler = new TotalCountResultSetHandler(
+                createResultListResultSetHandler());
+        final JdbcContext jdbcContext = jdbcManager.getJdbcContext();
+        try {
+            final List<T> ret = (List<T>) processResultSet(jdbcContext,
+                    handler);
+            if (disallowNoResult && ret.isEmpty()) {
+                throw new SNoResultException(executedSql);
+            }
+            long totalCount = handler.getTotalCount();
+            if (totalCount < 0) {
+                totalCount = ret.isEmpty() && offset <= 0 ? 0L
+                        : getTotalCountInternal(jdbcContext);
+            }
+            return new PagedResult<T>(ret, totalCount);
+        } finally {
+            if (!jdbcContext.isTransactional()) {
+                jdbcContext.destroy();
+            }
+        }
+    }
+
+    /**
+     * ページングを指定しない場合の行数を求めるSQLを実行して行数を返します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @return ページングを指定しない場合の行数
+     */
+    protected long getTotalCountInternal(final JdbcContext jdbcContext) {
+        final String pageSql = executedSql;
+        final int pageOffset = offset;
+        executedSql = totalCountSql;
+        offset = 0;
+        try {
+            logSql();
+            final Object ret = processResultSet(jdbcContext,
+                    new ObjectResultSetHandler(jdbcManager.getDialect()
+                            .getValueType(Long.class, false, null),
+                            executedSql));
+            return ret == null ? 0L : Number.class.cast(ret).longValue();
+        } finally {
+            executedSql = pageSql;
+            offset = pageOffset;
+        }
+    }
+
     /**
      * 検索してベースオブジェクトを返します。
      * 
@@ -296,7 +402,8 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
 
                     public Object handle(final PreparedStatement ps) {
                         setupPreparedStatement(ps);
-                        return handler.handle(ps);
+                        return handlePreparedStatement(jdbcContext, ps,
+                                handler);
                     }
                 });
     }
@@ -318,11 +425,83 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
 
                     public Object handle(final PreparedStatement ps) {
                         setupPreparedStatement(ps);
-                        return handler.handle(ps);
+                        return handlePreparedStatement(jdbcContext, ps,
+                                handler);
                     }
                 });
     }
 
+    /**
+     * セットアップした準備されたステートメントを処理します。
+     * <p>
+     * 結果セットを逐次取得する場合で、方言がオートコミットを無効にする必要があるとした場合は、
+     * トランザクション外であれば処理の間だけオートコミットを無効にします。
+     * また、方言の逐次取得用のフェッチサイズを設定した場合は、処理の後でフェッチサイズを元に戻します。
+     * </p>
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @param ps
+     *            準備されたステートメント
+     * @param handler
+     *            準備されたステートメントを処理するハンドラ
+     * @return 準備されたステートメントを処理した結果
+     */
+    protected Object handlePreparedStatement(final JdbcContext jdbcContext,
+            final PreparedStatement ps,
+            final StatementHandler<Object, PreparedStatement> handler) {
+        if (!streaming) {
+            return handler.handle(ps);
+        }
+        final DbmsDialect dialect = jdbcManager.getDialect();
+        try {
+            if (jdbcContext.isTransactional()
+                    || !dialect.needsNoAutoCommitForStreaming()) {
+                return handler.handle(ps);
+            }
+            return handleWithoutAutoCommit(ps, handler);
+        } finally {
+            if (fetchSize <= 0 && dialect.getStreamingFetchSize() != 0) {
+                StatementUtil.setFetchSize(ps, 0);
+            }
+        }
+    }
+
+    /**
+     * オートコミットを無効にして準備されたステートメントを処理します。
+     * 
+     * @param ps
+     *            準備されたステートメント
+     * @param handler
+     *            準備されたステートメントを処理するハンドラ
+     * @return 準備されたステートメントを処理した結果
+     * @throws SQLRuntimeException
+     *             SQL例外が発生した場合
+     */
+    protected Object handleWithoutAutoCommit(final PreparedStatement ps,
+            final StatementHandler<Object, PreparedStatement> handler)
+            throws SQLRuntimeException {
+        final Connection connection;
+        try {
+            connection = ps.getConnection();
+            if (!connection.getAutoCommit()) {
+                return handler.handle(ps);
+            }
+            connection.setAutoCommit(false);
+        } catch (final SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+        try {
+            return handler.handle(ps);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (final SQLException e) {
+                throw new SQLRuntimeException(e);
+            }
+        }
+    }
+
     /**
      * 準備されたステートメントをセットアップします。
      * 
@@ -336,6 +515,12 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
         }
         if (fetchSize > 0) {
             StatementUtil.setFetchSize(ps, fetchSize);
+        } else if (streaming) {
+            final int streamingFetchSize = jdbcManager.getDialect()
+                    .getStreamingFetchSize();
+            if (streamingFetchSize != 0) {
+                StatementUtil.setFetchSize(ps, streamingFetchSize);
+            }
         }
         if (queryTimeout > 0) {
             StatementUtil.setQueryTimeout(ps, queryTimeout);
@@ -369,6 +554,9 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
 
     /**
      * 結果セットを処理します。
+     * <p>
+     * SQLの実行統計を記録する場合は、実行時間と取得した行数を記録します。
+     * </p>
      * 
      * @param jdbcContext
      *            JDBCコンテキスト
@@ -378,6 +566,33 @@ public abstract class AbstractSelect<T, S extends Select<T, S>> extends
      */
     protected Object processResultSet(final JdbcContext jdbcContext,
             final ResultSetHandler handler) {
+        if (!isStatisticsEnabled()) {
+            return processResultSetInternal(jdbcContext, handler);
+        }
+        final RowCountingResultSetHandler counter = new RowCountingResultSetHandler(
+                handler);
+        final long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        try {
+            final Object ret = processResultSetInternal(jdbcContext, counter);
+            succeeded = true;
+            return ret;
+        } finally {
+            recordStatistics(startTime, counter.getRowCount(), 0, succeeded);
+        }
+    }
+
+    /**
+     * 結果セットを処理します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @param handler
+     *            結果セットを処理するハンドラ
+     * @return 結果セットを処理した結果
+     */
+    protected Object processResultSetInternal(final JdbcContext jdbcContext,
+            final ResultSetHandler handler) {
         final DbmsDialect dialect = jdbcManager.getDialect();
         if (offset > 0) {
             if (dialect.supportsOffset()
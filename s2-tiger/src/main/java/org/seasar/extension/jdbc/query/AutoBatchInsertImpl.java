@@ -25,6 +25,7 @@ import javax.persistence.GenerationType;
 
 import org.seasar.extension.jdbc.AutoBatchInsert;
 import org.seasar.extension.jdbc.AutoBatchUpdate;
+import org.seasar.extension.jdbc.DbmsDialect;
 import org.seasar.extension.jdbc.IdGenerator;
 import org.seasar.extension.jdbc.IntoClause;
 import org.seasar.extension.jdbc.JdbcContext;
@@ -78,6 +79,12 @@ public class AutoBatchInsertImpl<T> extends
     /** {@link Statement#getGeneratedKeys()}を使用する場合は<code>true</code> */
     protected boolean useGetGeneratedKeys;
 
+    /** 複数行を<code>VALUES</code>句に指定して挿入する場合は<code>true</code> */
+    protected boolean multiRowValues;
+
+    /** 生成された識別子の値を取得する<code>RETURNING</code>句、使用しない場合は<code>null</code> */
+    protected String returningClause;
+
     /**
      * @param jdbcManager
      *            内部的なJDBCマネージャ
@@ -99,6 +106,11 @@ public class AutoBatchInsertImpl<T> extends
         return this;
     }
 
+    public AutoBatchInsert<T> multiRowValues() {
+        multiRowValues = true;
+        return this;
+    }
+
     @Override
     protected void prepare(final String methodName) {
         prepareCallerClassAndMethodName(methodName);
@@ -126,6 +138,11 @@ public class AutoBatchInsertImpl<T> extends
                     supportBatch &= idGenerator.supportBatch(jdbcManager);
                     useGetGeneratedKeys |= idGenerator
                             .useGetGeneratedKeys(jdbcManager);
+                    if (idGenerator.useReturning(jdbcManager)) {
+                        returningClause = jdbcManager.getDialect()
+                                .getIdentityReturningString(
+                                        propertyMeta.getColumnMeta().getName());
+                    }
                     if (idGenerator.isInsertInto(jdbcManager)) {
                         targetProperties.add(propertyMeta);
                     }
@@ -179,6 +196,26 @@ public class AutoBatchInsertImpl<T> extends
                 .append(intoClause.toSql()).append(valuesClause.toSql()));
     }
 
+    /**
+     * 複数行を<code>VALUES</code>句に指定したSQLに変換します。
+     * 
+     * @param rows
+     *            行数
+     * @return SQL
+     */
+    protected String toMultiRowValuesSql(final int rows) {
+        final String sql = toSql();
+        final String values = ", "
+                + valuesClause.toSql().substring(" values ".length());
+        final StringBuilder buf = new StringBuilder(sql.length()
+                + values.length() * (rows - 1));
+        buf.append(sql);
+        for (int i = 1; i < rows; ++i) {
+            buf.append(values);
+        }
+        return new String(buf);
+    }
+
     @Override
     protected PreparedStatement createPreparedStatement(
             final JdbcContext jdbcContext) {
@@ -189,6 +226,132 @@ public class AutoBatchInsertImpl<T> extends
         return super.createPreparedStatement(jdbcContext);
     }
 
+    @Override
+    protected int[] executeInternal() {
+        if (!isMultiRowValuesInsert() && !isReturningInsert()) {
+            return super.executeInternal();
+        }
+        final JdbcContext jdbcContext = jdbcManager.getJdbcContext();
+        try {
+            return executeMultiRowValues(jdbcContext);
+        } finally {
+            evictEntityCache();
+            if (!jdbcContext.isTransactional()) {
+                jdbcContext.destroy();
+            }
+        }
+    }
+
+    /**
+     * 複数行を<code>VALUES</code>句に指定して挿入する場合は<code>true</code>を返します。
+     * <p>
+     * {@link GenerationType#IDENTITY}方式で識別子の値を自動生成する場合など、
+     * 1行ずつ実行しなければならない場合は<code>false</code>を返します。
+     * </p>
+     * 
+     * @return 複数行を<code>VALUES</code>句に指定して挿入する場合は<code>true</code>
+     */
+    protected boolean isMultiRowValuesInsert() {
+        return multiRowValues && supportBatch && !useGetGeneratedKeys
+                && !targetProperties.isEmpty()
+                && jdbcManager.getDialect().supportsMultiRowValuesInsert();
+    }
+
+    /**
+     * 生成された識別子の値を<code>RETURNING</code>句で取得する複数行のINSERT文で挿入する場合は<code>true</code>を返します。
+     * <p>
+     * 識別子は<code>RETURNING</code>句が返す行の順にエンティティへ設定されます。
+     * </p>
+     * 
+     * @return <code>RETURNING</code>句を付加した複数行のINSERT文で挿入する場合は<code>true</code>
+     */
+    protected boolean isReturningInsert() {
+        return returningClause != null && !targetProperties.isEmpty()
+                && jdbcManager.getDialect().supportsMultiRowValuesInsert();
+    }
+
+    /**
+     * 1つのINSERT文で挿入する行数を返します。
+     * 
+     * @return 1つのINSERT文で挿入する行数
+     */
+    protected int getMultiRowSize() {
+        final DbmsDialect dialect = jdbcManager.getDialect();
+        int rows = batchSize > 0 ? batchSize : dialect.getDefaultBatchSize();
+        if (rows <= 0) {
+            rows = entities.size();
+        }
+        final int maxParams = dialect.getMaxBindParameterSize();
+        if (maxParams > 0) {
+            rows = Math.min(rows, maxParams / targetProperties.size());
+        }
+        return Math.max(rows, 1);
+    }
+
+    /**
+     * 複数行を<code>VALUES</code>句に指定したINSERT文で挿入します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @return 更新された行数の配列
+     */
+    protected int[] executeMultiRowValues(final JdbcContext jdbcContext) {
+        final int size = entities.size();
+        final int multiRowSize = getMultiRowSize();
+        final boolean returning = isReturningInsert();
+        final int[] updateRows = new int[size];
+        String sql = null;
+        int sqlRows = 0;
+        for (int pos = 0; pos < size; pos += multiRowSize) {
+            final int rows = Math.min(multiRowSize, size - pos);
+            if (rows != sqlRows) {
+                sql = toMultiRowValuesSql(rows);
+                if (returning) {
+                    sql += returningClause;
+                }
+                sqlRows = rows;
+            }
+            executedSql = sql;
+            final PreparedStatement ps = getPreparedStatement(jdbcContext);
+            for (int i = pos; i < pos + rows; ++i) {
+                prepareParams(entities.get(i));
+            }
+            logSql();
+            prepareInParams(ps);
+            if (returning) {
+                executeReturning(ps, rows);
+                postExecuteBatch(ps, entities.subList(pos, pos + rows));
+                resetParams();
+                Arrays.fill(updateRows, pos, pos + rows, 1);
+                continue;
+            }
+            final int count = executeUpdate(ps);
+            resetParams();
+            Arrays.fill(updateRows, pos, pos + rows, count == rows ? 1
+                    : Statement.SUCCESS_NO_INFO);
+        }
+        return updateRows;
+    }
+
+    /**
+     * <code>RETURNING</code>句を付加したINSERT文を実行し、実行統計を記録します。
+     * 
+     * @param ps
+     *            準備されたステートメント
+     * @param rows
+     *            挿入する行数
+     */
+    protected void executeReturning(final PreparedStatement ps, final int rows) {
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        try {
+            PreparedStatementUtil.execute(ps);
+            succeeded = true;
+        } finally {
+            recordStatistics(startTime, 0, succeeded ? rows : 0, succeeded);
+        }
+    }
+
     @Override
     protected int[] executeBatch(PreparedStatement ps) {
         if (supportBatch) {
@@ -200,7 +363,7 @@ public class AutoBatchInsertImpl<T> extends
             prepareParams(entity);
             logSql();
             prepareInParams(ps);
-            updateRows[i] = PreparedStatementUtil.executeUpdate(ps);
+            updateRows[i] = executeUpdate(ps);
             postExecute(ps, entity);
             resetParams();
         }
@@ -270,6 +433,35 @@ public class AutoBatchInsertImpl<T> extends
         }
     }
 
+    /**
+     * バッチ更新でINSERT文を実行後処理を行います。
+     * <p>
+     * {@link GenerationType#IDENTITY}方式で識別子の値を自動生成するIDジェネレータが使われた場合は、
+     * 生成された値をまとめて取得してエンティティに反映します
+     * </p>
+     * 
+     * @param ps
+     *            INSERT文をバッチ実行した{@link Statement}
+     * @param executedEntities
+     *            バッチ更新を実行したエンティティのリスト
+     */
+    @Override
+    protected void postExecuteBatch(final PreparedStatement ps,
+            final List<T> executedEntities) {
+        if (!useGetGeneratedKeys && returningClause == null) {
+            return;
+        }
+        for (final PropertyMeta propertyMeta : entityMeta
+                .getIdPropertyMetaList()) {
+            if (propertyMeta.hasIdGenerator()) {
+                final IdGenerator idGenerator = propertyMeta.getIdGenerator(
+                        entityMeta, jdbcManager.getDialect());
+                idGenerator.postInsertBatch(jdbcManager, executedEntities, ps,
+                        this);
+            }
+        }
+    }
+
     @Override
     protected boolean isOptimisticLock() {
         return false;
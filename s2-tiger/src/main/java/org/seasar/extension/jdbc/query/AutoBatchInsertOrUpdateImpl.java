@@ -0,0 +1,135 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.util.List;
+
+import org.seasar.extension.jdbc.AutoBatchInsertOrUpdate;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.exception.IdPropertyNotAssignedRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.util.tiger.CollectionsUtil;
+
+/**
+ * {@link AutoBatchInsertOrUpdate}の実装クラスです。
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public class AutoBatchInsertOrUpdateImpl<T> extends
+        AbstractAutoBatchUpdate<T, AutoBatchInsertOrUpdate<T>> implements
+        AutoBatchInsertOrUpdate<T> {
+
+    /** 挿入対象となるプロパティメタデータの{@link List} */
+    protected final List<PropertyMeta> targetProperties = CollectionsUtil
+            .newArrayList();
+
+    /** 行が存在した場合に更新するプロパティメタデータの{@link List} */
+    protected final List<PropertyMeta> updateProperties = CollectionsUtil
+            .newArrayList();
+
+    /** 1つのSQLで挿入または更新する場合は<code>true</code> */
+    protected boolean upsert;
+
+    /**
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entities
+     *            エンティティのリスト
+     */
+    public AutoBatchInsertOrUpdateImpl(
+            final JdbcManagerImplementor jdbcManager, final List<T> entities) {
+        super(jdbcManager, entities);
+    }
+
+    @Override
+    protected void prepare(final String methodName) {
+        prepareCallerClassAndMethodName(methodName);
+        prepareTargetProperties();
+        upsert = AutoInsertOrUpdateImpl.isUpsert(jdbcManager.getDialect(),
+                entityMeta, targetProperties, updateProperties);
+        if (upsert) {
+            prepareSql();
+        }
+    }
+
+    /**
+     * 挿入および更新の対象となるプロパティの準備をします。
+     */
+    protected void prepareTargetProperties() {
+        for (final PropertyMeta propertyMeta : entityMeta
+                .getAllColumnPropertyMeta()) {
+            if (propertyMeta.isId()) {
+                targetProperties.add(propertyMeta);
+                continue;
+            }
+            if (!propertyMeta.getColumnMeta().isInsertable()) {
+                continue;
+            }
+            targetProperties.add(propertyMeta);
+            if (propertyMeta.getColumnMeta().isUpdatable()) {
+                updateProperties.add(propertyMeta);
+            }
+        }
+    }
+
+    @Override
+    protected void prepareParams(final T entity) {
+        for (final PropertyMeta propertyMeta : targetProperties) {
+            final Object value = AutoInsertOrUpdateImpl.getInsertValue(
+                    propertyMeta, entity);
+            if (value == null && propertyMeta.isId()) {
+                throw new IdPropertyNotAssignedRuntimeException(entityMeta
+                        .getName(), propertyMeta.getName());
+            }
+            addParam(value, propertyMeta);
+        }
+    }
+
+    @Override
+    protected String toSql() {
+        return AutoInsertOrUpdateImpl.toUpsertSql(jdbcManager.getDialect(),
+                entityMeta, targetProperties, updateProperties);
+    }
+
+    /**
+     * データベースのバッチ更新を実行します。
+     * <p>
+     * UPSERTをサポートしていないDBMSでは、エンティティごとに{@link AutoInsertOrUpdateImpl}で挿入または更新します。
+     * </p>
+     * 
+     * @return 更新した行数の配列
+     */
+    @Override
+    protected int[] executeInternal() {
+        if (upsert) {
+            return super.executeInternal();
+        }
+        final int[] rows = new int[entities.size()];
+        for (int i = 0; i < rows.length; ++i) {
+            rows[i] = new AutoInsertOrUpdateImpl<T>(jdbcManager, entities
+                    .get(i)).callerClass(callerClass).callerMethodName(
+                    callerMethodName).queryTimeout(queryTimeout).execute();
+        }
+        return rows;
+    }
+
+    @Override
+    protected boolean isOptimisticLock() {
+        return false;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import org.seasar.extension.jdbc.AutoBulkDelete;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+
+/**
+ * {@link AutoBulkDelete}の実装クラスです。
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public class AutoBulkDeleteImpl<T> extends
+        AbstractAutoBulkUpdate<T, AutoBulkDelete<T>> implements
+        AutoBulkDelete<T> {
+
+    /** DELETE文 */
+    protected static final String DELETE_STATEMENT = "delete from ";
+
+    /**
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entityClass
+     *            エンティティクラス
+     */
+    public AutoBulkDeleteImpl(final JdbcManagerImplementor jdbcManager,
+            final Class<T> entityClass) {
+        super(jdbcManager, entityClass);
+    }
+
+    @Override
+    protected void prepare(final String methodName) {
+        prepareCallerClassAndMethodName(methodName);
+        prepareWhereClause();
+        prepareWhereParams();
+        prepareSql();
+    }
+
+    @Override
+    protected String toSql() {
+        final String tableName = entityMeta.getTableMeta().getFullName();
+        final StringBuilder buf = new StringBuilder(DELETE_STATEMENT.length()
+                + tableName.length() + whereClause.getLength());
+        return new String(buf.append(DELETE_STATEMENT).append(tableName)
+                .append(whereClause.toSql()));
+    }
+
+}
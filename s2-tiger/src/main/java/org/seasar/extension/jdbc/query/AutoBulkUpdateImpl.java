@@ -0,0 +1,154 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.util.List;
+
+import org.seasar.extension.jdbc.AutoBulkUpdate;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.SetClause;
+import org.seasar.extension.jdbc.exception.NonUpdatablePropertyRuntimeException;
+import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
+import org.seasar.extension.jdbc.exception.VersionPropertyNotExistsRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.exception.EmptyRuntimeException;
+import org.seasar.framework.util.tiger.CollectionsUtil;
+
+/**
+ * {@link AutoBulkUpdate}の実装クラスです。
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public class AutoBulkUpdateImpl<T> extends
+        AbstractAutoBulkUpdate<T, AutoBulkUpdate<T>> implements
+        AutoBulkUpdate<T> {
+
+    /** UPDATE文 */
+    protected static final String UPDATE_STATEMENT = "update ";
+
+    /** set句に設定するプロパティ名の{@link List} */
+    protected final List<String> setPropertyNames = CollectionsUtil
+            .newArrayList();
+
+    /** set句に設定する値の{@link List} */
+    protected final List<Object> setValues = CollectionsUtil.newArrayList();
+
+    /** バージョンプロパティの値を増加させる場合<code>true</code> */
+    protected boolean incrementVersion;
+
+    /** set句 */
+    protected final SetClause setClause = new SetClause();
+
+    /**
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entityClass
+     *            エンティティクラス
+     */
+    public AutoBulkUpdateImpl(final JdbcManagerImplementor jdbcManager,
+            final Class<T> entityClass) {
+        super(jdbcManager, entityClass);
+    }
+
+    public AutoBulkUpdate<T> set(final CharSequence propertyName,
+            final Object value) {
+        if (propertyName == null) {
+            throw new NullPointerException("propertyName");
+        }
+        setPropertyNames.add(propertyName.toString());
+        setValues.add(value);
+        return this;
+    }
+
+    public AutoBulkUpdate<T> incrementVersion() {
+        incrementVersion = true;
+        return this;
+    }
+
+    @Override
+    protected void prepare(final String methodName) {
+        prepareCallerClassAndMethodName(methodName);
+        prepareSetClause();
+        prepareWhereClause();
+        prepareWhereParams();
+        prepareSql();
+    }
+
+    /**
+     * set句とそのバインド変数の準備をします。
+     */
+    protected void prepareSetClause() {
+        if (setPropertyNames.isEmpty() && !incrementVersion) {
+            logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                    callerMethodName });
+            throw new EmptyRuntimeException("set");
+        }
+        for (int i = 0; i < setPropertyNames.size(); ++i) {
+            final PropertyMeta propertyMeta = getUpdatablePropertyMeta(
+                    setPropertyNames.get(i));
+            setClause.addSql(propertyMeta.getColumnMeta().getName());
+            addParam(setValues.get(i), propertyMeta);
+        }
+        if (incrementVersion) {
+            if (!entityMeta.hasVersionPropertyMeta()) {
+                logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                        callerMethodName });
+                throw new VersionPropertyNotExistsRuntimeException(entityMeta
+                        .getName());
+            }
+            final String columnName = entityMeta.getVersionPropertyMeta()
+                    .getColumnMeta().getName();
+            setClause.addSql(columnName, columnName + " + 1");
+        }
+    }
+
+    /**
+     * set句に設定できるプロパティのメタデータを返します。
+     * 
+     * @param propertyName
+     *            プロパティ名
+     * @return プロパティメタデータ
+     * @throws PropertyNotFoundRuntimeException
+     *             カラムを持つプロパティが見つからない場合
+     * @throws NonUpdatablePropertyRuntimeException
+     *             識別子、バージョン、または更新できないプロパティの場合
+     */
+    protected PropertyMeta getUpdatablePropertyMeta(final String propertyName)
+            throws PropertyNotFoundRuntimeException,
+            NonUpdatablePropertyRuntimeException {
+        final PropertyMeta propertyMeta = getPropertyMeta(propertyName);
+        if (propertyMeta.isId() || propertyMeta.isVersion()
+                || !propertyMeta.getColumnMeta().isUpdatable()) {
+            logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                    callerMethodName });
+            throw new NonUpdatablePropertyRuntimeException(entityMeta
+                    .getName(), propertyName);
+        }
+        return propertyMeta;
+    }
+
+    @Override
+    protected String toSql() {
+        final String tableName = entityMeta.getTableMeta().getFullName();
+        final StringBuilder buf = new StringBuilder(UPDATE_STATEMENT.length()
+                + tableName.length() + setClause.getLength()
+                + whereClause.getLength());
+        return new String(buf.append(UPDATE_STATEMENT).append(tableName)
+                .append(setClause.toSql()).append(whereClause.toSql()));
+    }
+
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+
+import org.seasar.extension.jdbc.AutoInsertOrUpdate;
+import org.seasar.extension.jdbc.ConditionType;
+import org.seasar.extension.jdbc.DbmsDialect;
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.IntoClause;
+import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.SetClause;
+import org.seasar.extension.jdbc.ValuesClause;
+import org.seasar.extension.jdbc.WhereClause;
+import org.seasar.extension.jdbc.exception.IdPropertyNotAssignedRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.exception.SQLRuntimeException;
+import org.seasar.framework.util.ClassUtil;
+import org.seasar.framework.util.FieldUtil;
+import org.seasar.framework.util.NumberConversionUtil;
+import org.seasar.framework.util.tiger.CollectionsUtil;
+
+/**
+ * {@link AutoInsertOrUpdate}の実装クラスです。
+ * 
+ * @param <T>
+ *            エンティティの型です。
+ */
+public class AutoInsertOrUpdateImpl<T> extends
+        AbstractAutoUpdate<T, AutoInsertOrUpdate<T>> implements
+        AutoInsertOrUpdate<T> {
+
+    /** UPDATE文 */
+    protected static final String UPDATE_STATEMENT = "update ";
+
+    /** INSERT文 */
+    protected static final String INSERT_STATEMENT = "insert into ";
+
+    /** 挿入対象となるプロパティメタデータの{@link List} */
+    protected final List<PropertyMeta> targetProperties = CollectionsUtil
+            .newArrayList();
+
+    /** 行が存在した場合に更新するプロパティメタデータの{@link List} */
+    protected final List<PropertyMeta> updateProperties = CollectionsUtil
+            .newArrayList();
+
+    /** 1つのSQLで挿入または更新する場合は<code>true</code> */
+    protected boolean upsert;
+
+    /**
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param entity
+     *            エンティティ
+     */
+    public AutoInsertOrUpdateImpl(final JdbcManagerImplementor jdbcManager,
+            final T entity) {
+        super(jdbcManager, entity);
+    }
+
+    @Override
+    protected void prepare(final String methodName) {
+        prepareCallerClassAndMethodName(methodName);
+        prepareTargetProperties();
+        upsert = isUpsert(jdbcManager.getDialect(), entityMeta,
+                targetProperties, updateProperties);
+        if (upsert) {
+            prepareParams();
+            prepareSql();
+        }
+    }
+
+    /**
+     * 挿入および更新の対象となるプロパティの準備をします。
+     */
+    protected void prepareTargetProperties() {
+        for (final PropertyMeta propertyMeta : entityMeta
+                .getAllColumnPropertyMeta()) {
+            if (propertyMeta.isId()) {
+                if (FieldUtil.get(propertyMeta.getField(), entity) == null) {
+                    throw new IdPropertyNotAssignedRuntimeException(entityMeta
+                            .getName(), propertyMeta.getName());
+                }
+                targetProperties.add(propertyMeta);
+                continue;
+            }
+            if (!propertyMeta.getColumnMeta().isInsertable()) {
+                continue;
+            }
+            targetProperties.add(propertyMeta);
+            if (propertyMeta.getColumnMeta().isUpdatable()) {
+                updateProperties.add(propertyMeta);
+            }
+        }
+    }
+
+    /**
+     * バインド変数を準備します．
+     * <p>
+     * バージョンプロパティが<code>null</code>の場合は、{@link AutoInsertImpl}と同じく初期値で挿入します。
+     * </p>
+     */
+    protected void prepareParams() {
+        for (final PropertyMeta propertyMeta : targetProperties) {
+            final Object value = getInsertValue(propertyMeta, entity);
+            addParam(value, propertyMeta);
+        }
+    }
+
+    /**
+     * 挿入するプロパティの値を返します。
+     * <p>
+     * バージョンプロパティが<code>null</code>の場合は、エンティティに初期値を設定してその値を返します。
+     * {@link AutoBatchInsertOrUpdateImpl}と共通で使用します。
+     * </p>
+     * 
+     * @param propertyMeta
+     *            プロパティメタデータ
+     * @param entity
+     *            エンティティ
+     * @return 挿入するプロパティの値
+     */
+    protected static Object getInsertValue(final PropertyMeta propertyMeta,
+            final Object entity) {
+        final Object value = FieldUtil.get(propertyMeta.getField(), entity);
+        if (value != null || !propertyMeta.isVersion()) {
+            return value;
+        }
+        final Class<?> fieldClass = ClassUtil
+                .getWrapperClassIfPrimitive(propertyMeta.getPropertyClass());
+        final Object initialVersion = NumberConversionUtil.convertNumber(
+                fieldClass, AutoInsertImpl.INITIAL_VERSION);
+        FieldUtil.set(propertyMeta.getField(), entity, initialVersion);
+        return initialVersion;
+    }
+
+    @Override
+    protected String toSql() {
+        return toUpsertSql(jdbcManager.getDialect(), entityMeta,
+                targetProperties, updateProperties);
+    }
+
+    /**
+     * 1つのSQLで挿入または更新する場合は<code>true</code>を返します。
+     * <p>
+     * {@link AutoBatchInsertOrUpdateImpl}と共通で使用します。
+     * </p>
+     * 
+     * @param dialect
+     *            データベースの方言
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param targetProperties
+     *            挿入対象となるプロパティメタデータの{@link List}
+     * @param updateProperties
+     *            行が存在した場合に更新するプロパティメタデータの{@link List}
+     * @return 1つのSQLで挿入または更新する場合は<code>true</code>
+     * @see DbmsDialect#supportsPartialUpdateUpsert()
+     */
+    protected static boolean isUpsert(final DbmsDialect dialect,
+            final EntityMeta entityMeta,
+            final List<PropertyMeta> targetProperties,
+            final List<PropertyMeta> updateProperties) {
+        if (!dialect.supportsUpsert()) {
+            return false;
+        }
+        return dialect.supportsPartialUpdateUpsert()
+                || targetProperties.size() == entityMeta
+                        .getIdPropertyMetaList().size()
+                        + updateProperties.size();
+    }
+
+    /**
+     * 行が存在しなければ挿入し、存在すれば更新するSQLを返します。
+     * <p>
+     * {@link AutoBatchInsertOrUpdateImpl}と共通で使用します。
+     * </p>
+     * 
+     * @param dialect
+     *            データベースの方言
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param targetProperties
+     *            挿入対象となるプロパティメタデータの{@link List}
+     * @param updateProperties
+     *            行が存在した場合に更新するプロパティメタデータの{@link List}
+     * @return 挿入または更新するSQL
+     */
+    protected static String toUpsertSql(final DbmsDialect dialect,
+            final EntityMeta entityMeta,
+            final List<PropertyMeta> targetProperties,
+            final List<PropertyMeta> updateProperties) {
+        return dialect.getUpsertSql(entityMeta.getTableMeta().getFullName(),
+                toColumnNames(targetProperties), toColumnNames(entityMeta
+                        .getIdPropertyMetaList()),
+                toColumnNames(updateProperties));
+    }
+
+    /**
+     * プロパティメタデータの{@link List}をカラム名の配列に変換します。
+     * 
+     * @param propertyMetaList
+     *            プロパティメタデータの{@link List}
+     * @return カラム名の配列
+     */
+    protected static String[] toColumnNames(
+            final List<PropertyMeta> propertyMetaList) {
+        final String[] columnNames = new String[propertyMetaList.size()];
+        for (int i = 0; i < columnNames.length; ++i) {
+            columnNames[i] = propertyMetaList.get(i).getColumnMeta().getName();
+        }
+        return columnNames;
+    }
+
+    /**
+     * 挿入または更新を実行します。
+     * <p>
+     * UPSERTをサポートしていないDBMSでは、更新して行が存在しなかった場合に挿入します。
+     * 更新と挿入の間に他のトランザクションが同じ行を挿入したため一意制約違反になった場合は、
+     * もう一度更新します。
+     * もう一度更新しても該当する行がない場合は、識別子以外の一意制約違反なので挿入時の例外をスローします。
+     * {@link DbmsDialect#needsSavepointForRetry()}が<code>true</code>の場合は、
+     * トランザクション中の挿入の前にセーブポイントを設定し、一意制約違反になった場合はセーブポイントまでロールバックしてから更新します。
+     * </p>
+     * 
+     * @return 更新した行数
+     */
+    @Override
+    protected int executeInternal() {
+        if (upsert) {
+            return super.executeInternal();
+        }
+        final JdbcContext jdbcContext = jdbcManager.getJdbcContext();
+        try {
+            prepareUpdateSql();
+            int rows = executeStatement(jdbcContext);
+            if (rows == 0) {
+                rows = insertOrUpdate(jdbcContext);
+            }
+            jdbcManager.evictEntityCache(entityMeta, entity);
+            return rows;
+        } finally {
+            if (!jdbcContext.isTransactional()) {
+                jdbcContext.destroy();
+            }
+        }
+    }
+
+    /**
+     * 行を挿入し、一意制約違反になった場合は更新します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @return 更新した行数
+     */
+    protected int insertOrUpdate(final JdbcContext jdbcContext) {
+        resetParams();
+        prepareInsertSql();
+        logSql();
+        final PreparedStatement ps = getPreparedStatement(jdbcContext);
+        final Savepoint savepoint = setSavepoint(jdbcContext, ps);
+        final String insertSql = executedSql;
+        final RuntimeException cause;
+        try {
+            final int rows = executeUpdate(ps);
+            releaseSavepoint(ps, savepoint);
+            return rows;
+        } catch (final RuntimeException e) {
+            if (!jdbcManager.getDialect().isUniqueConstraintViolation(e)) {
+                throw e;
+            }
+            rollbackToSavepoint(ps, savepoint);
+            cause = e;
+        }
+        resetParams();
+        prepareUpdateSql();
+        final int rows = executeStatement(jdbcContext);
+        if (rows == 0) {
+            executedSql = insertSql;
+            throw cause;
+        }
+        return rows;
+    }
+
+    /**
+     * 挿入が失敗しても同じトランザクションで更新を続けるためにセーブポイントを設定します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @param ps
+     *            挿入する準備されたステートメント
+     * @return セーブポイント、セーブポイントが不要な場合は<code>null</code>
+     */
+    protected Savepoint setSavepoint(final JdbcContext jdbcContext,
+            final PreparedStatement ps) {
+        if (!jdbcContext.isTransactional()
+                || !jdbcManager.getDialect().needsSavepointForRetry()) {
+            return null;
+        }
+        try {
+            return ps.getConnection().setSavepoint();
+        } catch (final SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    /**
+     * セーブポイントを解放します。
+     * 
+     * @param ps
+     *            挿入した準備されたステートメント
+     * @param savepoint
+     *            セーブポイント
+     */
+    protected void releaseSavepoint(final PreparedStatement ps,
+            final Savepoint savepoint) {
+        if (savepoint == null) {
+            return;
+        }
+        try {
+            ps.getConnection().releaseSavepoint(savepoint);
+        } catch (final SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    /**
+     * セーブポイントまでロールバックします。
+     * 
+     * @param ps
+     *            挿入した準備されたステートメント
+     * @param savepoint
+     *            セーブポイント
+     */
+    protected void rollbackToSavepoint(final PreparedStatement ps,
+            final Savepoint savepoint) {
+        if (savepoint == null) {
+            return;
+        }
+        try {
+            ps.getConnection().rollback(savepoint);
+        } catch (final SQLException e) {
+            throw new SQLRuntimeException(e);
+        }
+    }
+
+    /**
+     * 識別子で行を更新するSQLとバインド変数を準備します。
+     * <p>
+     * 更新するプロパティがない場合は、行が存在するかどうかを更新行数で判定するために識別子を同じ値で更新します。
+     * </p>
+     */
+    protected void prepareUpdateSql() {
+        final SetClause setClause = new SetClause();
+        if (updateProperties.isEmpty()) {
+            for (final PropertyMeta propertyMeta : entityMeta
+                    .getIdPropertyMetaList()) {
+                final String columnName = propertyMeta.getColumnMeta()
+                        .getName();
+                setClause.addSql(columnName, columnName);
+            }
+        }
+        for (final PropertyMeta propertyMeta : updateProperties) {
+            setClause.addSql(propertyMeta.getColumnMeta().getName());
+            addParam(FieldUtil.get(propertyMeta.getField(), entity),
+                    propertyMeta);
+        }
+        final WhereClause whereClause = new WhereClause();
+        for (final PropertyMeta propertyMeta : entityMeta
+                .getIdPropertyMetaList()) {
+            whereClause.addAndSql(ConditionType.EQ.getCondition(propertyMeta
+                    .getColumnMeta().getName(), null));
+            addParam(FieldUtil.get(propertyMeta.getField(), entity),
+                    propertyMeta);
+        }
+        executedSql = UPDATE_STATEMENT
+                + entityMeta.getTableMeta().getFullName() + setClause.toSql()
+                + whereClause.toSql();
+    }
+
+    /**
+     * 行を挿入するSQLとバインド変数を準備します。
+     */
+    protected void prepareInsertSql() {
+        final IntoClause intoClause = new IntoClause();
+        final ValuesClause valuesClause = new ValuesClause();
+        for (final PropertyMeta propertyMeta : targetProperties) {
+            intoClause.addSql(propertyMeta.getColumnMeta().getName());
+            valuesClause.addSql();
+        }
+        prepareParams();
+        executedSql = INSERT_STATEMENT
+                + entityMeta.getTableMeta().getFullName() + intoClause.toSql()
+                + valuesClause.toSql();
+    }
+
+    /**
+     * 準備したSQLでデータベースを更新します。
+     * 
+     * @param jdbcContext
+     *            JDBCコンテキスト
+     * @return 更新した行数
+     */
+    protected int executeStatement(final JdbcContext jdbcContext) {
+        logSql();
+        return executeUpdate(getPreparedStatement(jdbcContext));
+    }
+
+    @Override
+    protected boolean isOptimisticLock() {
+        return false;
+    }
+
+}
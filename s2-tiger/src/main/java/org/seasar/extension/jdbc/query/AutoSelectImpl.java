@@ -19,6 +19,7 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -29,13 +30,16 @@ import org.seasar.extension.jdbc.AutoSelect;
 import org.seasar.extension.jdbc.ColumnMeta;
 import org.seasar.extension.jdbc.ConditionType;
 import org.seasar.extension.jdbc.DbmsDialect;
+import org.seasar.extension.jdbc.EntityCache;
 import org.seasar.extension.jdbc.EntityMapper;
 import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.FromClause;
 import org.seasar.extension.jdbc.IterationCallback;
+import org.seasar.extension.jdbc.IterationContext;
 import org.seasar.extension.jdbc.JoinColumnMeta;
 import org.seasar.extension.jdbc.JoinMeta;
 import org.seasar.extension.jdbc.JoinType;
+import org.seasar.extension.jdbc.MappingContext;
 import org.seasar.extension.jdbc.OrderByClause;
 import org.seasar.extension.jdbc.OrderByItem;
 import org.seasar.extension.jdbc.PropertyMapper;
@@ -50,25 +54,32 @@ import org.seasar.extension.jdbc.exception.BaseJoinNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.EntityColumnNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.IllegalIdPropertySizeRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinDuplicatedRuntimeException;
+import org.seasar.extension.jdbc.exception.NoIdPropertyRuntimeException;
+import org.seasar.extension.jdbc.exception.NullSeekValueRuntimeException;
 import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
+import org.seasar.extension.jdbc.exception.SNonUniqueResultException;
 import org.seasar.extension.jdbc.exception.VersionPropertyNotExistsRuntimeException;
 import org.seasar.extension.jdbc.handler.BeanAutoResultSetHandler;
 import org.seasar.extension.jdbc.handler.BeanIterationAutoResultSetHandler;
 import org.seasar.extension.jdbc.handler.BeanListAutoResultSetHandler;
 import org.seasar.extension.jdbc.handler.ObjectResultSetHandler;
+import org.seasar.extension.jdbc.handler.TotalCountResultSetHandler;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 import org.seasar.extension.jdbc.mapper.AbstractEntityMapper;
 import org.seasar.extension.jdbc.mapper.AbstractRelationshipEntityMapper;
 import org.seasar.extension.jdbc.mapper.EntityMapperImpl;
+import org.seasar.extension.jdbc.mapper.EntityPopulatorGenerator;
 import org.seasar.extension.jdbc.mapper.ManyToOneEntityMapperImpl;
 import org.seasar.extension.jdbc.mapper.OneToManyEntityMapperImpl;
 import org.seasar.extension.jdbc.mapper.OneToOneEntityMapperImpl;
 import org.seasar.extension.jdbc.mapper.PropertyMapperImpl;
+import org.seasar.extension.jdbc.query.AutoSelectPlanCache.Plan;
 import org.seasar.extension.jdbc.util.QueryTokenizer;
 import org.seasar.extension.jdbc.where.ComplexWhere;
 import org.seasar.extension.jdbc.where.SimpleWhere;
 import org.seasar.framework.exception.EmptyRuntimeException;
 import org.seasar.framework.message.MessageFormatter;
+import org.seasar.framework.util.FieldUtil;
 import org.seasar.framework.util.StringUtil;
 import org.seasar.framework.util.tiger.CollectionsUtil;
 import org.seasar.framework.util.tiger.Pair;
@@ -237,6 +248,11 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
      */
     protected Object versionProperty;
 
+    /**
+     * キーセットページングでorder by句の項目と比較する値の配列です。
+     */
+    protected Object[] seekValues;
+
     /**
      * {@link AutoSelectImpl}を作成します。
      * 
@@ -414,16 +430,189 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
     @Override
     protected void prepare(String methodName) {
         prepareCallerClassAndMethodName(methodName);
+        final AutoSelectPlanCache planCache = jdbcManager
+                .getAutoSelectPlanCache();
+        final Object shape = planCache == null ? null
+                : createShape(methodName);
+        if (shape != null) {
+            final Plan plan = planCache.get(shape);
+            if (plan != null) {
+                preparePlan(plan);
+                return;
+            }
+        }
         prepareTarget();
         prepareJoins();
+        prepareEntityPopulators();
         prepareIdVersion();
         prepareWhere();
         prepareConditions();
         prepareCriteria();
         prepareOrderBy();
+        if ("iterate".equals(methodName)) {
+            prepareIterationOrderBy();
+        }
         prepareForUpdate();
         prepareParams();
+        prepareSeek();
         prepareSql();
+        if (shape != null) {
+            final Plan plan = createPlan();
+            if (plan != null) {
+                planCache.put(shape, plan);
+            }
+        }
+    }
+
+    /**
+     * 実行計画のキャッシュのキーとなるクエリの形を作成します。
+     * <p>
+     * パラメータの値を除いて、組み立てられるSQLと結果セットのマッピングを決める要素をすべて含みます。
+     * ページングはSQLに値が埋め込まれるDBMSがあるため、有無ではなく値を含みます。
+     * 条件のマップで検索する場合はパラメータの値によってSQLが変わるため、形を作成しません。
+     * </p>
+     * 
+     * @param methodName
+     *            メソッド名
+     * @return クエリの形、キャッシュできない場合は<code>null</code>
+     */
+    protected Object createShape(final String methodName) {
+        if (conditions != null && !conditions.isEmpty()) {
+            return null;
+        }
+        final List<Object> shape = new ArrayList<Object>(32);
+        shape.add(baseClass);
+        shape.add(jdbcManager.getDialect());
+        shape.add(count);
+        shape.add(pagedResult);
+        shape.add(totalCountColumn);
+        shape.add("iterate".equals(methodName));
+        shape.add(joinMetaList.size());
+        for (final JoinMeta joinMeta : joinMetaList) {
+            shape.add(joinMeta.getName());
+            shape.add(joinMeta.getJoinType());
+            shape.add(joinMeta.isFetch());
+            shape.add(joinMeta.getCondition());
+            if (!StringUtil.isEmpty(joinMeta.getCondition())) {
+                shape.add(joinMeta.getConditionParams().length);
+                final String[] propertyNames = joinMeta
+                        .getConditionPropertyNames();
+                shape.add(propertyNames == null ? null : Arrays
+                        .asList(propertyNames));
+            }
+        }
+        shape.add(new HashSet<String>(includesProperties));
+        shape.add(new HashSet<String>(excludesProperties));
+        shape.add(new HashSet<String>(eagerProperties));
+        shape.add(idProperties == null ? -1 : idProperties.length);
+        shape.add(versionProperty != null);
+        shape.add(criteria);
+        shape.add(whereParams.size());
+        shape.add(Arrays.asList(criteriaPropertyNames));
+        shape.add(orderBy);
+        shape.add(hint);
+        shape.add(limit);
+        shape.add(offset);
+        shape.add(forUpdateType);
+        shape.add(new ArrayList<String>(forUpdateTargets.keySet()));
+        shape.add(new ArrayList<String>(forUpdateTargets.values()));
+        shape.add(forUpdateWaitSeconds);
+        shape.add(seekValues == null ? -1 : seekValues.length);
+        return shape;
+    }
+
+    /**
+     * キャッシュされた実行計画を使って準備をします。
+     * 
+     * @param plan
+     *            実行計画
+     */
+    protected void preparePlan(final Plan plan) {
+        final List<Object> values = new ArrayList<Object>();
+        collectParamValues(values, new ArrayList<Boolean>());
+        final ValueType[] paramValueTypes = plan.getParamValueTypes();
+        for (int i = 0; i < paramValueTypes.length; ++i) {
+            final Object value = values.get(i);
+            if (paramValueTypes[i] == null) {
+                addParam(value);
+            } else {
+                addParam(value, value.getClass(), paramValueTypes[i]);
+            }
+        }
+        entityMapperMap.put(null, plan.getEntityMapper());
+        valueTypeList.addAll(Arrays.asList(plan.getValueTypes()));
+        executedSql = plan.getSql();
+        totalCountSql = plan.getTotalCountSql();
+    }
+
+    /**
+     * 準備した結果から実行計画を作成します。
+     * 
+     * @return 実行計画、作成できない場合は<code>null</code>
+     */
+    protected Plan createPlan() {
+        final List<Object> values = new ArrayList<Object>();
+        final List<Boolean> typed = new ArrayList<Boolean>();
+        collectParamValues(values, typed);
+        final int size = getParamSize();
+        if (values.size() != size) {
+            return null;
+        }
+        final ValueType[] paramValueTypes = new ValueType[size];
+        for (int i = 0; i < size; ++i) {
+            if (typed.get(i)) {
+                paramValueTypes[i] = getParam(i).valueType;
+            }
+        }
+        return new Plan(executedSql, totalCountSql, getValueTypes(),
+                entityMapperMap.get(null), paramValueTypes);
+    }
+
+    /**
+     * パラメータの値をバインドする順に集めます。
+     * 
+     * @param values
+     *            パラメータの値のリスト
+     * @param typed
+     *            プロパティから値タイプが決まるパラメータなら<code>true</code>となるリスト
+     */
+    protected void collectParamValues(final List<Object> values,
+            final List<Boolean> typed) {
+        for (final JoinMeta joinMeta : joinMetaList) {
+            if (StringUtil.isEmpty(joinMeta.getCondition())) {
+                continue;
+            }
+            final boolean byName = joinMeta.getConditionPropertyNames() != null;
+            for (final Object param : joinMeta.getConditionParams()) {
+                values.add(param);
+                typed.add(byName);
+            }
+        }
+        if (idProperties != null) {
+            for (final Object param : idProperties) {
+                values.add(param);
+                typed.add(true);
+            }
+            if (versionProperty != null) {
+                values.add(versionProperty);
+                typed.add(true);
+            }
+        }
+        for (final Object param : whereParams) {
+            values.add(param);
+            typed.add(false);
+        }
+        for (final Object param : criteriaParams) {
+            values.add(param);
+            typed.add(true);
+        }
+        if (seekValues != null) {
+            final int size = values.size();
+            createSeekCriteria(new ArrayList<String>(), values);
+            for (int i = size; i < values.size(); ++i) {
+                typed.add(true);
+            }
+        }
     }
 
     /**
@@ -452,6 +641,25 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
         }
     }
 
+    /**
+     * エンティティマッパーにエンティティのポピュレータを設定します。
+     * <p>
+     * {@link JdbcManagerImplementor#isCompiledEntityMapperEnabled()}が<code>true</code>の場合だけ設定します。
+     * ポピュレータはエンティティクラスと選択リストの形ごとにキャッシュされるため、
+     * 同じ形のクエリでは生成済みのクラスが再利用されます。
+     * </p>
+     */
+    protected void prepareEntityPopulators() {
+        if (count || !jdbcManager.isCompiledEntityMapperEnabled()) {
+            return;
+        }
+        for (AbstractEntityMapper entityMapper : entityMapperMap.values()) {
+            entityMapper.setEntityPopulator(EntityPopulatorGenerator
+                    .getEntityPopulator(entityMapper.getEntityClass(),
+                            entityMapper.getPropertyMappers()));
+        }
+    }
+
     /**
      * エンティティの準備をします。
      * 
@@ -1212,9 +1420,38 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
      * SQLを準備します。
      */
     protected void prepareSql() {
+        if (pagedResult) {
+            prepareTotalCountSql();
+        }
         executedSql = convertLimitSql(toSql()) + forUpdate;
     }
 
+    /**
+     * ページングを指定しない場合の行数を取得する準備をします。
+     * <p>
+     * 行数を選択リストの列で取得する場合は、選択リストに<code>count(*) over()</code>を追加します。
+     * 行数を求めるSQLは、ページに行がなかった場合などに使用されます。
+     * </p>
+     */
+    protected void prepareTotalCountSql() {
+        final DbmsDialect dialect = jdbcManager.getDialect();
+        final String hintComment = StringUtil.isEmpty(hint) ? "" : dialect
+                .getHintComment(convertEntityNameToTableAlias(hint));
+        totalCountSql = "select " + hintComment
+                + dialect.getCountSqlSelectList(idPropertyMetaList)
+                + fromClause.toSql() + whereClause.toSql();
+        if (totalCountColumn) {
+            selectClause.addSql("count(*) over() as "
+                    + TotalCountResultSetHandler.TOTAL_COUNT_COLUMN);
+        }
+    }
+
+    @Override
+    protected boolean isTotalCountColumnSupported() {
+        return jdbcManager.getDialect().supportsWindowFunction()
+                && forUpdateType == null;
+    }
+
     @Override
     protected ResultSetHandler createResultListResultSetHandler() {
         return new BeanListAutoResultSetHandler(getValueTypes(),
@@ -1230,6 +1467,56 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
                 executedSql);
     }
 
+    /**
+     * 識別子による検索の場合で、 エンティティがキャッシュの対象の場合はキャッシュを参照します。
+     * <p>
+     * キャッシュにエンティティがない場合はデータベースを検索し、 その結果をキャッシュに格納します。
+     * </p>
+     * 
+     * @see JdbcManagerImplementor#getEntityCache()
+     */
+    @Override
+    public T getSingleResult() throws SNonUniqueResultException {
+        if (!isEntityCacheTarget()) {
+            return super.getSingleResult();
+        }
+        prepareCallerClassAndMethodName("getSingleResult");
+        final EntityMeta entityMeta = jdbcManager.getEntityMetaFactory()
+                .getEntityMeta(baseClass);
+        final EntityCache entityCache = jdbcManager.getEntityCache();
+        final Object entity = entityCache.get(entityMeta, idProperties);
+        if (entity != null) {
+            completed();
+            return baseClass.cast(entity);
+        }
+        final long evictionCount = entityCache.getEvictionCount(entityMeta);
+        final T result = super.getSingleResult();
+        entityCache.put(entityMeta, result, evictionCount);
+        return result;
+    }
+
+    /**
+     * エンティティのキャッシュを参照できる問い合わせなら<code>true</code>を返します。
+     * <p>
+     * 識別子だけを条件とし、結合やロック、プロパティの選択、ページングなどを指定していない問い合わせが対象です。
+     * </p>
+     * 
+     * @return エンティティのキャッシュを参照できる問い合わせなら<code>true</code>
+     */
+    protected boolean isEntityCacheTarget() {
+        if (idProperties == null || versionProperty != null
+                || !joinMetaList.isEmpty() || !StringUtil.isEmpty(criteria)
+                || conditions != null || forUpdateType != null
+                || !includesProperties.isEmpty()
+                || !excludesProperties.isEmpty()
+                || !eagerProperties.isEmpty() || !StringUtil.isEmpty(hint)
+                || limit > 0 || offset > 0 || seekValues != null) {
+            return false;
+        }
+        return jdbcManager.isEntityCacheAvailable(jdbcManager
+                .getEntityMetaFactory().getEntityMeta(baseClass));
+    }
+
     @Override
     protected ResultSetHandler createIterateResultSetHandler(
             final IterationCallback<T, ?> callback) {
@@ -1280,6 +1567,118 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
         orderByClause.addSql(convertCriteria(orderBy, true));
     }
 
+    /**
+     * 反復のためのorder by句の準備をします。
+     * <p>
+     * 1対多の関連をフェッチする場合、 結果セットは基点となるエンティティごとにまとまっている必要があります。
+     * そのため、基点となるエンティティの識別子を、基点となるエンティティ以外の項目より前に追加します。
+     * 基点となるエンティティの項目だけが先頭に並んでいる間に識別子がすでに含まれている場合は追加しません。
+     * これにより、 {@link BeanIterationAutoResultSetHandler}は基点となるエンティティが変わるたびに
+     * {@link MappingContext}をクリアできるため、 反復中に保持されるのは1つの基点となるエンティティの関連だけになります。
+     * </p>
+     */
+    protected void prepareIterationOrderBy() {
+        if (count || !hasOneToManyRelationship()) {
+            return;
+        }
+        final EntityMeta entityMeta = jdbcManager.getEntityMetaFactory()
+                .getEntityMeta(baseClass);
+        final Set<String> baseItemNames = new HashSet<String>();
+        for (final PropertyMeta pm : entityMeta.getAllColumnPropertyMeta()) {
+            baseItemNames.add(convertCriteria(pm.getName(), true)
+                    .toLowerCase());
+        }
+        final List<String> items = getOrderByItems();
+        final List<String> newItems = new ArrayList<String>(items.size()
+                + entityMeta.getIdPropertyMetaList().size());
+        final Set<String> leadingItemNames = new HashSet<String>();
+        int index = 0;
+        for (; index < items.size(); ++index) {
+            final String itemName = getOrderByItemName(items.get(index));
+            if (!baseItemNames.contains(itemName)) {
+                break;
+            }
+            leadingItemNames.add(itemName);
+            newItems.add(items.get(index));
+        }
+        for (final PropertyMeta pm : entityMeta.getIdPropertyMetaList()) {
+            final String itemName = convertCriteria(pm.getName(), true);
+            if (!leadingItemNames.contains(itemName.toLowerCase())) {
+                newItems.add(itemName);
+            }
+        }
+        newItems.addAll(items.subList(index, items.size()));
+        if (newItems.size() == items.size()) {
+            return;
+        }
+        orderByClause = new OrderByClause();
+        final StringBuilder buf = new StringBuilder(100);
+        for (final String item : newItems) {
+            if (buf.length() > 0) {
+                buf.append(", ");
+            }
+            buf.append(item);
+        }
+        orderByClause.addSql(buf.toString());
+    }
+
+    /**
+     * 1対多の関連をフェッチする場合は<code>true</code>を返します。
+     * 
+     * @return 1対多の関連をフェッチする場合は<code>true</code>
+     */
+    protected boolean hasOneToManyRelationship() {
+        for (final AbstractEntityMapper entityMapper : entityMapperMap.values()) {
+            if (entityMapper instanceof OneToManyEntityMapperImpl) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * カラム名に変換したorder by句の項目を返します。
+     * <p>
+     * 括弧の中のカンマでは項目を区切りません。
+     * </p>
+     * 
+     * @return order by句の項目のリスト
+     */
+    protected List<String> getOrderByItems() {
+        final List<String> items = new ArrayList<String>();
+        if (StringUtil.isEmpty(orderBy)) {
+            return items;
+        }
+        final String criteria = convertCriteria(orderBy, true);
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < criteria.length(); ++i) {
+            final char c = criteria.charAt(i);
+            if (c == '(') {
+                ++depth;
+            } else if (c == ')') {
+                --depth;
+            } else if (c == ',' && depth == 0) {
+                items.add(criteria.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        items.add(criteria.substring(start).trim());
+        return items;
+    }
+
+    /**
+     * order by句の項目の名前を小文字で返します。
+     * 
+     * @param item
+     *            order by句の項目
+     * @return 項目の名前
+     */
+    protected String getOrderByItemName(final String item) {
+        final String[] words = StringUtil.split(item, " \t\r\n");
+        return words.length > 0 ? words[0].toLowerCase() : "";
+    }
+
     /**
      * プロパティ名で記述されたクライテリアをカラム名に変換します。
      * 
@@ -1485,6 +1884,286 @@ public class AutoSelectImpl<T> extends AbstractSelect<T, AutoSelect<T>>
         return this;
     }
 
+    public AutoSelect<T> seekAfter(final Object... lastValues) {
+        if (lastValues == null) {
+            throw new NullPointerException("lastValues");
+        }
+        seekValues = lastValues.length == 0 ? null : lastValues;
+        return this;
+    }
+
+    public <RESULT> RESULT iterateInChunks(final int chunkSize,
+            final IterationCallback<T, RESULT> callback) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize");
+        }
+        if (callback == null) {
+            throw new NullPointerException("callback");
+        }
+        prepareCallerClassAndMethodName("iterateInChunks");
+        final EntityMeta entityMeta = jdbcManager.getEntityMetaFactory()
+                .getEntityMeta(baseClass);
+        final String chunkOrderBy = createChunkOrderBy(entityMeta);
+        final List<PropertyMeta> keyPropertyMetaList = new ArrayList<PropertyMeta>();
+        for (final String[] item : getOrderByItems(chunkOrderBy)) {
+            if (!entityMeta.hasPropertyMeta(item[0])) {
+                logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                        callerMethodName });
+                throw new PropertyNotFoundRuntimeException(
+                        entityMeta.getName(), item[0]);
+            }
+            keyPropertyMetaList.add(entityMeta.getPropertyMeta(item[0]));
+        }
+        if (keyPropertyMetaList.isEmpty()) {
+            logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                    callerMethodName });
+            throw new NoIdPropertyRuntimeException("ESSR0769", entityMeta
+                    .getName());
+        }
+        final IterationContext context = new IterationContext();
+        Object[] lastValues = seekValues;
+        RESULT result = null;
+        try {
+            for (;;) {
+                final List<T> entities = createChunkQuery(chunkOrderBy,
+                        lastValues, chunkSize).getResultList();
+                for (final T entity : entities) {
+                    result = callback.iterate(entity, context);
+                    if (context.isExit()) {
+                        return result;
+                    }
+                }
+                if (entities.size() < chunkSize) {
+                    return result;
+                }
+                final T last = entities.get(entities.size() - 1);
+                lastValues = new Object[keyPropertyMetaList.size()];
+                for (int i = 0; i < lastValues.length; ++i) {
+                    final PropertyMeta pm = keyPropertyMetaList.get(i);
+                    lastValues[i] = FieldUtil.get(pm.getField(), last);
+                    if (lastValues[i] == null) {
+                        logger.log("ESSR0709", new Object[] {
+                                callerClass.getName(), callerMethodName });
+                        throw new NullSeekValueRuntimeException(entityMeta
+                                .getName(), pm.getName());
+                    }
+                }
+            }
+        } finally {
+            completed();
+        }
+    }
+
+    /**
+     * 分割して反復する際のorder by句を作成します。
+     * <p>
+     * 指定されたorder by句に含まれていない識別子を末尾に追加します。
+     * order by句の項目の値が同じ行がチャンクの境界をまたいでも、行を読み飛ばさないようにするためです。
+     * </p>
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @return 分割して反復する際のorder by句
+     */
+    protected String createChunkOrderBy(final EntityMeta entityMeta) {
+        final StringBuilder buf = new StringBuilder(50);
+        final Set<String> names = new HashSet<String>();
+        if (!StringUtil.isEmpty(orderBy)) {
+            buf.append(orderBy);
+            for (final String[] item : getOrderByItems(orderBy)) {
+                names.add(item[0]);
+            }
+        }
+        for (final PropertyMeta pm : entityMeta.getIdPropertyMetaList()) {
+            if (names.contains(pm.getName())) {
+                continue;
+            }
+            if (buf.length() > 0) {
+                buf.append(", ");
+            }
+            buf.append(pm.getName());
+        }
+        return new String(buf);
+    }
+
+    /**
+     * 分割して反復する際に1回の検索を行うクエリを作成します。
+     * 
+     * @param chunkOrderBy
+     *            order by句
+     * @param lastValues
+     *            前回検索した最後のエンティティが持つorder by句の各項目の値、最初の検索では<code>null</code>
+     * @param chunkSize
+     *            1回に検索する行数
+     * @return 1回の検索を行うクエリ
+     */
+    protected AutoSelectImpl<T> createChunkQuery(final String chunkOrderBy,
+            final Object[] lastValues, final int chunkSize) {
+        final AutoSelectImpl<T> query = new AutoSelectImpl<T>(jdbcManager,
+                baseClass);
+        query.callerClass = callerClass;
+        query.callerMethodName = callerMethodName;
+        query.maxRows = maxRows;
+        query.fetchSize = fetchSize;
+        query.queryTimeout = queryTimeout;
+        query.joinMetaList.addAll(joinMetaList);
+        query.includesProperties.addAll(includesProperties);
+        query.excludesProperties.addAll(excludesProperties);
+        query.eagerProperties.addAll(eagerProperties);
+        query.hint = hint;
+        query.criteria = criteria;
+        query.whereParams.addAll(whereParams);
+        query.criteriaParams = criteriaParams;
+        query.criteriaPropertyNames = criteriaPropertyNames;
+        query.conditions = conditions;
+        query.idPropertyMetaList = idPropertyMetaList;
+        query.idProperties = idProperties;
+        query.versionPropertyMeta = versionPropertyMeta;
+        query.versionProperty = versionProperty;
+        query.forUpdateType = forUpdateType;
+        query.forUpdateTargets.putAll(forUpdateTargets);
+        query.forUpdateWaitSeconds = forUpdateWaitSeconds;
+        query.orderBy = chunkOrderBy;
+        query.seekValues = lastValues;
+        query.limit = chunkSize;
+        return query;
+    }
+
+    /**
+     * キーセットページングの条件を準備します。
+     */
+    protected void prepareSeek() {
+        if (seekValues == null) {
+            return;
+        }
+        final List<String> names = new ArrayList<String>();
+        final List<Object> values = new ArrayList<Object>();
+        final String seekCriteria = createSeekCriteria(names, values);
+        whereClause.addAndSql("(");
+        whereClause.addSql(convertCriteria(seekCriteria));
+        whereClause.addSql(")");
+        for (int i = 0; i < names.size(); ++i) {
+            prepareParams(names.get(i), values.get(i));
+        }
+    }
+
+    /**
+     * キーセットページングの条件を作成します。
+     * <p>
+     * DBMSが行値式の大小比較をサポートしていて、order by句の項目の並び順がすべて同じ場合は
+     * <code>(a, b) &gt; (?, ?)</code>の形式で、それ以外の場合は
+     * <code>a &gt;= ? and (a &gt; ? or a = ? and b &gt; ?)</code>の形式で作成します。
+     * 後者の先頭の条件は冗長ですが、先頭の項目のインデックスを範囲検索に使えるようにします。
+     * </p>
+     * 
+     * @param names
+     *            条件のパラメータに対応するプロパティ名を追加するリスト
+     * @param values
+     *            条件のパラメータの値を追加するリスト
+     * @return キーセットページングの条件
+     */
+    protected String createSeekCriteria(final List<String> names,
+            final List<Object> values) {
+        final List<String[]> items = getOrderByItems(orderBy);
+        final int size = items.size();
+        if (size != seekValues.length) {
+            logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                    callerMethodName });
+            throw new IllegalArgumentException(MessageFormatter.getMessage(
+                    "ESSR0768", new Object[] { entityName, size,
+                            seekValues.length }));
+        }
+        for (int i = 0; i < size; ++i) {
+            if (seekValues[i] == null) {
+                logger.log("ESSR0709", new Object[] { callerClass.getName(),
+                        callerMethodName });
+                throw new NullSeekValueRuntimeException(entityName, items
+                        .get(i)[0]);
+            }
+        }
+        boolean sameOrdering = true;
+        for (final String[] item : items) {
+            if (isDescending(item) != isDescending(items.get(0))) {
+                sameOrdering = false;
+            }
+        }
+        final StringBuilder buf = new StringBuilder(100);
+        if (size > 1 && sameOrdering
+                && jdbcManager.getDialect().supportsRowValueComparison()) {
+            final StringBuilder params = new StringBuilder(20);
+            for (int i = 0; i < size; ++i) {
+                if (i > 0) {
+                    buf.append(", ");
+                    params.append(", ");
+                }
+                buf.append(items.get(i)[0]);
+                params.append("?");
+                names.add(items.get(i)[0]);
+                values.add(seekValues[i]);
+            }
+            return "(" + buf + ") "
+                    + (isDescending(items.get(0)) ? "<" : ">") + " ("
+                    + params + ")";
+        }
+        if (size > 1) {
+            buf.append(items.get(0)[0]).append(
+                    isDescending(items.get(0)) ? " <= ?" : " >= ?").append(
+                    " and (");
+            names.add(items.get(0)[0]);
+            values.add(seekValues[0]);
+        }
+        for (int i = 0; i < size; ++i) {
+            if (i > 0) {
+                buf.append(" or ");
+            }
+            for (int j = 0; j < i; ++j) {
+                buf.append(items.get(j)[0]).append(" = ? and ");
+                names.add(items.get(j)[0]);
+                values.add(seekValues[j]);
+            }
+            buf.append(items.get(i)[0]).append(
+                    isDescending(items.get(i)) ? " < ?" : " > ?");
+            names.add(items.get(i)[0]);
+            values.add(seekValues[i]);
+        }
+        if (size > 1) {
+            buf.append(")");
+        }
+        return new String(buf);
+    }
+
+    /**
+     * order by句の項目を単語に分割して返します。
+     * 
+     * @param orderBy
+     *            order by句
+     * @return order by句の項目ごとの単語の配列のリスト
+     */
+    protected List<String[]> getOrderByItems(final String orderBy) {
+        final List<String[]> items = new ArrayList<String[]>();
+        if (StringUtil.isEmpty(orderBy)) {
+            return items;
+        }
+        for (final String item : StringUtil.split(orderBy, ",")) {
+            final String[] words = StringUtil.split(item, " \t\r\n");
+            if (words.length > 0) {
+                items.add(words);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * order by句の項目が降順の場合は<code>true</code>を返します。
+     * 
+     * @param item
+     *            order by句の項目の単語の配列
+     * @return order by句の項目が降順の場合は<code>true</code>
+     */
+    protected boolean isDescending(final String[] item) {
+        return item.length > 1 && "desc".equalsIgnoreCase(item[1]);
+    }
+
     /**
      * FOR UPDATE句を準備します。
      */
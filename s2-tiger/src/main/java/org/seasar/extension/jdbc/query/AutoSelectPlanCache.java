@@ -0,0 +1,230 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.seasar.extension.jdbc.ValueType;
+import org.seasar.extension.jdbc.mapper.AbstractEntityMapper;
+import org.seasar.framework.util.Disposable;
+import org.seasar.framework.util.DisposableUtil;
+
+/**
+ * {@link AutoSelectImpl}が組み立てたSQLと結果セットのマッピングをクエリの形ごとにキャッシュします。
+ * <p>
+ * クエリの形とは、対象のエンティティクラス、結合とその種別、where句の条件(パラメータの値を除く)、
+ * order by句、ページングやロックの指定など、組み立てられるSQLを決める要素の組み合わせです。
+ * 同じ形のクエリではSQLの組み立てやエンティティメタデータの参照を行わずに、
+ * キャッシュしたSQLとマッピングを使ってパラメータの値だけをバインドします。
+ * </p>
+ * <p>
+ * キャッシュしている形の数が最大数に達すると、キャッシュをクリアしてから新しい形を格納します。
+ * </p>
+ */
+public class AutoSelectPlanCache {
+
+    /**
+     * クエリの形をキーとする実行計画のマップです。
+     */
+    protected ConcurrentMap<Object, Plan> plans = new ConcurrentHashMap<Object, Plan>();
+
+    /**
+     * キャッシュする形の最大数です。
+     */
+    protected int maxSize;
+
+    /**
+     * 初期化されたかどうかです。
+     */
+    protected volatile boolean initialized;
+
+    /**
+     * {@link AutoSelectPlanCache}を作成します。
+     * 
+     * @param maxSize
+     *            キャッシュする形の最大数
+     */
+    public AutoSelectPlanCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * クエリの形に対する実行計画を返します。
+     * 
+     * @param shape
+     *            クエリの形
+     * @return 実行計画、キャッシュされていない場合は<code>null</code>
+     */
+    public Plan get(final Object shape) {
+        return plans.get(shape);
+    }
+
+    /**
+     * クエリの形に対する実行計画を格納します。
+     * 
+     * @param shape
+     *            クエリの形
+     * @param plan
+     *            実行計画
+     */
+    public void put(final Object shape, final Plan plan) {
+        if (!initialized) {
+            initialize();
+        }
+        if (plans.size() >= maxSize) {
+            plans.clear();
+        }
+        plans.put(shape, plan);
+    }
+
+    /**
+     * キャッシュしている形の数を返します。
+     * 
+     * @return キャッシュしている形の数
+     */
+    public int getSize() {
+        return plans.size();
+    }
+
+    /**
+     * キャッシュをクリアします。
+     */
+    public void clear() {
+        plans.clear();
+    }
+
+    /**
+     * 初期化を行ないます。
+     */
+    public synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        DisposableUtil.add(new Disposable() {
+
+            public void dispose() {
+                clear();
+                initialized = false;
+            }
+        });
+        initialized = true;
+    }
+
+    /**
+     * クエリの実行計画です。
+     */
+    public static class Plan {
+
+        /**
+         * 実行するSQLです。
+         */
+        protected final String sql;
+
+        /**
+         * ページングを指定しない場合の行数を取得するSQLです。
+         */
+        protected final String totalCountSql;
+
+        /**
+         * 結果セットの値タイプの配列です。
+         */
+        protected final ValueType[] valueTypes;
+
+        /**
+         * エンティティマッパーです。
+         */
+        protected final AbstractEntityMapper entityMapper;
+
+        /**
+         * パラメータの値タイプの配列です。
+         * <p>
+         * 要素が<code>null</code>のパラメータは、実行のたびに値のクラスから値タイプを決定します。
+         * </p>
+         */
+        protected final ValueType[] paramValueTypes;
+
+        /**
+         * {@link Plan}を作成します。
+         * 
+         * @param sql
+         *            実行するSQL
+         * @param totalCountSql
+         *            ページングを指定しない場合の行数を取得するSQL
+         * @param valueTypes
+         *            結果セットの値タイプの配列
+         * @param entityMapper
+         *            エンティティマッパー
+         * @param paramValueTypes
+         *            パラメータの値タイプの配列
+         */
+        public Plan(final String sql, final String totalCountSql,
+                final ValueType[] valueTypes,
+                final AbstractEntityMapper entityMapper,
+                final ValueType[] paramValueTypes) {
+            this.sql = sql;
+            this.totalCountSql = totalCountSql;
+            this.valueTypes = valueTypes;
+            this.entityMapper = entityMapper;
+            this.paramValueTypes = paramValueTypes;
+        }
+
+        /**
+         * 実行するSQLを返します。
+         * 
+         * @return 実行するSQL
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * ページングを指定しない場合の行数を取得するSQLを返します。
+         * 
+         * @return ページングを指定しない場合の行数を取得するSQL
+         */
+        public String getTotalCountSql() {
+            return totalCountSql;
+        }
+
+        /**
+         * 結果セットの値タイプの配列を返します。
+         * 
+         * @return 結果セットの値タイプの配列
+         */
+        public ValueType[] getValueTypes() {
+            return valueTypes;
+        }
+
+        /**
+         * エンティティマッパーを返します。
+         * 
+         * @return エンティティマッパー
+         */
+        public AbstractEntityMapper getEntityMapper() {
+            return entityMapper;
+        }
+
+        /**
+         * パラメータの値タイプの配列を返します。
+         * 
+         * @return パラメータの値タイプの配列
+         */
+        public ValueType[] getParamValueTypes() {
+            return paramValueTypes;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.seasar.extension.jdbc.AutoSelect;
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.JoinColumnMeta;
+import org.seasar.extension.jdbc.PropertyMapper;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.extension.jdbc.mapper.AbstractRelationshipEntityMapper;
+import org.seasar.extension.jdbc.mapper.KeyItems;
+import org.seasar.extension.jdbc.mapper.ManyToOneEntityMapperImpl;
+import org.seasar.extension.jdbc.mapper.OneToManyEntityMapperImpl;
+import org.seasar.extension.jdbc.mapper.OneToOneEntityMapperImpl;
+import org.seasar.extension.jdbc.where.SimpleWhere;
+import org.seasar.framework.message.MessageFormatter;
+import org.seasar.framework.util.FieldUtil;
+
+/**
+ * 検索済みのエンティティのリストに関連エンティティを一括して設定するクラスです。
+ * <p>
+ * 関連元のエンティティから結合カラムの値を集め、関連エンティティを<code>IN</code>述語で検索します。
+ * 1つのSQLで検索するキーの数は、バッチフェッチのサイズと{@link org.seasar.extension.jdbc.DbmsDialect#getMaxBindParameterSize()}
+ * で制限されます。
+ * </p>
+ */
+public class RelationshipFetcher {
+
+    /**
+     * 内部的なJDBCマネージャです。
+     */
+    protected JdbcManagerImplementor jdbcManager;
+
+    /**
+     * 1つのSQLで検索するキーの最大数です。
+     */
+    protected int batchFetchSize;
+
+    /**
+     * {@link RelationshipFetcher}を作成します。
+     * 
+     * @param jdbcManager
+     *            内部的なJDBCマネージャ
+     * @param batchFetchSize
+     *            1つのSQLで検索するキーの最大数
+     */
+    public RelationshipFetcher(final JdbcManagerImplementor jdbcManager,
+            final int batchFetchSize) {
+        this.jdbcManager = jdbcManager;
+        this.batchFetchSize = batchFetchSize;
+    }
+
+    /**
+     * エンティティのリストに関連エンティティを設定します。
+     * 
+     * @param entities
+     *            エンティティのリスト
+     * @param propertyName
+     *            関連のプロパティ名
+     * @return 取得した関連エンティティのリスト
+     * @throws IllegalArgumentException
+     *             プロパティが関連でない場合
+     */
+    public List<Object> fetch(final List<?> entities, final String propertyName)
+            throws IllegalArgumentException {
+        final List<Object> result = new ArrayList<Object>();
+        final Object first = getFirstEntity(entities);
+        if (first == null) {
+            return result;
+        }
+        final EntityMeta entityMeta = jdbcManager.getEntityMetaFactory()
+                .getEntityMeta(first.getClass());
+        final PropertyMeta propertyMeta = entityMeta
+                .getPropertyMeta(propertyName);
+        if (!propertyMeta.isRelationship()) {
+            throw new IllegalArgumentException(MessageFormatter.getMessage(
+                    "ESSR0770", new Object[] { entityMeta.getName(),
+                            propertyName }));
+        }
+        final Class<?> relationshipClass = propertyMeta.getRelationshipClass();
+        final EntityMeta inverseEntityMeta = jdbcManager
+                .getEntityMetaFactory().getEntityMeta(relationshipClass);
+        final PropertyMeta inversePropertyMeta = getInversePropertyMeta(
+                entityMeta, inverseEntityMeta, propertyMeta);
+        final List<PropertyMeta> sourcePropertyMetaList = new ArrayList<PropertyMeta>();
+        final List<PropertyMeta> targetPropertyMetaList = new ArrayList<PropertyMeta>();
+        if (propertyMeta.getMappedBy() == null) {
+            for (JoinColumnMeta jcm : propertyMeta.getJoinColumnMetaList()) {
+                sourcePropertyMetaList.add(entityMeta.getColumnPropertyMeta(jcm
+                        .getName()));
+                targetPropertyMetaList.add(inverseEntityMeta
+                        .getColumnPropertyMeta(jcm.getReferencedColumnName()));
+            }
+        } else {
+            for (JoinColumnMeta jcm : inversePropertyMeta
+                    .getJoinColumnMetaList()) {
+                sourcePropertyMetaList.add(entityMeta.getColumnPropertyMeta(jcm
+                        .getReferencedColumnName()));
+                targetPropertyMetaList.add(inverseEntityMeta
+                        .getColumnPropertyMeta(jcm.getName()));
+            }
+        }
+        final AbstractRelationshipEntityMapper mapper = createRelationshipEntityMapper(
+                relationshipClass, propertyMeta, inversePropertyMeta);
+        final Map<Object, List<Object>> targetMap = new LinkedHashMap<Object, List<Object>>();
+        for (Object entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            final Object key = getKey(entity, sourcePropertyMetaList);
+            if (key == null) {
+                mapper.relate(entity, null);
+                continue;
+            }
+            List<Object> targets = targetMap.get(key);
+            if (targets == null) {
+                targets = new ArrayList<Object>();
+                targetMap.put(key, targets);
+            }
+            targets.add(entity);
+        }
+        final List<Object> keys = new ArrayList<Object>(targetMap.keySet());
+        final Set<Object> fetchedKeys = new HashSet<Object>();
+        final int chunkSize = getChunkSize(targetPropertyMetaList.size());
+        for (int i = 0; i < keys.size(); i += chunkSize) {
+            final List<Object> chunk = keys.subList(i, Math.min(i + chunkSize,
+                    keys.size()));
+            for (Object entity : select(relationshipClass,
+                    targetPropertyMetaList, chunk)) {
+                final Object key = getKey(entity, targetPropertyMetaList);
+                final List<Object> targets = targetMap.get(key);
+                if (targets == null) {
+                    continue;
+                }
+                for (Object target : targets) {
+                    mapper.relate(target, entity);
+                }
+                fetchedKeys.add(key);
+                result.add(entity);
+            }
+        }
+        for (Map.Entry<Object, List<Object>> entry : targetMap.entrySet()) {
+            if (fetchedKeys.contains(entry.getKey())) {
+                continue;
+            }
+            for (Object target : entry.getValue()) {
+                mapper.relate(target, null);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 最初の<code>null</code>でないエンティティを返します。
+     * 
+     * @param entities
+     *            エンティティのリスト
+     * @return 最初の<code>null</code>でないエンティティ、存在しない場合は<code>null</code>
+     */
+    protected Object getFirstEntity(final List<?> entities) {
+        for (Object entity : entities) {
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 逆側のプロパティメタデータを返します。
+     * 
+     * @param entityMeta
+     *            エンティティメタデータ
+     * @param inverseEntityMeta
+     *            逆側のエンティティメタデータ
+     * @param propertyMeta
+     *            関連のプロパティメタデータ
+     * @return 逆側のプロパティメタデータ
+     */
+    protected PropertyMeta getInversePropertyMeta(final EntityMeta entityMeta,
+            final EntityMeta inverseEntityMeta, final PropertyMeta propertyMeta) {
+        if (propertyMeta.getMappedBy() != null) {
+            return inverseEntityMeta.getPropertyMeta(propertyMeta
+                    .getMappedBy());
+        }
+        return inverseEntityMeta.getMappedByPropertyMeta(
+                propertyMeta.getName(), entityMeta.getEntityClass());
+    }
+
+    /**
+     * 関連エンティティマッパーを作成します。
+     * 
+     * @param relationshipClass
+     *            関連クラス
+     * @param propertyMeta
+     *            関連のプロパティメタデータ
+     * @param inversePropertyMeta
+     *            逆側の関連のプロパティメタデータ
+     * @return 関連エンティティマッパー
+     */
+    protected AbstractRelationshipEntityMapper createRelationshipEntityMapper(
+            final Class<?> relationshipClass, final PropertyMeta propertyMeta,
+            final PropertyMeta inversePropertyMeta) {
+        final PropertyMapper[] propertyMappers = new PropertyMapper[0];
+        final int[] idIndices = new int[0];
+        final Field inverseField = inversePropertyMeta != null ? inversePropertyMeta
+                .getField()
+                : null;
+        switch (propertyMeta.getRelationshipType()) {
+        case ONE_TO_ONE:
+            return new OneToOneEntityMapperImpl(relationshipClass,
+                    propertyMappers, idIndices, propertyMeta.getField(),
+                    inverseField);
+        case ONE_TO_MANY:
+            return new OneToManyEntityMapperImpl(relationshipClass,
+                    propertyMappers, idIndices, propertyMeta.getField(),
+                    inverseField);
+        case MANY_TO_ONE:
+            return new ManyToOneEntityMapperImpl(relationshipClass,
+                    propertyMappers, idIndices, propertyMeta.getField(),
+                    inverseField);
+        }
+        throw new IllegalStateException(propertyMeta.getRelationshipType()
+                .toString());
+    }
+
+    /**
+     * エンティティの結合カラムの値からキーを返します。
+     * 
+     * @param entity
+     *            エンティティ
+     * @param propertyMetaList
+     *            結合カラムのプロパティメタデータのリスト
+     * @return キー、結合カラムの値に<code>null</code>が含まれる場合は<code>null</code>
+     */
+    protected Object getKey(final Object entity,
+            final List<PropertyMeta> propertyMetaList) {
+        if (propertyMetaList.size() == 1) {
+            return FieldUtil.get(propertyMetaList.get(0).getField(), entity);
+        }
+        final Object[] values = new Object[propertyMetaList.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = FieldUtil.get(propertyMetaList.get(i).getField(),
+                    entity);
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        return new KeyItems(values);
+    }
+
+    /**
+     * 1つのSQLで検索するキーの数を返します。
+     * 
+     * @param columnSize
+     *            結合カラムの数
+     * @return 1つのSQLで検索するキーの数
+     */
+    protected int getChunkSize(final int columnSize) {
+        int chunkSize = batchFetchSize > 0 ? batchFetchSize
+                : Integer.MAX_VALUE;
+        final int maxParams = jdbcManager.getDialect()
+                .getMaxBindParameterSize();
+        if (maxParams > 0) {
+            chunkSize = Math.min(chunkSize, maxParams / columnSize);
+        }
+        return Math.max(chunkSize, 1);
+    }
+
+    /**
+     * キーに一致する関連エンティティを検索します。
+     * 
+     * @param relationshipClass
+     *            関連クラス
+     * @param propertyMetaList
+     *            関連エンティティの結合カラムのプロパティメタデータのリスト
+     * @param keys
+     *            キーのリスト
+     * @return 関連エンティティのリスト
+     */
+    protected List<?> select(final Class<?> relationshipClass,
+            final List<PropertyMeta> propertyMetaList, final List<Object> keys) {
+        final AutoSelect<?> select = createSelect(relationshipClass);
+        if (propertyMetaList.size() == 1) {
+            return select.where(
+                    new SimpleWhere().in(propertyMetaList.get(0).getName(),
+                            keys)).getResultList();
+        }
+        final StringBuilder buf = new StringBuilder(keys.size()
+                * propertyMetaList.size() * 16);
+        final List<Object> params = new ArrayList<Object>(keys.size()
+                * propertyMetaList.size());
+        for (Object key : keys) {
+            if (buf.length() > 0) {
+                buf.append(" or ");
+            }
+            buf.append("(");
+            final Object[] values = KeyItems.class.cast(key).getValues();
+            for (int i = 0; i < values.length; ++i) {
+                if (i > 0) {
+                    buf.append(" and ");
+                }
+                buf.append(propertyMetaList.get(i).getName()).append(" = ?");
+                params.add(values[i]);
+            }
+            buf.append(")");
+        }
+        return select.where(buf.toString(), params.toArray()).getResultList();
+    }
+
+    /**
+     * 関連エンティティを検索する自動検索を作成します。
+     * 
+     * @param <E>
+     *            関連エンティティの型です。
+     * @param relationshipClass
+     *            関連クラス
+     * @return 自動検索
+     */
+    protected <E> AutoSelect<E> createSelect(final Class<E> relationshipClass) {
+        return new AutoSelectImpl<E>(jdbcManager, relationshipClass);
+    }
+
+}
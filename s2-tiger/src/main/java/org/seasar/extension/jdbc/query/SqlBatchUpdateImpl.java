@@ -21,6 +21,7 @@ import java.util.List;
 
 import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.SqlBatchUpdate;
+import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.exception.IllegalParamSizeRuntimeException;
 import org.seasar.extension.jdbc.exception.SEntityExistsException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
@@ -109,6 +110,7 @@ public class SqlBatchUpdateImpl extends AbstractQuery<SqlBatchUpdate> implements
                     : jdbcManager.getDialect().getDefaultBatchSize();
             final int size = paramsList.size();
             final int[] updateRows = new int[size];
+            final List<SqlLog> samples = new ArrayList<SqlLog>();
             int pos = 0;
             for (int i = 0; i < size; ++i) {
                 final Object[] params = paramsList.get(i);
@@ -121,13 +123,14 @@ public class SqlBatchUpdateImpl extends AbstractQuery<SqlBatchUpdate> implements
                 for (int j = 0; j < params.length; j++) {
                     addParam(params[j], paramClasses[j]);
                 }
-                logSql();
+                logBatchRow(samples);
                 prepareInParams(ps);
                 PreparedStatementUtil.addBatch(ps);
                 resetParams();
                 if (i == size - 1
                         || (batchSize > 0 && (i + 1) % batchSize == 0)) {
-                    final int[] rows = PreparedStatementUtil.executeBatch(ps);
+                    logBatchSql(i + 1 - pos, samples);
+                    final int[] rows = executeBatchUpdate(ps);
                     System.arraycopy(rows, 0, updateRows, pos, rows.length);
                     pos = i + 1;
                 }
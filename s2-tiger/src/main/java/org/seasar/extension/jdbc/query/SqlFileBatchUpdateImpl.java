@@ -16,6 +16,7 @@
 package org.seasar.extension.jdbc.query;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +24,7 @@ import java.util.Map.Entry;
 
 import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.SqlFileBatchUpdate;
+import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.exception.SEntityExistsException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 import org.seasar.extension.jdbc.parameter.LobParameter;
@@ -32,7 +34,7 @@ import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.sql.Node;
 import org.seasar.extension.sql.SqlContext;
 import org.seasar.extension.sql.cache.NodeCache;
-import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.extension.sql.cache.RenderedSqlCache;
 import org.seasar.framework.beans.BeanDesc;
 import org.seasar.framework.beans.PropertyDesc;
 import org.seasar.framework.beans.factory.BeanDescFactory;
@@ -125,6 +127,7 @@ public class SqlFileBatchUpdateImpl<T> extends
                     : jdbcManager.getDialect().getDefaultBatchSize();
             final int size = parameterList.size();
             final int[] updateRows = new int[size];
+            final List<SqlLog> samples = new ArrayList<SqlLog>();
             int pos = 0;
             for (int i = 0; i < size; ++i) {
                 final T parameter = parameterList.get(i);
@@ -133,13 +136,14 @@ public class SqlFileBatchUpdateImpl<T> extends
                     prepareSql();
                     ps = getPreparedStatement(jdbcContext);
                 }
-                logSql();
+                logBatchRow(samples);
                 prepareInParams(ps);
                 PreparedStatementUtil.addBatch(ps);
                 resetParams();
                 if (i == size - 1
                         || (batchSize > 0 && (i + 1) % batchSize == 0)) {
-                    final int[] rows = PreparedStatementUtil.executeBatch(ps);
+                    logBatchSql(i + 1 - pos, samples);
+                    final int[] rows = executeBatchUpdate(ps);
                     System.arraycopy(rows, 0, updateRows, pos, rows.length);
                     pos = i + 1;
                 }
@@ -206,7 +210,7 @@ public class SqlFileBatchUpdateImpl<T> extends
      *            パラメータ
      */
     protected void prepareParameter(T parameter) {
-        sqlContext = new SqlContextImpl();
+        sqlContext = RenderedSqlCache.createSqlContext(node);
         if (parameter != null) {
             Class<?> clazz = parameter.getClass();
             if (ValueTypes.isSimpleType(clazz)
@@ -254,7 +258,7 @@ public class SqlFileBatchUpdateImpl<T> extends
      * SQLを準備します。
      */
     protected void prepareSql() {
-        executedSql = sqlContext.getSql();
+        executedSql = RenderedSqlCache.getSql(node, sqlContext);
     }
 
 }
@@ -28,7 +28,7 @@ import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.sql.Node;
 import org.seasar.extension.sql.SqlContext;
 import org.seasar.extension.sql.cache.NodeCache;
-import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.extension.sql.cache.RenderedSqlCache;
 import org.seasar.framework.beans.BeanDesc;
 import org.seasar.framework.beans.PropertyDesc;
 import org.seasar.framework.beans.factory.BeanDescFactory;
@@ -140,7 +140,7 @@ public class SqlFileSelectImpl<T> extends
      * パラメータを準備します。
      */
     protected void prepareParameter() {
-        sqlContext = new SqlContextImpl();
+        sqlContext = RenderedSqlCache.createSqlContext(node);
         if (parameter != null) {
             Class<?> clazz = parameter.getClass();
             if (ValueTypes.isSimpleType(clazz)
@@ -201,12 +201,15 @@ public class SqlFileSelectImpl<T> extends
      * SQLを準備します。
      */
     protected void prepareSql() {
-        final String sql = sqlContext.getSql();
+        final String sql = RenderedSqlCache.getSql(node, sqlContext);
         if (count) {
             executedSql = convertGetCountSql(sql);
         } else {
             executedSql = convertLimitSql(sql);
         }
+        if (pagedResult) {
+            totalCountSql = convertGetCountSql(sql);
+        }
     }
 
 }
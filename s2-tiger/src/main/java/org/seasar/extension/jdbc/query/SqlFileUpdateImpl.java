@@ -31,12 +31,11 @@ import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.sql.Node;
 import org.seasar.extension.sql.SqlContext;
 import org.seasar.extension.sql.cache.NodeCache;
-import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.extension.sql.cache.RenderedSqlCache;
 import org.seasar.framework.beans.BeanDesc;
 import org.seasar.framework.beans.PropertyDesc;
 import org.seasar.framework.beans.factory.BeanDescFactory;
 import org.seasar.framework.exception.ResourceNotFoundRuntimeException;
-import org.seasar.framework.util.PreparedStatementUtil;
 import org.seasar.framework.util.StatementUtil;
 
 /**
@@ -134,7 +133,7 @@ public class SqlFileUpdateImpl extends AbstractQuery<SqlFileUpdate> implements
         JdbcContext jdbcContext = jdbcManager.getJdbcContext();
         try {
             PreparedStatement ps = getPreparedStatement(jdbcContext);
-            ret = PreparedStatementUtil.executeUpdate(ps);
+            ret = executeUpdate(ps);
         } finally {
             if (!jdbcContext.isTransactional()) {
                 jdbcContext.destroy();
@@ -187,7 +186,7 @@ public class SqlFileUpdateImpl extends AbstractQuery<SqlFileUpdate> implements
      * パラメータを準備します。
      */
     protected void prepareParameter() {
-        sqlContext = new SqlContextImpl();
+        sqlContext = RenderedSqlCache.createSqlContext(node);
         if (parameter != null) {
             Class<?> clazz = parameter.getClass();
             if (ValueTypes.isSimpleType(clazz)
@@ -235,7 +234,7 @@ public class SqlFileUpdateImpl extends AbstractQuery<SqlFileUpdate> implements
      * SQLを準備します。
      */
     protected void prepareSql() {
-        executedSql = sqlContext.getSql();
+        executedSql = RenderedSqlCache.getSql(node, sqlContext);
     }
 
 }
@@ -75,6 +75,9 @@ public class SqlSelectImpl<T> extends AbstractSqlSelect<T, SqlSelect<T>>
         } else {
             executedSql = convertLimitSql(sql);
         }
+        if (pagedResult) {
+            totalCountSql = convertGetCountSql(sql);
+        }
     }
 
     /**
@@ -22,7 +22,6 @@ import org.seasar.extension.jdbc.SqlUpdate;
 import org.seasar.extension.jdbc.exception.IllegalParamSizeRuntimeException;
 import org.seasar.extension.jdbc.exception.SEntityExistsException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
-import org.seasar.framework.util.PreparedStatementUtil;
 import org.seasar.framework.util.StatementUtil;
 
 /**
@@ -109,7 +108,7 @@ public class SqlUpdateImpl extends AbstractQuery<SqlUpdate> implements
         JdbcContext jdbcContext = jdbcManager.getJdbcContext();
         try {
             PreparedStatement ps = getPreparedStatement(jdbcContext);
-            ret = PreparedStatementUtil.executeUpdate(ps);
+            ret = executeUpdate(ps);
         } finally {
             if (!jdbcContext.isTransactional()) {
                 jdbcContext.destroy();
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.sql.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.seasar.extension.sql.Node;
+import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.framework.util.Disposable;
+import org.seasar.framework.util.DisposableUtil;
+
+import static org.seasar.framework.util.tiger.CollectionsUtil.*;
+
+/**
+ * {@link NodeCache}でキャッシュしているノードから組み立てたSQLをキャッシュします。
+ * <p>
+ ノードから組み立てられるSQLは、<code>IF</code>の評価結果、バインド変数の配列の長さ、
+ * 埋め込み変数の値といった分岐の結果だけで決まります。
+ * このクラスは{@link #createSqlContext()}で作成した分岐の結果を記録する{@link SqlContext}を使用し、
+ * 分岐の結果のリストをキーにしてノードごとに組み立て済みのSQLを保持します。
+ * 分岐の結果を記録する{@link SqlContext}はSQLを組み立てないため、
+ * 同じ分岐の結果が再び現れた場合はバインド変数の値を集めるだけで済み、 返されるSQLは常に同じ文字列のインスタンスになります。
+ * 初めて現れた分岐の結果の場合は、同じ引数でノードをもう一度適用してSQLを組み立てます。
+ * 作成した{@link SqlContext}の{@link SqlContext#getSql()}も、このキャッシュからSQLを返します。
+ * </p>
+ * <p>
+ * 埋め込み変数コメントの値によって無数の分岐の結果が現れることもあるため、
+ * 1つのノードで保持するSQLは{@link #MAX_VARIANTS}個までです。
+ * </p>
+ */
+public class RenderedSqlCache {
+
+    /**
+     * 1つのノードで保持するSQLの最大数です。
+     */
+    public static final int MAX_VARIANTS = 100;
+
+    private static volatile boolean initialized;
+
+    private static ConcurrentHashMap<Node, ConcurrentHashMap<List<Object>, String>> sqlCache = newConcurrentHashMap(
+            200);
+
+    static {
+        initialize();
+    }
+
+    /**
+     * 分岐の結果を記録する{@link SqlContext}を作成します。
+     * 
+     * @param node
+     *            適用するノード
+     * @return 分岐の結果を記録する{@link SqlContext}
+     */
+    public static SqlContext createSqlContext(final Node node) {
+        return new BranchRecordingSqlContext(node);
+    }
+
+    /**
+     * ノードを適用した{@link SqlContext}のSQLを返します。
+     * <p>
+     * 同じノードで同じ分岐の結果のSQLを組み立てたことがあれば、そのSQLを返します。
+     * {@link SqlContext}が分岐の結果を記録していない場合は{@link SqlContext#getSql()}を返します。
+     * </p>
+     * 
+     * @param node
+     *            ノード
+     * @param ctx
+     *            ノードを適用した{@link SqlContext}
+     * @return SQL
+     */
+    @SuppressWarnings("unchecked")
+    public static String getSql(final Node node, final SqlContext ctx) {
+        if (!(ctx instanceof SqlContextImpl)) {
+            return ctx.getSql();
+        }
+        final List<Object> results = ((SqlContextImpl) ctx)
+                .getBranchResults();
+        if (results == null) {
+            return ctx.getSql();
+        }
+        if (!initialized) {
+            initialize();
+        }
+        ConcurrentHashMap<List<Object>, String> variants = sqlCache.get(node);
+        if (variants == null) {
+            variants = putIfAbsent(sqlCache, node,
+                    new ConcurrentHashMap<List<Object>, String>());
+        }
+        final String sql = variants.get(results);
+        if (sql != null) {
+            return sql;
+        }
+        final String renderedSql = render(node, (SqlContextImpl) ctx);
+        if (variants.size() >= MAX_VARIANTS) {
+            return renderedSql;
+        }
+        return putIfAbsent(variants, new ArrayList<Object>(results),
+                renderedSql);
+    }
+
+    /**
+     * 分岐の結果を記録した{@link SqlContext}と同じ引数でノードを適用し、SQLを組み立てます。
+     * 
+     * @param node
+     *            ノード
+     * @param ctx
+     *            分岐の結果を記録した{@link SqlContext}
+     * @return SQL
+     */
+    private static String render(final Node node, final SqlContextImpl ctx) {
+        final SqlContext renderingCtx = ctx.copyArgs();
+        node.accept(renderingCtx);
+        return renderingCtx.getSql();
+    }
+
+    /**
+     * ノードに対して保持しているSQLの数を返します。
+     * 
+     * @param node
+     *            ノード
+     * @return ノードに対して保持しているSQLの数
+     */
+    public static int getSize(final Node node) {
+        final ConcurrentHashMap<List<Object>, String> variants = sqlCache
+                .get(node);
+        return variants == null ? 0 : variants.size();
+    }
+
+    /**
+     * 初期化します。
+     */
+    public static void initialize() {
+        DisposableUtil.add(new Disposable() {
+
+            public void dispose() {
+                clear();
+            }
+        });
+        initialized = true;
+    }
+
+    /**
+     * キャッシュをクリアします。
+     */
+    public static void clear() {
+        sqlCache.clear();
+        initialized = false;
+    }
+
+    /**
+     * 分岐の結果を記録し、SQLをキャッシュから返す{@link SqlContext}です。
+     */
+    private static class BranchRecordingSqlContext extends SqlContextImpl {
+
+        private final Node node;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param node
+         *            適用するノード
+         */
+        BranchRecordingSqlContext(final Node node) {
+            this.node = node;
+            setRecordingBranchResults(true);
+        }
+
+        @Override
+        public String getSql() {
+            return RenderedSqlCache.getSql(node, this);
+        }
+    }
+}
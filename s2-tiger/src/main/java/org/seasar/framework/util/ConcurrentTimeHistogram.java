@@ -0,0 +1,121 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ロックを使用せずに複数のスレッドから記録できる{@link TimeHistogram}です。
+ * <p>
+ * 各区間の数や合計はそれぞれアトミックに更新されます。
+ * 記録と同時に取得した値は区間ごとに異なる時点の値となることがあります。
+ * 一貫した値が必要な場合は{@link #copy()}で取得したスナップショットを使用してください。
+ * </p>
+ */
+public class ConcurrentTimeHistogram extends TimeHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(
+            BOUNDS.length + 1);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    @Override
+    public void record(final long time) {
+        final long value = Math.max(0L, time);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        for (;;) {
+            final long current = max.get();
+            if (value <= current || max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < counts.length(); ++i) {
+            counts.set(i, 0L);
+        }
+        count.set(0L);
+        total.set(0L);
+        max.set(0L);
+    }
+
+    /**
+     * スナップショットを返します。
+     * <p>
+     * 返される{@link TimeHistogram}は記録された数が各区間の数の合計と一致するように作成されます。
+     * </p>
+     * 
+     * @return スナップショット
+     */
+    @Override
+    public TimeHistogram copy() {
+        final long[] values = getCounts();
+        long sum = 0L;
+        for (final long value : values) {
+            sum += value;
+        }
+        return new TimeHistogram(values, sum, total.get(), max.get());
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public long getTotal() {
+        return total.get();
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public double getMean() {
+        return copy().getMean();
+    }
+
+    @Override
+    public long getPercentile(final double percentile) {
+        return copy().getPercentile(percentile);
+    }
+
+    @Override
+    public long[] getCounts() {
+        final long[] values = new long[counts.length()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = counts.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return copy().toString();
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.XAConnection;
+import javax.transaction.TransactionManager;
+
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.extension.unit.S2TestCase;
+
+public class ConcurrentConnectionPoolImplTest extends S2TestCase {
+
+    private ConcurrentConnectionPoolImpl pool;
+
+    private TransactionManager tm;
+
+    @Override
+    protected void setUp() throws Exception {
+        include(getClass().getSimpleName() + ".dicon");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testReuseConnection() throws Exception {
+        ConnectionWrapper con = pool.checkOut();
+        pool.checkIn(con);
+        ConnectionWrapper con2 = pool.checkOut();
+        pool.checkIn(con2);
+        assertSame(con.getXAConnection(), con2.getXAConnection());
+        assertSame(con.getPhysicalConnection(), con2.getPhysicalConnection());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCloseLogicalConnection() throws Exception {
+        ConnectionWrapper con = pool.checkOut();
+        assertEquals(1, pool.getActivePoolSize());
+        assertEquals(0, pool.getFreePoolSize());
+        con.close();
+        assertEquals(0, pool.getActivePoolSize());
+        assertEquals(1, pool.getFreePoolSize());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testTransaction() throws Exception {
+        tm.begin();
+        ConnectionWrapper con = pool.checkOut();
+        assertEquals(0, pool.getActivePoolSize());
+        assertEquals(1, pool.getTxActivePoolSize());
+        con.close();
+        assertEquals(1, pool.getTxActivePoolSize());
+        ConnectionWrapper con2 = pool.checkOut();
+        assertSame(con, con2);
+        con2.close();
+        tm.commit();
+        assertEquals(0, pool.getActivePoolSize());
+        assertEquals(0, pool.getTxActivePoolSize());
+        assertEquals(1, pool.getFreePoolSize());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaxPoolSize0() throws Exception {
+        pool.setMaxPoolSize(0);
+        ConnectionWrapper[] cons = new ConnectionWrapper[20];
+        for (int i = 0; i < cons.length; ++i) {
+            cons[i] = pool.checkOut();
+        }
+        for (int i = 0; i < cons.length; ++i) {
+            pool.checkIn(cons[i]);
+        }
+        assertEquals(0, pool.getActivePoolSize());
+        assertEquals(0, pool.getFreePoolSize());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaxWait() throws Exception {
+        pool.setMaxWait(0L);
+        ConnectionWrapper con = pool.checkOut();
+        try {
+            pool.checkOut();
+            fail();
+        } catch (SQLException expected) {
+        }
+
+        pool.setMaxWait(500L);
+        long start = System.currentTimeMillis();
+        try {
+            pool.checkOut();
+            fail();
+        } catch (SQLException expected) {
+        }
+        assertTrue(System.currentTimeMillis() - start >= 450L);
+
+        pool.checkIn(con);
+        pool.checkIn(pool.checkOut());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCheckInTxNotify() throws Exception {
+        tm.begin();
+        ConnectionWrapper con = pool.checkOut();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pool.checkIn(pool.checkOut());
+                    latch.countDown();
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        };
+        thread.start();
+        con.close();
+        Thread.sleep(100);
+        assertEquals(1, latch.getCount());
+        tm.commit();
+        thread.join(5000);
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+        assertEquals(0, latch.getCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMinPoolSize() throws Exception {
+        pool.setMaxPoolSize(2);
+        pool.setMinPoolSize(1);
+        pool.setTimeout(1);
+        ConnectionWrapper con1 = pool.checkOut();
+        ConnectionWrapper con2 = pool.checkOut();
+        Connection pc1 = con1.getPhysicalConnection();
+        Connection pc2 = con2.getPhysicalConnection();
+        pool.checkIn(con1);
+        pool.checkIn(con2);
+        assertEquals(2, pool.getFreePoolSize());
+        Thread.sleep(2500);
+        assertEquals(1, pool.getFreePoolSize());
+        assertTrue(pc1.isClosed() ^ pc2.isClosed());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testValidationQuery() throws Exception {
+        pool.setValidationQuery("select * from hogehoge");
+        pool.setValidationInterval(1);
+        pool.setMaxPoolSize(2);
+        ConnectionWrapper con1 = pool.checkOut();
+        XAConnection xaCon1 = con1.getXAConnection();
+        pool.checkIn(con1);
+        Thread.sleep(100);
+        ConnectionWrapper con2 = pool.checkOut();
+        assertNotSame(xaCon1, con2.getXAConnection());
+        assertEquals(1, pool.getActivePoolSize());
+        assertEquals(0, pool.getFreePoolSize());
+        pool.checkIn(con2);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testConcurrentCheckOut() throws Exception {
+        pool.setMaxPoolSize(3);
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[10];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 20; ++j) {
+                            ConnectionWrapper con = pool.checkOut();
+                            int n = active.incrementAndGet();
+                            for (;;) {
+                                int max = maxActive.get();
+                                if (n <= max
+                                        || maxActive.compareAndSet(max, n)) {
+                                    break;
+                                }
+                            }
+                            Thread.yield();
+                            active.decrementAndGet();
+                            con.close();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(maxActive.get() <= 3);
+        assertEquals(0, pool.getActivePoolSize());
+        assertTrue(pool.getFreePoolSize() <= 3);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaintenance() throws Exception {
+        pool.setMaxPoolSize(3);
+        pool.setMinPoolSize(2);
+        pool.maintain();
+        assertEquals(2, pool.getFreePoolSize());
+
+        pool.setValidationQuery("select * from hogehoge");
+        Thread.sleep(10);
+        pool.validateFreePool();
+        assertEquals(0, pool.getFreePoolSize());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testClose() throws Exception {
+        pool.setMaxPoolSize(2);
+        ConnectionWrapper con1 = pool.checkOut();
+        ConnectionWrapper con2 = pool.checkOut();
+        pool.checkIn(con1);
+        pool.close();
+        assertEquals(0, pool.getActivePoolSize());
+        assertEquals(0, pool.getFreePoolSize());
+        assertNull(con2.getXAConnection());
+        pool.checkIn(pool.checkOut());
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.extension.dbcp.impl.ConnectionPoolMetrics.CheckOutInfo;
+import org.seasar.extension.unit.S2TestCase;
+
+public class ConcurrentConnectionPoolMetricsTest extends S2TestCase {
+
+    private ConcurrentConnectionPoolImpl pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        include(ConcurrentConnectionPoolImplTest.class.getSimpleName()
+                + ".dicon");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMetrics() throws Exception {
+        ConcurrentConnectionPoolMetrics metrics = new ConcurrentConnectionPoolMetrics();
+        metrics.setLeakThreshold(1);
+        metrics.setCaptureCheckOutStack(true);
+        pool.setMetrics(metrics);
+        pool.setMaxPoolSize(1);
+        pool.setMaxWait(0);
+        ConnectionWrapper con = pool.checkOut();
+        try {
+            pool.checkOut();
+            fail();
+        } catch (SQLException expected) {
+        }
+        Thread.sleep(10);
+        ConnectionPoolStatistics stats = metrics.snapshot();
+        assertEquals(1, stats.getCheckOutCount());
+        assertEquals(1, stats.getTimeoutCount());
+        assertEquals(1, stats.getPhysicalConnectCount());
+        assertEquals(1, stats.getLeakSuspects().length);
+        assertNotNull(stats.getLeakSuspects()[0].getCheckOutStack());
+        assertEquals(1, stats.getCheckedOutConnections().length);
+        assertTrue(stats.getLongestHeldTime() >= 10);
+
+        pool.checkIn(con);
+        pool.close();
+        stats = metrics.snapshot();
+        assertEquals(1, stats.getHoldTimeHistogram().getCount());
+        assertEquals(1, stats.getLeakSuspectCount());
+        assertEquals(0, stats.getLeakSuspects().length);
+        assertEquals(0, stats.getCheckedOutConnections().length);
+        assertEquals(0, stats.getLongestHeldTime());
+        assertEquals(1, stats.getPhysicalCloseCount());
+
+        metrics.reset();
+        stats = metrics.snapshot();
+        assertEquals(0, stats.getCheckOutCount());
+        assertEquals(0, stats.getHoldTimeHistogram().getCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetCheckedOutConnections() throws Exception {
+        ConcurrentConnectionPoolMetrics metrics = new ConcurrentConnectionPoolMetrics();
+        pool.setMetrics(metrics);
+        ConnectionWrapper con = pool.checkOut();
+        Thread.sleep(10);
+        ConnectionWrapper con2 = pool.checkOut();
+        CheckOutInfo[] infos = metrics.getCheckedOutConnections();
+        assertEquals(2, infos.length);
+        assertTrue(infos[0].getCheckOutTime() < infos[1].getCheckOutTime());
+        assertEquals(0, metrics.getLeakSuspects().length);
+
+        pool.checkIn(con);
+        infos = metrics.getCheckedOutConnections();
+        assertEquals(1, infos.length);
+        assertEquals(Thread.currentThread().getName(), infos[0]
+                .getThreadName());
+        pool.checkIn(con2);
+        assertEquals(0, metrics.getCheckedOutConnections().length);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testConcurrentRecording() throws Exception {
+        final ConcurrentConnectionPoolMetrics metrics = new ConcurrentConnectionPoolMetrics();
+        pool.setMetrics(metrics);
+        pool.setMaxPoolSize(4);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 100; ++j) {
+                            pool.checkIn(pool.checkOut());
+                        }
+                    } catch (Throwable t) {
+                        error.set(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+        ConnectionPoolStatistics stats = metrics.snapshot();
+        assertEquals(400, stats.getCheckOutCount());
+        assertEquals(400, stats.getWaitTimeHistogram().getCount());
+        assertEquals(400, stats.getHoldTimeHistogram().getCount());
+    }
+
+}
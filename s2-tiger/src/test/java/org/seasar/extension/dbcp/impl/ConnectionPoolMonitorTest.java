@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.extension.unit.S2TestCase;
+import org.seasar.framework.util.TimeHistogram;
+
+public class ConnectionPoolMonitorTest extends S2TestCase {
+
+    private ConcurrentConnectionPoolImpl pool;
+
+    @Override
+    protected void setUp() throws Exception {
+        include(ConcurrentConnectionPoolImplTest.class.getSimpleName()
+                + ".dicon");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testRegister() throws Exception {
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(pool);
+        monitor.setName("test");
+        monitor.register();
+        try {
+            assertTrue(pool.getMetrics() instanceof ConcurrentConnectionPoolMetrics);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = monitor.getObjectName();
+            assertTrue(server.isRegistered(name));
+
+            ConnectionWrapper con = pool.checkOut();
+            assertEquals(1, server.getAttribute(name, "ActivePoolSize"));
+            assertEquals(1L, server.getAttribute(name, "CheckOutCount"));
+            assertEquals(1L, server.getAttribute(name, "PhysicalConnectCount"));
+            String[] checkedOut = (String[]) server.invoke(name,
+                    "dumpCheckedOutConnections", null, null);
+            assertEquals(1, checkedOut.length);
+            assertTrue(checkedOut[0].indexOf("checkOutTime=") >= 0);
+            con.close();
+            assertEquals(1, server.getAttribute(name, "FreePoolSize"));
+            String[] histogram = (String[]) server.getAttribute(name,
+                    "HoldTimeHistogram");
+            assertEquals(new TimeHistogram().getBounds().length + 1,
+                    histogram.length);
+
+            server.invoke(name, "resetMetrics", null, null);
+            assertEquals(0L, server.getAttribute(name, "CheckOutCount"));
+        } finally {
+            monitor.unregister();
+        }
+        assertNull(monitor.getObjectName());
+    }
+
+}
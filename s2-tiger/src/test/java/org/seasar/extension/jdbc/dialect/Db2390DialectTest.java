@@ -46,4 +46,18 @@ public class Db2390DialectTest extends TestCase {
 		assertEquals(expected, dialect.convertLimitSql(sql, 5, 10));
 
 	}
+
+	/**
+	 * 
+	 */
+	public void testSupportsUpsert() {
+		assertFalse(dialect.supportsUpsert());
+	}
+
+	/**
+	 * 
+	 */
+	public void testSupportsWindowFunction() {
+		assertFalse(dialect.supportsWindowFunction());
+	}
 }
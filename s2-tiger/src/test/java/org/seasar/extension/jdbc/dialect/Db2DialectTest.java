@@ -95,4 +95,19 @@ public class Db2DialectTest extends TestCase {
         assertFalse(dialect.isUniqueConstraintViolation(new Exception(
                 new RuntimeException())));
     }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("merge into AAA T_ using (values (?, ?, ?)) "
+                + "S_ (ID, NAME, VERSION) on (T_.ID = S_.ID) "
+                + "when matched then update set NAME = S_.NAME, "
+                + "VERSION = S_.VERSION when not matched then "
+                + "insert (ID, NAME, VERSION) "
+                + "values (S_.ID, S_.NAME, S_.VERSION)", dialect.getUpsertSql(
+                "AAA", new String[] { "ID", "NAME", "VERSION" }, new String[] { "ID" },
+                new String[] { "NAME", "VERSION" }));
+    }
 }
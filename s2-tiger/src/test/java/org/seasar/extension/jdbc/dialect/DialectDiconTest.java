@@ -42,9 +42,11 @@ public class DialectDiconTest extends S2TestCase {
         assertNotNull(getComponent("interbaseDialect"));
         assertNotNull(getComponent("maxdbDialect"));
         assertNotNull(getComponent("mssql2005Dialect"));
+        assertNotNull(getComponent("mssql2008Dialect"));
         assertNotNull(getComponent("mssqlDialect"));
         assertNotNull(getComponent("mysqlDialect"));
         assertNotNull(getComponent("oracleDialect"));
+        assertNotNull(getComponent("postgre95Dialect"));
         assertNotNull(getComponent("postgreDialect"));
         assertNotNull(getComponent("standardDialect"));
         assertNotNull(getComponent("sybaseDialect"));
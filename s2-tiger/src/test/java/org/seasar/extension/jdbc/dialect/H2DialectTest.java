@@ -67,4 +67,36 @@ public class H2DialectTest extends TestCase {
         assertFalse(dialect.isUniqueConstraintViolation(new Exception(
                 new RuntimeException())));
     }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("merge into AAA (ID, NAME, VERSION) key (ID) "
+                + "values (?, ?, ?)", dialect.getUpsertSql("AAA",
+                new String[] { "ID", "NAME", "VERSION" }, new String[] { "ID" },
+                new String[] { "NAME", "VERSION" }));
+    }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql_notUpdatableColumn() {
+        assertFalse(dialect.supportsPartialUpdateUpsert());
+        try {
+            dialect.getUpsertSql("AAA", new String[] { "ID", "NAME" },
+                    new String[] { "ID" }, new String[] {});
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testSupportsWindowFunction() {
+        assertFalse(dialect.supportsWindowFunction());
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.dialect;
+
+import junit.framework.TestCase;
+
+public class Mssql2008DialectTest extends TestCase {
+
+    private Mssql2008Dialect dialect = new Mssql2008Dialect();
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("merge into AAA with (holdlock) T_ using (select ? as ID, ? as NAME, "
+                + "? as VERSION) S_ on (T_.ID = S_.ID) "
+                + "when matched then update set NAME = S_.NAME, "
+                + "VERSION = S_.VERSION when not matched then "
+                + "insert (ID, NAME, VERSION) "
+                + "values (S_.ID, S_.NAME, S_.VERSION);", dialect.getUpsertSql(
+                "AAA", new String[] { "ID", "NAME", "VERSION" },
+                new String[] { "ID" }, new String[] { "NAME", "VERSION" }));
+    }
+}
@@ -83,4 +83,35 @@ public class MysqlDialectTest extends TestCase {
         assertFalse(dialect.isUniqueConstraintViolation(new Exception(
                 new RuntimeException())));
     }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("insert into AAA (ID, NAME, VERSION) values (?, ?, ?) "
+                + "on duplicate key update NAME = values(NAME), "
+                + "VERSION = values(VERSION)", dialect.getUpsertSql("AAA",
+                new String[] { "ID", "NAME", "VERSION" }, new String[] { "ID" },
+                new String[] { "NAME", "VERSION" }));
+    }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql_noUpdateColumn() {
+        assertEquals("insert into AAA (ID) values (?) "
+                + "on duplicate key update ID = ID", dialect.getUpsertSql(
+                "AAA", new String[] { "ID" }, new String[] { "ID" },
+                new String[] {}));
+    }
+
+    /**
+     * 
+     */
+    public void testGetStreamingFetchSize() {
+        assertEquals(0, dialect.getStreamingFetchSize());
+        dialect.setUseStreamingResultSet(true);
+        assertEquals(Integer.MIN_VALUE, dialect.getStreamingFetchSize());
+    }
 }
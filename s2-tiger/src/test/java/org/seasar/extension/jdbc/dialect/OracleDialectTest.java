@@ -227,4 +227,31 @@ public class OracleDialectTest extends TestCase {
         assertFalse(dialect.isUniqueConstraintViolation(new Exception(
                 new RuntimeException())));
     }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("merge into AAA T_ using (select ? as ID, ? as NAME, "
+                + "? as VERSION from dual) S_ on (T_.ID = S_.ID) "
+                + "when matched then update set NAME = S_.NAME, "
+                + "VERSION = S_.VERSION when not matched then "
+                + "insert (ID, NAME, VERSION) "
+                + "values (S_.ID, S_.NAME, S_.VERSION)", dialect.getUpsertSql(
+                "AAA", new String[] { "ID", "NAME", "VERSION" }, new String[] { "ID" },
+                new String[] { "NAME", "VERSION" }));
+    }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql_noUpdateColumn() {
+        assertEquals("merge into AAA T_ using (select ? as ID1, ? as ID2 "
+                + "from dual) S_ on (T_.ID1 = S_.ID1 and T_.ID2 = S_.ID2) "
+                + "when not matched then insert (ID1, ID2) "
+                + "values (S_.ID1, S_.ID2)", dialect.getUpsertSql("AAA",
+                new String[] { "ID1", "ID2" }, new String[] { "ID1", "ID2" },
+                new String[] {}));
+    }
 }
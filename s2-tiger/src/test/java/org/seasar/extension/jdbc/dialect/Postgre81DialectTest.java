@@ -57,4 +57,18 @@ public class Postgre81DialectTest extends TestCase {
         assertEquals(" for update of aaa nowait", dialect.getForUpdateString(
                 SelectForUpdateType.NOWAIT, 0, pair("aaa", "a")));
     }
+
+    /**
+     * 
+     */
+    public void testSupportsUpsert() {
+        assertFalse(dialect.supportsUpsert());
+    }
+
+    /**
+     * 
+     */
+    public void testSupportsWindowFunction() {
+        assertFalse(dialect.supportsWindowFunction());
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.dialect;
+
+import junit.framework.TestCase;
+
+public class Postgre95DialectTest extends TestCase {
+
+    private Postgre95Dialect dialect = new Postgre95Dialect();
+
+    /**
+     * 
+     */
+    public void testSupportsMultiRowValuesInsert() {
+        assertTrue(dialect.supportsMultiRowValuesInsert());
+    }
+
+    /**
+     * 
+     */
+    public void testSupportsRowValueComparison() {
+        assertTrue(dialect.supportsRowValueComparison());
+    }
+
+    /**
+     * 
+     */
+    public void testSupportsWindowFunction() {
+        assertTrue(dialect.supportsWindowFunction());
+    }
+
+    /**
+     * 
+     */
+    public void testGetIdentityReturningString() {
+        assertTrue(dialect.supportsIdentityReturning());
+        assertEquals(" returning ID", dialect.getIdentityReturningString("ID"));
+    }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql() {
+        assertTrue(dialect.supportsUpsert());
+        assertEquals("insert into AAA (ID, NAME, VERSION) values (?, ?, ?) "
+                + "on conflict (ID) do update set NAME = excluded.NAME, "
+                + "VERSION = excluded.VERSION", dialect.getUpsertSql("AAA",
+                new String[] { "ID", "NAME", "VERSION" }, new String[] { "ID" },
+                new String[] { "NAME", "VERSION" }));
+    }
+
+    /**
+     * 
+     */
+    public void testGetUpsertSql_noUpdateColumn() {
+        assertEquals("insert into AAA (ID) values (?) "
+                + "on conflict (ID) do nothing", dialect.getUpsertSql("AAA",
+                new String[] { "ID" }, new String[] { "ID" }, new String[] {}));
+    }
+}
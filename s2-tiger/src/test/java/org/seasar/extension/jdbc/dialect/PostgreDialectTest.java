@@ -151,4 +151,11 @@ public class PostgreDialectTest extends TestCase {
         assertFalse(dialect.isUniqueConstraintViolation(new Exception(
                 new RuntimeException())));
     }
+
+    /**
+     * 
+     */
+    public void testSupportsUpsert() {
+        assertFalse(dialect.supportsUpsert());
+    }
 }
@@ -225,4 +225,20 @@ public class StandardDialectTest extends TestCase {
         String expected = "select count(*) from ( select * from emp ) COUNT_";
         assertEquals(expected, dialect.convertGetCountSql(sql));
     }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetUpsertSql() throws Exception {
+        assertFalse(dialect.supportsUpsert());
+        try {
+            dialect.getUpsertSql("AAA", new String[] { "ID" },
+                    new String[] { "ID" }, new String[] {});
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            System.out.println(expected);
+            assertTrue(expected.getMessage().indexOf(
+                    StandardDialect.class.getName()) >= 0);
+        }
+    }
 }
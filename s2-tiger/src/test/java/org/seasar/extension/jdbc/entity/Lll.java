@@ -0,0 +1,71 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.entity;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.Transient;
+
+import org.seasar.extension.jdbc.annotation.Cacheable;
+
+/**
+ * 
+ */
+@Entity
+@Cacheable(maxSize = 2)
+public class Lll {
+
+    /**
+     * 
+     */
+    @Id
+    public Long id;
+
+    /**
+     * 
+     */
+    public String name;
+
+    /**
+     * 
+     */
+    public Integer aaaId;
+
+    /**
+     * 
+     */
+    public Timestamp updated;
+
+    /**
+     * 
+     */
+    public byte[] data;
+
+    /**
+     * 
+     */
+    @ManyToOne
+    public Aaa aaa;
+
+    /**
+     * 
+     */
+    @Transient
+    public String memo;
+}
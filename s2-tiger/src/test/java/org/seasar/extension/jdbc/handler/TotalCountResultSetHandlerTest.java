@@ -0,0 +1,102 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.handler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.ResultSetHandler;
+import org.seasar.framework.mock.sql.MockColumnMetaData;
+import org.seasar.framework.mock.sql.MockResultSet;
+import org.seasar.framework.mock.sql.MockResultSetMetaData;
+import org.seasar.framework.util.ArrayMap;
+
+public class TotalCountResultSetHandlerTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testHandle() throws Exception {
+        TotalCountResultSetHandler handler = new TotalCountResultSetHandler(
+                new IdListHandler());
+        MockResultSet rs = createResultSet(true);
+        ArrayMap data = new ArrayMap();
+        data.put("ID", new Integer(1));
+        data.put("TOTAL_COUNT_", new Long(42));
+        rs.addRowData(data);
+        data = new ArrayMap();
+        data.put("ID", new Integer(2));
+        data.put("TOTAL_COUNT_", new Long(42));
+        rs.addRowData(data);
+        List<?> list = (List<?>) handler.handle(rs);
+        assertEquals(2, list.size());
+        assertEquals(42L, handler.getTotalCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testHandle_noRow() throws Exception {
+        TotalCountResultSetHandler handler = new TotalCountResultSetHandler(
+                new IdListHandler());
+        List<?> list = (List<?>) handler.handle(createResultSet(true));
+        assertEquals(0, list.size());
+        assertEquals(-1L, handler.getTotalCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testHandle_noColumn() throws Exception {
+        TotalCountResultSetHandler handler = new TotalCountResultSetHandler(
+                new IdListHandler());
+        MockResultSet rs = createResultSet(false);
+        ArrayMap data = new ArrayMap();
+        data.put("ID", new Integer(1));
+        rs.addRowData(data);
+        List<?> list = (List<?>) handler.handle(rs);
+        assertEquals(1, list.size());
+        assertEquals(-1L, handler.getTotalCount());
+    }
+
+    private MockResultSet createResultSet(boolean totalCount) {
+        MockResultSetMetaData rsMeta = new MockResultSetMetaData();
+        MockColumnMetaData columnMeta = new MockColumnMetaData();
+        columnMeta.setColumnLabel("ID");
+        rsMeta.addColumnMetaData(columnMeta);
+        if (totalCount) {
+            columnMeta = new MockColumnMetaData();
+            columnMeta.setColumnLabel("total_count_");
+            rsMeta.addColumnMetaData(columnMeta);
+        }
+        return new MockResultSet(rsMeta);
+    }
+
+    private static class IdListHandler implements ResultSetHandler {
+
+        public Object handle(ResultSet rs) throws SQLException {
+            List<Object> list = new ArrayList<Object>();
+            while (rs.next()) {
+                list.add(rs.getObject(1));
+            }
+            return list;
+        }
+    }
+}
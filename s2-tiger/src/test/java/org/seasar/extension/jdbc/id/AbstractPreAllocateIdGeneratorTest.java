@@ -0,0 +1,118 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.id;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.SqlLogger;
+import org.seasar.extension.jdbc.id.AbstractPreAllocateIdGenerator.IdContext;
+import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
+import org.seasar.framework.util.tiger.CollectionsUtil;
+
+public class AbstractPreAllocateIdGeneratorTest extends TestCase {
+
+    private JdbcManagerImpl manager;
+
+    private MyIdGenerator generator;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new JdbcManagerImpl();
+        generator = new MyIdGenerator();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue() throws Exception {
+        IdContext context = generator.getIdContext(manager);
+        for (int i = 1; i <= 25; ++i) {
+            assertEquals(i, context.getNextValue(manager, null));
+        }
+        assertEquals(3, generator.count.get());
+        assertNull(context.prefetchedBlock.get());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue_prefetch() throws Exception {
+        manager.setIdPrefetchRatio(50);
+        IdContext context = generator.getIdContext(manager);
+        for (int i = 1; i <= 4; ++i) {
+            assertEquals(i, context.getNextValue(manager, null));
+        }
+        assertEquals(1, generator.count.get());
+        assertEquals(5, context.getNextValue(manager, null));
+        for (int i = 0; i < 100 && context.prefetching.get(); ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, generator.count.get());
+        assertNotNull(context.prefetchedBlock.get());
+        for (int i = 6; i <= 11; ++i) {
+            assertEquals(i, context.getNextValue(manager, null));
+        }
+        assertNull(context.prefetchedBlock.get());
+        assertEquals(2, generator.count.get());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue_concurrent() throws Exception {
+        manager.setIdPrefetchRatio(20);
+        final IdContext context = generator.getIdContext(manager);
+        final ConcurrentMap<Long, Long> values = CollectionsUtil
+                .newConcurrentHashMap();
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 1000; ++j) {
+                        final long value = context.getNextValue(manager, null);
+                        values.put(value, value);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i].join();
+        }
+        assertEquals(4000, values.size());
+    }
+
+    private static class MyIdGenerator extends AbstractPreAllocateIdGenerator {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private MyIdGenerator() {
+            super(null, null, 10);
+        }
+
+        @Override
+        protected long getNewInitialValue(JdbcManagerImplementor jdbcManager,
+                SqlLogger sqlLogger) {
+            return count.getAndIncrement() * allocationSize + 1;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.id;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.annotation.TimeBasedGenerator;
+
+public class TimeBasedIdGeneratorTest extends TestCase {
+
+    private EntityMeta entityMeta;
+
+    private PropertyMeta propertyMeta;
+
+    private long now;
+
+    @Override
+    protected void setUp() throws Exception {
+        entityMeta = new EntityMeta("Hoge");
+        propertyMeta = new PropertyMeta();
+        propertyMeta.setName("id");
+        propertyMeta.setField(Hoge.class.getDeclaredField("id"));
+        now = 1000L;
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue() throws Exception {
+        TimeBasedIdGenerator generator = createGenerator("id");
+        assertEquals(1000L << 8 | 3L << 4 | 0, generator.getNextValue());
+        assertEquals(1000L << 8 | 3L << 4 | 1, generator.getNextValue());
+        now = 1001L;
+        assertEquals(1001L << 8 | 3L << 4 | 0, generator.getNextValue());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue_sequenceOverflow() throws Exception {
+        TimeBasedIdGenerator generator = createGenerator("id");
+        long last = 0L;
+        for (int i = 0; i < 16; ++i) {
+            last = generator.getNextValue();
+        }
+        assertEquals(1000L << 8 | 3L << 4 | 15, last);
+        assertEquals(1001L << 8 | 3L << 4 | 0, generator.getNextValue());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetNextValue_clockRegression() throws Exception {
+        TimeBasedIdGenerator generator = createGenerator("id");
+        long first = generator.getNextValue();
+        now = 900L;
+        long second = generator.getNextValue();
+        assertTrue(second > first);
+        assertEquals(1000L << 8 | 3L << 4 | 1, second);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPreInsert() throws Exception {
+        TimeBasedIdGenerator generator = createGenerator("bbb");
+        Hoge hoge = new Hoge();
+        Object id = generator.preInsert(null, hoge, null);
+        assertEquals(id, hoge.id);
+        assertEquals(1000L << 22, hoge.id.longValue());
+        assertTrue(generator.supportBatch(null));
+        assertTrue(generator.isInsertInto(null));
+        assertFalse(generator.useGetGeneratedKeys(null));
+    }
+
+    private TimeBasedIdGenerator createGenerator(String fieldName)
+            throws Exception {
+        TimeBasedGenerator annotation = Hoge.class.getDeclaredField(fieldName)
+                .getAnnotation(TimeBasedGenerator.class);
+        return new TimeBasedIdGenerator(entityMeta, propertyMeta, annotation) {
+
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    public static class Hoge {
+
+        @Id
+        @GeneratedValue(generator = "aaa")
+        @TimeBasedGenerator(name = "aaa", nodeId = 3, epoch = 0L,
+                nodeBits = 4, sequenceBits = 4)
+        public Long id;
+
+        @TimeBasedGenerator(name = "bbb", epoch = 0L)
+        public Long bbb;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.SqlStatistics;
+
+public class ConcurrentSqlStatisticsRegistryImplTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord() throws Exception {
+        ConcurrentSqlStatisticsRegistryImpl registry = new ConcurrentSqlStatisticsRegistryImpl();
+        registry.record("select * from emp", 10, 3, 0);
+        registry.record("select * from emp", 30, 2, 0);
+        registry.recordFailure("select * from emp", 5);
+        registry.record("update emp set ename = ?", 4, 0, 1);
+        assertEquals(2, registry.getSize());
+
+        SqlStatistics statistics = registry.get("select * from emp");
+        assertEquals("select * from emp", statistics.getRawSql());
+        assertEquals(3, statistics.getExecutionCount());
+        assertEquals(1, statistics.getErrorCount());
+        assertEquals(45, statistics.getTotalTime());
+        assertEquals(30, statistics.getMaxTime());
+        assertEquals(5, statistics.getFetchedRows());
+        assertEquals(1, registry.get("update emp set ename = ?")
+                .getUpdatedRows());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord_concurrent() throws Exception {
+        final ConcurrentSqlStatisticsRegistryImpl registry = new ConcurrentSqlStatisticsRegistryImpl(
+                10);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; ++j) {
+                            registry.record("sql" + (j % 5), 1, 1, 0);
+                        }
+                    } catch (Throwable t) {
+                        error.set(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+        if (error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+        assertEquals(5, registry.getSize());
+        for (SqlStatistics statistics : registry.getAll()) {
+            assertEquals(800, statistics.getExecutionCount());
+            assertEquals(800, statistics.getFetchedRows());
+        }
+    }
+
+}
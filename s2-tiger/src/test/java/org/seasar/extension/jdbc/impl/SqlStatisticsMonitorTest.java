@@ -0,0 +1,81 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.SqlStatisticsRegistry;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
+
+public class SqlStatisticsMonitorTest extends TestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        SqlStatisticsRegistryLocator.setInstance(null);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testRegister() throws Exception {
+        SqlStatisticsMonitor monitor = new SqlStatisticsMonitor();
+        monitor.setName("test");
+        monitor.setSlowQueryThreshold(1000L);
+        monitor.register();
+        try {
+            SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                    .getInstance();
+            assertTrue(registry instanceof ConcurrentSqlStatisticsRegistryImpl);
+            assertEquals(1000L, registry.getSlowQueryThreshold());
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = monitor.getObjectName();
+            assertTrue(server.isRegistered(name));
+
+            registry.record("select * from aaa", 10, 2, 0);
+            registry.record("select * from aaa", 20, 1, 0);
+            registry.recordFailure("update bbb set ccc = ?", 100);
+            assertEquals(2, server.getAttribute(name, "SqlCount"));
+            assertEquals(3L, server.getAttribute(name, "ExecutionCount"));
+            assertEquals(1L, server.getAttribute(name, "ErrorCount"));
+
+            String[] dump = (String[]) server.invoke(name, "dumpStatistics",
+                    null, null);
+            assertEquals(2, dump.length);
+            assertTrue(dump[0], dump[0].endsWith("sql=update bbb set ccc = ?"));
+            assertTrue(dump[1], dump[1].startsWith("count=2, errors=0"));
+            dump = (String[]) server.invoke(name, "dumpTopStatistics",
+                    new Object[] { 1 }, new String[] { "int" });
+            assertEquals(1, dump.length);
+
+            server.setAttribute(name, new Attribute("SlowQueryThreshold",
+                    500L));
+            assertEquals(500L, registry.getSlowQueryThreshold());
+
+            server.invoke(name, "resetStatistics", null, null);
+            assertEquals(0, server.getAttribute(name, "SqlCount"));
+        } finally {
+            monitor.unregister();
+        }
+        assertNull(monitor.getObjectName());
+    }
+
+}
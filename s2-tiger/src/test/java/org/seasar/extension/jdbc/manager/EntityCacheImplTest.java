@@ -0,0 +1,183 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.manager;
+
+import java.sql.Timestamp;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.EntityMeta;
+import org.seasar.extension.jdbc.entity.Aaa;
+import org.seasar.extension.jdbc.entity.Lll;
+import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.EntityMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.PropertyMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.TableMetaFactoryImpl;
+import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.util.DisposableUtil;
+
+public class EntityCacheImplTest extends TestCase {
+
+    private EntityCacheImpl cache;
+
+    private EntityMeta entityMeta;
+
+    @Override
+    protected void setUp() throws Exception {
+        PersistenceConventionImpl convention = new PersistenceConventionImpl();
+        EntityMetaFactoryImpl emFactory = new EntityMetaFactoryImpl();
+        emFactory.setPersistenceConvention(convention);
+        TableMetaFactoryImpl tableMetaFactory = new TableMetaFactoryImpl();
+        tableMetaFactory.setPersistenceConvention(convention);
+        emFactory.setTableMetaFactory(tableMetaFactory);
+        PropertyMetaFactoryImpl pFactory = new PropertyMetaFactoryImpl();
+        pFactory.setPersistenceConvention(convention);
+        ColumnMetaFactoryImpl cmFactory = new ColumnMetaFactoryImpl();
+        cmFactory.setPersistenceConvention(convention);
+        pFactory.setColumnMetaFactory(cmFactory);
+        emFactory.setPropertyMetaFactory(pFactory);
+        emFactory.initialize();
+        entityMeta = emFactory.getEntityMeta(Lll.class);
+        cache = new EntityCacheImpl();
+        cache.initialize();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        DisposableUtil.dispose();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testEntityMeta() throws Exception {
+        assertTrue(entityMeta.isCacheable());
+        assertEquals(2, entityMeta.getCacheMaxSize());
+        assertEquals(0L, entityMeta.getCacheTimeToLive());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPutAndGet() throws Exception {
+        Lll lll = createLll(1L, "foo");
+        lll.aaa = new Aaa();
+        lll.memo = "memo";
+        cache.put(entityMeta, lll, cache.getEvictionCount(entityMeta));
+        lll.name = "bar";
+
+        Lll cached = (Lll) cache.get(entityMeta, new Object[] { 1 });
+        assertNotNull(cached);
+        assertNotSame(lll, cached);
+        assertEquals(new Long(1L), cached.id);
+        assertEquals("foo", cached.name);
+        assertNull(cached.aaa);
+        assertNull(cached.memo);
+        assertNotSame(cached, cache.get(entityMeta, new Object[] { 1L }));
+        assertNull(cache.get(entityMeta, new Object[] { 2L }));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPutAndGet_mutableValues() throws Exception {
+        Lll lll = createLll(1L, "foo");
+        lll.updated = new Timestamp(1000L);
+        lll.updated.setNanos(123);
+        lll.data = new byte[] { 1, 2 };
+        cache.put(entityMeta, lll, cache.getEvictionCount(entityMeta));
+        lll.updated.setTime(2000L);
+        lll.data[0] = 9;
+
+        Lll cached = (Lll) cache.get(entityMeta, new Object[] { 1L });
+        Timestamp expected = new Timestamp(1000L);
+        expected.setNanos(123);
+        assertEquals(expected, cached.updated);
+        assertEquals(1, cached.data[0]);
+        cached.updated.setTime(3000L);
+        cached.data[1] = 9;
+
+        Lll cached2 = (Lll) cache.get(entityMeta, new Object[] { 1L });
+        assertEquals(expected, cached2.updated);
+        assertNotSame(cached.data, cached2.data);
+        assertEquals(2, cached2.data[1]);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPut_evicted() throws Exception {
+        long evictionCount = cache.getEvictionCount(entityMeta);
+        cache.evict(entityMeta, createLll(1L, "foo"));
+        cache.put(entityMeta, createLll(1L, "foo"), evictionCount);
+        assertNull(cache.get(entityMeta, new Object[] { 1L }));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testEvict() throws Exception {
+        cache.put(entityMeta, createLll(1L, "foo"), 0L);
+        cache.put(entityMeta, createLll(2L, "bar"), 0L);
+        cache.evict(entityMeta, createLll(1L, "hoge"));
+        assertNull(cache.get(entityMeta, new Object[] { 1L }));
+        assertNotNull(cache.get(entityMeta, new Object[] { 2L }));
+        assertEquals(1L, cache.getEvictionCount(entityMeta));
+
+        cache.evictAll(entityMeta);
+        assertNull(cache.get(entityMeta, new Object[] { 2L }));
+        assertEquals(2L, cache.getEvictionCount(entityMeta));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaxSize() throws Exception {
+        cache.put(entityMeta, createLll(1L, "foo"), 0L);
+        cache.put(entityMeta, createLll(2L, "bar"), 0L);
+        assertNotNull(cache.get(entityMeta, new Object[] { 1L }));
+        cache.put(entityMeta, createLll(3L, "baz"), 0L);
+        assertNotNull(cache.get(entityMeta, new Object[] { 1L }));
+        assertNull(cache.get(entityMeta, new Object[] { 2L }));
+        assertNotNull(cache.get(entityMeta, new Object[] { 3L }));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testTimeToLive() throws Exception {
+        entityMeta.setCacheTimeToLive(1L);
+        cache.put(entityMeta, createLll(1L, "foo"), 0L);
+        Thread.sleep(10L);
+        assertNull(cache.get(entityMeta, new Object[] { 1L }));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testNotCacheable() throws Exception {
+        entityMeta.setCacheable(false);
+        cache.put(entityMeta, createLll(1L, "foo"), 0L);
+        assertNull(cache.get(entityMeta, new Object[] { 1L }));
+    }
+
+    private Lll createLll(long id, String name) {
+        Lll lll = new Lll();
+        lll.id = id;
+        lll.name = name;
+        return lll;
+    }
+}
@@ -26,11 +26,13 @@ import junit.framework.TestCase;
 import org.seasar.extension.datasource.DataSourceFactory;
 import org.seasar.extension.datasource.impl.DataSourceFactoryImpl;
 import org.seasar.extension.datasource.impl.SelectableDataSourceProxy;
+import org.seasar.extension.jdbc.EntityMeta;
 import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.dialect.StandardDialect;
 import org.seasar.extension.jdbc.entity.Aaa;
 import org.seasar.extension.jdbc.entity.Eee;
 import org.seasar.extension.jdbc.entity.Iii;
+import org.seasar.extension.jdbc.entity.Lll;
 import org.seasar.extension.jdbc.exception.NoIdPropertyRuntimeException;
 import org.seasar.extension.jdbc.manager.JdbcManagerImpl.SynchronizationImpl;
 import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
@@ -561,6 +563,47 @@ public class JdbcManagerImplTest extends TestCase {
         assertTrue(manager.isJdbcContextNull());
     }
 
+    /**
+     * @throws Exception
+     * 
+     */
+    public void testEvictEntityCache_tx() throws Exception {
+        EntityCacheImpl entityCache = new EntityCacheImpl();
+        manager.setEntityCache(entityCache);
+        EntityMeta entityMeta = manager.getEntityMetaFactory().getEntityMeta(
+                Lll.class);
+        Lll lll = new Lll();
+        lll.id = 1L;
+        entityCache.put(entityMeta, lll, 0L);
+        assertTrue(manager.isEntityCacheAvailable(entityMeta));
+
+        transactionManager.begin();
+        manager.getJdbcContext();
+        manager.evictEntityCache(entityMeta, lll);
+        assertNull(entityCache.get(entityMeta, new Object[] { 1L }));
+        assertFalse(manager.isEntityCacheAvailable(entityMeta));
+        entityCache.put(entityMeta, lll, entityCache
+                .getEvictionCount(entityMeta));
+        transactionManager.commit();
+
+        assertNull(entityCache.get(entityMeta, new Object[] { 1L }));
+        assertTrue(manager.isEntityCacheAvailable(entityMeta));
+    }
+
+    /**
+     * @throws Exception
+     * 
+     */
+    public void testIsEntityCacheAvailable() throws Exception {
+        EntityMeta entityMeta = manager.getEntityMetaFactory().getEntityMeta(
+                Lll.class);
+        assertFalse(manager.isEntityCacheAvailable(entityMeta));
+        manager.setEntityCache(new EntityCacheImpl());
+        assertTrue(manager.isEntityCacheAvailable(entityMeta));
+        assertFalse(manager.isEntityCacheAvailable(manager
+                .getEntityMetaFactory().getEntityMeta(Aaa.class)));
+    }
+
     /**
      * @throws Exception
      * 
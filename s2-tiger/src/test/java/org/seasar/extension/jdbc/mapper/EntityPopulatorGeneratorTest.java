@@ -0,0 +1,161 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.mapper;
+
+import java.lang.reflect.Field;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.MappingContext;
+import org.seasar.extension.jdbc.PropertyMapper;
+import org.seasar.extension.jdbc.entity.Aaa;
+
+public class EntityPopulatorGeneratorTest extends TestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        EntityPopulatorGenerator.clear();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetEntityPopulator() throws Exception {
+        PropertyMapper[] mappers = new PropertyMapper[] {
+                new PropertyMapperImpl(Aaa.class.getDeclaredField("id"), 0),
+                new PropertyMapperImpl(Aaa.class.getDeclaredField("name"), 1) };
+        EntityPopulator populator = EntityPopulatorGenerator
+                .getEntityPopulator(Aaa.class, mappers);
+        assertNotNull(populator);
+        assertSame(populator, EntityPopulatorGenerator.getEntityPopulator(
+                Aaa.class, mappers));
+        Aaa aaa = (Aaa) populator.newEntity();
+        populator.populate(aaa, new Object[] { 1, "AAA" });
+        assertEquals(new Integer(1), aaa.id);
+        assertEquals("AAA", aaa.name);
+
+        aaa.name = "BBB";
+        populator.populate(aaa, new Object[] { 2, null });
+        assertEquals(new Integer(2), aaa.id);
+        assertEquals("BBB", aaa.name);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetEntityPopulator_differentShape() throws Exception {
+        EntityPopulator populator = EntityPopulatorGenerator
+                .getEntityPopulator(Aaa.class,
+                        new PropertyMapper[] { new PropertyMapperImpl(Aaa.class
+                                .getDeclaredField("id"), 0) });
+        EntityPopulator populator2 = EntityPopulatorGenerator
+                .getEntityPopulator(Aaa.class,
+                        new PropertyMapper[] { new PropertyMapperImpl(Aaa.class
+                                .getDeclaredField("name"), 0) });
+        assertNotSame(populator, populator2);
+        assertFalse(populator.getSignature()
+                .equals(populator2.getSignature()));
+        Aaa aaa = (Aaa) populator2.newEntity();
+        populator2.populate(aaa, new Object[] { "AAA" });
+        assertNull(aaa.id);
+        assertEquals("AAA", aaa.name);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetEntityPopulator_primitiveAndPrivate() throws Exception {
+        Field count = Hoge.class.getDeclaredField("count");
+        Field secret = Hoge.class.getDeclaredField("secret");
+        EntityPopulator populator = EntityPopulatorGenerator
+                .getEntityPopulator(Hoge.class, new PropertyMapper[] {
+                        new PropertyMapperImpl(count, 1),
+                        new PropertyMapperImpl(secret, 0) });
+        assertNotNull(populator);
+        Hoge hoge = (Hoge) populator.newEntity();
+        populator.populate(hoge, new Object[] { "xxx", 10 });
+        assertEquals(10, hoge.count);
+        assertEquals("xxx", hoge.secret);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetEntityPopulator_hiddenField() throws Exception {
+        Field count = Hoge.class.getDeclaredField("count");
+        Field subCount = Foo.class.getDeclaredField("count");
+        EntityPopulator populator = EntityPopulatorGenerator
+                .getEntityPopulator(Foo.class, new PropertyMapper[] {
+                        new PropertyMapperImpl(count, 0),
+                        new PropertyMapperImpl(subCount, 1) });
+        assertNotNull(populator);
+        Foo foo = (Foo) populator.newEntity();
+        populator.populate(foo, new Object[] { 10, 20 });
+        assertEquals(10, ((Hoge) foo).count);
+        assertEquals(20, foo.count);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetEntityPopulator_notPropertyMapperImpl()
+            throws Exception {
+        PropertyMapper mapper = new PropertyMapper() {
+
+            public void map(Object entity, Object[] values) {
+            }
+        };
+        assertNull(EntityPopulatorGenerator.getEntityPopulator(Aaa.class,
+                new PropertyMapper[] { mapper }));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCreateEntity() throws Exception {
+        PropertyMapper[] mappers = new PropertyMapper[] {
+                new PropertyMapperImpl(Aaa.class.getDeclaredField("id"), 0),
+                new PropertyMapperImpl(Aaa.class.getDeclaredField("name"), 1) };
+        EntityMapperImpl entityMapper = new EntityMapperImpl(Aaa.class,
+                mappers, new int[] { 0 });
+        entityMapper.setEntityPopulator(EntityPopulatorGenerator
+                .getEntityPopulator(Aaa.class, mappers));
+        MappingContext mappingContext = new MappingContext(10);
+        Aaa aaa = (Aaa) entityMapper.map(new Object[] { 1, "AAA" },
+                mappingContext);
+        assertEquals(new Integer(1), aaa.id);
+        assertEquals("AAA", aaa.name);
+        assertSame(aaa, mappingContext.getCache(Aaa.class, 1));
+    }
+
+    /**
+     * 
+     */
+    public static class Hoge {
+
+        int count;
+
+        private String secret;
+    }
+
+    /**
+     * 
+     */
+    public static class Foo extends Hoge {
+
+        int count;
+    }
+}
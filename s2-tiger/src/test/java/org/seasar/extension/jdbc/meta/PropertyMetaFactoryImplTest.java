@@ -48,6 +48,7 @@ import org.seasar.extension.jdbc.JoinColumnMeta;
 import org.seasar.extension.jdbc.PropertyMeta;
 import org.seasar.extension.jdbc.RelationshipType;
 import org.seasar.extension.jdbc.TableMeta;
+import org.seasar.extension.jdbc.annotation.TimeBasedGenerator;
 import org.seasar.extension.jdbc.dialect.Db2Dialect;
 import org.seasar.extension.jdbc.dialect.OracleDialect;
 import org.seasar.extension.jdbc.dialect.StandardDialect;
@@ -55,6 +56,8 @@ import org.seasar.extension.jdbc.entity.Aaa;
 import org.seasar.extension.jdbc.entity.Bbb;
 import org.seasar.extension.jdbc.exception.BothMappedByAndJoinColumnRuntimeException;
 import org.seasar.extension.jdbc.exception.IdentityGeneratorNotSupportedRuntimeException;
+import org.seasar.extension.jdbc.exception.IllegalTimeBasedGeneratorRuntimeException;
+import org.seasar.extension.jdbc.exception.IllegalTimeBasedIdPropertyTypeRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinColumnNameAndReferencedColumnNameMandatoryRuntimeException;
 import org.seasar.extension.jdbc.exception.LazyFetchSpecifiedRuntimeException;
 import org.seasar.extension.jdbc.exception.MappedByMandatoryRuntimeException;
@@ -67,6 +70,7 @@ import org.seasar.extension.jdbc.exception.VersionPropertyNotNumberRuntimeExcept
 import org.seasar.extension.jdbc.id.IdentityIdGenerator;
 import org.seasar.extension.jdbc.id.SequenceIdGenerator;
 import org.seasar.extension.jdbc.id.TableIdGenerator;
+import org.seasar.extension.jdbc.id.TimeBasedIdGenerator;
 import org.seasar.extension.jdbc.types.Authority;
 import org.seasar.extension.jdbc.types.EnumOrdinalType;
 import org.seasar.extension.jdbc.types.EnumType;
@@ -260,6 +264,50 @@ public class PropertyMetaFactoryImplTest extends TestCase {
                 new StandardDialect()) instanceof TableIdGenerator);
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testTimeBasedGeneratedValue() throws Exception {
+        Field field = TimeBasedGeneratedId.class.getDeclaredField("id");
+        PropertyMeta propertyMeta = factory.createPropertyMeta(field,
+                entityMeta);
+        assertTrue(propertyMeta.isId());
+        assertTrue(propertyMeta.hasIdGenerator());
+        assertTrue(propertyMeta.getIdGenerator(entityMeta,
+                new StandardDialect()) instanceof TimeBasedIdGenerator);
+        assertTrue(propertyMeta.getIdGenerator(entityMeta,
+                new OracleDialect()) instanceof TimeBasedIdGenerator);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testTimeBasedGeneratedValue_illegalNodeId() throws Exception {
+        Field field = TimeBasedGeneratedId.class.getDeclaredField("id2");
+        try {
+            factory.createPropertyMeta(field, entityMeta);
+            fail();
+        } catch (IllegalTimeBasedGeneratorRuntimeException e) {
+            System.out.println(e);
+            assertEquals("bbb", e.getGeneratorName());
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testTimeBasedGeneratedValue_illegalType() throws Exception {
+        Field field = TimeBasedGeneratedId.class.getDeclaredField("id3");
+        try {
+            factory.createPropertyMeta(field, entityMeta);
+            fail();
+        } catch (IllegalTimeBasedIdPropertyTypeRuntimeException e) {
+            System.out.println(e);
+            assertEquals("id3", e.getPropertyName());
+            assertEquals(Integer.class, e.getPropertyClass());
+        }
+    }
+
     /**
      * @throws Exception
      */
@@ -1110,4 +1158,31 @@ public class PropertyMetaFactoryImplTest extends TestCase {
         int id2;
     }
 
+    private static class TimeBasedGeneratedId {
+
+        /**
+         * 
+         */
+        @Id
+        @GeneratedValue(generator = "aaa")
+        @TimeBasedGenerator(name = "aaa", nodeId = 1)
+        Long id;
+
+        /**
+         * 
+         */
+        @Id
+        @GeneratedValue(generator = "bbb")
+        @TimeBasedGenerator(name = "bbb", nodeId = 1024)
+        Long id2;
+
+        /**
+         * 
+         */
+        @Id
+        @GeneratedValue(generator = "ccc")
+        @TimeBasedGenerator(name = "ccc", nodeId = 1)
+        Integer id3;
+    }
+
 }
\ No newline at end of file
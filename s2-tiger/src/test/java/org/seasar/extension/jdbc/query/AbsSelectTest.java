@@ -50,6 +50,7 @@ import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
 import org.seasar.framework.convention.impl.PersistenceConventionImpl;
 import org.seasar.framework.exception.SQLRuntimeException;
 import org.seasar.framework.mock.sql.MockColumnMetaData;
+import org.seasar.framework.mock.sql.MockConnection;
 import org.seasar.framework.mock.sql.MockDataSource;
 import org.seasar.framework.mock.sql.MockPreparedStatement;
 import org.seasar.framework.mock.sql.MockResultSet;
@@ -161,6 +162,86 @@ public class AbsSelectTest extends TestCase {
         assertEquals(30, ps.getQueryTimeout());
     }
 
+    /**
+     * @throws Exception
+     * 
+     */
+    public void testSetupPreparedStatement_streaming() throws Exception {
+        MysqlDialect dialect = new MysqlDialect();
+        manager.setDialect(dialect);
+        MySelect<Aaa> query = new MySelect<Aaa>(manager, Aaa.class);
+        query.streaming = true;
+        MockPreparedStatement ps = new MockPreparedStatement(null, null);
+        query.setupPreparedStatement(ps);
+        assertEquals(0, ps.getFetchSize());
+
+        dialect.setUseStreamingResultSet(true);
+        ps = new MockPreparedStatement(null, null);
+        query.setupPreparedStatement(ps);
+        assertEquals(Integer.MIN_VALUE, ps.getFetchSize());
+
+        query.fetchSize = 10;
+        ps = new MockPreparedStatement(null, null);
+        query.setupPreparedStatement(ps);
+        assertEquals(10, ps.getFetchSize());
+    }
+
+    /**
+     * @throws Exception
+     * 
+     */
+    public void testHandlePreparedStatement_streaming() throws Exception {
+        manager.setDialect(new PostgreDialect());
+        MySelect<Aaa> query = new MySelect<Aaa>(manager, Aaa.class);
+        query.streaming = true;
+        final MockConnection connection = new MockConnection();
+        MockPreparedStatement ps = new MockPreparedStatement(connection, null);
+        query.setupPreparedStatement(ps);
+        assertEquals(500, ps.getFetchSize());
+        Object ret = query.handlePreparedStatement(new JdbcContextImpl(
+                connection, false), ps,
+                new StatementHandler<Object, PreparedStatement>() {
+
+                    public Object handle(PreparedStatement ps) {
+                        try {
+                            assertFalse(connection.getAutoCommit());
+                        } catch (SQLException e) {
+                            throw new SQLRuntimeException(e);
+                        }
+                        return "hoge";
+                    }
+                });
+        assertEquals("hoge", ret);
+        assertTrue(connection.getAutoCommit());
+        assertEquals(0, ps.getFetchSize());
+    }
+
+    /**
+     * @throws Exception
+     * 
+     */
+    public void testHandlePreparedStatement_streaming_transactional()
+            throws Exception {
+        manager.setDialect(new PostgreDialect());
+        MySelect<Aaa> query = new MySelect<Aaa>(manager, Aaa.class);
+        query.streaming = true;
+        final MockConnection connection = new MockConnection();
+        MockPreparedStatement ps = new MockPreparedStatement(connection, null);
+        query.handlePreparedStatement(new JdbcContextImpl(connection, true),
+                ps, new StatementHandler<Object, PreparedStatement>() {
+
+                    public Object handle(PreparedStatement ps) {
+                        try {
+                            assertTrue(connection.getAutoCommit());
+                        } catch (SQLException e) {
+                            throw new SQLRuntimeException(e);
+                        }
+                        return null;
+                    }
+                });
+        assertTrue(connection.getAutoCommit());
+    }
+
     /**
      * @throws Exception
      * 
@@ -16,7 +16,10 @@
 package org.seasar.extension.jdbc.query;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -30,7 +33,10 @@ import org.seasar.extension.jdbc.SqlLogRegistryLocator;
 import org.seasar.extension.jdbc.dialect.Db2Dialect;
 import org.seasar.extension.jdbc.dialect.HsqlDialect;
 import org.seasar.extension.jdbc.dialect.MssqlDialect;
+import org.seasar.extension.jdbc.dialect.MysqlDialect;
 import org.seasar.extension.jdbc.dialect.OracleDialect;
+import org.seasar.extension.jdbc.dialect.Postgre95Dialect;
+import org.seasar.extension.jdbc.dialect.SqliteDialect;
 import org.seasar.extension.jdbc.dialect.StandardDialect;
 import org.seasar.extension.jdbc.entity.Eee;
 import org.seasar.extension.jdbc.entity.Fff;
@@ -48,8 +54,12 @@ import org.seasar.extension.jdbc.types.StringClobType;
 import org.seasar.extension.jta.TransactionManagerImpl;
 import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
 import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.mock.sql.MockColumnMetaData;
 import org.seasar.framework.mock.sql.MockDataSource;
 import org.seasar.framework.mock.sql.MockPreparedStatement;
+import org.seasar.framework.mock.sql.MockResultSet;
+import org.seasar.framework.mock.sql.MockResultSetMetaData;
+import org.seasar.framework.util.ArrayMap;
 
 /**
  * @author koichik
@@ -443,6 +453,134 @@ public class AutoBatchInsertTest extends TestCase {
                 sqlLog.getCompleteSql());
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testExecute_identityBatch() throws Exception {
+        manager.setDialect(new MysqlDialect());
+        List<Fff> entities = Arrays.asList(new Fff("foo"), new Fff("bar"),
+                new Fff("baz"));
+        AutoBatchInsertImpl<Fff> query = new AutoBatchInsertImpl<Fff>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                assertTrue(supportBatch);
+                assertTrue(useGetGeneratedKeys);
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    private long id = 10L;
+
+                    @Override
+                    public int[] executeBatch() throws SQLException {
+                        return addBatchCalled == 2 ? new int[] { 1, 1 }
+                                : new int[] { 1 };
+                    }
+
+                    @Override
+                    public void addBatch() throws SQLException {
+                        ++addBatchCalled;
+                    }
+
+                    @Override
+                    public ResultSet getGeneratedKeys() throws SQLException {
+                        MockResultSetMetaData rsMeta = new MockResultSetMetaData();
+                        MockColumnMetaData columnMeta = new MockColumnMetaData();
+                        columnMeta.setColumnLabel("ID");
+                        rsMeta.addColumnMetaData(columnMeta);
+                        MockResultSet rs = new MockResultSet(rsMeta);
+                        int rows = addBatchCalled == 2 ? 2 : 1;
+                        for (int i = 0; i < rows; ++i) {
+                            ArrayMap data = new ArrayMap();
+                            data.put("ID", Long.valueOf(id++));
+                            rs.addRowData(data);
+                        }
+                        return rs;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        int[] result = query.batchSize(2).execute();
+        assertEquals(3, addBatchCalled);
+        assertEquals(3, result.length);
+        assertEquals(Integer.valueOf(10), entities.get(0).id);
+        assertEquals(Integer.valueOf(11), entities.get(1).id);
+        assertEquals(Integer.valueOf(12), entities.get(2).id);
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals("insert into FFF (NAME, VERSION) values ('baz', 1)",
+                sqlLog.getCompleteSql());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_identityReturning() throws Exception {
+        manager.setDialect(new Postgre95Dialect());
+        List<Fff> entities = Arrays.asList(new Fff("foo"), new Fff("bar"),
+                new Fff("baz"));
+        final List<String> executedSqls = new ArrayList<String>();
+        AutoBatchInsertImpl<Fff> query = new AutoBatchInsertImpl<Fff>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                assertFalse(supportBatch);
+                assertFalse(useGetGeneratedKeys);
+                executedSqls.add(executedSql);
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    private long id = executedSqls.size() * 10L;
+
+                    private int rows;
+
+                    @Override
+                    public boolean execute() throws SQLException {
+                        rows = executedSqls.size() == 1 ? 2 : 1;
+                        return true;
+                    }
+
+                    @Override
+                    public ResultSet getResultSet() throws SQLException {
+                        MockResultSetMetaData rsMeta = new MockResultSetMetaData();
+                        MockColumnMetaData columnMeta = new MockColumnMetaData();
+                        columnMeta.setColumnLabel("ID");
+                        rsMeta.addColumnMetaData(columnMeta);
+                        MockResultSet rs = new MockResultSet(rsMeta);
+                        for (int i = 0; i < rows; ++i) {
+                            ArrayMap data = new ArrayMap();
+                            data.put("ID", Long.valueOf(id++));
+                            rs.addRowData(data);
+                        }
+                        return rs;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        int[] result = query.batchSize(2).execute();
+        assertTrue(query.isReturningInsert());
+        assertEquals(2, executedSqls.size());
+        assertEquals(
+                "insert into FFF (NAME, VERSION) values (?, ?), (?, ?) returning ID",
+                executedSqls.get(0));
+        assertEquals("insert into FFF (NAME, VERSION) values (?, ?) returning ID",
+                executedSqls.get(1));
+        assertEquals(3, result.length);
+        assertEquals(1, result[0]);
+        assertEquals(Integer.valueOf(10), entities.get(0).id);
+        assertEquals(Integer.valueOf(11), entities.get(1).id);
+        assertEquals(Integer.valueOf(20), entities.get(2).id);
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals(
+                "insert into FFF (NAME, VERSION) values ('baz', 1) returning ID",
+                sqlLog.getCompleteSql());
+    }
+
     /**
      * @throws Exception
      */
@@ -587,4 +725,179 @@ public class AutoBatchInsertTest extends TestCase {
                 sqlLog.getCompleteSql());
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testExecute_multiRowValues() throws Exception {
+        manager.setDialect(new MysqlDialect());
+        List<Eee> entities = Arrays.asList(new Eee(1, "foo"),
+                new Eee(2, "bar"), new Eee(3, "baz"));
+        final List<String> sqls = new ArrayList<String>();
+        AutoBatchInsertImpl<Eee> query = new AutoBatchInsertImpl<Eee>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return sqls.size() == 1 ? 2 : 1;
+                    }
+
+                    @Override
+                    public void addBatch() throws SQLException {
+                        ++addBatchCalled;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        int[] result = query.multiRowValues().batchSize(2).execute();
+        assertEquals(0, addBatchCalled);
+        assertEquals(3, result.length);
+        assertEquals(1, result[0]);
+        assertEquals(1, result[1]);
+        assertEquals(1, result[2]);
+        assertEquals(2, sqls.size());
+        assertEquals(
+                "insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) values (?, ?, ?, ?, ?), (?, ?, ?, ?, ?)",
+                sqls.get(0));
+        assertEquals(
+                "insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) values (?, ?, ?, ?, ?)",
+                sqls.get(1));
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals(
+                "insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) values (3, 'baz', null, null, 1)",
+                sqlLog.getCompleteSql());
+        sqlLog = SqlLogRegistryLocator.getInstance().get(0);
+        assertEquals(
+                "insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) values (1, 'foo', null, null, 1), (2, 'bar', null, null, 1)",
+                sqlLog.getCompleteSql());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_multiRowValues_maxBindParameterSize()
+            throws Exception {
+        manager.setDialect(new SqliteDialect() {
+
+            @Override
+            public int getMaxBindParameterSize() {
+                return 12;
+            }
+        });
+        List<Eee> entities = Arrays.asList(new Eee(1, "foo"),
+                new Eee(2, "bar"), new Eee(3, "baz"));
+        final List<String> sqls = new ArrayList<String>();
+        AutoBatchInsertImpl<Eee> query = new AutoBatchInsertImpl<Eee>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return 0;
+                    }
+                };
+            }
+
+        };
+        int[] result = query.multiRowValues().execute();
+        assertEquals(2, sqls.size());
+        assertEquals(2, query.getMultiRowSize());
+        assertEquals(3, result.length);
+        assertEquals(Statement.SUCCESS_NO_INFO, result[0]);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_multiRowValues_notSupported() throws Exception {
+        List<Eee> entities = Arrays.asList(new Eee(1, "foo"),
+                new Eee(2, "bar"), new Eee(3, "baz"));
+        AutoBatchInsertImpl<Eee> query = new AutoBatchInsertImpl<Eee>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int[] executeBatch() throws SQLException {
+                        return new int[] { 1, 1, 1 };
+                    }
+
+                    @Override
+                    public void addBatch() throws SQLException {
+                        ++addBatchCalled;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        int[] result = query.multiRowValues().execute();
+        assertFalse(query.isMultiRowValuesInsert());
+        assertEquals(3, addBatchCalled);
+        assertEquals(3, result.length);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_multiRowValues_identity() throws Exception {
+        manager.setDialect(new MysqlDialect() {
+
+            @Override
+            public boolean supportsBatchGetGeneratedKeys() {
+                return false;
+            }
+        });
+        List<Fff> entities = Arrays.asList(new Fff("foo"), new Fff("bar"),
+                new Fff("baz"));
+        AutoBatchInsertImpl<Fff> query = new AutoBatchInsertImpl<Fff>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement createPreparedStatement(
+                    JdbcContext jdbcContext) {
+                assertTrue(useGetGeneratedKeys);
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public void addBatch() throws SQLException {
+                        ++addBatchCalled;
+                    }
+                };
+            }
+
+            @Override
+            protected Object getIdValue(PropertyMeta propertyMeta, Fff entity) {
+                return null;
+            }
+
+            @Override
+            protected void postExecute(PreparedStatement ps, Fff entity) {
+            }
+
+        };
+        int[] result = query.multiRowValues().execute();
+        assertFalse(query.isMultiRowValuesInsert());
+        assertEquals(0, addBatchCalled);
+        assertEquals(3, result.length);
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals("insert into FFF (NAME, VERSION) values ('baz', 1)",
+                sqlLog.getCompleteSql());
+    }
+
 }
@@ -24,6 +24,7 @@ import javax.persistence.OptimisticLockException;
 
 import junit.framework.TestCase;
 
+import org.seasar.extension.jdbc.BatchSqlLog;
 import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
@@ -527,6 +528,54 @@ public class AutoBatchUpdateTest extends TestCase {
                 sqlLog.getCompleteSql());
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testExecute_batchSqlLog() throws Exception {
+        manager.setBatchSqlLogSampleSize(1);
+        List<Eee> entities = Arrays.asList(new Eee(1, "foo"),
+                new Eee(2, "bar"), new Eee(3, "baz"));
+        AutoBatchUpdateImpl<Eee> query = new AutoBatchUpdateImpl<Eee>(manager,
+                entities) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int[] executeBatch() throws SQLException {
+                        int[] rows = new int[addBatchCalled];
+                        Arrays.fill(rows, 1);
+                        addBatchCalled = 0;
+                        return rows;
+                    }
+
+                    @Override
+                    public void addBatch() throws SQLException {
+                        ++addBatchCalled;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        SqlLogRegistry registry = SqlLogRegistryLocator.getInstance();
+        registry.clear();
+        int[] result = query.batchSize(2).execute();
+        assertEquals(3, result.length);
+        assertEquals(2, registry.getSize());
+        BatchSqlLog sqlLog = (BatchSqlLog) registry.get(0);
+        assertEquals(2, sqlLog.getBatchSize());
+        assertEquals(1, sqlLog.getSampleSize());
+        assertEquals(
+                "update EEE set NAME = 'foo', LONG_TEXT = null, FFF_ID = null, VERSION = VERSION + 1 where ID = 1 and VERSION = 0",
+                sqlLog.getCompleteSql());
+        sqlLog = (BatchSqlLog) registry.getLast();
+        assertEquals(1, sqlLog.getBatchSize());
+        assertEquals(new Integer(3), sqlLog.getBindArgs()[3]);
+    }
+
     /**
      * @throws Exception
      */
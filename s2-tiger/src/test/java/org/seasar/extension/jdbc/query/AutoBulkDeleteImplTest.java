@@ -0,0 +1,181 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.SqlLog;
+import org.seasar.extension.jdbc.SqlLogRegistry;
+import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.dialect.StandardDialect;
+import org.seasar.extension.jdbc.entity.Eee;
+import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
+import org.seasar.extension.jdbc.exception.SWhereClauseEmptyRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.EntityMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.PropertyMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.TableMetaFactoryImpl;
+import org.seasar.extension.jdbc.where.SimpleWhere;
+import org.seasar.extension.jta.TransactionManagerImpl;
+import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
+import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.mock.sql.MockDataSource;
+import org.seasar.framework.mock.sql.MockPreparedStatement;
+
+public class AutoBulkDeleteImplTest extends TestCase {
+
+    private JdbcManagerImpl manager;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new JdbcManagerImpl();
+        manager.setSyncRegistry(new TransactionSynchronizationRegistryImpl(
+                new TransactionManagerImpl()));
+        manager.setDataSource(new MockDataSource());
+        manager.setDialect(new StandardDialect());
+
+        PersistenceConventionImpl convention = new PersistenceConventionImpl();
+        EntityMetaFactoryImpl emFactory = new EntityMetaFactoryImpl();
+        emFactory.setPersistenceConvention(convention);
+        TableMetaFactoryImpl tableMetaFactory = new TableMetaFactoryImpl();
+        tableMetaFactory.setPersistenceConvention(convention);
+        emFactory.setTableMetaFactory(tableMetaFactory);
+
+        PropertyMetaFactoryImpl pFactory = new PropertyMetaFactoryImpl();
+        pFactory.setPersistenceConvention(convention);
+        ColumnMetaFactoryImpl cmFactory = new ColumnMetaFactoryImpl();
+        cmFactory.setPersistenceConvention(convention);
+        pFactory.setColumnMetaFactory(cmFactory);
+        emFactory.setPropertyMetaFactory(pFactory);
+        emFactory.initialize();
+        manager.setEntityMetaFactory(emFactory);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SqlLogRegistry regisry = SqlLogRegistryLocator.getInstance();
+        regisry.clear();
+        manager = null;
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql() {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class);
+        query.where(new SimpleWhere().eq("fffId", 10), new SimpleWhere()
+                .isNull("name", true));
+        query.prepare("execute");
+        assertEquals("delete from EEE where (FFF_ID = ?) and (NAME is null)",
+                query.executedSql);
+        assertEquals(1, query.getParamSize());
+        assertEquals(new Integer(10), query.getParam(0).value);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_noWhere() {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_all() {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class);
+        query.all().where(new SimpleWhere());
+        query.prepare("execute");
+        assertEquals("delete from EEE", query.executedSql);
+    }
+
+    /**
+     * 
+     */
+    public void testWhere_empty() {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class);
+        try {
+            query.where(new SimpleWhere().eq("name", null));
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+        try {
+            query.where(new SimpleWhere(), new SimpleWhere());
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_propertyNotFound() {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class);
+        query.where(new SimpleWhere().eq("hoge", 10));
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (PropertyNotFoundRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute() throws Exception {
+        AutoBulkDeleteImpl<Eee> query = new AutoBulkDeleteImpl<Eee>(manager,
+                Eee.class) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return 2;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        query.where("id < ?", 100);
+        assertEquals(2, query.execute());
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals("delete from EEE where ID < 100", sqlLog.getCompleteSql());
+    }
+
+}
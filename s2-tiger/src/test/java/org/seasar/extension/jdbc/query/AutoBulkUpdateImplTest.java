@@ -0,0 +1,329 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.SqlLog;
+import org.seasar.extension.jdbc.SqlLogRegistry;
+import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.dialect.StandardDialect;
+import org.seasar.extension.jdbc.entity.Aaa;
+import org.seasar.extension.jdbc.entity.Eee;
+import org.seasar.extension.jdbc.exception.NonUpdatablePropertyRuntimeException;
+import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
+import org.seasar.extension.jdbc.exception.QueryTwiceExecutionRuntimeException;
+import org.seasar.extension.jdbc.exception.SWhereClauseEmptyRuntimeException;
+import org.seasar.extension.jdbc.exception.VersionPropertyNotExistsRuntimeException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.EntityMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.PropertyMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.TableMetaFactoryImpl;
+import org.seasar.extension.jdbc.where.SimpleWhere;
+import org.seasar.extension.jta.TransactionManagerImpl;
+import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
+import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.exception.EmptyRuntimeException;
+import org.seasar.framework.mock.sql.MockDataSource;
+import org.seasar.framework.mock.sql.MockPreparedStatement;
+
+public class AutoBulkUpdateImplTest extends TestCase {
+
+    private JdbcManagerImpl manager;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new JdbcManagerImpl();
+        manager.setSyncRegistry(new TransactionSynchronizationRegistryImpl(
+                new TransactionManagerImpl()));
+        manager.setDataSource(new MockDataSource());
+        manager.setDialect(new StandardDialect());
+
+        PersistenceConventionImpl convention = new PersistenceConventionImpl();
+        EntityMetaFactoryImpl emFactory = new EntityMetaFactoryImpl();
+        emFactory.setPersistenceConvention(convention);
+        TableMetaFactoryImpl tableMetaFactory = new TableMetaFactoryImpl();
+        tableMetaFactory.setPersistenceConvention(convention);
+        emFactory.setTableMetaFactory(tableMetaFactory);
+
+        PropertyMetaFactoryImpl pFactory = new PropertyMetaFactoryImpl();
+        pFactory.setPersistenceConvention(convention);
+        ColumnMetaFactoryImpl cmFactory = new ColumnMetaFactoryImpl();
+        cmFactory.setPersistenceConvention(convention);
+        pFactory.setColumnMetaFactory(cmFactory);
+        emFactory.setPropertyMetaFactory(pFactory);
+        emFactory.initialize();
+        manager.setEntityMetaFactory(emFactory);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SqlLogRegistry regisry = SqlLogRegistryLocator.getInstance();
+        regisry.clear();
+        manager = null;
+    }
+
+    /**
+     * 
+     */
+    public void testSet() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        assertSame(query, query.set("name", "hoge"));
+        assertEquals(1, query.setPropertyNames.size());
+        assertEquals("name", query.setPropertyNames.get(0));
+        assertEquals("hoge", query.setValues.get(0));
+    }
+
+    /**
+     * 
+     */
+    public void testIncrementVersion() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        assertFalse(query.incrementVersion);
+        assertSame(query, query.incrementVersion());
+        assertTrue(query.incrementVersion);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").set("fffId", null).where(
+                new SimpleWhere().eq("fffId", 10));
+        query.prepare("execute");
+        assertEquals("update EEE set NAME = ?, FFF_ID = ? where FFF_ID = ?",
+                query.executedSql);
+        assertEquals(3, query.getParamSize());
+        assertEquals("hoge", query.getParam(0).value);
+        assertNull(query.getParam(1).value);
+        assertEquals(Integer.class, query.getParam(1).paramClass);
+        assertEquals(new Integer(10), query.getParam(2).value);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_criteria() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").where("id > ? and name is null", 5);
+        query.prepare("execute");
+        assertEquals(
+                "update EEE set NAME = ? where ID > ? and NAME is null",
+                query.executedSql);
+        assertEquals(2, query.getParamSize());
+        assertEquals("hoge", query.getParam(0).value);
+        assertEquals(new Integer(5), query.getParam(1).value);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_noWhere() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge");
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_all() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").all();
+        query.prepare("execute");
+        assertEquals("update EEE set NAME = ?", query.executedSql);
+    }
+
+    /**
+     * 
+     */
+    public void testWhere_empty() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge");
+        try {
+            query.where(new SimpleWhere().eq("name", null));
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+        try {
+            query.where(new SimpleWhere(), new SimpleWhere());
+            fail();
+        } catch (SWhereClauseEmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareSql_incrementVersion() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").incrementVersion().where(
+                new SimpleWhere().eq("name", "foo"));
+        query.prepare("execute");
+        assertEquals(
+                "update EEE set NAME = ?, VERSION = VERSION + 1 where NAME = ?",
+                query.executedSql);
+        assertEquals(2, query.getParamSize());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_empty() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (EmptyRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_versionNotExists() {
+        AutoBulkUpdateImpl<Aaa> query = new AutoBulkUpdateImpl<Aaa>(manager,
+                Aaa.class);
+        query.incrementVersion();
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (VersionPropertyNotExistsRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_propertyNotFound() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("fff", null);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (PropertyNotFoundRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_id() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").set("id", 1);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (NonUpdatablePropertyRuntimeException expected) {
+            System.out.println(expected);
+            assertEquals("id", expected.getPropertyName());
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_version() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").set("version", 1L);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (NonUpdatablePropertyRuntimeException expected) {
+            System.out.println(expected);
+            assertEquals("version", expected.getPropertyName());
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_nonUpdatable() {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class);
+        query.set("name", "hoge").set("lastUpdated", null);
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (NonUpdatablePropertyRuntimeException expected) {
+            System.out.println(expected);
+            assertEquals("lastUpdated", expected.getPropertyName());
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute() throws Exception {
+        AutoBulkUpdateImpl<Eee> query = new AutoBulkUpdateImpl<Eee>(manager,
+                Eee.class) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                MockPreparedStatement ps = new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return 3;
+                    }
+                };
+                return ps;
+            }
+
+        };
+        query.set("name", "hoge").where(new SimpleWhere().eq("fffId", 10));
+        assertEquals(3, query.execute());
+        SqlLog sqlLog = SqlLogRegistryLocator.getInstance().getLast();
+        assertEquals("update EEE set NAME = 'hoge' where FFF_ID = 10", sqlLog
+                .getCompleteSql());
+
+        try {
+            query.execute();
+            fail();
+        } catch (QueryTwiceExecutionRuntimeException expected) {
+        }
+    }
+
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.JdbcContext;
+import org.seasar.extension.jdbc.SqlLogRegistry;
+import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.dialect.H2Dialect;
+import org.seasar.extension.jdbc.dialect.PostgreDialect;
+import org.seasar.extension.jdbc.dialect.Postgre95Dialect;
+import org.seasar.extension.jdbc.dialect.StandardDialect;
+import org.seasar.extension.jdbc.entity.Eee;
+import org.seasar.extension.jdbc.exception.IdPropertyNotAssignedRuntimeException;
+import org.seasar.extension.jdbc.exception.SEntityExistsException;
+import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.EntityMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.PropertyMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.TableMetaFactoryImpl;
+import org.seasar.extension.jta.TransactionManagerImpl;
+import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
+import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.exception.SQLRuntimeException;
+import org.seasar.framework.mock.sql.MockConnection;
+import org.seasar.framework.mock.sql.MockDataSource;
+import org.seasar.framework.mock.sql.MockPreparedStatement;
+
+public class AutoInsertOrUpdateImplTest extends TestCase {
+
+    private JdbcManagerImpl manager;
+
+    private TransactionManagerImpl transactionManager;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new JdbcManagerImpl();
+        transactionManager = new TransactionManagerImpl();
+        manager.setSyncRegistry(new TransactionSynchronizationRegistryImpl(
+                transactionManager));
+        manager.setDataSource(new MockDataSource());
+        manager.setDialect(new Postgre95Dialect());
+
+        PersistenceConventionImpl convention = new PersistenceConventionImpl();
+        EntityMetaFactoryImpl emFactory = new EntityMetaFactoryImpl();
+        emFactory.setPersistenceConvention(convention);
+        TableMetaFactoryImpl tableMetaFactory = new TableMetaFactoryImpl();
+        tableMetaFactory.setPersistenceConvention(convention);
+        emFactory.setTableMetaFactory(tableMetaFactory);
+
+        PropertyMetaFactoryImpl pFactory = new PropertyMetaFactoryImpl();
+        pFactory.setPersistenceConvention(convention);
+        ColumnMetaFactoryImpl cmFactory = new ColumnMetaFactoryImpl();
+        cmFactory.setPersistenceConvention(convention);
+        pFactory.setColumnMetaFactory(cmFactory);
+        emFactory.setPropertyMetaFactory(pFactory);
+        emFactory.initialize();
+        manager.setEntityMetaFactory(emFactory);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SqlLogRegistry regisry = SqlLogRegistryLocator.getInstance();
+        regisry.clear();
+        manager = null;
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare() {
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        eee.version = 3L;
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee);
+        query.prepare("execute");
+        assertEquals("insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) "
+                + "values (?, ?, ?, ?, ?) on conflict (ID) do update set "
+                + "NAME = excluded.NAME, LONG_TEXT = excluded.LONG_TEXT, "
+                + "FFF_ID = excluded.FFF_ID, VERSION = excluded.VERSION",
+                query.executedSql);
+        assertEquals(5, query.getParamSize());
+        assertEquals(new Integer(100), query.getParam(0).value);
+        assertEquals("hoge", query.getParam(1).value);
+        assertEquals(new Long(3L), query.getParam(4).value);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_nullVersion() {
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        eee.version = null;
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee);
+        query.prepare("execute");
+        assertEquals(new Long(1L), query.getParam(4).value);
+        assertEquals(new Long(1L), eee.version);
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_idNotAssigned() {
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, new Eee());
+        try {
+            query.prepare("execute");
+            fail();
+        } catch (IdPropertyNotAssignedRuntimeException expected) {
+            System.out.println(expected);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testPrepare_partialUpdateNotSupported() {
+        manager.setDialect(new H2Dialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected void prepareTargetProperties() {
+                super.prepareTargetProperties();
+                updateProperties.remove(0);
+            }
+        };
+        query.prepare("execute");
+        assertFalse(query.upsert);
+        assertNull(query.executedSql);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackUpdate() throws Exception {
+        manager.setDialect(new StandardDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        final List<String> sqls = new ArrayList<String>();
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return 1;
+                    }
+                };
+            }
+
+        };
+        assertEquals(1, query.execute());
+        assertEquals(1, sqls.size());
+        assertEquals("update EEE set NAME = ?, LONG_TEXT = ?, FFF_ID = ?, "
+                + "VERSION = ? where ID = ?", sqls.get(0));
+        assertEquals(5, query.getParamSize());
+        assertEquals(new Integer(100), query.getParam(4).value);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackInsert() throws Exception {
+        manager.setDialect(new StandardDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        eee.version = null;
+        final List<String> sqls = new ArrayList<String>();
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                final int rows = sqls.size() - 1;
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        return rows;
+                    }
+                };
+            }
+
+        };
+        assertEquals(1, query.execute());
+        assertEquals(2, sqls.size());
+        assertEquals("insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) "
+                + "values (?, ?, ?, ?, ?)", sqls.get(1));
+        assertEquals(5, query.getParamSize());
+        assertEquals(new Integer(100), query.getParam(0).value);
+        assertEquals(new Long(1L), query.getParam(4).value);
+        assertEquals(new Long(1L), eee.version);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackRetryUpdate() throws Exception {
+        manager.setDialect(new StandardDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        final List<String> sqls = new ArrayList<String>();
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                final int count = sqls.size();
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        if (count == 2) {
+                            throw new SQLException("hoge", "23505");
+                        }
+                        return count == 1 ? 0 : 1;
+                    }
+                };
+            }
+
+        };
+        assertEquals(1, query.execute());
+        assertEquals(3, sqls.size());
+        assertEquals("insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) "
+                + "values (?, ?, ?, ?, ?)", sqls.get(1));
+        assertEquals("update EEE set NAME = ?, LONG_TEXT = ?, FFF_ID = ?, "
+                + "VERSION = ? where ID = ?", sqls.get(2));
+        assertEquals(5, query.getParamSize());
+        assertEquals(new Integer(100), query.getParam(4).value);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackRetryUpdate_otherUniqueKey()
+            throws Exception {
+        manager.setDialect(new StandardDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        final List<String> sqls = new ArrayList<String>();
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                final int count = sqls.size();
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        if (count == 2) {
+                            throw new SQLException("hoge", "23505");
+                        }
+                        return 0;
+                    }
+                };
+            }
+
+        };
+        try {
+            query.execute();
+            fail();
+        } catch (SEntityExistsException expected) {
+            System.out.println(expected);
+            assertEquals("insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) "
+                    + "values (?, ?, ?, ?, ?)", expected.getSql());
+        }
+        assertEquals(3, sqls.size());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackRetryUpdate_savepoint() throws Exception {
+        manager.setDialect(new PostgreDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        final List<String> calls = new ArrayList<String>();
+        final Savepoint savepoint = new Savepoint() {
+
+            public int getSavepointId() throws SQLException {
+                return 1;
+            }
+
+            public String getSavepointName() throws SQLException {
+                return null;
+            }
+        };
+        final MockConnection connection = new MockConnection() {
+
+            @Override
+            public Savepoint setSavepoint() throws SQLException {
+                calls.add("setSavepoint");
+                return savepoint;
+            }
+
+            @Override
+            public void rollback(Savepoint sp) throws SQLException {
+                assertSame(savepoint, sp);
+                calls.add("rollback");
+            }
+        };
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                final String sql = executedSql;
+                return new MockPreparedStatement(connection, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        calls.add(sql.substring(0, 6));
+                        if (calls.size() == 3) {
+                            throw new SQLException("hoge", "23505");
+                        }
+                        return calls.size() == 1 ? 0 : 1;
+                    }
+                };
+            }
+
+        };
+        transactionManager.begin();
+        try {
+            assertEquals(1, query.execute());
+        } finally {
+            transactionManager.rollback();
+        }
+        assertEquals(Arrays.asList("update", "setSavepoint", "insert",
+                "rollback", "update"), calls);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecute_fallbackInsertError() throws Exception {
+        manager.setDialect(new StandardDialect());
+        Eee eee = new Eee();
+        eee.id = 100;
+        eee.name = "hoge";
+        final List<String> sqls = new ArrayList<String>();
+        AutoInsertOrUpdateImpl<Eee> query = new AutoInsertOrUpdateImpl<Eee>(
+                manager, eee) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                final int count = sqls.size();
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int executeUpdate() throws SQLException {
+                        if (count == 2) {
+                            throw new SQLException("hoge", "42000");
+                        }
+                        return 0;
+                    }
+                };
+            }
+
+        };
+        try {
+            query.execute();
+            fail();
+        } catch (SQLRuntimeException expected) {
+            System.out.println(expected);
+        }
+        assertEquals(2, sqls.size());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testExecuteBatch() throws Exception {
+        Eee eee1 = new Eee(1, "foo");
+        eee1.version = null;
+        Eee eee2 = new Eee(2, "bar");
+        eee2.version = 5L;
+        final List<String> sqls = new ArrayList<String>();
+        AutoBatchInsertOrUpdateImpl<Eee> query = new AutoBatchInsertOrUpdateImpl<Eee>(
+                manager, Arrays.asList(eee1, eee2)) {
+
+            @Override
+            protected PreparedStatement getPreparedStatement(
+                    JdbcContext jdbcContext) {
+                sqls.add(executedSql);
+                return new MockPreparedStatement(null, null) {
+
+                    @Override
+                    public int[] executeBatch() throws SQLException {
+                        return new int[] { 1, 1 };
+                    }
+                };
+            }
+
+        };
+        int[] rows = query.execute();
+        assertEquals(2, rows.length);
+        assertEquals(1, sqls.size());
+        assertEquals(new Long(1L), eee1.version);
+        assertEquals(new Long(5L), eee2.version);
+        assertTrue(sqls.get(0).startsWith(
+                "insert into EEE (ID, NAME, LONG_TEXT, FFF_ID, VERSION) "));
+    }
+
+}
@@ -47,6 +47,7 @@ import org.seasar.extension.jdbc.SqlLogRegistryLocator;
 import org.seasar.extension.jdbc.ValueType;
 import org.seasar.extension.jdbc.OrderByItem.OrderingSpec;
 import org.seasar.extension.jdbc.dialect.Db2Dialect;
+import org.seasar.extension.jdbc.dialect.H2Dialect;
 import org.seasar.extension.jdbc.dialect.HsqlDialect;
 import org.seasar.extension.jdbc.dialect.MssqlDialect;
 import org.seasar.extension.jdbc.dialect.OracleDialect;
@@ -59,11 +60,13 @@ import org.seasar.extension.jdbc.entity.Ccc;
 import org.seasar.extension.jdbc.entity.Ddd;
 import org.seasar.extension.jdbc.entity.Eee;
 import org.seasar.extension.jdbc.entity.Emp;
+import org.seasar.extension.jdbc.entity.Lll;
 import org.seasar.extension.jdbc.exception.BaseJoinNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.EntityColumnNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.IllegalIdPropertySizeRuntimeException;
 import org.seasar.extension.jdbc.exception.JoinDuplicatedRuntimeException;
 import org.seasar.extension.jdbc.exception.NonEntityRuntimeException;
+import org.seasar.extension.jdbc.exception.NullSeekValueRuntimeException;
 import org.seasar.extension.jdbc.exception.PropertyNotFoundRuntimeException;
 import org.seasar.extension.jdbc.exception.QueryTwiceExecutionRuntimeException;
 import org.seasar.extension.jdbc.exception.VersionPropertyNotExistsRuntimeException;
@@ -71,6 +74,7 @@ import org.seasar.extension.jdbc.handler.BeanAutoResultSetHandler;
 import org.seasar.extension.jdbc.handler.BeanIterationAutoResultSetHandler;
 import org.seasar.extension.jdbc.handler.BeanListAutoResultSetHandler;
 import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.manager.EntityCacheImpl;
 import org.seasar.extension.jdbc.manager.JdbcManagerImplementor;
 import org.seasar.extension.jdbc.mapper.AbstractEntityMapper;
 import org.seasar.extension.jdbc.mapper.AbstractRelationshipEntityMapper;
@@ -1652,6 +1656,349 @@ public class AutoSelectImplTest extends TestCase {
                 query.executedSql);
     }
 
+    /**
+     * 
+     */
+    public void testPagedResult() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.where("bbbId = ?", 3).orderBy("id").limit(10).offset(20);
+        query.pagedResult = true;
+        query.totalCountColumn = query.isTotalCountColumnSupported();
+        assertFalse(query.totalCountColumn);
+        query.prepare("getPagedResult");
+        assertEquals(
+                "select T1_.ID as C1_, T1_.NAME as C2_, T1_.BBB_ID as C3_, T1_.DTO as C4_ "
+                        + "from AAA T1_ where (T1_.BBB_ID = ?) order by C1_",
+                query.executedSql);
+        assertEquals("select count(*) from AAA T1_ where (T1_.BBB_ID = ?)",
+                query.totalCountSql);
+    }
+
+    /**
+     * 
+     */
+    public void testPagedResult_windowFunction() {
+        manager.setDialect(new OracleDialect());
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.where("bbbId = ?", 3).orderBy("id").limit(10).offset(20);
+        query.pagedResult = true;
+        query.totalCountColumn = query.isTotalCountColumnSupported();
+        assertTrue(query.totalCountColumn);
+        query.prepare("getPagedResult");
+        assertEquals(
+                "select * from ( select temp_.*, rownum rownumber_ from ( "
+                        + "select T1_.ID as C1_, T1_.NAME as C2_, T1_.BBB_ID as C3_, T1_.DTO as C4_, "
+                        + "count(*) over() as TOTAL_COUNT_ from AAA T1_ "
+                        + "where (T1_.BBB_ID = ?) order by C1_ ) temp_ ) "
+                        + "where rownumber_ > 20 and rownumber_ <= 30",
+                query.executedSql);
+        assertEquals(4, query.getValueTypes().length);
+        assertEquals("select count(*) from AAA T1_ where (T1_.BBB_ID = ?)",
+                query.totalCountSql);
+    }
+
+    /**
+     * 
+     */
+    public void testPagedResult_forUpdate() {
+        manager.setDialect(new PostgreDialect());
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.forUpdate();
+        assertFalse(query.isTotalCountColumnSupported());
+    }
+
+    /**
+     * 
+     */
+    public void testPlanCache() {
+        manager.setAutoSelectPlanCacheSize(10);
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.leftOuterJoin("bbb").where(new SimpleWhere().eq("id", 1))
+                .orderBy("id");
+        query.prepare("getResultList");
+        assertEquals(1, manager.getAutoSelectPlanCache().getSize());
+
+        AutoSelectImpl<Aaa> query2 = new AutoSelectImpl<Aaa>(manager,
+                Aaa.class);
+        query2.leftOuterJoin("bbb").where(new SimpleWhere().eq("id", 2))
+                .orderBy("id");
+        query2.prepare("getResultList");
+        assertEquals(1, manager.getAutoSelectPlanCache().getSize());
+        assertSame(query.executedSql, query2.executedSql);
+        assertSame(query.getEntityMapper(), query2.getEntityMapper());
+        assertTrue(Arrays.equals(query.getValueTypes(), query2
+                .getValueTypes()));
+        assertEquals(1, query2.getParamSize());
+        assertEquals(2, query2.getParam(0).value);
+        assertSame(query.getParam(0).valueType, query2.getParam(0).valueType);
+        assertNotNull(query2.getEntityMapper(null));
+
+        AutoSelectImpl<Aaa> query3 = new AutoSelectImpl<Aaa>(manager,
+                Aaa.class);
+        query3.leftOuterJoin("bbb").where(new SimpleWhere().eq("id", 3))
+                .orderBy("id").limit(10);
+        query3.prepare("getResultList");
+        assertEquals(2, manager.getAutoSelectPlanCache().getSize());
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        assertSame(query, query.where("bbbId = ?", 3).orderBy("name, id")
+                .seekAfter("aaa", 10));
+        query.prepare("getResultList");
+        assertEquals(
+                "select T1_.ID as C1_, T1_.NAME as C2_, T1_.BBB_ID as C3_, T1_.DTO as C4_ "
+                        + "from AAA T1_ where (T1_.BBB_ID = ?) and (T1_.NAME >= ? and "
+                        + "(T1_.NAME > ? or T1_.NAME = ? and T1_.ID > ?)) order by C2_, C1_",
+                query.executedSql);
+        assertEquals(5, query.getParamSize());
+        assertEquals(3, query.getParam(0).value);
+        assertEquals("aaa", query.getParam(1).value);
+        assertEquals("aaa", query.getParam(2).value);
+        assertEquals("aaa", query.getParam(3).value);
+        assertEquals(10, query.getParam(4).value);
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter_descending() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.orderBy("id desc").seekAfter(10);
+        query.prepare("getResultList");
+        assertEquals(
+                "select T1_.ID as C1_, T1_.NAME as C2_, T1_.BBB_ID as C3_, T1_.DTO as C4_ "
+                        + "from AAA T1_ where (T1_.ID < ?) order by C1_ desc",
+                query.executedSql);
+        assertEquals(1, query.getParamSize());
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter_rowValueComparison() {
+        manager.setDialect(new H2Dialect());
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.orderBy("name, id").seekAfter("aaa", 10).limit(5);
+        query.prepare("getResultList");
+        assertEquals(
+                "select T1_.ID as C1_, T1_.NAME as C2_, T1_.BBB_ID as C3_, T1_.DTO as C4_ "
+                        + "from AAA T1_ where ((T1_.NAME, T1_.ID) > (?, ?)) "
+                        + "order by C2_, C1_ limit 5",
+                query.executedSql);
+        assertEquals(2, query.getParamSize());
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter_illegalSize() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.orderBy("name, id").seekAfter("aaa");
+        try {
+            query.prepare("getResultList");
+            fail();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter_planCache() {
+        manager.setAutoSelectPlanCacheSize(10);
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.orderBy("name, id").seekAfter("aaa", 10);
+        query.prepare("getResultList");
+        AutoSelectImpl<Aaa> query2 = new AutoSelectImpl<Aaa>(manager,
+                Aaa.class);
+        query2.orderBy("name, id").seekAfter("bbb", 20);
+        query2.prepare("getResultList");
+        assertSame(query.executedSql, query2.executedSql);
+        assertEquals(4, query2.getParamSize());
+        assertEquals("bbb", query2.getParam(0).value);
+        assertEquals(20, query2.getParam(3).value);
+    }
+
+    /**
+     * 
+     */
+    public void testIterateInChunks() {
+        final List<Object[]> seeks = new ArrayList<Object[]>();
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class) {
+
+            @Override
+            protected AutoSelectImpl<Aaa> createChunkQuery(
+                    String chunkOrderBy, Object[] lastValues, int chunkSize) {
+                assertEquals("id", chunkOrderBy);
+                assertEquals(2, chunkSize);
+                seeks.add(lastValues);
+                final int start = lastValues == null ? 0
+                        : (Integer) lastValues[0];
+                return new AutoSelectImpl<Aaa>(manager, Aaa.class) {
+
+                    @Override
+                    public List<Aaa> getResultList() {
+                        List<Aaa> list = new ArrayList<Aaa>();
+                        for (int i = start + 1; i <= Math.min(start + 2, 5); ++i) {
+                            Aaa aaa = new Aaa();
+                            aaa.id = i;
+                            list.add(aaa);
+                        }
+                        return list;
+                    }
+                };
+            }
+        };
+        Integer count = query.iterateInChunks(2,
+                new IterationCallback<Aaa, Integer>() {
+
+                    private int n;
+
+                    public Integer iterate(Aaa entity, IterationContext context) {
+                        assertEquals(n + 1, entity.id.intValue());
+                        return ++n;
+                    }
+                });
+        assertEquals(5, count.intValue());
+        assertEquals(3, seeks.size());
+        assertNull(seeks.get(0));
+        assertEquals(2, seeks.get(1)[0]);
+        assertEquals(4, seeks.get(2)[0]);
+        assertTrue(query.completed);
+    }
+
+    /**
+     * 
+     */
+    public void testIterateInChunks_duplicateOrderByValues() {
+        final List<Aaa> rows = createAaaList("a", "b", "b", "b", "c");
+        final List<Object[]> seeks = new ArrayList<Object[]>();
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class) {
+
+            @Override
+            protected AutoSelectImpl<Aaa> createChunkQuery(
+                    String chunkOrderBy, Object[] lastValues, int chunkSize) {
+                assertEquals("name, id", chunkOrderBy);
+                seeks.add(lastValues);
+                return createNameIdChunkQuery(rows, lastValues, chunkSize);
+            }
+        };
+        final List<Integer> ids = new ArrayList<Integer>();
+        query.orderBy("name").iterateInChunks(2,
+                new IterationCallback<Aaa, Object>() {
+
+                    public Object iterate(Aaa entity, IterationContext context) {
+                        ids.add(entity.id);
+                        return null;
+                    }
+                });
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids);
+        assertEquals(3, seeks.size());
+        assertNull(seeks.get(0));
+        assertEquals(Arrays.asList("b", 2), Arrays.asList(seeks.get(1)));
+        assertEquals(Arrays.asList("b", 4), Arrays.asList(seeks.get(2)));
+    }
+
+    /**
+     * 
+     */
+    public void testIterateInChunks_nullValue() {
+        final List<Aaa> rows = createAaaList("a", null, "b");
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class) {
+
+            @Override
+            protected AutoSelectImpl<Aaa> createChunkQuery(
+                    String chunkOrderBy, Object[] lastValues, int chunkSize) {
+                return createNameIdChunkQuery(rows, lastValues, chunkSize);
+            }
+        };
+        try {
+            query.orderBy("name").iterateInChunks(2,
+                    new IterationCallback<Aaa, Object>() {
+
+                        public Object iterate(Aaa entity,
+                                IterationContext context) {
+                            return null;
+                        }
+                    });
+            fail();
+        } catch (NullSeekValueRuntimeException e) {
+            System.out.println(e);
+            assertEquals("name", e.getPropertyName());
+        }
+        assertTrue(query.completed);
+    }
+
+    /**
+     * 
+     */
+    public void testSeekAfter_nullValue() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.orderBy("name, id").seekAfter(null, 10);
+        try {
+            query.prepare("getResultList");
+            fail();
+        } catch (NullSeekValueRuntimeException e) {
+            System.out.println(e);
+            assertEquals("name", e.getPropertyName());
+        }
+    }
+
+    private List<Aaa> createAaaList(String... names) {
+        List<Aaa> list = new ArrayList<Aaa>();
+        for (int i = 0; i < names.length; ++i) {
+            Aaa aaa = new Aaa();
+            aaa.id = i + 1;
+            aaa.name = names[i];
+            list.add(aaa);
+        }
+        return list;
+    }
+
+    private AutoSelectImpl<Aaa> createNameIdChunkQuery(final List<Aaa> rows,
+            final Object[] lastValues, final int chunkSize) {
+        return new AutoSelectImpl<Aaa>(manager, Aaa.class) {
+
+            @Override
+            public List<Aaa> getResultList() {
+                List<Aaa> list = new ArrayList<Aaa>();
+                for (Aaa aaa : rows) {
+                    if (list.size() == chunkSize) {
+                        break;
+                    }
+                    if (lastValues == null || isAfter(aaa, lastValues)) {
+                        list.add(aaa);
+                    }
+                }
+                return list;
+            }
+
+            private boolean isAfter(Aaa aaa, Object[] values) {
+                int result = aaa.name.compareTo((String) values[0]);
+                return result > 0 || result == 0
+                        && aaa.id.compareTo((Integer) values[1]) > 0;
+            }
+        };
+    }
+
+    /**
+     * 
+     */
+    public void testPlanCache_conditions() {
+        manager.setAutoSelectPlanCacheSize(10);
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        Map<String, Object> m = new HashMap<String, Object>();
+        m.put("id", 1);
+        query.where(m);
+        query.prepare("getResultList");
+        assertEquals(0, manager.getAutoSelectPlanCache().getSize());
+    }
+
     /**
      * @throws Exception
      * 
@@ -2382,6 +2729,78 @@ public class AutoSelectImplTest extends TestCase {
                 query.toSql());
     }
 
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds");
+        query.prepare("iterate");
+        assertEquals(" order by C1_", query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_orderBy() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds").orderBy("name");
+        query.prepare("iterate");
+        assertEquals(" order by C2_, C1_", query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_containsId() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds").orderBy("id desc, ddds.id");
+        query.prepare("iterate");
+        assertEquals(" order by C1_ desc, C4_", query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_childColumn() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds").orderBy("ddds.name, id");
+        query.prepare("iterate");
+        assertEquals(" order by C1_, C5_, C1_", query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_baseAndChildColumn() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds").orderBy(
+                "name desc, coalesce(ddds.name, 'a'), ddds.id");
+        query.prepare("iterate");
+        assertEquals(" order by C2_ desc, C1_, coalesce(C5_, 'a'), C4_",
+                query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_manyToOne() {
+        AutoSelectImpl<Aaa> query = new AutoSelectImpl<Aaa>(manager, Aaa.class);
+        query.leftOuterJoin("bbb");
+        query.prepare("iterate");
+        assertEquals("", query.orderByClause.toSql());
+    }
+
+    /**
+     * 
+     */
+    public void testPrepareIterationOrderBy_getResultList() {
+        AutoSelectImpl<Bbb> query = new AutoSelectImpl<Bbb>(manager, Bbb.class);
+        query.leftOuterJoin("ddds");
+        query.prepare("getResultList");
+        assertEquals("", query.orderByClause.toSql());
+    }
+
     /**
      * 
      */
@@ -2907,6 +3326,43 @@ public class AutoSelectImplTest extends TestCase {
         assertEquals("T3_", query.convertEntityNameToTableAlias("bbb.ddds"));
     }
 
+    /**
+     * 
+     */
+    public void testGetSingleResult_entityCache() {
+        manager.setEntityCache(new EntityCacheImpl());
+        LllSelect query = new LllSelect(manager);
+        Lll lll = query.id(1).getSingleResult();
+        assertEquals(1, query.executed);
+        assertEquals("foo", lll.name);
+
+        LllSelect query2 = new LllSelect(manager);
+        Lll lll2 = query2.id(1L).getSingleResult();
+        assertEquals(0, query2.executed);
+        assertNotSame(lll, lll2);
+        assertEquals("foo", lll2.name);
+        try {
+            query2.getSingleResult();
+            fail();
+        } catch (QueryTwiceExecutionRuntimeException expected) {
+        }
+
+        LllSelect query3 = new LllSelect(manager);
+        query3.id(1).where("name = ?", "foo").getSingleResult();
+        assertEquals(1, query3.executed);
+    }
+
+    /**
+     * 
+     */
+    public void testGetSingleResult_entityCacheDisabled() {
+        LllSelect query = new LllSelect(manager);
+        query.id(1).getSingleResult();
+        LllSelect query2 = new LllSelect(manager);
+        query2.id(1).getSingleResult();
+        assertEquals(1, query2.executed);
+    }
+
     /**
      * 
      */
@@ -2990,6 +3446,28 @@ public class AutoSelectImplTest extends TestCase {
 
     }
 
+    private static class LllSelect extends AutoSelectImpl<Lll> {
+
+        private int executed;
+
+        /**
+         * @param jdbcManager
+         */
+        public LllSelect(JdbcManagerImplementor jdbcManager) {
+            super(jdbcManager, Lll.class);
+        }
+
+        @Override
+        protected Lll getSingleResultInternal() {
+            ++executed;
+            Lll lll = new Lll();
+            lll.id = 1L;
+            lll.name = "foo";
+            return lll;
+        }
+
+    }
+
     @Entity
     private static class MyAaa {
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.AutoSelect;
+import org.seasar.extension.jdbc.PropertyMeta;
+import org.seasar.extension.jdbc.dialect.SqliteDialect;
+import org.seasar.extension.jdbc.dialect.StandardDialect;
+import org.seasar.extension.jdbc.entity.Bbb;
+import org.seasar.extension.jdbc.entity.Ddd;
+import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
+import org.seasar.extension.jdbc.meta.ColumnMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.EntityMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.PropertyMetaFactoryImpl;
+import org.seasar.extension.jdbc.meta.TableMetaFactoryImpl;
+import org.seasar.extension.jta.TransactionManagerImpl;
+import org.seasar.extension.jta.TransactionSynchronizationRegistryImpl;
+import org.seasar.framework.convention.impl.PersistenceConventionImpl;
+import org.seasar.framework.mock.sql.MockDataSource;
+import org.seasar.framework.util.DisposableUtil;
+
+public class RelationshipFetcherTest extends TestCase {
+
+    private JdbcManagerImpl manager;
+
+    private List<List<Object>> selectedKeys = new ArrayList<List<Object>>();
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new JdbcManagerImpl();
+        manager.setSyncRegistry(new TransactionSynchronizationRegistryImpl(
+                new TransactionManagerImpl()));
+        manager.setDataSource(new MockDataSource());
+        manager.setDialect(new StandardDialect());
+
+        PersistenceConventionImpl convention = new PersistenceConventionImpl();
+        EntityMetaFactoryImpl emFactory = new EntityMetaFactoryImpl();
+        emFactory.setPersistenceConvention(convention);
+        TableMetaFactoryImpl tableMetaFactory = new TableMetaFactoryImpl();
+        tableMetaFactory.setPersistenceConvention(convention);
+        emFactory.setTableMetaFactory(tableMetaFactory);
+
+        PropertyMetaFactoryImpl pFactory = new PropertyMetaFactoryImpl();
+        pFactory.setPersistenceConvention(convention);
+        ColumnMetaFactoryImpl cmFactory = new ColumnMetaFactoryImpl();
+        cmFactory.setPersistenceConvention(convention);
+        pFactory.setColumnMetaFactory(cmFactory);
+        emFactory.setPropertyMetaFactory(pFactory);
+        emFactory.initialize();
+        manager.setEntityMetaFactory(emFactory);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        DisposableUtil.dispose();
+        manager = null;
+        super.tearDown();
+    }
+
+    /**
+     * 
+     */
+    public void testFetch_manyToOne() {
+        Ddd ddd1 = createDdd(1, 10);
+        Ddd ddd2 = createDdd(2, 20);
+        Ddd ddd3 = createDdd(3, 10);
+        Ddd ddd4 = createDdd(4, null);
+        List<?> result = new MyFetcher(500).fetch(Arrays.asList(ddd1, ddd2,
+                ddd3, ddd4), "bbb");
+        assertEquals(1, selectedKeys.size());
+        assertEquals(Arrays.asList(10, 20), selectedKeys.get(0));
+        assertEquals(2, result.size());
+        Bbb bbb10 = (Bbb) result.get(0);
+        assertEquals(10, bbb10.id.intValue());
+        assertSame(bbb10, ddd1.bbb);
+        assertSame(bbb10, ddd3.bbb);
+        assertSame(result.get(1), ddd2.bbb);
+        assertNull(ddd4.bbb);
+        assertEquals(2, bbb10.ddds.size());
+        assertSame(ddd1, bbb10.ddds.get(0));
+        assertSame(ddd3, bbb10.ddds.get(1));
+    }
+
+    /**
+     * 
+     */
+    public void testFetch_oneToMany() {
+        Bbb bbb10 = createBbb(10);
+        Bbb bbb20 = createBbb(20);
+        Bbb bbb30 = createBbb(30);
+        List<?> result = new MyFetcher(500).fetch(Arrays.asList(bbb10, bbb20,
+                bbb30), "ddds");
+        assertEquals(Arrays.asList(10, 20, 30), selectedKeys.get(0));
+        assertEquals(3, result.size());
+        assertEquals(2, bbb10.ddds.size());
+        assertSame(bbb10, bbb10.ddds.get(0).bbb);
+        assertSame(bbb10, bbb10.ddds.get(1).bbb);
+        assertEquals(1, bbb20.ddds.size());
+        assertSame(bbb20, bbb20.ddds.get(0).bbb);
+        assertNotNull(bbb30.ddds);
+        assertTrue(bbb30.ddds.isEmpty());
+    }
+
+    /**
+     * 
+     */
+    public void testFetch_chunk() {
+        List<Ddd> ddds = new ArrayList<Ddd>();
+        for (int i = 0; i < 5; ++i) {
+            ddds.add(createDdd(i, i * 10));
+        }
+        List<?> result = new MyFetcher(2).fetch(ddds, "bbb");
+        assertEquals(3, selectedKeys.size());
+        assertEquals(Arrays.asList(0, 10), selectedKeys.get(0));
+        assertEquals(Arrays.asList(20, 30), selectedKeys.get(1));
+        assertEquals(Arrays.asList(40), selectedKeys.get(2));
+        assertEquals(5, result.size());
+        for (Ddd ddd : ddds) {
+            assertEquals(ddd.bbbId, ddd.bbb.id);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testFetch_empty() {
+        List<?> result = new MyFetcher(500).fetch(new ArrayList<Ddd>(), "bbb");
+        assertTrue(result.isEmpty());
+        assertTrue(selectedKeys.isEmpty());
+    }
+
+    /**
+     * 
+     */
+    public void testFetch_notRelationship() {
+        try {
+            new MyFetcher(500).fetch(Arrays.asList(createDdd(1, 10)), "name");
+            fail();
+        } catch (IllegalArgumentException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * 
+     */
+    public void testSelect() {
+        final List<AutoSelectImpl<?>> selects = new ArrayList<AutoSelectImpl<?>>();
+        RelationshipFetcher fetcher = new RelationshipFetcher(manager, 500) {
+
+            @Override
+            protected <E> AutoSelect<E> createSelect(Class<E> relationshipClass) {
+                AutoSelectImpl<E> select = new AutoSelectImpl<E>(manager,
+                        relationshipClass) {
+
+                    @Override
+                    public List<E> getResultList() {
+                        prepare("getResultList");
+                        return new ArrayList<E>();
+                    }
+                };
+                selects.add(select);
+                return select;
+            }
+        };
+        Ddd ddd1 = createDdd(1, 10);
+        Ddd ddd2 = createDdd(2, 20);
+        fetcher.fetch(Arrays.asList(ddd1, ddd2), "bbb");
+        assertEquals(1, selects.size());
+        assertEquals(
+                "select T1_.ID as C1_, T1_.NAME as C2_, T1_.CCC_ID as C3_ "
+                        + "from BBB T1_ where (T1_.ID in (?, ?))", selects
+                        .get(0).executedSql);
+        assertEquals(2, selects.get(0).getParamSize());
+        assertEquals(10, selects.get(0).getParam(0).value);
+        assertNull(ddd1.bbb);
+    }
+
+    /**
+     * 
+     */
+    public void testGetChunkSize() {
+        assertEquals(500, new RelationshipFetcher(manager, 500)
+                .getChunkSize(2));
+        assertEquals(Integer.MAX_VALUE, new RelationshipFetcher(manager, 0)
+                .getChunkSize(2));
+        manager.setDialect(new SqliteDialect());
+        assertEquals(499, new RelationshipFetcher(manager, 0).getChunkSize(2));
+        assertEquals(100, new RelationshipFetcher(manager, 100)
+                .getChunkSize(2));
+    }
+
+    private Ddd createDdd(int id, Integer bbbId) {
+        Ddd ddd = new Ddd();
+        ddd.id = id;
+        ddd.bbbId = bbbId;
+        return ddd;
+    }
+
+    private Bbb createBbb(int id) {
+        Bbb bbb = new Bbb();
+        bbb.id = id;
+        return bbb;
+    }
+
+    private class MyFetcher extends RelationshipFetcher {
+
+        /**
+         * @param batchFetchSize
+         */
+        public MyFetcher(int batchFetchSize) {
+            super(manager, batchFetchSize);
+        }
+
+        @Override
+        protected List<?> select(Class<?> relationshipClass,
+                List<PropertyMeta> propertyMetaList, List<Object> keys) {
+            assertEquals(1, propertyMetaList.size());
+            selectedKeys.add(new ArrayList<Object>(keys));
+            List<Object> list = new ArrayList<Object>();
+            if (relationshipClass == Bbb.class) {
+                assertEquals("id", propertyMetaList.get(0).getName());
+                for (Object key : keys) {
+                    list.add(createBbb((Integer) key));
+                }
+            } else {
+                assertEquals("bbbId", propertyMetaList.get(0).getName());
+                int id = 0;
+                for (Object key : keys) {
+                    Integer bbbId = (Integer) key;
+                    for (int i = 0; i < (40 - bbbId) / 10 - 1; ++i) {
+                        list.add(createDdd(++id, bbbId));
+                    }
+                }
+            }
+            return list;
+        }
+    }
+}
@@ -26,12 +26,15 @@ import org.seasar.extension.jdbc.ResultSetHandler;
 import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
 import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.jdbc.dialect.PostgreDialect;
 import org.seasar.extension.jdbc.dialect.StandardDialect;
 import org.seasar.extension.jdbc.dto.AaaDto;
 import org.seasar.extension.jdbc.entity.Aaa;
 import org.seasar.extension.jdbc.exception.QueryTwiceExecutionRuntimeException;
 import org.seasar.extension.jdbc.exception.SNonUniqueResultException;
+import org.seasar.extension.jdbc.impl.SqlStatisticsRegistryImpl;
 import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
 import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.jta.TransactionManagerImpl;
@@ -153,6 +156,22 @@ public class SqlSelectImplTest extends TestCase {
         assertEquals("select * from aaa limit 10", query.executedSql);
     }
 
+    /**
+     * 
+     */
+    public void testPrepare_pagedResult() {
+        manager.setDialect(new PostgreDialect());
+        SqlSelectImpl<Aaa> query = new SqlSelectImpl<Aaa>(manager, Aaa.class,
+                "select * from aaa");
+        query.limit(10);
+        query.pagedResult = true;
+        assertFalse(query.isTotalCountColumnSupported());
+        query.prepare("getPagedResult");
+        assertEquals("select * from aaa limit 10", query.executedSql);
+        assertEquals("select count(*) from ( select * from aaa ) COUNT_",
+                query.totalCountSql);
+    }
+
     /**
      * 
      */
@@ -226,6 +245,52 @@ public class SqlSelectImplTest extends TestCase {
         }
     }
 
+    /**
+     * 
+     */
+    public void testGetResultList_statistics() {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        SqlStatisticsRegistryLocator.setInstance(registry);
+        try {
+            SqlSelectImpl<AaaDto> query = new SqlSelectImpl<AaaDto>(manager,
+                    AaaDto.class, "select foo2, aaa_bbb from hoge where id = ?",
+                    1) {
+
+                @Override
+                protected Object processResultSetInternal(
+                        final JdbcContext jdbcContext,
+                        final ResultSetHandler handler) {
+                    try {
+                        MockResultSetMetaData rsMeta = new MockResultSetMetaData();
+                        MockColumnMetaData columnMeta = new MockColumnMetaData();
+                        columnMeta.setColumnLabel("FOO2");
+                        rsMeta.addColumnMetaData(columnMeta);
+                        MockResultSet rs = new MockResultSet(rsMeta);
+                        ArrayMap data = new ArrayMap();
+                        data.put("FOO2", "111");
+                        rs.addRowData(data);
+                        data = new ArrayMap();
+                        data.put("FOO2", "222");
+                        rs.addRowData(data);
+                        return handler.handle(rs);
+                    } catch (SQLException e) {
+                        throw new SQLRuntimeException(e);
+                    }
+                }
+
+            };
+            assertEquals(2, query.getResultList().size());
+            SqlStatistics statistics = registry
+                    .get("select foo2, aaa_bbb from hoge where id = ?");
+            assertNotNull(statistics);
+            assertEquals(1, statistics.getExecutionCount());
+            assertEquals(0, statistics.getErrorCount());
+            assertEquals(2, statistics.getFetchedRows());
+        } finally {
+            SqlStatisticsRegistryLocator.setInstance(null);
+        }
+    }
+
     /**
      * 
      */
@@ -29,9 +29,12 @@ import org.seasar.extension.jdbc.JdbcContext;
 import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
 import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.jdbc.dialect.StandardDialect;
 import org.seasar.extension.jdbc.exception.IllegalParamSizeRuntimeException;
 import org.seasar.extension.jdbc.exception.QueryTwiceExecutionRuntimeException;
+import org.seasar.extension.jdbc.impl.SqlStatisticsRegistryImpl;
 import org.seasar.extension.jdbc.manager.JdbcManagerImpl;
 import org.seasar.extension.jdbc.types.ValueTypes;
 import org.seasar.extension.jta.TransactionManagerImpl;
@@ -190,6 +193,43 @@ public class SqlUpdateImplTest extends TestCase {
      * @throws Exception
      * 
      */
+    public void testExecute_statistics() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        SqlStatisticsRegistryLocator.setInstance(registry);
+        try {
+            String sql = "update aaa set name = ? where id = ?";
+            SqlUpdateImpl query = new SqlUpdateImpl(manager, sql,
+                    String.class, Integer.class) {
+
+                @Override
+                protected PreparedStatement getPreparedStatement(
+                        JdbcContext jdbcContext) {
+                    MockPreparedStatement ps = new MockPreparedStatement(null,
+                            null) {
+
+                        @Override
+                        public int executeUpdate() throws SQLException {
+                            return 3;
+                        }
+                    };
+                    return ps;
+                }
+
+            };
+            assertEquals(3, query.params("hoge", 1).execute());
+            SqlStatistics statistics = registry.get(sql);
+            assertNotNull(statistics);
+            assertEquals(1, statistics.getExecutionCount());
+            assertEquals(0, statistics.getErrorCount());
+            assertEquals(3, statistics.getUpdatedRows());
+        } finally {
+            SqlStatisticsRegistryLocator.setInstance(null);
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
     public void testExecute() throws Exception {
         String sql = "update aaa set name = ? where id = ?";
         SqlUpdateImpl query = new SqlUpdateImpl(manager, sql, String.class,
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.sql.cache;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.sql.Node;
+import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.extension.sql.parser.SqlParserImpl;
+
+public class RenderedSqlCacheTest extends TestCase {
+
+    private Node node;
+
+    @Override
+    protected void setUp() throws Exception {
+        node = new SqlParserImpl("SELECT * FROM emp/*BEGIN*/ WHERE "
+                + "/*IF job != null*/job = /*job*/'CLERK'/*END*/"
+                + "/*IF deptno != null*/ AND deptno = /*deptno*/20/*END*/"
+                + "/*END*/").parse();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        RenderedSqlCache.clear();
+    }
+
+    /**
+     * 
+     */
+    public void testGetSql() {
+        SqlContext ctx = accept("CLERK", null);
+        String sql = RenderedSqlCache.getSql(node, ctx);
+        assertEquals("SELECT * FROM emp WHERE job = ?", sql);
+        assertEquals(1, RenderedSqlCache.getSize(node));
+
+        ctx = accept("MANAGER", null);
+        assertSame(sql, RenderedSqlCache.getSql(node, ctx));
+        assertSame(sql, ctx.getSql());
+        assertEquals("MANAGER", ctx.getBindVariables()[0]);
+        assertEquals(1, RenderedSqlCache.getSize(node));
+
+        ctx = accept("CLERK", 20);
+        assertEquals("SELECT * FROM emp WHERE job = ? AND deptno = ?",
+                RenderedSqlCache.getSql(node, ctx));
+        assertEquals(2, RenderedSqlCache.getSize(node));
+
+        ctx = accept(null, null);
+        assertEquals("SELECT * FROM emp", RenderedSqlCache.getSql(node, ctx));
+        assertEquals(3, RenderedSqlCache.getSize(node));
+    }
+
+    /**
+     * 
+     */
+    public void testGetSql_inList() {
+        Node inNode = new SqlParserImpl(
+                "SELECT * FROM emp WHERE empno IN /*empnos*/(1, 2)").parse();
+        SqlContext ctx = acceptInList(inNode, new Integer[] { 1, 2 });
+        String sql = RenderedSqlCache.getSql(inNode, ctx);
+        assertEquals("SELECT * FROM emp WHERE empno IN (?, ?)", sql);
+
+        ctx = acceptInList(inNode, new Integer[] { 3, 4 });
+        assertSame(sql, RenderedSqlCache.getSql(inNode, ctx));
+        assertEquals(3, ctx.getBindVariables()[0]);
+
+        ctx = acceptInList(inNode, new Integer[] { 1, 2, 3 });
+        assertEquals("SELECT * FROM emp WHERE empno IN (?, ?, ?)",
+                RenderedSqlCache.getSql(inNode, ctx));
+        assertEquals(2, RenderedSqlCache.getSize(inNode));
+    }
+
+    /**
+     * 
+     */
+    public void testGetSql_embeddedValue() {
+        Node embeddedNode = new SqlParserImpl(
+                "SELECT * FROM emp ORDER BY /*$orderBy*/ename").parse();
+        SqlContext ctx = acceptEmbeddedValue(embeddedNode, "ename");
+        assertEquals("SELECT * FROM emp ORDER BY ename", RenderedSqlCache
+                .getSql(embeddedNode, ctx));
+
+        ctx = acceptEmbeddedValue(embeddedNode, "empno");
+        assertEquals("SELECT * FROM emp ORDER BY empno", RenderedSqlCache
+                .getSql(embeddedNode, ctx));
+        assertEquals(2, RenderedSqlCache.getSize(embeddedNode));
+    }
+
+    /**
+     * 
+     */
+    public void testGetSql_notRecording() {
+        SqlContext ctx = new SqlContextImpl();
+        ctx.addArg("job", "CLERK", String.class);
+        ctx.addArg("deptno", null, Integer.class);
+        node.accept(ctx);
+        assertEquals("SELECT * FROM emp WHERE job = ?", RenderedSqlCache
+                .getSql(node, ctx));
+        assertEquals(0, RenderedSqlCache.getSize(node));
+    }
+
+    private SqlContext acceptInList(Node inNode, Integer[] empnos) {
+        SqlContext ctx = RenderedSqlCache.createSqlContext(node);
+        ctx.addArg("empnos", empnos, Integer[].class);
+        inNode.accept(ctx);
+        return ctx;
+    }
+
+    private SqlContext acceptEmbeddedValue(Node embeddedNode, String orderBy) {
+        SqlContext ctx = RenderedSqlCache.createSqlContext(node);
+        ctx.addArg("orderBy", orderBy, String.class);
+        embeddedNode.accept(ctx);
+        return ctx;
+    }
+
+    private SqlContext accept(String job, Integer deptno) {
+        SqlContext ctx = RenderedSqlCache.createSqlContext(node);
+        ctx.addArg("job", job, String.class);
+        ctx.addArg("deptno", deptno, Integer.class);
+        node.accept(ctx);
+        return ctx;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.util;
+
+import junit.framework.TestCase;
+
+public class ConcurrentTimeHistogramTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord() throws Exception {
+        TimeHistogram histogram = new ConcurrentTimeHistogram();
+        for (int i = 1; i <= 100; ++i) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getTotal());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.001);
+        assertEquals(50, histogram.getPercentile(50));
+        long[] counts = histogram.getCounts();
+        assertEquals(histogram.getBounds().length + 1, counts.length);
+        assertEquals(3, counts[2]);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCopyAndClear() throws Exception {
+        TimeHistogram histogram = new ConcurrentTimeHistogram();
+        histogram.record(3);
+        TimeHistogram copy = histogram.copy();
+        assertFalse(copy instanceof ConcurrentTimeHistogram);
+        histogram.clear();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, copy.getCount());
+        assertEquals(3, copy.getMax());
+    }
+
+}
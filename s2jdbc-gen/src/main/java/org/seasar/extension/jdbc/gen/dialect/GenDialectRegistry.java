@@ -29,10 +29,12 @@ import org.seasar.extension.jdbc.dialect.HsqlDialect;
 import org.seasar.extension.jdbc.dialect.InterbaseDialect;
 import org.seasar.extension.jdbc.dialect.MaxdbDialect;
 import org.seasar.extension.jdbc.dialect.Mssql2005Dialect;
+import org.seasar.extension.jdbc.dialect.Mssql2008Dialect;
 import org.seasar.extension.jdbc.dialect.MssqlDialect;
 import org.seasar.extension.jdbc.dialect.MysqlDialect;
 import org.seasar.extension.jdbc.dialect.OracleDialect;
 import org.seasar.extension.jdbc.dialect.Postgre81Dialect;
+import org.seasar.extension.jdbc.dialect.Postgre95Dialect;
 import org.seasar.extension.jdbc.dialect.PostgreDialect;
 import org.seasar.extension.jdbc.dialect.SqliteDialect;
 import org.seasar.extension.jdbc.dialect.SybaseDialect;
@@ -130,10 +132,12 @@ public class GenDialectRegistry {
         dialectMap.put(MaxdbDialect.class.getName(), MAXDB);
         dialectMap.put(MssqlDialect.class.getName(), MSSQL);
         dialectMap.put(Mssql2005Dialect.class.getName(), MSSQL_2005);
+        dialectMap.put(Mssql2008Dialect.class.getName(), MSSQL_2005);
         dialectMap.put(MysqlDialect.class.getName(), MYSQL);
         dialectMap.put(OracleDialect.class.getName(), ORACLE);
         dialectMap.put(PostgreDialect.class.getName(), POSTGRE);
         dialectMap.put(Postgre81Dialect.class.getName(), POSTGRE81);
+        dialectMap.put(Postgre95Dialect.class.getName(), POSTGRE81);
         dialectMap.put(SqliteDialect.class.getName(), SQLITE);
         dialectMap.put(SybaseDialect.class.getName(), SYBASE);
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.it.auto;
+
+import org.junit.runner.RunWith;
+import org.seasar.extension.jdbc.JdbcManager;
+import org.seasar.extension.jdbc.it.entity.Department;
+import org.seasar.extension.jdbc.it.entity.Department6;
+import org.seasar.extension.jdbc.where.SimpleWhere;
+import org.seasar.framework.unit.Seasar2;
+
+import static junit.framework.Assert.*;
+
+/**
+ * 
+ */
+@RunWith(Seasar2.class)
+public class AutoBatchInsertOrUpdateTest {
+
+    private JdbcManager jdbcManager;
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute() throws Exception {
+        Department department = new Department();
+        department.departmentId = 1;
+        department.departmentNo = 1;
+        department.departmentName = "hoge";
+        department.version = 5;
+        Department department2 = new Department();
+        department2.departmentId = 99;
+        department2.departmentNo = 99;
+        department2.departmentName = "foo";
+        department2.version = 1;
+
+        int[] result =
+            jdbcManager.insertOrUpdateBatch(department, department2).execute();
+        assertEquals(2, result.length);
+
+        department =
+            jdbcManager.from(Department.class).where(
+                new SimpleWhere().eq("departmentId", 1)).getSingleResult();
+        assertEquals(1, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+        assertEquals(5, department.version);
+
+        department =
+            jdbcManager.from(Department.class).where(
+                new SimpleWhere().eq("departmentId", 99)).getSingleResult();
+        assertEquals(99, department.departmentNo);
+        assertEquals("foo", department.departmentName);
+        assertEquals(1, department.version);
+        assertEquals(5, jdbcManager.from(Department.class).getCount());
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_notUpdatableColumn() throws Exception {
+        Department6 department = new Department6();
+        department.departmentId = 1;
+        department.departmentNo = 1;
+        department.departmentName = "hoge";
+        department.location = "foo";
+        Department6 department2 = new Department6();
+        department2.departmentId = 99;
+        department2.departmentNo = 99;
+        department2.departmentName = "bar";
+        department2.location = "baz";
+
+        int[] result =
+            jdbcManager.insertOrUpdateBatch(department, department2).execute();
+        assertEquals(2, result.length);
+
+        department =
+            jdbcManager.from(Department6.class).where(
+                new SimpleWhere().eq("departmentId", 1)).getSingleResult();
+        assertEquals("hoge", department.departmentName);
+        assertEquals("NEW YORK", department.location);
+
+        department =
+            jdbcManager.from(Department6.class).where(
+                new SimpleWhere().eq("departmentId", 99)).getSingleResult();
+        assertEquals("bar", department.departmentName);
+        assertEquals("baz", department.location);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.it.auto;
+
+import org.junit.runner.RunWith;
+import org.seasar.extension.jdbc.JdbcManager;
+import org.seasar.extension.jdbc.it.entity.CompKeyDepartment;
+import org.seasar.extension.jdbc.it.entity.Department;
+import org.seasar.extension.jdbc.it.entity.Department6;
+import org.seasar.extension.jdbc.where.SimpleWhere;
+import org.seasar.framework.unit.Seasar2;
+
+import static junit.framework.Assert.*;
+
+/**
+ * 
+ */
+@RunWith(Seasar2.class)
+public class AutoInsertOrUpdateTest {
+
+    private JdbcManager jdbcManager;
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_insert() throws Exception {
+        Department department = new Department();
+        department.departmentId = 99;
+        department.departmentNo = 99;
+        department.departmentName = "hoge";
+        department.version = 1;
+        int result = jdbcManager.insertOrUpdate(department).execute();
+        assertEquals(1, result);
+        department =
+            jdbcManager.from(Department.class).where(
+                new SimpleWhere().eq("departmentId", 99)).getSingleResult();
+        assertEquals(99, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+        assertNull(department.location);
+        assertEquals(1, department.version);
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_update() throws Exception {
+        Department department = new Department();
+        department.departmentId = 1;
+        department.departmentNo = 1;
+        department.departmentName = "hoge";
+        department.location = "foo";
+        department.version = 5;
+        jdbcManager.insertOrUpdate(department).execute();
+        department =
+            jdbcManager.from(Department.class).where(
+                new SimpleWhere().eq("departmentId", 1)).getSingleResult();
+        assertEquals(1, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+        assertEquals("foo", department.location);
+        assertEquals(5, department.version);
+        assertEquals(4, jdbcManager.from(Department.class).getCount());
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_compositeKey() throws Exception {
+        CompKeyDepartment department = new CompKeyDepartment();
+        department.departmentId1 = 1;
+        department.departmentId2 = 1;
+        department.departmentNo = 1;
+        department.departmentName = "hoge";
+        jdbcManager.insertOrUpdate(department).execute();
+        department =
+            jdbcManager.from(CompKeyDepartment.class).where(
+                new SimpleWhere().eq("departmentId1", 1).eq(
+                    "departmentId2",
+                    1)).getSingleResult();
+        assertEquals(1, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_notUpdatableColumn_insert() throws Exception {
+        Department6 department = new Department6();
+        department.departmentId = 99;
+        department.departmentNo = 99;
+        department.departmentName = "hoge";
+        department.location = "foo";
+        int result = jdbcManager.insertOrUpdate(department).execute();
+        assertEquals(1, result);
+        department =
+            jdbcManager.from(Department6.class).where(
+                new SimpleWhere().eq("departmentId", 99)).getSingleResult();
+        assertEquals(99, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+        assertEquals("foo", department.location);
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testExecute_notUpdatableColumn_update() throws Exception {
+        Department6 department = new Department6();
+        department.departmentId = 1;
+        department.departmentNo = 1;
+        department.departmentName = "hoge";
+        department.location = "foo";
+        jdbcManager.insertOrUpdate(department).execute();
+        department =
+            jdbcManager.from(Department6.class).where(
+                new SimpleWhere().eq("departmentId", 1)).getSingleResult();
+        assertEquals(1, department.departmentNo);
+        assertEquals("hoge", department.departmentName);
+        assertEquals("NEW YORK", department.location);
+    }
+}
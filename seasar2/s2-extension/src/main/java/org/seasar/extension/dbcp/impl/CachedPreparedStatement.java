@@ -0,0 +1,280 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.seasar.extension.jdbc.impl.PreparedStatementWrapper;
+import org.seasar.framework.exception.SSQLException;
+import org.seasar.framework.log.Logger;
+
+/**
+ * {@link PreparedStatementCache}にキャッシュされる{@link PreparedStatement}のラッパです。
+ * <p>
+ * {@link #close()}を呼び出しても物理的な{@link PreparedStatement}はクローズされず、
+ * パラメータやバッチをクリアし、変更された設定を元に戻した上でキャッシュに戻されます。
+ * このステートメントから取得した{@link ResultSet}(自動生成キーを含む)は{@link #close()}でクローズされます。
+ * </p>
+ * <p>
+ * カーソル名を設定した場合や{@link #setPoolable(boolean) プール不可}とした場合、
+ * 物理的な{@link PreparedStatement}はキャッシュに戻されずにクローズされます。
+ * </p>
+ */
+public class CachedPreparedStatement extends PreparedStatementWrapper {
+
+    private static final Logger logger = Logger
+            .getLogger(CachedPreparedStatement.class);
+
+    private final PreparedStatement physicalStatement;
+
+    private final String key;
+
+    private final PreparedStatementCache cache;
+
+    private final List resultSets = new ArrayList();
+
+    private boolean closed;
+
+    private Integer maxRows;
+
+    private Integer fetchSize;
+
+    private Integer fetchDirection;
+
+    private Integer queryTimeout;
+
+    private Integer maxFieldSize;
+
+    private boolean escapeProcessingChanged;
+
+    private boolean cursorNameChanged;
+
+    private boolean poolable = true;
+
+    /**
+     * インスタンスを構築します。
+     *
+     * @param physicalStatement
+     *            物理的な{@link PreparedStatement}
+     * @param sql
+     *            SQL
+     * @param key
+     *            キャッシュのキー
+     * @param cache
+     *            {@link PreparedStatement}のキャッシュ
+     */
+    public CachedPreparedStatement(final PreparedStatement physicalStatement,
+            final String sql, final String key,
+            final PreparedStatementCache cache) {
+        super(physicalStatement, sql);
+        this.physicalStatement = physicalStatement;
+        this.key = key;
+        this.cache = cache;
+    }
+
+    /**
+     * 物理的な{@link PreparedStatement}を返します。
+     *
+     * @return 物理的な{@link PreparedStatement}
+     */
+    public PreparedStatement getPhysicalStatement() {
+        return physicalStatement;
+    }
+
+    public ResultSet executeQuery() throws SQLException {
+        assertOpened();
+        return addResultSet(super.executeQuery());
+    }
+
+    public ResultSet getResultSet() throws SQLException {
+        assertOpened();
+        return addResultSet(super.getResultSet());
+    }
+
+    public ResultSet getGeneratedKeys() throws SQLException {
+        assertOpened();
+        return addResultSet(super.getGeneratedKeys());
+    }
+
+    public void setMaxRows(final int max) throws SQLException {
+        assertOpened();
+        if (maxRows == null) {
+            maxRows = new Integer(physicalStatement.getMaxRows());
+        }
+        super.setMaxRows(max);
+    }
+
+    public void setFetchSize(final int rows) throws SQLException {
+        assertOpened();
+        if (fetchSize == null) {
+            fetchSize = new Integer(physicalStatement.getFetchSize());
+        }
+        super.setFetchSize(rows);
+    }
+
+    public void setFetchDirection(final int direction) throws SQLException {
+        assertOpened();
+        if (fetchDirection == null) {
+            fetchDirection = new Integer(physicalStatement.getFetchDirection());
+        }
+        super.setFetchDirection(direction);
+    }
+
+    public void setQueryTimeout(final int seconds) throws SQLException {
+        assertOpened();
+        if (queryTimeout == null) {
+            queryTimeout = new Integer(physicalStatement.getQueryTimeout());
+        }
+        super.setQueryTimeout(seconds);
+    }
+
+    public void setMaxFieldSize(final int max) throws SQLException {
+        assertOpened();
+        if (maxFieldSize == null) {
+            maxFieldSize = new Integer(physicalStatement.getMaxFieldSize());
+        }
+        super.setMaxFieldSize(max);
+    }
+
+    public void setEscapeProcessing(final boolean enable) throws SQLException {
+        assertOpened();
+        escapeProcessingChanged = true;
+        super.setEscapeProcessing(enable);
+    }
+
+    public void setCursorName(final String name) throws SQLException {
+        assertOpened();
+        cursorNameChanged = true;
+        super.setCursorName(name);
+    }
+
+    /**
+     * このステートメントをプール可能にするかどうかを設定します。
+     * <p>
+     * <code>false</code>を設定すると、{@link #close()}で
+     * 物理的な{@link PreparedStatement}がクローズされます。
+     * </p>
+     * 
+     * @param poolable
+     *            プール可能にする場合は<code>true</code>
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    public void setPoolable(final boolean poolable) throws SQLException {
+        assertOpened();
+        this.poolable = poolable;
+    }
+
+    /**
+     * このステートメントがプール可能なら<code>true</code>を返します。
+     * 
+     * @return このステートメントがプール可能なら<code>true</code>
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    public boolean isPoolable() throws SQLException {
+        assertOpened();
+        return poolable;
+    }
+
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeResultSets();
+            if (!poolable || cursorNameChanged) {
+                physicalStatement.close();
+                return;
+            }
+            reset();
+        } catch (final SQLException e) {
+            logger.log(e);
+            physicalStatement.close();
+            return;
+        }
+        cache.checkIn(key, physicalStatement);
+    }
+
+    /**
+     * 取得した{@link ResultSet}を記録します。
+     *
+     * @param resultSet
+     *            {@link ResultSet}
+     * @return {@link ResultSet}
+     */
+    protected ResultSet addResultSet(final ResultSet resultSet) {
+        if (resultSet != null) {
+            resultSets.add(resultSet);
+        }
+        return resultSet;
+    }
+
+    /**
+     * 取得した{@link ResultSet}をクローズします。
+     *
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    protected void closeResultSets() throws SQLException {
+        for (int i = 0; i < resultSets.size(); ++i) {
+            ((ResultSet) resultSets.get(i)).close();
+        }
+        resultSets.clear();
+    }
+
+    /**
+     * 物理的な{@link PreparedStatement}を再利用できる状態に戻します。
+     *
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    protected void reset() throws SQLException {
+        physicalStatement.clearParameters();
+        physicalStatement.clearBatch();
+        physicalStatement.clearWarnings();
+        if (maxRows != null) {
+            physicalStatement.setMaxRows(maxRows.intValue());
+        }
+        if (fetchSize != null) {
+            physicalStatement.setFetchSize(fetchSize.intValue());
+        }
+        if (fetchDirection != null) {
+            physicalStatement.setFetchDirection(fetchDirection.intValue());
+        }
+        if (queryTimeout != null) {
+            physicalStatement.setQueryTimeout(queryTimeout.intValue());
+        }
+        if (maxFieldSize != null) {
+            physicalStatement.setMaxFieldSize(maxFieldSize.intValue());
+        }
+        if (escapeProcessingChanged) {
+            physicalStatement.setEscapeProcessing(true);
+        }
+    }
+
+    private void assertOpened() throws SQLException {
+        if (closed) {
+            throw new SSQLException("ESSR0766", null);
+        }
+    }
+
+}
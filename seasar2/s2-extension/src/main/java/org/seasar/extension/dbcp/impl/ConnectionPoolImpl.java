@@ -15,6 +15,8 @@
  */
 package org.seasar.extension.dbcp.impl;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -70,6 +72,8 @@ public class ConnectionPoolImpl implements ConnectionPool {
 
     private static Logger logger = Logger.getLogger(ConnectionPoolImpl.class);
 
+    private static final Method IS_VALID_METHOD = getIsValidMethod();
+
     private XADataSource xaDataSource;
 
     private TransactionManager transactionManager;
@@ -92,6 +96,18 @@ public class ConnectionPoolImpl implements ConnectionPool {
 
     private long validationInterval;
 
+    private int validationTimeout = 5;
+
+    private int maintenanceInterval;
+
+    private int preparedStatementCacheSize;
+
+    private ConnectionPoolMetrics metrics;
+
+    private volatile Thread maintenanceThread;
+
+    private int closeCount;
+
     private Set activePool = new HashSet();
 
     private Map txActivePool = new HashMap();
@@ -319,6 +335,290 @@ public class ConnectionPoolImpl implements ConnectionPool {
         this.validationInterval = validationInterval;
     }
 
+    /**
+     * コネクションの死活を検証する際のタイムアウトを秒単位で返します。
+     * 
+     * @return 検証する際のタイムアウト(秒単位)
+     */
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * コネクションの死活を検証する際のタイムアウトを秒単位で設定します。
+     * <p>
+     * バックグラウンドでの検証で、検証用クエリのクエリタイムアウトまたは
+     * <code>Connection#isValid(int)</code>の引数として使われます。
+     * </p>
+     * 
+     * @param validationTimeout
+     *            検証する際のタイムアウト(秒単位)
+     */
+    public void setValidationTimeout(int validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * バックグラウンドでプールを保守する間隔を秒単位で返します。
+     * 
+     * @return プールを保守する間隔(秒単位)
+     */
+    public int getMaintenanceInterval() {
+        return maintenanceInterval;
+    }
+
+    /**
+     * バックグラウンドでプールを保守する間隔を秒単位で設定します。
+     * <p>
+     * <code>0</code>より大きな値を指定して{@link #initialize()}を呼び出すと、
+     * バックグラウンドのスレッドが指定された間隔で次の保守を行います。
+     * </p>
+     * <ul>
+     * <li>物理コネクションの数が{@link #getMinPoolSize() minPoolSize}に満たない場合は、
+     * 新しい物理コネクションを作成して空きコネクションとしてプールします。</li>
+     * <li>空きコネクションの死活を検証し、利用できないコネクションを破棄します。
+     * 検証には検証用クエリが設定されていればそれを、そうでなければ
+     * <code>Connection#isValid(int)</code>を使用します。</li>
+     * </ul>
+     * <p>
+     * バックグラウンドで検証されたコネクションは、{@link #getValidationInterval() validationInterval}
+     * が経過するまでチェックアウト時に検証されません。
+     * </p>
+     * 
+     * @param maintenanceInterval
+     *            プールを保守する間隔(秒単位)
+     */
+    public void setMaintenanceInterval(int maintenanceInterval) {
+        this.maintenanceInterval = maintenanceInterval;
+    }
+
+    /**
+     * 物理コネクションごとにキャッシュする{@link java.sql.PreparedStatement}の上限を返します。
+     * 
+     * @return 物理コネクションごとにキャッシュする{@link java.sql.PreparedStatement}の上限
+     */
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    /**
+     * 物理コネクションごとにキャッシュする{@link java.sql.PreparedStatement}の上限を設定します。
+     * <p>
+     * <code>0</code>より大きな値を指定すると、論理コネクションからクローズされた
+     * {@link java.sql.PreparedStatement}は物理コネクションごとのキャッシュに戻され、
+     * 同じSQLと結果セットの属性で作成される際に再利用されます。 キャッシュは物理コネクションが
+     * クローズされるまで保持されます。 デフォルトは<code>0</code>(キャッシュしない)です。
+     * </p>
+     * <p>
+     * この設定は、設定後に作成される物理コネクションから有効になります。
+     * </p>
+     * 
+     * @param preparedStatementCacheSize
+     *            物理コネクションごとにキャッシュする{@link java.sql.PreparedStatement}の上限
+     */
+    public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+    }
+
+    /**
+     * 統計情報を収集する{@link ConnectionPoolMetrics}を返します。
+     * 
+     * @return 統計情報を収集する{@link ConnectionPoolMetrics}、収集しない場合は<code>null</code>
+     */
+    public ConnectionPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 統計情報を収集する{@link ConnectionPoolMetrics}を設定します。
+     * <p>
+     * デフォルトは<code>null</code>で、統計情報は収集されません。
+     * </p>
+     * 
+     * @param metrics
+     *            統計情報を収集する{@link ConnectionPoolMetrics}
+     */
+    public void setMetrics(ConnectionPoolMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * コネクションプールを初期化します。
+     * <p>
+     * {@link #getMaintenanceInterval() maintenanceInterval}が<code>0</code>より大きい場合、
+     * プールを保守するバックグラウンドのスレッドを開始します。 最初の保守はただちに行われるため、
+     * 起動時に{@link #getMinPoolSize() minPoolSize}個の物理コネクションが作成されます。
+     * </p>
+     */
+    public synchronized void initialize() {
+        if (maintenanceInterval <= 0 || maintenanceThread != null) {
+            return;
+        }
+        maintenanceThread = new Thread(new MaintenanceTask(),
+                "Seasar2-ConnectionPoolMaintenance");
+        maintenanceThread.setDaemon(true);
+        maintenanceThread.start();
+    }
+
+    /**
+     * プールを保守します。
+     * <p>
+     * 空きコネクションの死活を検証した後、物理コネクションの数が
+     * {@link #getMinPoolSize() minPoolSize}になるまで物理コネクションを作成します。
+     * </p>
+     */
+    public void maintain() {
+        validateFreePool();
+        fillFreePool();
+    }
+
+    /**
+     * すべての空きコネクションの死活を検証し、利用できないコネクションを破棄します。
+     * <p>
+     * 検証中のコネクションはプールのロックの中でプールから取り除かれるため、
+     * チェックアウトされることもタイムアウトで破棄されることもありません。
+     * 検証はプールのロックの外で行われます。
+     * </p>
+     */
+    protected void validateFreePool() {
+        if (!isValidationSupported()) {
+            return;
+        }
+        final long startTime = System.currentTimeMillis();
+        final int count = getCloseCount();
+        for (;;) {
+            long pooledTime = 0L;
+            ConnectionWrapper con = null;
+            synchronized (this) {
+                for (SLinkedList.Entry e = freePool.getFirstEntry(); e != null; e = e
+                        .getNext()) {
+                    final FreeItem candidate = (FreeItem) e.getElement();
+                    if (candidate.getValidatedTime() < startTime) {
+                        e.remove();
+                        pooledTime = candidate.getPooledTime();
+                        con = candidate.getConnection();
+                        candidate.destroy();
+                        break;
+                    }
+                }
+            }
+            if (con == null) {
+                return;
+            }
+            final long validatedTime = System.currentTimeMillis();
+            final boolean valid = isValid(con.getPhysicalConnection());
+            synchronized (this) {
+                if (valid && count == closeCount) {
+                    freePool.addFirst(new FreeItem(con, pooledTime,
+                            validatedTime));
+                    notify();
+                    continue;
+                }
+            }
+            if (!valid) {
+                validationFailed();
+            }
+            con.closeReally();
+        }
+    }
+
+    /**
+     * 物理コネクションの数が{@link #getMinPoolSize() minPoolSize}になるまで物理コネクションを作成し、
+     * 空きコネクションとしてプールします。
+     * <p>
+     * 物理コネクションの作成はプールのロックの外で行われます。
+     * </p>
+     */
+    protected void fillFreePool() {
+        final int count = getCloseCount();
+        for (;;) {
+            synchronized (this) {
+                if (maxPoolSize <= 0 || count != closeCount) {
+                    return;
+                }
+                final int size = freePool.size() + activePool.size()
+                        + txActivePool.size();
+                if (size >= minPoolSize || size >= maxPoolSize) {
+                    return;
+                }
+            }
+            final ConnectionWrapper con;
+            try {
+                con = createConnection(null);
+            } catch (final SQLException e) {
+                logger.log(e);
+                return;
+            }
+            synchronized (this) {
+                if (count == closeCount) {
+                    freePool.addLast(new FreeItem(con));
+                    notify();
+                    continue;
+                }
+            }
+            con.closeReally();
+        }
+    }
+
+    /**
+     * {@link #close()}が呼び出された回数を返します。
+     * 
+     * @return {@link #close()}が呼び出された回数
+     */
+    protected synchronized int getCloseCount() {
+        return closeCount;
+    }
+
+    /**
+     * バックグラウンドで物理コネクションの死活を検証できる場合は<code>true</code>を返します。
+     * 
+     * @return バックグラウンドで物理コネクションの死活を検証できる場合は<code>true</code>
+     */
+    protected boolean isValidationSupported() {
+        return !StringUtil.isEmpty(validationQuery) || IS_VALID_METHOD != null;
+    }
+
+    /**
+     * 物理コネクションの死活を検証します。
+     * <p>
+     * 検証用クエリが設定されていればそれを実行し、そうでなければ
+     * <code>Connection#isValid(int)</code>を呼び出します。
+     * </p>
+     * 
+     * @param connection
+     *            物理コネクション
+     * @return 物理コネクションが利用可能な場合は<code>true</code>
+     */
+    protected boolean isValid(final Connection connection) {
+        try {
+            if (StringUtil.isEmpty(validationQuery)) {
+                return ((Boolean) IS_VALID_METHOD.invoke(connection,
+                        new Object[] { new Integer(validationTimeout) }))
+                        .booleanValue();
+            }
+            final PreparedStatement ps = connection
+                    .prepareStatement(validationQuery);
+            try {
+                ps.setQueryTimeout(validationTimeout);
+                ps.executeQuery().close();
+            } finally {
+                ps.close();
+            }
+            return true;
+        } catch (final InvocationTargetException e) {
+            final Throwable cause = e.getTargetException();
+            if (cause instanceof AbstractMethodError) {
+                return true;
+            }
+            logger.log("ESSR0096", null, cause);
+        } catch (final Exception e) {
+            logger.log("ESSR0096", null, e);
+        } catch (final AbstractMethodError e) {
+            return true;
+        }
+        return false;
+    }
+
     public int getActivePoolSize() {
         return activePool.size();
     }
@@ -344,16 +644,19 @@ public class ConnectionPoolImpl implements ConnectionPool {
             }
             return con;
         }
+        final long checkOutTime = System.currentTimeMillis();
         long wait = maxWait;
         while (getMaxPoolSize() > 0
                 && getActivePoolSize() + getTxActivePoolSize() >= getMaxPoolSize()) {
             if (wait == 0L) {
+                checkOutTimedOut();
                 throw new SSQLException("ESSR0104", null);
             }
             final long startTime = System.currentTimeMillis();
             try {
                 wait((maxWait == -1L) ? 0L : wait);
             } catch (InterruptedException e) {
+                checkOutTimedOut();
                 throw new SSQLException("ESSR0104", null, e);
             }
             final long elapseTime = System.currentTimeMillis() - startTime;
@@ -377,13 +680,22 @@ public class ConnectionPoolImpl implements ConnectionPool {
         if (transactionIsolationLevel != DEFAULT_TRANSACTION_ISOLATION_LEVEL) {
             con.setTransactionIsolation(transactionIsolationLevel);
         }
+        if (metrics != null) {
+            metrics.connectionCheckedOut(con, System.currentTimeMillis()
+                    - checkOutTime);
+        }
         if (logger.isDebugEnabled()) {
             logger.log("DSSR0007", new Object[] { tx });
         }
         return con;
     }
 
-    private Transaction getTransaction() {
+    /**
+     * 現在のスレッドに関連付けられたトランザクションを返します。
+     * 
+     * @return トランザクション
+     */
+    protected Transaction getTransaction() {
         return TransactionManagerUtil.getTransaction(transactionManager);
     }
 
@@ -402,16 +714,16 @@ public class ConnectionPoolImpl implements ConnectionPool {
         if (StringUtil.isEmpty(validationQuery)) {
             return con;
         }
-        if (validateConnection(con, item.getPooledTime())) {
+        if (validateConnection(con, item.getValidatedTime())) {
             return con;
         }
         return null;
     }
 
     private boolean validateConnection(final ConnectionWrapper con,
-            final long pooledTime) {
+            final long validatedTime) {
         final long currentTime = System.currentTimeMillis();
-        if (currentTime - pooledTime < validationInterval) {
+        if (currentTime - validatedTime < validationInterval) {
             return true;
         }
         try {
@@ -435,24 +747,94 @@ public class ConnectionPoolImpl implements ConnectionPool {
                 }
             }
             freePool.clear();
+            validationFailed();
             logger.log("ESSR0096", null, e);
             return false;
         }
         return true;
     }
 
-    private ConnectionWrapper createConnection(Transaction tx)
+    /**
+     * 物理コネクションを作成します。
+     * 
+     * @param tx
+     *            トランザクション
+     * @return コネクション
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    protected ConnectionWrapper createConnection(Transaction tx)
             throws SQLException {
         XAConnection xaConnection = xaDataSource.getXAConnection();
         Connection connection = xaConnection.getConnection();
         ConnectionWrapper con = new ConnectionWrapperImpl(xaConnection,
-                connection, this, tx);
+                connection, this, tx, createPreparedStatementCache());
+        if (metrics != null) {
+            metrics.physicalConnectionOpened();
+        }
         if (logger.isDebugEnabled()) {
             logger.log("DSSR0006", null);
         }
         return con;
     }
 
+    /**
+     * 空きコネクションを待ってタイムアウトしたことを統計情報に記録します。
+     */
+    protected void checkOutTimedOut() {
+        if (metrics != null) {
+            metrics.checkOutTimedOut();
+        }
+    }
+
+    /**
+     * コネクションがチェックインされたことを統計情報に記録します。
+     * 
+     * @param con
+     *            コネクション
+     */
+    protected void connectionCheckedIn(final ConnectionWrapper con) {
+        if (metrics != null) {
+            metrics.connectionCheckedIn(con);
+        }
+    }
+
+    /**
+     * コネクションの検証に失敗したことを統計情報に記録します。
+     */
+    protected void validationFailed() {
+        if (metrics != null) {
+            metrics.validationFailed();
+        }
+    }
+
+    /**
+     * 物理コネクションに関連づける{@link PreparedStatementCache}を作成します。
+     * 
+     * @return {@link PreparedStatementCache}、キャッシュしない場合は<code>null</code>
+     */
+    protected PreparedStatementCache createPreparedStatementCache() {
+        if (preparedStatementCacheSize <= 0) {
+            return null;
+        }
+        return new PreparedStatementCache(preparedStatementCacheSize);
+    }
+
+    /**
+     * コネクションに関連づけられた{@link PreparedStatementCache}を返します。
+     * 
+     * @param con
+     *            コネクション
+     * @return {@link PreparedStatementCache}、関連づけられていない場合は<code>null</code>
+     */
+    protected static PreparedStatementCache getPreparedStatementCache(
+            ConnectionWrapper con) {
+        if (con instanceof ConnectionWrapperImpl) {
+            return ((ConnectionWrapperImpl) con).getPreparedStatementCache();
+        }
+        return null;
+    }
+
     private void setConnectionTxActivePool(Transaction tx,
             ConnectionWrapper connection) {
 
@@ -464,6 +846,7 @@ public class ConnectionPoolImpl implements ConnectionPool {
     }
 
     public synchronized void release(ConnectionWrapper connection) {
+        connectionCheckedIn(connection);
         activePool.remove(connection);
         Transaction tx = getTransaction();
         if (tx != null) {
@@ -478,6 +861,7 @@ public class ConnectionPoolImpl implements ConnectionPool {
     }
 
     public synchronized void checkIn(ConnectionWrapper connection) {
+        connectionCheckedIn(connection);
         activePool.remove(connection);
         checkInFreePool(connection);
     }
@@ -493,7 +877,8 @@ public class ConnectionPoolImpl implements ConnectionPool {
                     throw e;
                 }
                 final ConnectionWrapper newCon = new ConnectionWrapperImpl(
-                        con.getXAConnection(), pc, this, null);
+                        con.getXAConnection(), pc, this, null,
+                        getPreparedStatementCache(con));
                 con.cleanup();
                 freePool.addLast(new FreeItem(newCon));
                 notify();
@@ -516,10 +901,16 @@ public class ConnectionPoolImpl implements ConnectionPool {
         if (con == null) {
             return;
         }
+        connectionCheckedIn(con);
         checkInFreePool(con);
     }
 
-    public final synchronized void close() {
+    public synchronized void close() {
+        ++closeCount;
+        if (maintenanceThread != null) {
+            maintenanceThread.interrupt();
+            maintenanceThread = null;
+        }
         for (SLinkedList.Entry e = freePool.getFirstEntry(); e != null; e = e
                 .getNext()) {
             FreeItem item = (FreeItem) e.getElement();
@@ -540,6 +931,15 @@ public class ConnectionPoolImpl implements ConnectionPool {
         timeoutTask.cancel();
     }
 
+    private static Method getIsValidMethod() {
+        try {
+            return Connection.class.getMethod("isValid",
+                    new Class[] { int.class });
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
     private class FreeItem implements TimeoutTarget {
 
         private ConnectionWrapper connectionWrapper_;
@@ -548,11 +948,21 @@ public class ConnectionPoolImpl implements ConnectionPool {
 
         private long pooledTime;
 
+        private long validatedTime;
+
         FreeItem(ConnectionWrapper connectionWrapper) {
+            this(connectionWrapper, System.currentTimeMillis(), System
+                    .currentTimeMillis());
+        }
+
+        FreeItem(ConnectionWrapper connectionWrapper, long pooledTime,
+                long validatedTime) {
             connectionWrapper_ = connectionWrapper;
+            final long elapsed = (System.currentTimeMillis() - pooledTime) / 1000L;
             timeoutTask_ = TimeoutManager.getInstance().addTimeoutTarget(this,
-                    timeout, false);
-            pooledTime = System.currentTimeMillis();
+                    (int) Math.max(0L, timeout - elapsed), false);
+            this.pooledTime = pooledTime;
+            this.validatedTime = validatedTime;
         }
 
         /**
@@ -573,12 +983,20 @@ public class ConnectionPoolImpl implements ConnectionPool {
             return pooledTime;
         }
 
+        /**
+         * 最後に死活を検証された時刻（ミリ秒）を返します。
+         * 
+         * @return 最後に死活を検証された時刻（ミリ秒）
+         */
+        public long getValidatedTime() {
+            return validatedTime;
+        }
+
         public void expired() {
             synchronized (ConnectionPoolImpl.this) {
-                if (freePool.size() <= minPoolSize) {
+                if (freePool.size() <= minPoolSize || !freePool.remove(this)) {
                     return;
                 }
-                freePool.remove(this);
             }
             synchronized (this) {
                 if (connectionWrapper_ != null) {
@@ -600,6 +1018,29 @@ public class ConnectionPoolImpl implements ConnectionPool {
         }
     }
 
+    /**
+     * プールを保守するバックグラウンドのタスクです。
+     */
+    protected class MaintenanceTask implements Runnable {
+
+        public void run() {
+            final Thread thread = Thread.currentThread();
+            while (maintenanceThread == thread) {
+                try {
+                    maintain();
+                } catch (final RuntimeException e) {
+                    logger.log(e);
+                }
+                try {
+                    Thread.sleep(maintenanceInterval * 1000L);
+                } catch (final InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+    }
+
     /**
      * {@link Synchronization}の実装です。
      * 
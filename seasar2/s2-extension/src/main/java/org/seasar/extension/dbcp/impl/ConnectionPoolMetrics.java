@@ -0,0 +1,338 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.seasar.extension.dbcp.ConnectionWrapper;
+import org.seasar.framework.util.TimeHistogram;
+
+/**
+ * コネクションプールの統計情報を収集するクラスです。
+ * <p>
+ * {@link ConnectionPoolImpl#setMetrics(ConnectionPoolMetrics)}で設定すると、
+ * 次の情報が収集されます。
+ * </p>
+ * <ul>
+ * <li>チェックアウトの待ち時間のヒストグラム</li>
+ * <li>チェックアウトからチェックインまでの保持時間のヒストグラム</li>
+ * <li>空きコネクションを待ってタイムアウトした回数(<code>ESSR0104</code>)</li>
+ * <li>物理コネクションを作成した回数とクローズした回数</li>
+ * <li>コネクションの検証に失敗した回数</li>
+ * <li>チェックアウト中のコネクションごとのチェックアウトした時刻</li>
+ * <li>{@link #getLeakThreshold() leakThreshold}より長く保持されているコネクション(リークの疑い)</li>
+ * </ul>
+ */
+public class ConnectionPoolMetrics {
+
+    /**
+     * チェックアウトした時刻の古い順に並べる{@link Comparator}です。
+     */
+    protected static final Comparator CHECK_OUT_TIME_COMPARATOR = new Comparator() {
+
+        public int compare(final Object o1, final Object o2) {
+            final long t1 = ((CheckOutInfo) o1).getCheckOutTime();
+            final long t2 = ((CheckOutInfo) o2).getCheckOutTime();
+            return t1 < t2 ? -1 : (t1 == t2 ? 0 : 1);
+        }
+    };
+
+    private long leakThreshold;
+
+    private boolean captureCheckOutStack;
+
+    private long startTime = System.currentTimeMillis();
+
+    private long checkOutCount;
+
+    private long timeoutCount;
+
+    private long physicalConnectCount;
+
+    private long physicalCloseCount;
+
+    private long validationFailureCount;
+
+    private long leakSuspectCount;
+
+    private final TimeHistogram waitTimeHistogram = new TimeHistogram();
+
+    private final TimeHistogram holdTimeHistogram = new TimeHistogram();
+
+    private final Map checkOutInfos = new IdentityHashMap();
+
+    /**
+     * リークの疑いとみなす保持時間(ミリ秒)を返します。
+     *
+     * @return リークの疑いとみなす保持時間(ミリ秒)
+     */
+    public synchronized long getLeakThreshold() {
+        return leakThreshold;
+    }
+
+    /**
+     * リークの疑いとみなす保持時間(ミリ秒)を設定します。
+     * <p>
+     * <code>0</code>以下の場合はリークを検出しません。 デフォルトは<code>0</code>です。
+     * </p>
+     *
+     * @param leakThreshold
+     *            リークの疑いとみなす保持時間(ミリ秒)
+     */
+    public synchronized void setLeakThreshold(final long leakThreshold) {
+        this.leakThreshold = leakThreshold;
+    }
+
+    /**
+     * チェックアウトしたスタックトレースを記録する場合は<code>true</code>を返します。
+     *
+     * @return チェックアウトしたスタックトレースを記録する場合は<code>true</code>
+     */
+    public synchronized boolean isCaptureCheckOutStack() {
+        return captureCheckOutStack;
+    }
+
+    /**
+     * チェックアウトしたスタックトレースを記録するかどうかを設定します。
+     * <p>
+     * 記録したスタックトレースはリークの疑いがあるコネクションをチェックアウトした箇所を特定するために使われます。
+     * チェックアウトのたびに例外を生成するため、デフォルトは<code>false</code>です。
+     * </p>
+     *
+     * @param captureCheckOutStack
+     *            チェックアウトしたスタックトレースを記録する場合は<code>true</code>
+     */
+    public synchronized void setCaptureCheckOutStack(
+            final boolean captureCheckOutStack) {
+        this.captureCheckOutStack = captureCheckOutStack;
+    }
+
+    /**
+     * コネクションがチェックアウトされたことを記録します。
+     *
+     * @param con
+     *            コネクション
+     * @param waitTime
+     *            チェックアウトの待ち時間(ミリ秒)
+     */
+    public synchronized void connectionCheckedOut(final ConnectionWrapper con,
+            final long waitTime) {
+        ++checkOutCount;
+        waitTimeHistogram.record(waitTime);
+        checkOutInfos.put(con, new CheckOutInfo(System.currentTimeMillis(),
+                Thread.currentThread().getName(),
+                captureCheckOutStack ? new Throwable("checked out") : null));
+    }
+
+    /**
+     * コネクションがチェックインされたことを記録します。
+     *
+     * @param con
+     *            コネクション
+     */
+    public synchronized void connectionCheckedIn(final ConnectionWrapper con) {
+        final CheckOutInfo info = (CheckOutInfo) checkOutInfos.remove(con);
+        if (info == null) {
+            return;
+        }
+        final long holdTime = info.getHeldTime(System.currentTimeMillis());
+        holdTimeHistogram.record(holdTime);
+        if (leakThreshold > 0L && holdTime >= leakThreshold) {
+            ++leakSuspectCount;
+        }
+    }
+
+    /**
+     * 空きコネクションを待ってタイムアウトしたことを記録します。
+     */
+    public synchronized void checkOutTimedOut() {
+        ++timeoutCount;
+    }
+
+    /**
+     * 物理コネクションを作成したことを記録します。
+     */
+    public synchronized void physicalConnectionOpened() {
+        ++physicalConnectCount;
+    }
+
+    /**
+     * 物理コネクションをクローズしたことを記録します。
+     */
+    public synchronized void physicalConnectionClosed() {
+        ++physicalCloseCount;
+    }
+
+    /**
+     * コネクションの検証に失敗したことを記録します。
+     */
+    public synchronized void validationFailed() {
+        ++validationFailureCount;
+    }
+
+    /**
+     * チェックアウトされたままリークの疑いがあるコネクションの情報を返します。
+     *
+     * @return リークの疑いがあるコネクションの情報
+     */
+    public synchronized CheckOutInfo[] getLeakSuspects() {
+        if (leakThreshold <= 0L) {
+            return new CheckOutInfo[0];
+        }
+        final long now = System.currentTimeMillis();
+        final List list = new ArrayList();
+        for (final Iterator it = checkOutInfos.values().iterator(); it
+                .hasNext();) {
+            final CheckOutInfo info = (CheckOutInfo) it.next();
+            if (info.getHeldTime(now) >= leakThreshold) {
+                list.add(info);
+            }
+        }
+        return (CheckOutInfo[]) list.toArray(new CheckOutInfo[list.size()]);
+    }
+
+    /**
+     * チェックアウト中のすべてのコネクションの情報を、チェックアウトした時刻の古い順に返します。
+     * <p>
+     * {@link #getLeakThreshold() leakThreshold}に関係なく返すため、
+     * 最も長く保持されているコネクションやリークしたコネクションを特定することができます。
+     * </p>
+     *
+     * @return チェックアウト中のコネクションの情報
+     */
+    public synchronized CheckOutInfo[] getCheckedOutConnections() {
+        final CheckOutInfo[] infos = (CheckOutInfo[]) checkOutInfos.values()
+                .toArray(new CheckOutInfo[checkOutInfos.size()]);
+        Arrays.sort(infos, CHECK_OUT_TIME_COMPARATOR);
+        return infos;
+    }
+
+    /**
+     * 統計情報のスナップショットを返します。
+     *
+     * @return 統計情報のスナップショット
+     */
+    public synchronized ConnectionPoolStatistics snapshot() {
+        return new ConnectionPoolStatistics(startTime, System
+                .currentTimeMillis(), checkOutCount, timeoutCount,
+                physicalConnectCount, physicalCloseCount,
+                validationFailureCount, leakSuspectCount, waitTimeHistogram
+                        .copy(), holdTimeHistogram.copy(), getLeakSuspects(),
+                getCheckedOutConnections());
+    }
+
+    /**
+     * 統計情報を消去します。
+     * <p>
+     * チェックアウト中のコネクションの情報は消去されません。
+     * </p>
+     */
+    public synchronized void reset() {
+        startTime = System.currentTimeMillis();
+        checkOutCount = 0L;
+        timeoutCount = 0L;
+        physicalConnectCount = 0L;
+        physicalCloseCount = 0L;
+        validationFailureCount = 0L;
+        leakSuspectCount = 0L;
+        waitTimeHistogram.clear();
+        holdTimeHistogram.clear();
+    }
+
+    /**
+     * チェックアウトされたコネクションの情報です。
+     */
+    public static class CheckOutInfo {
+
+        private final long checkOutTime;
+
+        private final String threadName;
+
+        private final Throwable checkOutStack;
+
+        /**
+         * インスタンスを構築します。
+         *
+         * @param checkOutTime
+         *            チェックアウトした時刻
+         * @param threadName
+         *            チェックアウトしたスレッドの名前
+         * @param checkOutStack
+         *            チェックアウトしたスタックトレース、記録しない場合は<code>null</code>
+         */
+        public CheckOutInfo(final long checkOutTime, final String threadName,
+                final Throwable checkOutStack) {
+            this.checkOutTime = checkOutTime;
+            this.threadName = threadName;
+            this.checkOutStack = checkOutStack;
+        }
+
+        /**
+         * チェックアウトした時刻を返します。
+         *
+         * @return チェックアウトした時刻
+         */
+        public long getCheckOutTime() {
+            return checkOutTime;
+        }
+
+        /**
+         * チェックアウトしたスレッドの名前を返します。
+         *
+         * @return チェックアウトしたスレッドの名前
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * チェックアウトしたスタックトレースを返します。
+         *
+         * @return チェックアウトしたスタックトレース、記録されていない場合は<code>null</code>
+         */
+        public Throwable getCheckOutStack() {
+            return checkOutStack;
+        }
+
+        /**
+         * 保持時間(ミリ秒)を返します。
+         *
+         * @param now
+         *            現在時刻
+         * @return 保持時間(ミリ秒)
+         */
+        public long getHeldTime(final long now) {
+            return now - checkOutTime;
+        }
+
+        public String toString() {
+            return "thread=" + threadName + ", checkOutTime="
+                    + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS")
+                            .format(new Date(checkOutTime)) + ", held="
+                    + getHeldTime(System.currentTimeMillis()) + "ms";
+        }
+
+    }
+
+}
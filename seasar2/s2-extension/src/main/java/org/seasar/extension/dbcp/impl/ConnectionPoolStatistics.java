@@ -0,0 +1,233 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import org.seasar.extension.dbcp.impl.ConnectionPoolMetrics.CheckOutInfo;
+import org.seasar.framework.util.TimeHistogram;
+
+/**
+ * {@link ConnectionPoolMetrics}が収集した統計情報のスナップショットです。
+ */
+public class ConnectionPoolStatistics {
+
+    private final long startTime;
+
+    private final long snapshotTime;
+
+    private final long checkOutCount;
+
+    private final long timeoutCount;
+
+    private final long physicalConnectCount;
+
+    private final long physicalCloseCount;
+
+    private final long validationFailureCount;
+
+    private final long leakSuspectCount;
+
+    private final TimeHistogram waitTimeHistogram;
+
+    private final TimeHistogram holdTimeHistogram;
+
+    private final CheckOutInfo[] leakSuspects;
+
+    private final CheckOutInfo[] checkedOutConnections;
+
+    /**
+     * インスタンスを構築します。
+     *
+     * @param startTime
+     *            収集を開始した時刻
+     * @param snapshotTime
+     *            スナップショットを取得した時刻
+     * @param checkOutCount
+     *            チェックアウトの回数
+     * @param timeoutCount
+     *            タイムアウトの回数
+     * @param physicalConnectCount
+     *            物理コネクションを作成した回数
+     * @param physicalCloseCount
+     *            物理コネクションをクローズした回数
+     * @param validationFailureCount
+     *            検証に失敗した回数
+     * @param leakSuspectCount
+     *            リークの疑いがある保持時間でチェックインされた回数
+     * @param waitTimeHistogram
+     *            チェックアウトの待ち時間のヒストグラム
+     * @param holdTimeHistogram
+     *            保持時間のヒストグラム
+     * @param leakSuspects
+     *            チェックアウトされたままリークの疑いがあるコネクションの情報
+     * @param checkedOutConnections
+     *            チェックアウト中のコネクションの情報
+     */
+    public ConnectionPoolStatistics(final long startTime,
+            final long snapshotTime, final long checkOutCount,
+            final long timeoutCount, final long physicalConnectCount,
+            final long physicalCloseCount, final long validationFailureCount,
+            final long leakSuspectCount, final TimeHistogram waitTimeHistogram,
+            final TimeHistogram holdTimeHistogram,
+            final CheckOutInfo[] leakSuspects,
+            final CheckOutInfo[] checkedOutConnections) {
+        this.startTime = startTime;
+        this.snapshotTime = snapshotTime;
+        this.checkOutCount = checkOutCount;
+        this.timeoutCount = timeoutCount;
+        this.physicalConnectCount = physicalConnectCount;
+        this.physicalCloseCount = physicalCloseCount;
+        this.validationFailureCount = validationFailureCount;
+        this.leakSuspectCount = leakSuspectCount;
+        this.waitTimeHistogram = waitTimeHistogram;
+        this.holdTimeHistogram = holdTimeHistogram;
+        this.leakSuspects = leakSuspects;
+        this.checkedOutConnections = checkedOutConnections;
+    }
+
+    /**
+     * 収集を開始した時刻を返します。
+     *
+     * @return 収集を開始した時刻
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * スナップショットを取得した時刻を返します。
+     *
+     * @return スナップショットを取得した時刻
+     */
+    public long getSnapshotTime() {
+        return snapshotTime;
+    }
+
+    /**
+     * チェックアウトの回数を返します。
+     *
+     * @return チェックアウトの回数
+     */
+    public long getCheckOutCount() {
+        return checkOutCount;
+    }
+
+    /**
+     * 空きコネクションを待ってタイムアウトした回数を返します。
+     *
+     * @return タイムアウトの回数
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * 物理コネクションを作成した回数を返します。
+     *
+     * @return 物理コネクションを作成した回数
+     */
+    public long getPhysicalConnectCount() {
+        return physicalConnectCount;
+    }
+
+    /**
+     * 物理コネクションをクローズした回数を返します。
+     *
+     * @return 物理コネクションをクローズした回数
+     */
+    public long getPhysicalCloseCount() {
+        return physicalCloseCount;
+    }
+
+    /**
+     * コネクションの検証に失敗した回数を返します。
+     *
+     * @return 検証に失敗した回数
+     */
+    public long getValidationFailureCount() {
+        return validationFailureCount;
+    }
+
+    /**
+     * リークの疑いがある保持時間でチェックインされた回数を返します。
+     *
+     * @return リークの疑いがある保持時間でチェックインされた回数
+     */
+    public long getLeakSuspectCount() {
+        return leakSuspectCount;
+    }
+
+    /**
+     * チェックアウトの待ち時間のヒストグラムを返します。
+     *
+     * @return チェックアウトの待ち時間のヒストグラム
+     */
+    public TimeHistogram getWaitTimeHistogram() {
+        return waitTimeHistogram;
+    }
+
+    /**
+     * 保持時間のヒストグラムを返します。
+     *
+     * @return 保持時間のヒストグラム
+     */
+    public TimeHistogram getHoldTimeHistogram() {
+        return holdTimeHistogram;
+    }
+
+    /**
+     * チェックアウトされたままリークの疑いがあるコネクションの情報を返します。
+     *
+     * @return リークの疑いがあるコネクションの情報
+     */
+    public CheckOutInfo[] getLeakSuspects() {
+        return leakSuspects;
+    }
+
+    /**
+     * チェックアウト中のコネクションの情報を、チェックアウトした時刻の古い順に返します。
+     *
+     * @return チェックアウト中のコネクションの情報
+     */
+    public CheckOutInfo[] getCheckedOutConnections() {
+        return checkedOutConnections;
+    }
+
+    /**
+     * チェックアウト中のコネクションのうち、最も長い保持時間(ミリ秒)を返します。
+     *
+     * @return 最も長い保持時間(ミリ秒)、チェックアウト中のコネクションがない場合は<code>0</code>
+     */
+    public long getLongestHeldTime() {
+        if (checkedOutConnections.length == 0) {
+            return 0L;
+        }
+        return checkedOutConnections[0].getHeldTime(snapshotTime);
+    }
+
+    public String toString() {
+        final StringBuffer buf = new StringBuffer(200);
+        buf.append("checkOut=").append(checkOutCount).append(", timeout=")
+                .append(timeoutCount).append(", connect=").append(
+                        physicalConnectCount).append(", close=").append(
+                        physicalCloseCount).append(", validationFailure=")
+                .append(validationFailureCount).append(", leakSuspect=")
+                .append(leakSuspectCount + leakSuspects.length).append(
+                        ", wait=[").append(waitTimeHistogram).append(
+                        "], hold=[").append(holdTimeHistogram).append("]");
+        return buf.toString();
+    }
+
+}
@@ -19,6 +19,7 @@ import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Savepoint;
@@ -61,6 +62,8 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
 
     private Transaction tx_;
 
+    private PreparedStatementCache statementCache_;
+
     /**
      * {@link ConnectionWrapperImpl}を作成します。
      * 
@@ -79,15 +82,48 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
             final Connection physicalConnection,
             final ConnectionPool connectionPool, final Transaction tx)
             throws SQLException {
+        this(xaConnection, physicalConnection, connectionPool, tx, null);
+    }
+
+    /**
+     * {@link ConnectionWrapperImpl}を作成します。
+     * 
+     * @param xaConnection
+     *            XAコネクション
+     * @param physicalConnection
+     *            物理コネクション
+     * @param connectionPool
+     *            コネクションプール
+     * @param tx
+     *            トランザクション
+     * @param statementCache
+     *            {@link PreparedStatement}のキャッシュ、キャッシュしない場合は<code>null</code>
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    public ConnectionWrapperImpl(final XAConnection xaConnection,
+            final Connection physicalConnection,
+            final ConnectionPool connectionPool, final Transaction tx,
+            final PreparedStatementCache statementCache) throws SQLException {
         xaConnection_ = xaConnection;
         physicalConnection_ = physicalConnection;
         xaResource_ = new XAResourceWrapperImpl(xaConnection.getXAResource(),
                 this);
         connectionPool_ = connectionPool;
         tx_ = tx;
+        statementCache_ = statementCache;
         xaConnection_.addConnectionEventListener(this);
     }
 
+    /**
+     * 物理コネクションに関連づけられた{@link PreparedStatement}のキャッシュを返します。
+     * 
+     * @return {@link PreparedStatement}のキャッシュ、キャッシュしない場合は<code>null</code>
+     */
+    public PreparedStatementCache getPreparedStatementCache() {
+        return statementCache_;
+    }
+
     public Connection getPhysicalConnection() {
         return physicalConnection_;
     }
@@ -111,6 +147,7 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
         xaConnection_ = null;
         physicalConnection_ = null;
         tx_ = null;
+        statementCache_ = null;
     }
 
     public void closeReally() {
@@ -118,6 +155,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
             return;
         }
         closed_ = true;
+        if (statementCache_ != null) {
+            statementCache_.destroy();
+            statementCache_ = null;
+        }
         try {
             if (!physicalConnection_.isClosed()) {
                 if (!physicalConnection_.getAutoCommit()) {
@@ -136,6 +177,13 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
             physicalConnection_ = null;
         }
 
+        if (connectionPool_ instanceof ConnectionPoolImpl) {
+            final ConnectionPoolMetrics metrics = ((ConnectionPoolImpl) connectionPool_)
+                    .getMetrics();
+            if (metrics != null) {
+                metrics.physicalConnectionClosed();
+            }
+        }
         try {
             xaConnection_.close();
             logger_.log("DSSR0001", null);
@@ -188,6 +236,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
             throws SQLException {
         assertOpened();
         try {
+            if (statementCache_ != null) {
+                return prepareCachedStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY, -1, -1);
+            }
             return new PreparedStatementWrapper(physicalConnection_
                     .prepareStatement(sql), sql);
         } catch (final SQLException ex) {
@@ -408,6 +460,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
 
         assertOpened();
         try {
+            if (statementCache_ != null) {
+                return prepareCachedStatement(sql, resultSetType,
+                        resultSetConcurrency, -1, -1);
+            }
             return new PreparedStatementWrapper(
                     physicalConnection_.prepareStatement(sql, resultSetType,
                             resultSetConcurrency), sql);
@@ -515,6 +571,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
 
         assertOpened();
         try {
+            if (statementCache_ != null) {
+                return prepareCachedStatement(sql, resultSetType,
+                        resultSetConcurrency, resultSetHoldability, -1);
+            }
             return new PreparedStatementWrapper(physicalConnection_
                     .prepareStatement(sql, resultSetType, resultSetConcurrency,
                             resultSetHoldability), sql);
@@ -543,6 +603,10 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
 
         assertOpened();
         try {
+            if (statementCache_ != null) {
+                return prepareCachedStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                        ResultSet.CONCUR_READ_ONLY, -1, autoGeneratedKeys);
+            }
             return new PreparedStatementWrapper(physicalConnection_
                     .prepareStatement(sql, autoGeneratedKeys), sql);
         } catch (final SQLException ex) {
@@ -577,6 +641,49 @@ public class ConnectionWrapperImpl implements ConnectionWrapper,
         }
     }
 
+    /**
+     * キャッシュされた{@link PreparedStatement}を返します。
+     * <p>
+     * キャッシュされていない場合は物理コネクションから{@link PreparedStatement}を作成します。
+     * </p>
+     * 
+     * @param sql
+     *            SQL
+     * @param resultSetType
+     *            結果セットのタイプ
+     * @param resultSetConcurrency
+     *            結果セットの並行処理モード
+     * @param resultSetHoldability
+     *            結果セットの保持機能、指定されていない場合は<code>-1</code>
+     * @param autoGeneratedKeys
+     *            自動生成キーを返すかどうか、指定されていない場合は<code>-1</code>
+     * @return {@link PreparedStatement}
+     * @throws SQLException
+     *             SQL例外が発生した場合
+     */
+    protected PreparedStatement prepareCachedStatement(final String sql,
+            final int resultSetType, final int resultSetConcurrency,
+            final int resultSetHoldability, final int autoGeneratedKeys)
+            throws SQLException {
+        final String key = PreparedStatementCache.createKey(sql,
+                resultSetType, resultSetConcurrency, resultSetHoldability,
+                autoGeneratedKeys);
+        PreparedStatement ps = statementCache_.checkOut(key);
+        if (ps == null) {
+            if (autoGeneratedKeys != -1) {
+                ps = physicalConnection_.prepareStatement(sql,
+                        autoGeneratedKeys);
+            } else if (resultSetHoldability != -1) {
+                ps = physicalConnection_.prepareStatement(sql, resultSetType,
+                        resultSetConcurrency, resultSetHoldability);
+            } else {
+                ps = physicalConnection_.prepareStatement(sql, resultSetType,
+                        resultSetConcurrency);
+            }
+        }
+        return new CachedPreparedStatement(ps, sql, key, statementCache_);
+    }
+
     private SQLException wrapException(final SQLException e, final String sql) {
         return new SSQLException("ESSR0072",
                 new Object[] { sql, e.getMessage(),
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.dbcp.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.LruHashMap;
+
+/**
+ * 物理コネクションごとに{@link PreparedStatement}をキャッシュするクラスです。
+ * <p>
+ * キャッシュされるのは使用中でない{@link PreparedStatement}だけです。
+ * {@link CachedPreparedStatement}をクローズすると、物理的な{@link PreparedStatement}は
+ * クローズされずにこのキャッシュに戻されます。 上限を超えた場合は最も長く使われていない
+ * {@link PreparedStatement}がクローズされます。
+ * </p>
+ * <p>
+ * このキャッシュはコネクションプールに戻された後も物理コネクションとともに保持されるため、
+ * トランザクションをまたがって{@link PreparedStatement}を再利用することができます。
+ * </p>
+ */
+public class PreparedStatementCache {
+
+    private static final Logger logger = Logger
+            .getLogger(PreparedStatementCache.class);
+
+    private final StatementMap statements;
+
+    private boolean destroyed;
+
+    /**
+     * インスタンスを構築します。
+     *
+     * @param limitSize
+     *            キャッシュする{@link PreparedStatement}の上限
+     */
+    public PreparedStatementCache(final int limitSize) {
+        statements = new StatementMap(limitSize);
+    }
+
+    /**
+     * キャッシュされている{@link PreparedStatement}の数を返します。
+     *
+     * @return キャッシュされている{@link PreparedStatement}の数
+     */
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    /**
+     * キャッシュから{@link PreparedStatement}を取り出します。
+     * <p>
+     * 取り出された{@link PreparedStatement}は、{@link #checkIn(String, PreparedStatement)}
+     * で戻されるまでキャッシュから取り除かれます。
+     * </p>
+     *
+     * @param key
+     *            キー
+     * @return キャッシュされていた{@link PreparedStatement}、キャッシュされていない場合は<code>null</code>
+     */
+    public synchronized PreparedStatement checkOut(final String key) {
+        return (PreparedStatement) statements.remove(key);
+    }
+
+    /**
+     * 使い終わった{@link PreparedStatement}をキャッシュに戻します。
+     * <p>
+     * 同じキーの{@link PreparedStatement}がすでにキャッシュされている場合や、
+     * キャッシュが破棄されている場合は{@link PreparedStatement}をクローズします。
+     * </p>
+     *
+     * @param key
+     *            キー
+     * @param ps
+     *            {@link PreparedStatement}
+     */
+    public void checkIn(final String key, final PreparedStatement ps) {
+        synchronized (this) {
+            if (!destroyed && !statements.containsKey(key)) {
+                statements.put(key, ps);
+                return;
+            }
+        }
+        close(ps);
+    }
+
+    /**
+     * キャッシュしているすべての{@link PreparedStatement}をクローズします。
+     */
+    public void destroy() {
+        final PreparedStatement[] array;
+        synchronized (this) {
+            destroyed = true;
+            array = (PreparedStatement[]) statements.values().toArray(
+                    new PreparedStatement[statements.size()]);
+            statements.clear();
+        }
+        for (int i = 0; i < array.length; ++i) {
+            close(array[i]);
+        }
+    }
+
+    /**
+     * キャッシュのキーを作成します。
+     *
+     * @param sql
+     *            SQL
+     * @param resultSetType
+     *            結果セットのタイプ
+     * @param resultSetConcurrency
+     *            結果セットの並行処理モード
+     * @param resultSetHoldability
+     *            結果セットの保持機能、指定されていない場合は<code>-1</code>
+     * @param autoGeneratedKeys
+     *            自動生成キーを返すかどうか、指定されていない場合は<code>-1</code>
+     * @return キャッシュのキー
+     */
+    public static String createKey(final String sql, final int resultSetType,
+            final int resultSetConcurrency, final int resultSetHoldability,
+            final int autoGeneratedKeys) {
+        return new StringBuffer(sql.length() + 32).append('[').append(
+                resultSetType).append(',').append(resultSetConcurrency).append(
+                ',').append(resultSetHoldability).append(',').append(
+                autoGeneratedKeys).append(']').append(sql).toString();
+    }
+
+    private static void close(final PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (final SQLException e) {
+            logger.log(e);
+        }
+    }
+
+    /**
+     * 上限を超えた{@link PreparedStatement}をクローズするLRUマップです。
+     */
+    protected static class StatementMap extends LruHashMap {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * インスタンスを構築します。
+         *
+         * @param limitSize
+         *            上限サイズ
+         */
+        public StatementMap(final int limitSize) {
+            super(limitSize);
+        }
+
+        protected boolean removeEldestEntry(final Map.Entry entry) {
+            if (super.removeEldestEntry(entry)) {
+                close((PreparedStatement) entry.getValue());
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+/**
+ * バッチ更新のSQLのログを表すインターフェースです。
+ * <p>
+ * バッチ更新の1回の実行に対して1つ記録され、バインドされた行の一部を見本として保持します。
+ * {@link #getCompleteSql()}、{@link #getBindArgs()}、{@link #getBindArgTypes()}は最初の見本の値を返します。
+ * 見本を保持していない場合、{@link #getCompleteSql()}は未加工のSQLを返し、
+ * {@link #getBindArgs()}と{@link #getBindArgTypes()}は<code>null</code>を返します。
+ * </p>
+ */
+public interface BatchSqlLog extends SqlLog {
+
+    /**
+     * バッチ更新で実行された行数を返します。
+     * 
+     * @return バッチ更新で実行された行数
+     */
+    int getBatchSize();
+
+    /**
+     * 見本として保持している行数を返します。
+     * 
+     * @return 見本として保持している行数
+     */
+    int getSampleSize();
+
+    /**
+     * 見本として保持している行の{@link SqlLog}を返します。
+     * 
+     * @param index
+     *            インデックス
+     * @return 見本として保持している行の{@link SqlLog}
+     */
+    SqlLog getSample(int index);
+
+}
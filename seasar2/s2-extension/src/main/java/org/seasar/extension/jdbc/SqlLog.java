@@ -34,6 +34,10 @@ public interface SqlLog {
 
     /**
      * バインド変数を実際の値で置き換えた完全なSQLを返します。
+     * <p>
+     * 完全なSQLはこのメソッドが最初に呼び出された時点で組み立てられる場合があります。
+     * そのため、SQLを実行した後でバインドされた値を変更すると、返されるSQLに反映される場合があります。
+     * </p>
      * 
      * @return 完全なSQL
      */
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+/**
+ * SQLごとの実行統計のスナップショットを表すインターフェースです。
+ * <p>
+ * 時間の単位はすべてミリ秒です。
+ * </p>
+ */
+public interface SqlStatistics {
+
+    /**
+     * 未加工のSQLを返します。
+     * 
+     * @return 未加工のSQL
+     */
+    String getRawSql();
+
+    /**
+     * 実行回数を返します。
+     * <p>
+     * 失敗した実行も含みます。
+     * </p>
+     * 
+     * @return 実行回数
+     */
+    long getExecutionCount();
+
+    /**
+     * 失敗した回数を返します。
+     * 
+     * @return 失敗した回数
+     */
+    long getErrorCount();
+
+    /**
+     * 実行時間の合計を返します。
+     * 
+     * @return 実行時間の合計
+     */
+    long getTotalTime();
+
+    /**
+     * 実行時間の平均値を返します。
+     * 
+     * @return 実行時間の平均値
+     */
+    double getMeanTime();
+
+    /**
+     * 実行時間の最大値を返します。
+     * 
+     * @return 実行時間の最大値
+     */
+    long getMaxTime();
+
+    /**
+     * 実行時間のパーセンタイル値を返します。
+     * <p>
+     * 返される値はヒストグラムの区間の上限です。
+     * </p>
+     * 
+     * @param percentile
+     *            パーセンタイル(<code>0</code>～<code>100</code>)
+     * @return 実行時間のパーセンタイル値
+     */
+    long getPercentileTime(double percentile);
+
+    /**
+     * 取得した行数の合計を返します。
+     * 
+     * @return 取得した行数の合計
+     */
+    long getFetchedRows();
+
+    /**
+     * 更新した行数の合計を返します。
+     * 
+     * @return 更新した行数の合計
+     */
+    long getUpdatedRows();
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+/**
+ * {@link SqlStatistics}のレジストリを表すインターフェースです。
+ * <p>
+ * 実行統計はバインド変数を含まない未加工のSQLごとに集計されます。
+ * </p>
+ */
+public interface SqlStatisticsRegistry {
+
+    /**
+     * 成功したSQLの実行を記録します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param elapsedTime
+     *            実行時間(ミリ秒)
+     * @param fetchedRows
+     *            取得した行数
+     * @param updatedRows
+     *            更新した行数
+     */
+    void record(String rawSql, long elapsedTime, int fetchedRows,
+            int updatedRows);
+
+    /**
+     * 失敗したSQLの実行を記録します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param elapsedTime
+     *            実行時間(ミリ秒)
+     */
+    void recordFailure(String rawSql, long elapsedTime);
+
+    /**
+     * 未加工のSQLに対応する{@link SqlStatistics}を返します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @return 記録されている場合は{@link SqlStatistics}、記録されていない場合は<code>null</code>
+     */
+    SqlStatistics get(String rawSql);
+
+    /**
+     * 記録されているすべての{@link SqlStatistics}を返します。
+     * 
+     * @return {@link SqlStatistics}の配列
+     */
+    SqlStatistics[] getAll();
+
+    /**
+     * 記録されているSQLの数を返します。
+     * 
+     * @return 記録されているSQLの数
+     */
+    int getSize();
+
+    /**
+     * 遅いSQLとしてログに出力する実行時間のしきい値(ミリ秒)を返します。
+     * 
+     * @return 遅いSQLのしきい値、ログに出力しない場合は負の値
+     */
+    long getSlowQueryThreshold();
+
+    /**
+     * 遅いSQLとしてログに出力する実行時間のしきい値(ミリ秒)を設定します。
+     * 
+     * @param slowQueryThreshold
+     *            遅いSQLのしきい値、ログに出力しない場合は負の値
+     */
+    void setSlowQueryThreshold(long slowQueryThreshold);
+
+    /**
+     * すべての実行統計をこのレジストリから削除します。
+     */
+    void clear();
+
+}
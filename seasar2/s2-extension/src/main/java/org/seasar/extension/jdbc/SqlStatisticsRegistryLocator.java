@@ -0,0 +1,48 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc;
+
+/**
+ * {@link SqlStatisticsRegistry}を取得するためのロケータです。
+ * <p>
+ * デフォルトでは{@link SqlStatisticsRegistry}は設定されておらず、実行統計は記録されません。
+ * </p>
+ */
+public class SqlStatisticsRegistryLocator {
+
+    /** SQLの実行統計のレジストリ */
+    protected static SqlStatisticsRegistry instance;
+
+    /**
+     * SQLの実行統計のレジストリを返します。
+     * 
+     * @return SQLの実行統計のレジストリ、設定されていない場合は<code>null</code>
+     */
+    public static SqlStatisticsRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * SQLの実行統計のレジストリを設定します。
+     * 
+     * @param instance
+     *            SQLの実行統計のレジストリ
+     */
+    public static void setInstance(final SqlStatisticsRegistry instance) {
+        SqlStatisticsRegistryLocator.instance = instance;
+    }
+
+}
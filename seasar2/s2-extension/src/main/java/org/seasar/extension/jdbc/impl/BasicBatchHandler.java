@@ -144,6 +144,9 @@ public class BasicBatchHandler extends BasicHandler implements BatchHandler {
     protected int execute(Connection connection, List list, Class[] argTypes) {
         PreparedStatement ps = prepareStatement(connection);
         int size = batchSize > 0 ? batchSize : list.size();
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        int rows = 0;
         try {
             for (int i = 0, j = 0; i < list.size(); ++i) {
                 Object[] args = (Object[]) list.get(i);
@@ -151,14 +154,17 @@ public class BasicBatchHandler extends BasicHandler implements BatchHandler {
                 bindArgs(ps, args, argTypes);
                 PreparedStatementUtil.addBatch(ps);
                 if (j == size - 1 || i == list.size() - 1) {
-                    PreparedStatementUtil.executeBatch(ps);
+                    rows += sumUpdatedRows(PreparedStatementUtil
+                            .executeBatch(ps));
                     j = 0;
                 } else {
                     ++j;
                 }
             }
+            succeeded = true;
             return list.size();
         } finally {
+            recordStatistics(startTime, 0, rows, succeeded);
             StatementUtil.close(ps);
         }
     }
@@ -24,6 +24,8 @@ import javax.sql.DataSource;
 import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
 import org.seasar.extension.jdbc.SqlLogRegistryLocator;
+import org.seasar.extension.jdbc.SqlStatisticsRegistry;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.jdbc.StatementFactory;
 import org.seasar.extension.jdbc.ValueType;
 import org.seasar.extension.jdbc.types.ValueTypes;
@@ -253,6 +255,9 @@ public class BasicHandler {
 
     /**
      * SQLをログ出力します。
+     * <p>
+     * デバッグログが無効な場合、{@link SqlLogRegistry}に登録される{@link SqlLog}の完全なSQLは参照された時点で組み立てられます。
+     * </p>
      * 
      * @param args
      *            SQLにバインドされる値の配列
@@ -262,17 +267,76 @@ public class BasicHandler {
     protected void logSql(Object[] args, Class[] argTypes) {
         Logger logger = Logger.getLogger(loggerClass);
         SqlLogRegistry sqlLogRegistry = SqlLogRegistryLocator.getInstance();
-        if (logger.isDebugEnabled() || sqlLogRegistry != null) {
-            String completeSql = getCompleteSql(args);
-            if (logger.isDebugEnabled()) {
-                logger.debug(completeSql);
-            }
-            if (sqlLogRegistry != null) {
-                SqlLog sqlLog = new SqlLogImpl(getSql(), completeSql, args,
-                        argTypes);
-                sqlLogRegistry.add(sqlLog);
+        String completeSql = null;
+        if (logger.isDebugEnabled()) {
+            completeSql = getCompleteSql(args);
+            logger.debug(completeSql);
+        }
+        if (sqlLogRegistry != null) {
+            SqlLog sqlLog = completeSql == null ? new SqlLogImpl(getSql(),
+                    args, argTypes) : new SqlLogImpl(getSql(), completeSql,
+                    args, argTypes);
+            sqlLogRegistry.add(sqlLog);
+        }
+    }
+
+    /**
+     * SQLの実行統計を記録する場合は<code>true</code>を返します。
+     * 
+     * @return SQLの実行統計を記録する場合は<code>true</code>
+     */
+    protected boolean isStatisticsEnabled() {
+        return SqlStatisticsRegistryLocator.getInstance() != null;
+    }
+
+    /**
+     * SQLの実行統計を記録します。
+     * 
+     * @param startTime
+     *            実行を開始した時刻
+     * @param fetchedRows
+     *            取得した行数
+     * @param updatedRows
+     *            更新した行数
+     * @param succeeded
+     *            実行に成功した場合は<code>true</code>
+     */
+    protected void recordStatistics(long startTime, int fetchedRows,
+            int updatedRows, boolean succeeded) {
+        SqlStatisticsRegistry registry = SqlStatisticsRegistryLocator
+                .getInstance();
+        if (registry == null) {
+            return;
+        }
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        if (succeeded) {
+            registry.record(getSql(), elapsedTime, fetchedRows, updatedRows);
+        } else {
+            registry.recordFailure(getSql(), elapsedTime);
+        }
+    }
+
+    /**
+     * バッチ更新で更新した行数の合計を返します。
+     * <p>
+     * 更新した行数が不明な要素は無視されます。
+     * </p>
+     * 
+     * @param rows
+     *            バッチ更新で更新した行数の配列
+     * @return 更新した行数の合計
+     */
+    protected static int sumUpdatedRows(int[] rows) {
+        if (rows == null) {
+            return 0;
+        }
+        int sum = 0;
+        for (int i = 0; i < rows.length; ++i) {
+            if (rows[i] > 0) {
+                sum += rows[i];
             }
         }
+        return sum;
     }
 
     /**
@@ -157,6 +157,9 @@ public class BasicReturningRowsBatchHandler extends BasicHandler implements
             return EMPTY_ARRAY;
         }
         final PreparedStatement ps = prepareStatement(connection);
+        final long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        int[] rows = null;
         try {
             for (int i = 0; i < list.size(); ++i) {
                 final Object[] args = (Object[]) list.get(i);
@@ -164,8 +167,11 @@ public class BasicReturningRowsBatchHandler extends BasicHandler implements
                 bindArgs(ps, args, argTypes);
                 PreparedStatementUtil.addBatch(ps);
             }
-            return PreparedStatementUtil.executeBatch(ps);
+            rows = PreparedStatementUtil.executeBatch(ps);
+            succeeded = true;
+            return rows;
         } finally {
+            recordStatistics(startTime, 0, sumUpdatedRows(rows), succeeded);
             StatementUtil.close(ps);
         }
     }
@@ -252,12 +252,26 @@ public class BasicSelectHandler extends BasicHandler implements SelectHandler {
         if (resultSetHandler == null) {
             throw new EmptyRuntimeException("resultSetHandler");
         }
+        RowCountingResultSetHandler counter = null;
+        ResultSetHandler handler = resultSetHandler;
+        if (isStatisticsEnabled()) {
+            counter = new RowCountingResultSetHandler(resultSetHandler);
+            handler = counter;
+        }
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
         ResultSet resultSet = null;
         try {
             resultSet = createResultSet(ps);
-            return resultSetHandler.handle(resultSet);
+            Object ret = handler.handle(resultSet);
+            succeeded = true;
+            return ret;
         } finally {
             ResultSetUtil.close(resultSet);
+            if (counter != null) {
+                recordStatistics(startTime, counter.getRowCount(), 0,
+                        succeeded);
+            }
         }
     }
 
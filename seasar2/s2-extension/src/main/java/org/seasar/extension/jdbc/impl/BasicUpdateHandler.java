@@ -97,10 +97,16 @@ public class BasicUpdateHandler extends BasicHandler implements UpdateHandler {
     public int execute(Connection connection, Object[] args, Class[] argTypes) {
         logSql(args, argTypes);
         PreparedStatement ps = prepareStatement(connection);
+        long startTime = System.currentTimeMillis();
+        boolean succeeded = false;
+        int rows = 0;
         try {
             bindArgs(ps, args, argTypes);
-            return PreparedStatementUtil.executeUpdate(ps);
+            rows = PreparedStatementUtil.executeUpdate(ps);
+            succeeded = true;
+            return rows;
         } finally {
+            recordStatistics(startTime, 0, rows, succeeded);
             StatementUtil.close(ps);
         }
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import org.seasar.extension.jdbc.BatchSqlLog;
+import org.seasar.extension.jdbc.SqlLog;
+
+/**
+ * {@link BatchSqlLog}の実装クラスです。
+ */
+public class BatchSqlLogImpl implements BatchSqlLog {
+
+    private static final SqlLog[] EMPTY_SAMPLES = new SqlLog[0];
+
+    private final String rawSql;
+
+    private final int batchSize;
+
+    private final SqlLog[] samples;
+
+    /**
+     * インスタンスを構築します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param batchSize
+     *            バッチ更新で実行された行数
+     * @param samples
+     *            見本として保持する行の{@link SqlLog}の配列
+     */
+    public BatchSqlLogImpl(final String rawSql, final int batchSize,
+            final SqlLog[] samples) {
+        this.rawSql = rawSql;
+        this.batchSize = batchSize;
+        this.samples = samples == null ? EMPTY_SAMPLES : samples;
+    }
+
+    public String getRawSql() {
+        return rawSql;
+    }
+
+    public String getCompleteSql() {
+        return samples.length == 0 ? rawSql : samples[0].getCompleteSql();
+    }
+
+    public Object[] getBindArgs() {
+        return samples.length == 0 ? null : samples[0].getBindArgs();
+    }
+
+    public Class[] getBindArgTypes() {
+        return samples.length == 0 ? null : samples[0].getBindArgTypes();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getSampleSize() {
+        return samples.length;
+    }
+
+    public SqlLog getSample(final int index) {
+        return samples[index];
+    }
+
+    public String toString() {
+        return rawSql;
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.seasar.extension.jdbc.ResultSetHandler;
+
+/**
+ * 取得した行数を数える{@link ResultSetHandler}です。
+ * <p>
+ * 結果セットを{@link ResultSet#next()}の呼び出し回数を数えるラッパで包み、 元の{@link ResultSetHandler}に委譲します。
+ * </p>
+ */
+public class RowCountingResultSetHandler implements ResultSetHandler {
+
+    private final ResultSetHandler resultSetHandler;
+
+    private int rowCount;
+
+    /**
+     * インスタンスを構築します。
+     * 
+     * @param resultSetHandler
+     *            委譲先の{@link ResultSetHandler}
+     */
+    public RowCountingResultSetHandler(final ResultSetHandler resultSetHandler) {
+        this.resultSetHandler = resultSetHandler;
+    }
+
+    public Object handle(final ResultSet resultSet) throws SQLException {
+        final RowCountingResultSet rs = new RowCountingResultSet(resultSet);
+        try {
+            return resultSetHandler.handle(rs);
+        } finally {
+            rowCount += rs.rowCount;
+        }
+    }
+
+    /**
+     * 取得した行数を返します。
+     * 
+     * @return 取得した行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * {@link ResultSet#next()}が<code>true</code>を返した回数を数える結果セットです。
+     */
+    protected static class RowCountingResultSet extends ResultSetWrapper {
+
+        /** 取得した行数 */
+        protected int rowCount;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param original
+         *            オリジナル
+         */
+        public RowCountingResultSet(final ResultSet original) {
+            super(original);
+        }
+
+        public boolean next() throws SQLException {
+            final boolean next = super.next();
+            if (next) {
+                ++rowCount;
+            }
+            return next;
+        }
+
+    }
+
+}
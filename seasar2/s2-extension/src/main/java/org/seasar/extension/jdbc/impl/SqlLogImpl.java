@@ -16,9 +16,14 @@
 package org.seasar.extension.jdbc.impl;
 
 import org.seasar.extension.jdbc.SqlLog;
+import org.seasar.extension.jdbc.ValueType;
+import org.seasar.extension.jdbc.util.BindVariableUtil;
 
 /**
  * {@link SqlLog}の実装クラスです。
+ * <p>
+ * 完全なSQLを指定せずに構築した場合、完全なSQLは{@link #getCompleteSql()}が最初に呼び出された時点で組み立てられます。
+ * </p>
  * 
  * @author taedium
  */
@@ -32,6 +37,8 @@ public class SqlLogImpl implements SqlLog {
 
     private Class[] bindArgTypes;
 
+    private ValueType[] valueTypes;
+
     /**
      * インスタンスを構築します。
      * 
@@ -52,6 +59,40 @@ public class SqlLogImpl implements SqlLog {
         this.bindArgTypes = bindArgTypes;
     }
 
+    /**
+     * 完全なSQLを遅延して組み立てるインスタンスを構築します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param bindArgs
+     *            SQLにバインドされる値の配列
+     * @param bindArgTypes
+     *            SQLにバインドされる値の型の配列
+     */
+    public SqlLogImpl(String rawSql, Object[] bindArgs, Class[] bindArgTypes) {
+        this(rawSql, bindArgs, bindArgTypes, null);
+    }
+
+    /**
+     * 完全なSQLを遅延して組み立てるインスタンスを構築します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param bindArgs
+     *            SQLにバインドされる値の配列
+     * @param bindArgTypes
+     *            SQLにバインドされる値の型の配列
+     * @param valueTypes
+     *            SQLにバインドされる値の値タイプの配列
+     */
+    public SqlLogImpl(String rawSql, Object[] bindArgs, Class[] bindArgTypes,
+            ValueType[] valueTypes) {
+        this.rawSql = rawSql;
+        this.bindArgs = bindArgs;
+        this.bindArgTypes = bindArgTypes;
+        this.valueTypes = valueTypes;
+    }
+
     public Object[] getBindArgs() {
         return bindArgs;
     }
@@ -61,6 +102,11 @@ public class SqlLogImpl implements SqlLog {
     }
 
     public String getCompleteSql() {
+        if (completeSql == null) {
+            completeSql = valueTypes == null ? BindVariableUtil
+                    .getCompleteSql(rawSql, bindArgs) : BindVariableUtil
+                    .getCompleteSql(rawSql, bindArgs, valueTypes);
+        }
         return completeSql;
     }
 
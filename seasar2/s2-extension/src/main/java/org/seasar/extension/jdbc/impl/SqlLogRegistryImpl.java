@@ -15,13 +15,17 @@
  */
 package org.seasar.extension.jdbc.impl;
 
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import org.seasar.extension.jdbc.SqlLog;
 import org.seasar.extension.jdbc.SqlLogRegistry;
 
 /**
  * {@link SqlLogRegistry}の実装クラスです。
+ * <p>
+ * {@link SqlLog}はスレッドごとに上限サイズの固定長のリングバッファで保持されます。
+ * 上限を超えると最も古い{@link SqlLog}が上書きされるため、 登録時にロックの取得やオブジェクトの生成を行いません。
+ * </p>
  * 
  * @author taedium
  */
@@ -31,7 +35,7 @@ public class SqlLogRegistryImpl implements SqlLogRegistry {
 
     private int limitSize;
 
-    private ThreadLocal threadList = new ThreadLocal();
+    private ThreadLocal threadRingBuffer = new ThreadLocal();
 
     /**
      * デフォルトの上限サイズを使用してインスタンスを構築します。
@@ -56,7 +60,8 @@ public class SqlLogRegistryImpl implements SqlLogRegistry {
     }
 
     public int getSize() {
-        return getSqlLogList().size();
+        RingBuffer ringBuffer = (RingBuffer) threadRingBuffer.get();
+        return ringBuffer == null ? 0 : ringBuffer.size;
     }
 
     public boolean isEmpty() {
@@ -64,34 +69,102 @@ public class SqlLogRegistryImpl implements SqlLogRegistry {
     }
 
     public SqlLog get(int index) {
-        return (SqlLog) getSqlLogList().get(index);
+        return getRingBuffer().get(index);
     }
 
     public SqlLog getLast() {
-        return isEmpty() ? null : (SqlLog) getSqlLogList().getLast();
+        int size = getSize();
+        return size == 0 ? null : getRingBuffer().get(size - 1);
     }
 
     public void add(SqlLog sqlLog) {
         if (limitSize <= 0) {
             return;
         }
-        LinkedList list = getSqlLogList();
-        list.add(sqlLog);
-        if (list.size() > limitSize) {
-            list.removeFirst();
-        }
+        getRingBuffer().add(sqlLog);
     }
 
     public void clear() {
-        getSqlLogList().clear();
+        RingBuffer ringBuffer = (RingBuffer) threadRingBuffer.get();
+        if (ringBuffer != null) {
+            ringBuffer.clear();
+        }
     }
 
-    private LinkedList getSqlLogList() {
-        LinkedList list = (LinkedList) threadList.get();
-        if (list == null) {
-            list = new LinkedList();
-            threadList.set(list);
+    private RingBuffer getRingBuffer() {
+        RingBuffer ringBuffer = (RingBuffer) threadRingBuffer.get();
+        if (ringBuffer == null) {
+            ringBuffer = new RingBuffer(Math.max(limitSize, 1));
+            threadRingBuffer.set(ringBuffer);
         }
-        return list;
+        return ringBuffer;
     }
+
+    /**
+     * {@link SqlLog}を保持する固定長のリングバッファです。
+     * <p>
+     * このクラスはスレッドセーフではありません。
+     * </p>
+     */
+    protected static class RingBuffer {
+
+        private final SqlLog[] sqlLogs;
+
+        private int head;
+
+        private int size;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param capacity
+         *            容量
+         */
+        protected RingBuffer(int capacity) {
+            sqlLogs = new SqlLog[capacity];
+        }
+
+        /**
+         * {@link SqlLog}を追加します。
+         * <p>
+         * 容量を超える場合は最も古い{@link SqlLog}を上書きします。
+         * </p>
+         * 
+         * @param sqlLog
+         *            SQLのログ
+         */
+        public void add(SqlLog sqlLog) {
+            sqlLogs[(head + size) % sqlLogs.length] = sqlLog;
+            if (size < sqlLogs.length) {
+                ++size;
+            } else {
+                head = (head + 1) % sqlLogs.length;
+            }
+        }
+
+        /**
+         * 古い方から数えたインデックスの{@link SqlLog}を返します。
+         * 
+         * @param index
+         *            インデックス
+         * @return {@link SqlLog}
+         */
+        public SqlLog get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return sqlLogs[(head + index) % sqlLogs.length];
+        }
+
+        /**
+         * すべての{@link SqlLog}を削除します。
+         */
+        public void clear() {
+            Arrays.fill(sqlLogs, null);
+            head = 0;
+            size = 0;
+        }
+
+    }
+
 }
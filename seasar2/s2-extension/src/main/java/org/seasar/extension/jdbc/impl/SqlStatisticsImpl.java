@@ -0,0 +1,113 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import org.seasar.framework.util.TimeHistogram;
+import org.seasar.extension.jdbc.SqlStatistics;
+
+/**
+ * {@link SqlStatistics}の実装クラスです。
+ */
+public class SqlStatisticsImpl implements SqlStatistics {
+
+    private final String rawSql;
+
+    private final long errorCount;
+
+    private final long fetchedRows;
+
+    private final long updatedRows;
+
+    private final TimeHistogram histogram;
+
+    /**
+     * インスタンスを構築します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param errorCount
+     *            失敗した回数
+     * @param fetchedRows
+     *            取得した行数の合計
+     * @param updatedRows
+     *            更新した行数の合計
+     * @param histogram
+     *            実行時間のヒストグラム
+     */
+    public SqlStatisticsImpl(final String rawSql, final long errorCount,
+            final long fetchedRows, final long updatedRows,
+            final TimeHistogram histogram) {
+        this.rawSql = rawSql;
+        this.errorCount = errorCount;
+        this.fetchedRows = fetchedRows;
+        this.updatedRows = updatedRows;
+        this.histogram = histogram;
+    }
+
+    public String getRawSql() {
+        return rawSql;
+    }
+
+    public long getExecutionCount() {
+        return histogram.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getTotalTime() {
+        return histogram.getTotal();
+    }
+
+    public double getMeanTime() {
+        return histogram.getMean();
+    }
+
+    public long getMaxTime() {
+        return histogram.getMax();
+    }
+
+    public long getPercentileTime(final double percentile) {
+        return histogram.getPercentile(percentile);
+    }
+
+    public long getFetchedRows() {
+        return fetchedRows;
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows;
+    }
+
+    /**
+     * 実行時間のヒストグラムを返します。
+     * 
+     * @return 実行時間のヒストグラム
+     */
+    public TimeHistogram getHistogram() {
+        return histogram.copy();
+    }
+
+    public String toString() {
+        final StringBuffer buf = new StringBuffer(200);
+        buf.append(histogram).append(", errors=").append(errorCount).append(
+                ", fetchedRows=").append(fetchedRows).append(", updatedRows=")
+                .append(updatedRows).append(", sql=").append(rawSql);
+        return buf.toString();
+    }
+
+}
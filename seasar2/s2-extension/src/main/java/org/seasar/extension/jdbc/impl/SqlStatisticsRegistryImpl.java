@@ -0,0 +1,260 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistry;
+import org.seasar.framework.log.Logger;
+import org.seasar.framework.util.TimeHistogram;
+
+/**
+ * {@link SqlStatisticsRegistry}の実装クラスです。
+ * <p>
+ * 記録するSQLの数には上限があり、上限に達した後に実行された新しいSQLは記録されません。
+ * SQLをリテラルで組み立てている場合などに実行統計が際限なく増えることを防ぎます。
+ * </p>
+ * <p>
+ * SQLとエントリのマップは更新時にコピーを作成するため、 記録済みのSQLのエントリはロックを取得せずに参照されます。
+ * ロックを取得するのは新しいSQLを記録する場合だけです。 エントリへの記録はエントリごとに同期されます。
+ * </p>
+ */
+public class SqlStatisticsRegistryImpl implements SqlStatisticsRegistry {
+
+    private static final Logger logger = Logger
+            .getLogger(SqlStatisticsRegistryImpl.class);
+
+    private static final int DEFAULT_LIMIT_SIZE = 1000;
+
+    private final int limitSize;
+
+    private final Object lock = new Object();
+
+    private volatile Map entries = new HashMap();
+
+    private volatile long slowQueryThreshold = -1L;
+
+    /**
+     * デフォルトの上限サイズを使用してインスタンスを構築します。
+     */
+    public SqlStatisticsRegistryImpl() {
+        this(DEFAULT_LIMIT_SIZE);
+    }
+
+    /**
+     * 上限サイズを指定してインスタンスを構築します。
+     * 
+     * @param limitSize
+     *            記録するSQLの数の上限
+     */
+    public SqlStatisticsRegistryImpl(final int limitSize) {
+        this.limitSize = limitSize;
+    }
+
+    /**
+     * 記録するSQLの数の上限を返します。
+     * 
+     * @return 記録するSQLの数の上限
+     */
+    public int getLimitSize() {
+        return limitSize;
+    }
+
+    public void record(final String rawSql, final long elapsedTime,
+            final int fetchedRows, final int updatedRows) {
+        final Entry entry = getEntry(rawSql);
+        if (entry != null) {
+            entry.record(elapsedTime, fetchedRows, updatedRows);
+        }
+        logSlowQuery(rawSql, elapsedTime);
+    }
+
+    public void recordFailure(final String rawSql, final long elapsedTime) {
+        final Entry entry = getEntry(rawSql);
+        if (entry != null) {
+            entry.recordFailure(elapsedTime);
+        }
+        logSlowQuery(rawSql, elapsedTime);
+    }
+
+    public SqlStatistics get(final String rawSql) {
+        final Entry entry = (Entry) entries.get(rawSql);
+        return entry == null ? null : entry.snapshot();
+    }
+
+    public SqlStatistics[] getAll() {
+        final List list = new ArrayList(entries.values());
+        final SqlStatistics[] result = new SqlStatistics[list.size()];
+        int i = 0;
+        for (final Iterator it = list.iterator(); it.hasNext(); ++i) {
+            result[i] = ((Entry) it.next()).snapshot();
+        }
+        return result;
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public void setSlowQueryThreshold(final long slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            entries = new HashMap();
+        }
+    }
+
+    /**
+     * 未加工のSQLに対応するエントリを返します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @return エントリ、上限に達していて記録できない場合は<code>null</code>
+     */
+    protected Entry getEntry(final String rawSql) {
+        if (rawSql == null) {
+            return null;
+        }
+        final Entry entry = (Entry) entries.get(rawSql);
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (lock) {
+            final Map current = entries;
+            Entry newEntry = (Entry) current.get(rawSql);
+            if (newEntry == null && current.size() < limitSize) {
+                newEntry = createEntry(rawSql);
+                final Map copy = new HashMap(current);
+                copy.put(rawSql, newEntry);
+                entries = copy;
+            }
+            return newEntry;
+        }
+    }
+
+    /**
+     * 未加工のSQLに対応するエントリを作成します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @return エントリ
+     */
+    protected Entry createEntry(final String rawSql) {
+        return new Entry(rawSql);
+    }
+
+    /**
+     * 実行時間がしきい値以上の場合はSQLをログに出力します。
+     * 
+     * @param rawSql
+     *            未加工のSQL
+     * @param elapsedTime
+     *            実行時間(ミリ秒)
+     */
+    protected void logSlowQuery(final String rawSql, final long elapsedTime) {
+        final long threshold = slowQueryThreshold;
+        if (threshold >= 0L && elapsedTime >= threshold) {
+            logger.log("WSSR0020", new Object[] { String.valueOf(elapsedTime),
+                    String.valueOf(threshold), rawSql });
+        }
+    }
+
+    /**
+     * SQLごとの実行統計を集計するエントリです。
+     */
+    protected static class Entry {
+
+        private final String rawSql;
+
+        private final TimeHistogram histogram = new TimeHistogram();
+
+        private long errorCount;
+
+        private long fetchedRows;
+
+        private long updatedRows;
+
+        /**
+         * インスタンスを構築します。
+         * 
+         * @param rawSql
+         *            未加工のSQL
+         */
+        protected Entry(final String rawSql) {
+            this.rawSql = rawSql;
+        }
+
+        /**
+         * 未加工のSQLを返します。
+         * 
+         * @return 未加工のSQL
+         */
+        public String getRawSql() {
+            return rawSql;
+        }
+
+        /**
+         * 成功した実行を記録します。
+         * 
+         * @param elapsedTime
+         *            実行時間(ミリ秒)
+         * @param fetchedRows
+         *            取得した行数
+         * @param updatedRows
+         *            更新した行数
+         */
+        public synchronized void record(final long elapsedTime,
+                final int fetchedRows, final int updatedRows) {
+            histogram.record(elapsedTime);
+            this.fetchedRows += Math.max(0, fetchedRows);
+            this.updatedRows += Math.max(0, updatedRows);
+        }
+
+        /**
+         * 失敗した実行を記録します。
+         * 
+         * @param elapsedTime
+         *            実行時間(ミリ秒)
+         */
+        public synchronized void recordFailure(final long elapsedTime) {
+            histogram.record(elapsedTime);
+            ++errorCount;
+        }
+
+        /**
+         * スナップショットを返します。
+         * 
+         * @return スナップショット
+         */
+        public synchronized SqlStatistics snapshot() {
+            return new SqlStatisticsImpl(rawSql, errorCount, fetchedRows,
+                    updatedRows, histogram.copy());
+        }
+
+    }
+
+}
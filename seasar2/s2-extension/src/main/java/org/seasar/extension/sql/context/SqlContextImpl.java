@@ -26,6 +26,13 @@ import org.seasar.framework.util.CaseInsensitiveMap;
 
 /**
  * {@link SqlContext}の実装クラスです。
+ * <p>
+ * {@link #setRecordingBranchResults(boolean)}で分岐の結果の記録を有効にすると、
+ * SQLは組み立てずに、<code>IF</code>の評価結果やバインド変数の配列の長さ、埋め込み変数の値といった
+ * SQLの形を決める分岐の結果とバインド変数だけを保持します。
+ * 同じSQLファイルで分岐の結果が同じであれば組み立てられるSQLも同じになるため、
+ * 分岐の結果をキーにして組み立て済みのSQLを再利用することができます。
+ * </p>
  * 
  * @author higa
  * 
@@ -48,6 +55,8 @@ public class SqlContextImpl implements SqlContext {
 
     private SqlContext parent;
 
+    private List branchResults;
+
     static {
         OgnlRuntime.setPropertyAccessor(SqlContext.class,
                 new SqlContextPropertyAccessor());
@@ -67,6 +76,72 @@ public class SqlContextImpl implements SqlContext {
     public SqlContextImpl(SqlContext parent) {
         this.parent = parent;
         enabled = false;
+        if (parent instanceof SqlContextImpl) {
+            branchResults = ((SqlContextImpl) parent).branchResults;
+        }
+    }
+
+    /**
+     * 分岐の結果を記録している場合は<code>true</code>を返します。
+     * 
+     * @return 分岐の結果を記録している場合は<code>true</code>
+     */
+    public boolean isRecordingBranchResults() {
+        return branchResults != null;
+    }
+
+    /**
+     * 分岐の結果を記録するかどうかを設定します。
+     * <p>
+     * ノードを適用する前に設定してください。 記録を有効にしたコンテキストを親にして作成した子供のコンテキストは、
+     * 親と同じリストに分岐の結果を記録します。 記録している間はSQLを組み立てないため、 {@link #getSql()}は空文字を返します。
+     * </p>
+     * 
+     * @param recording
+     *            分岐の結果を記録する場合は<code>true</code>
+     */
+    public void setRecordingBranchResults(boolean recording) {
+        branchResults = recording ? new ArrayList() : null;
+    }
+
+    /**
+     * 記録した分岐の結果のリストを返します。
+     * <p>
+     * 分岐の結果を記録していない場合は<code>null</code>を返します。
+     * </p>
+     * 
+     * @return 分岐の結果のリスト
+     */
+    public List getBranchResults() {
+        return branchResults;
+    }
+
+    /**
+     * 分岐の結果を記録します。
+     * <p>
+     * 分岐の結果を記録していない場合は何もしません。
+     * </p>
+     * 
+     * @param result
+     *            分岐の結果
+     */
+    public void addBranchResult(Object result) {
+        if (branchResults != null) {
+            branchResults.add(result);
+        }
+    }
+
+    /**
+     * 引数だけを引き継いだ、分岐の結果を記録しないコンテキストを作成します。
+     * 
+     * @return 引数だけを引き継いだコンテキスト
+     */
+    public SqlContextImpl copyArgs() {
+        SqlContextImpl ctx = new SqlContextImpl();
+        ctx.parent = parent;
+        ctx.args.putAll(args);
+        ctx.argTypes.putAll(argTypes);
+        return ctx;
     }
 
     public Object getArg(String name) {
@@ -125,14 +200,14 @@ public class SqlContextImpl implements SqlContext {
     }
 
     public SqlContext addSql(String sql) {
-        sqlBuf.append(sql);
+        appendSql(sql);
         return this;
     }
 
     public SqlContext addSql(String sql, Object bindVariable,
             Class bindVariableType) {
 
-        sqlBuf.append(sql);
+        appendSql(sql);
         bindVariables.add(bindVariable);
         bindVariableTypes.add(bindVariableType);
         return this;
@@ -141,7 +216,7 @@ public class SqlContextImpl implements SqlContext {
     public SqlContext addSql(String sql, Object[] bindVariables,
             Class[] bindVariableTypes) {
 
-        sqlBuf.append(sql);
+        appendSql(sql);
         for (int i = 0; i < bindVariables.length; ++i) {
             this.bindVariables.add(bindVariables[i]);
             this.bindVariableTypes.add(bindVariableTypes[i]);
@@ -149,6 +224,12 @@ public class SqlContextImpl implements SqlContext {
         return this;
     }
 
+    private void appendSql(String sql) {
+        if (branchResults == null) {
+            sqlBuf.append(sql);
+        }
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
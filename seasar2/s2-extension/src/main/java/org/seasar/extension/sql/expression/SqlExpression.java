@@ -0,0 +1,35 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.sql.expression;
+
+import org.seasar.extension.sql.SqlContext;
+
+/**
+ * 2Way SQLの<code>IF</code>コメントやバインド変数コメントに記述された式です。
+ * 
+ * @see SqlExpressionCompiler
+ */
+public interface SqlExpression {
+
+    /**
+     * 式を評価します。
+     * 
+     * @param ctx
+     *            SQLコンテキスト
+     * @return 評価した結果
+     */
+    Object evaluate(SqlContext ctx);
+}
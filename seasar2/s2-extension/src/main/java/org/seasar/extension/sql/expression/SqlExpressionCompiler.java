@@ -0,0 +1,1441 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.sql.expression;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.seasar.extension.sql.SqlArgWrapper;
+import org.seasar.extension.sql.SqlContext;
+import org.seasar.framework.beans.BeanDesc;
+import org.seasar.framework.beans.IllegalPropertyRuntimeException;
+import org.seasar.framework.beans.PropertyDesc;
+import org.seasar.framework.beans.factory.BeanDescFactory;
+import org.seasar.framework.exception.OgnlRuntimeException;
+import org.seasar.framework.util.ClassUtil;
+import org.seasar.framework.util.OgnlUtil;
+
+/**
+ * 2Way SQLの式をコンパイルするクラスです。
+ * <p>
+ * 2Way SQLの<code>IF</code>コメントや括弧付きのバインド変数コメントに記述される式の多くは、
+ * <code>null</code>との比較や数値・文字列の比較、論理演算、プロパティの参照、メソッドの呼び出しだけで構成されています。
+ * このクラスはそのような式をSQLの解析時に評価用のオブジェクトのツリーに変換します。
+ * プロパティやメソッドはクラスごとに一度だけ解決して保持するため、
+ * 実行のたびにOGNLで式を解釈する場合よりも高速に評価できます。
+ * </p>
+ * <p>
+ * 次の構文をサポートします。
+ * </p>
+ * <ul>
+ * <li><code>null</code>、<code>true</code>、<code>false</code>、整数、小数、文字列、文字のリテラル</li>
+ * <li>SQLのパラメータの参照 (<code>has_</code>で始まる名前を含む)</li>
+ * <li>プロパティの参照 (<code>a.b.c</code>)</li>
+ * <li>メソッドの呼び出し (<code>a.isEmpty()</code>、<code>&#064;クラス名&#064;メソッド名(引数)</code>)</li>
+ * <li>比較演算 (<code>==</code>、<code>!=</code>、<code>&lt;</code>、<code>&gt;</code>、<code>&lt;=</code>、<code>&gt;=</code>、
+ * <code>eq</code>、<code>neq</code>、<code>lt</code>、<code>gt</code>、<code>lte</code>、<code>gte</code>)</li>
+ * <li>論理演算 (<code>&amp;&amp;</code>、<code>||</code>、<code>!</code>、<code>and</code>、<code>or</code>、<code>not</code>)</li>
+ * <li>括弧</li>
+ * </ul>
+ * <p>
+ * これ以外の構文を含む式はOGNLで評価します。
+ * また、コンパイルした式でも比較する値の型の組み合わせやオーバーロードされたメソッドなど、
+ * OGNLと同じ結果になることを保証できない演算は、評価済みの値を変数としてその演算だけをOGNLで評価します。
+ * 式全体を評価し直すことはないため、プロパティやメソッドを二度呼び出すことはありません。
+ * </p>
+ */
+public class SqlExpressionCompiler {
+
+    /**
+     * 比較できなかったことをあらわします。
+     */
+    protected static final int INCOMPARABLE = Integer.MIN_VALUE;
+
+    /**
+     * 字句の終わりをあらわします。
+     */
+    protected static final int EOF = 0;
+
+    /**
+     * 識別子をあらわします。
+     */
+    protected static final int IDENTIFIER = 1;
+
+    /**
+     * リテラルをあらわします。
+     */
+    protected static final int LITERAL = 2;
+
+    /**
+     * 演算子や区切り文字をあらわします。
+     */
+    protected static final int OPERATOR = 3;
+
+    private static final String HAS_PREFIX = "has_";
+
+    private static final String[] RESERVED_WORDS = new String[] { "in",
+            "instanceof", "new", "shl", "shr", "ushr", "band", "bor", "xor" };
+
+    private static final String[] OPERATOR_WORDS = new String[] { "and",
+            "&&", "or", "||", "not", "!", "eq", "==", "neq", "!=", "lt", "<",
+            "gt", ">", "lte", "<=", "gte", ">=" };
+
+    private static final String[] OPERATORS = new String[] { "==", "!=",
+            "<=", ">=", "&&", "||", "<", ">", "!", "(", ")", ".", ",", "@" };
+
+    private final String expression;
+
+    private int position;
+
+    private int tokenType;
+
+    private String token;
+
+    private Object literal;
+
+    /**
+     * {@link SqlExpressionCompiler}を作成します。
+     * 
+     * @param expression
+     *            式
+     */
+    protected SqlExpressionCompiler(final String expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * 式をコンパイルします。
+     * <p>
+     * サポートしていない構文を含む式の場合は、OGNLで評価する{@link SqlExpression}を返します。
+     * </p>
+     * 
+     * @param expression
+     *            式
+     * @param parsedExpression
+     *            OGNLで解析した式
+     * @return コンパイルした式
+     */
+    public static SqlExpression compile(final String expression,
+            final Object parsedExpression) {
+        final Evaluator evaluator = new SqlExpressionCompiler(expression)
+                .parse();
+        if (evaluator == null) {
+            return new OgnlExpression(parsedExpression);
+        }
+        return new CompiledExpression(evaluator);
+    }
+
+    /**
+     * 式を解析して評価用のオブジェクトのツリーを作成します。
+     * 
+     * @return 評価用のオブジェクト、サポートしていない構文を含む場合は<code>null</code>
+     */
+    protected Evaluator parse() {
+        try {
+            nextToken();
+            final Evaluator evaluator = parseOr();
+            if (tokenType != EOF) {
+                return null;
+            }
+            return evaluator;
+        } catch (final UnsupportedSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * <code>||</code>を解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseOr() {
+        final Evaluator left = parseAnd();
+        if (!isOperator("||")) {
+            return left;
+        }
+        final List operands = new ArrayList();
+        operands.add(left);
+        while (isOperator("||")) {
+            nextToken();
+            operands.add(parseAnd());
+        }
+        return new OrEvaluator(toArray(operands));
+    }
+
+    /**
+     * <code>&amp;&amp;</code>を解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseAnd() {
+        final Evaluator left = parseEquality();
+        if (!isOperator("&&")) {
+            return left;
+        }
+        final List operands = new ArrayList();
+        operands.add(left);
+        while (isOperator("&&")) {
+            nextToken();
+            operands.add(parseEquality());
+        }
+        return new AndEvaluator(toArray(operands));
+    }
+
+    /**
+     * <code>==</code>と<code>!=</code>を解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseEquality() {
+        Evaluator left = parseRelational();
+        while (isOperator("==") || isOperator("!=")) {
+            final boolean not = isOperator("!=");
+            nextToken();
+            left = new EqualEvaluator(left, parseRelational(), not);
+        }
+        return left;
+    }
+
+    /**
+     * <code>&lt;</code>、<code>&gt;</code>、<code>&lt;=</code>、<code>&gt;=</code>を解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseRelational() {
+        Evaluator left = parseUnary();
+        while (isOperator("<") || isOperator(">") || isOperator("<=")
+                || isOperator(">=")) {
+            final String operator = token;
+            nextToken();
+            left = new CompareEvaluator(left, parseUnary(), operator);
+        }
+        return left;
+    }
+
+    /**
+     * <code>!</code>を解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseUnary() {
+        if (isOperator("!")) {
+            nextToken();
+            return new NotEvaluator(parseUnary());
+        }
+        return parsePostfix();
+    }
+
+    /**
+     * プロパティの参照とメソッドの呼び出しを解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parsePostfix() {
+        Evaluator evaluator = parsePrimary();
+        while (isOperator(".")) {
+            nextToken();
+            final String name = expectIdentifier();
+            if (isOperator("(")) {
+                evaluator = new MethodEvaluator(evaluator, name,
+                        parseArguments());
+            } else {
+                evaluator = new PropertyEvaluator(evaluator, name);
+            }
+        }
+        return evaluator;
+    }
+
+    /**
+     * リテラル、パラメータの参照、括弧、staticメソッドの呼び出しを解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parsePrimary() {
+        if (tokenType == LITERAL) {
+            final Evaluator evaluator = new ConstantEvaluator(literal);
+            nextToken();
+            return evaluator;
+        }
+        if (tokenType == IDENTIFIER) {
+            final String name = token;
+            nextToken();
+            if (isOperator("(")) {
+                throw new UnsupportedSyntaxException();
+            }
+            return new ParameterEvaluator(name);
+        }
+        if (isOperator("(")) {
+            nextToken();
+            final Evaluator evaluator = parseOr();
+            expectOperator(")");
+            return evaluator;
+        }
+        if (isOperator("@")) {
+            return parseStaticMethod();
+        }
+        throw new UnsupportedSyntaxException();
+    }
+
+    /**
+     * staticメソッドの呼び出しを解析します。
+     * 
+     * @return 評価用のオブジェクト
+     */
+    protected Evaluator parseStaticMethod() {
+        nextToken();
+        final StringBuffer className = new StringBuffer(50);
+        className.append(expectIdentifier());
+        while (isOperator(".")) {
+            nextToken();
+            className.append('.').append(expectIdentifier());
+        }
+        expectOperator("@");
+        final String methodName = expectIdentifier();
+        if (!isOperator("(")) {
+            throw new UnsupportedSyntaxException();
+        }
+        final Evaluator[] arguments = parseArguments();
+        final Class clazz;
+        try {
+            clazz = ClassUtil.forName(className.toString());
+        } catch (final RuntimeException e) {
+            throw new UnsupportedSyntaxException();
+        }
+        final Method method = findMethod(clazz, methodName, arguments.length,
+                true);
+        if (method == null) {
+            throw new UnsupportedSyntaxException();
+        }
+        return new StaticMethodEvaluator(className.toString(), method,
+                arguments);
+    }
+
+    /**
+     * メソッドの引数を解析します。
+     * 
+     * @return 引数を評価するオブジェクトの配列
+     */
+    protected Evaluator[] parseArguments() {
+        expectOperator("(");
+        final List arguments = new ArrayList();
+        if (!isOperator(")")) {
+            arguments.add(parseOr());
+            while (isOperator(",")) {
+                nextToken();
+                arguments.add(parseOr());
+            }
+        }
+        expectOperator(")");
+        return toArray(arguments);
+    }
+
+    /**
+     * 現在の字句が識別子であればその名前を返して次の字句に進みます。
+     * 
+     * @return 識別子
+     */
+    protected String expectIdentifier() {
+        if (tokenType != IDENTIFIER) {
+            throw new UnsupportedSyntaxException();
+        }
+        final String name = token;
+        nextToken();
+        return name;
+    }
+
+    /**
+     * 現在の字句が指定の演算子であれば次の字句に進みます。
+     * 
+     * @param operator
+     *            演算子
+     */
+    protected void expectOperator(final String operator) {
+        if (!isOperator(operator)) {
+            throw new UnsupportedSyntaxException();
+        }
+        nextToken();
+    }
+
+    /**
+     * 現在の字句が指定の演算子なら<code>true</code>を返します。
+     * 
+     * @param operator
+     *            演算子
+     * @return 現在の字句が指定の演算子なら<code>true</code>
+     */
+    protected boolean isOperator(final String operator) {
+        return tokenType == OPERATOR && token.equals(operator);
+    }
+
+    /**
+     * 次の字句に進みます。
+     */
+    protected void nextToken() {
+        final int length = expression.length();
+        while (position < length
+                && Character.isWhitespace(expression.charAt(position))) {
+            ++position;
+        }
+        literal = null;
+        if (position >= length) {
+            tokenType = EOF;
+            token = null;
+            return;
+        }
+        final char c = expression.charAt(position);
+        if (Character.isJavaIdentifierStart(c)) {
+            readIdentifier();
+        } else if (Character.isDigit(c)) {
+            readNumber();
+        } else if (c == '"' || c == '\'') {
+            readString(c);
+        } else {
+            readOperator();
+        }
+    }
+
+    /**
+     * 識別子を読み込みます。
+     */
+    protected void readIdentifier() {
+        final int start = position;
+        final int length = expression.length();
+        while (position < length
+                && Character.isJavaIdentifierPart(expression
+                        .charAt(position))) {
+            ++position;
+        }
+        token = expression.substring(start, position);
+        if ("null".equals(token)) {
+            setLiteral(null);
+            return;
+        }
+        if ("true".equals(token)) {
+            setLiteral(Boolean.TRUE);
+            return;
+        }
+        if ("false".equals(token)) {
+            setLiteral(Boolean.FALSE);
+            return;
+        }
+        for (int i = 0; i < RESERVED_WORDS.length; ++i) {
+            if (RESERVED_WORDS[i].equals(token)) {
+                throw new UnsupportedSyntaxException();
+            }
+        }
+        for (int i = 0; i < OPERATOR_WORDS.length; i += 2) {
+            if (OPERATOR_WORDS[i].equals(token)) {
+                tokenType = OPERATOR;
+                token = OPERATOR_WORDS[i + 1];
+                return;
+            }
+        }
+        tokenType = IDENTIFIER;
+    }
+
+    /**
+     * 整数または小数のリテラルを読み込みます。
+     */
+    protected void readNumber() {
+        final int start = position;
+        final int length = expression.length();
+        while (position < length
+                && Character.isDigit(expression.charAt(position))) {
+            ++position;
+        }
+        if (expression.charAt(start) == '0' && position - start > 1) {
+            throw new UnsupportedSyntaxException();
+        }
+        boolean decimal = false;
+        if (position + 1 < length && expression.charAt(position) == '.'
+                && Character.isDigit(expression.charAt(position + 1))) {
+            decimal = true;
+            ++position;
+            while (position < length
+                    && Character.isDigit(expression.charAt(position))) {
+                ++position;
+            }
+        }
+        final String number = expression.substring(start, position);
+        boolean isLong = false;
+        if (position < length) {
+            final char c = expression.charAt(position);
+            if (!decimal && (c == 'L' || c == 'l')) {
+                isLong = true;
+                ++position;
+            }
+            if (position < length) {
+                final char next = expression.charAt(position);
+                if (Character.isJavaIdentifierPart(next) || next == '.') {
+                    throw new UnsupportedSyntaxException();
+                }
+            }
+        }
+        try {
+            if (decimal) {
+                setLiteral(Double.valueOf(number));
+            } else if (isLong) {
+                setLiteral(Long.valueOf(number));
+            } else {
+                setLiteral(Integer.valueOf(number));
+            }
+        } catch (final NumberFormatException e) {
+            throw new UnsupportedSyntaxException();
+        }
+    }
+
+    /**
+     * 文字列または文字のリテラルを読み込みます。
+     * <p>
+     * OGNLと同じく、シングルクォートで囲まれた1文字は{@link Character}になります。
+     * </p>
+     * 
+     * @param quote
+     *            引用符
+     */
+    protected void readString(final char quote) {
+        final StringBuffer buf = new StringBuffer(20);
+        final int length = expression.length();
+        ++position;
+        while (true) {
+            if (position >= length) {
+                throw new UnsupportedSyntaxException();
+            }
+            char c = expression.charAt(position++);
+            if (c == quote) {
+                break;
+            }
+            if (c == '\\') {
+                if (position >= length) {
+                    throw new UnsupportedSyntaxException();
+                }
+                c = toEscapedChar(expression.charAt(position++));
+            }
+            buf.append(c);
+        }
+        if (quote == '\'' && buf.length() == 1) {
+            setLiteral(new Character(buf.charAt(0)));
+        } else {
+            setLiteral(buf.toString());
+        }
+    }
+
+    /**
+     * エスケープされた文字を返します。
+     * 
+     * @param c
+     *            <code>\</code>に続く文字
+     * @return エスケープされた文字
+     */
+    protected char toEscapedChar(final char c) {
+        switch (c) {
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case '\\':
+        case '\'':
+        case '`':
+        case '"':
+            return c;
+        }
+        throw new UnsupportedSyntaxException();
+    }
+
+    /**
+     * 演算子や区切り文字を読み込みます。
+     */
+    protected void readOperator() {
+        for (int i = 0; i < OPERATORS.length; ++i) {
+            if (expression.startsWith(OPERATORS[i], position)) {
+                position += OPERATORS[i].length();
+                tokenType = OPERATOR;
+                token = OPERATORS[i];
+                return;
+            }
+        }
+        throw new UnsupportedSyntaxException();
+    }
+
+    private void setLiteral(final Object value) {
+        tokenType = LITERAL;
+        literal = value;
+    }
+
+    private static Evaluator[] toArray(final List list) {
+        return (Evaluator[]) list.toArray(new Evaluator[list.size()]);
+    }
+
+    /**
+     * OGNLと同じ規則で値を<code>boolean</code>として評価します。
+     * 
+     * @param value
+     *            値
+     * @return <code>boolean</code>として評価した値
+     */
+    protected static boolean booleanValue(final Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue();
+        }
+        if (value instanceof Character) {
+            return ((Character) value).charValue() != 0;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        return true;
+    }
+
+    /**
+     * OGNLと同じ規則で二つの値を比較します。
+     * <p>
+     * 比較できるのは{@link java.math.BigDecimal}と{@link java.math.BigInteger}を除く数値同士と、
+     * 文字列同士だけです。
+     * </p>
+     * 
+     * @param left
+     *            左辺の値
+     * @param right
+     *            右辺の値
+     * @return 比較した結果、比較できない場合は{@link #INCOMPARABLE}
+     */
+    protected static int compare(final Object left, final Object right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            final long l = ((Number) left).longValue();
+            final long r = ((Number) right).longValue();
+            return l == r ? 0 : (l < r ? -1 : 1);
+        }
+        if ((isIntegral(left) || isFloating(left))
+                && (isIntegral(right) || isFloating(right))) {
+            final double l = ((Number) left).doubleValue();
+            final double r = ((Number) right).doubleValue();
+            return l == r ? 0 : (l < r ? -1 : 1);
+        }
+        if (left instanceof String && right instanceof String) {
+            final int result = ((String) left).compareTo((String) right);
+            return result == 0 ? 0 : (result < 0 ? -1 : 1);
+        }
+        return INCOMPARABLE;
+    }
+
+    private static boolean isIntegral(final Object value) {
+        return value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFloating(final Object value) {
+        return value instanceof Double || value instanceof Float;
+    }
+
+    /**
+     * 名前と引数の数が一致するpublicメソッドを返します。
+     * 
+     * @param clazz
+     *            クラス
+     * @param name
+     *            メソッドの名前
+     * @param argSize
+     *            引数の数
+     * @param staticMethod
+     *            staticメソッドを探す場合は<code>true</code>
+     * @return 一致するメソッド、見つからないか一つに決まらない場合は<code>null</code>
+     */
+    protected static Method findMethod(final Class clazz, final String name,
+            final int argSize, final boolean staticMethod) {
+        final Method[] methods = clazz.getMethods();
+        Method found = null;
+        for (int i = 0; i < methods.length; ++i) {
+            final Method method = methods[i];
+            if (!method.getName().equals(name)
+                    || method.getParameterTypes().length != argSize
+                    || Modifier.isStatic(method.getModifiers())
+                            != staticMethod) {
+                continue;
+            }
+            if (found != null) {
+                return null;
+            }
+            found = method;
+        }
+        if (found == null) {
+            return null;
+        }
+        if (!Modifier.isPublic(found.getDeclaringClass().getModifiers())) {
+            try {
+                found.setAccessible(true);
+            } catch (final SecurityException e) {
+                return null;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 引数をそのまま渡してメソッドを呼び出せる場合は<code>true</code>を返します。
+     * 
+     * @param method
+     *            メソッド
+     * @param args
+     *            引数
+     * @return 引数をそのまま渡してメソッドを呼び出せる場合は<code>true</code>
+     */
+    protected static boolean isApplicable(final Method method,
+            final Object[] args) {
+        final Class[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < args.length; ++i) {
+            final Class type = parameterTypes[i];
+            if (args[i] == null) {
+                if (type.isPrimitive()) {
+                    return false;
+                }
+            } else if (type.isPrimitive()) {
+                if (ClassUtil.getWrapperClass(type) != args[i].getClass()) {
+                    return false;
+                }
+            } else if (!type.isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * メソッドを呼び出します。
+     * <p>
+     * メソッドが例外をスローした場合は、OGNLで評価した場合と同じく{@link OgnlRuntimeException}でラップしてスローします。
+     * </p>
+     * 
+     * @param method
+     *            メソッド
+     * @param target
+     *            対象のオブジェクト
+     * @param args
+     *            引数
+     * @return 戻り値
+     */
+    protected static Object invoke(final Method method, final Object target,
+            final Object[] args) {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw new OgnlRuntimeException(e.getTargetException());
+        } catch (final IllegalAccessException e) {
+            throw new OgnlRuntimeException(e);
+        }
+    }
+
+    /**
+     * 引数を評価します。
+     * 
+     * @param arguments
+     *            引数を評価するオブジェクトの配列
+     * @param ctx
+     *            SQLコンテキスト
+     * @return 引数の値の配列
+     */
+    protected static Object[] evaluateArguments(final Evaluator[] arguments,
+            final SqlContext ctx) {
+        final Object[] args = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; ++i) {
+            args[i] = arguments[i].evaluate(ctx);
+        }
+        return args;
+    }
+
+    /**
+     * 評価済みの値を変数<code>#v0</code>、<code>#v1</code>、...として参照する式をOGNLで解析します。
+     * 
+     * @param expression
+     *            式
+     * @return OGNLで解析した式
+     */
+    protected static Object parseOgnlExpression(final String expression) {
+        return OgnlUtil.parseExpression(expression);
+    }
+
+    /**
+     * 評価済みの値を変数<code>#v0</code>、<code>#v1</code>、...として、式の一部をOGNLで評価します。
+     * 
+     * @param parsedExpression
+     *            OGNLで解析した式
+     * @param values
+     *            評価済みの値の配列
+     * @return 評価した結果
+     */
+    protected static Object evaluateByOgnl(final Object parsedExpression,
+            final Object[] values) {
+        final Map variables = new HashMap();
+        for (int i = 0; i < values.length; ++i) {
+            variables.put("v" + i, values[i]);
+        }
+        return OgnlUtil.getValue(parsedExpression, variables, null);
+    }
+
+    /**
+     * 引数を参照する<code>(#v1, #v2, ...)</code>形式の文字列を返します。
+     * 
+     * @param argSize
+     *            引数の数
+     * @param offset
+     *            最初の引数の変数の番号
+     * @return 引数を参照する文字列
+     */
+    protected static String toArgumentVariables(final int argSize,
+            final int offset) {
+        final StringBuffer buf = new StringBuffer(argSize * 6 + 2);
+        buf.append('(');
+        for (int i = 0; i < argSize; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append("#v").append(i + offset);
+        }
+        return buf.append(')').toString();
+    }
+
+    /**
+     * 評価済みの値の配列の先頭に対象のオブジェクトを加えた配列を返します。
+     * 
+     * @param target
+     *            対象のオブジェクト
+     * @param args
+     *            引数
+     * @return 対象のオブジェクトと引数の配列
+     */
+    protected static Object[] toValues(final Object target, final Object[] args) {
+        final Object[] values = new Object[args.length + 1];
+        values[0] = target;
+        System.arraycopy(args, 0, values, 1, args.length);
+        return values;
+    }
+
+    /**
+     * サポートしていない構文であることをあらわす例外です。
+     */
+    protected static class UnsupportedSyntaxException extends
+            RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+    }
+
+    /**
+     * 式の一部を評価するクラスです。
+     */
+    protected abstract static class Evaluator {
+
+        /**
+         * 式の一部を評価します。
+         * 
+         * @param ctx
+         *            SQLコンテキスト
+         * @return 評価した結果
+         */
+        public abstract Object evaluate(SqlContext ctx);
+
+    }
+
+    /**
+     * コンパイルした式です。
+     */
+    protected static class CompiledExpression implements SqlExpression {
+
+        private final Evaluator evaluator;
+
+        /**
+         * {@link CompiledExpression}を作成します。
+         * 
+         * @param evaluator
+         *            評価用のオブジェクト
+         */
+        public CompiledExpression(final Evaluator evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            return evaluator.evaluate(ctx);
+        }
+
+    }
+
+    /**
+     * OGNLで評価する式です。
+     */
+    protected static class OgnlExpression implements SqlExpression {
+
+        private final Object parsedExpression;
+
+        /**
+         * {@link OgnlExpression}を作成します。
+         * 
+         * @param parsedExpression
+         *            OGNLで解析した式
+         */
+        public OgnlExpression(final Object parsedExpression) {
+            this.parsedExpression = parsedExpression;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            return OgnlUtil.getValue(parsedExpression, ctx);
+        }
+
+    }
+
+    /**
+     * リテラルを評価するクラスです。
+     */
+    protected static class ConstantEvaluator extends Evaluator {
+
+        private final Object value;
+
+        /**
+         * {@link ConstantEvaluator}を作成します。
+         * 
+         * @param value
+         *            値
+         */
+        public ConstantEvaluator(final Object value) {
+            this.value = value;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            return value;
+        }
+
+    }
+
+    /**
+     * SQLのパラメータを評価するクラスです。
+     */
+    protected static class ParameterEvaluator extends Evaluator {
+
+        private final String name;
+
+        private final String hasName;
+
+        /**
+         * {@link ParameterEvaluator}を作成します。
+         * 
+         * @param name
+         *            パラメータの名前
+         */
+        public ParameterEvaluator(final String name) {
+            this.name = name;
+            hasName = name.startsWith(HAS_PREFIX) ? name.substring(HAS_PREFIX
+                    .length()) : null;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            if (hasName != null) {
+                return Boolean.valueOf(ctx.hasArg(hasName));
+            }
+            final Object arg = ctx.getArg(name);
+            if (arg instanceof SqlArgWrapper) {
+                return ((SqlArgWrapper) arg).getValue();
+            }
+            return arg;
+        }
+
+    }
+
+    /**
+     * プロパティを評価するクラスです。
+     * <p>
+     * プロパティ記述は直前に評価したオブジェクトのクラスに対して保持します。
+     * </p>
+     */
+    protected static class PropertyEvaluator extends Evaluator {
+
+        private final Evaluator target;
+
+        private final String name;
+
+        private final Object ognlExpression;
+
+        private volatile PropertyCache cache;
+
+        /**
+         * {@link PropertyEvaluator}を作成します。
+         * 
+         * @param target
+         *            対象のオブジェクトを評価するオブジェクト
+         * @param name
+         *            プロパティの名前
+         */
+        public PropertyEvaluator(final Evaluator target, final String name) {
+            this.target = target;
+            this.name = name;
+            ognlExpression = parseOgnlExpression("#v0." + name);
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object value = target.evaluate(ctx);
+            if (value == null) {
+                return evaluateByOgnl(ognlExpression, new Object[] { value });
+            }
+            if (value instanceof Map) {
+                if ("size".equals(name) || "keys".equals(name)
+                        || "values".equals(name) || "isEmpty".equals(name)) {
+                    return evaluateByOgnl(ognlExpression,
+                            new Object[] { value });
+                }
+                return ((Map) value).get(name);
+            }
+            if (value instanceof List || value instanceof Set) {
+                if ("size".equals(name) || "iterator".equals(name)
+                        || "isEmpty".equals(name)) {
+                    return evaluateByOgnl(ognlExpression,
+                            new Object[] { value });
+                }
+            } else if (value instanceof Iterator
+                    || value instanceof Enumeration
+                    || value instanceof SqlContext) {
+                return evaluateByOgnl(ognlExpression, new Object[] { value });
+            } else if (value.getClass().isArray()) {
+                if ("length".equals(name)) {
+                    return new Integer(Array.getLength(value));
+                }
+                return evaluateByOgnl(ognlExpression, new Object[] { value });
+            }
+            final PropertyDesc pd = getPropertyDesc(value.getClass());
+            if (pd == null) {
+                return evaluateByOgnl(ognlExpression, new Object[] { value });
+            }
+            try {
+                return pd.getValue(value);
+            } catch (final IllegalPropertyRuntimeException e) {
+                throw new OgnlRuntimeException(e.getCause());
+            }
+        }
+
+        /**
+         * 読み取り可能なプロパティ記述を返します。
+         * 
+         * @param clazz
+         *            クラス
+         * @return プロパティ記述、見つからない場合は<code>null</code>
+         */
+        protected PropertyDesc getPropertyDesc(final Class clazz) {
+            PropertyCache current = cache;
+            if (current == null || current.clazz != clazz) {
+                current = new PropertyCache(clazz, findPropertyDesc(clazz));
+                cache = current;
+            }
+            return current.propertyDesc;
+        }
+
+        private PropertyDesc findPropertyDesc(final Class clazz) {
+            final BeanDesc beanDesc = BeanDescFactory.getBeanDesc(clazz);
+            if (!beanDesc.hasPropertyDesc(name)) {
+                return null;
+            }
+            final PropertyDesc pd = beanDesc.getPropertyDesc(name);
+            if (!pd.getPropertyName().equals(name) || !pd.isReadable()) {
+                return null;
+            }
+            return pd;
+        }
+
+    }
+
+    /**
+     * クラスとプロパティ記述の組です。
+     */
+    protected static class PropertyCache {
+
+        /**
+         * クラス
+         */
+        protected final Class clazz;
+
+        /**
+         * プロパティ記述
+         */
+        protected final PropertyDesc propertyDesc;
+
+        /**
+         * {@link PropertyCache}を作成します。
+         * 
+         * @param clazz
+         *            クラス
+         * @param propertyDesc
+         *            プロパティ記述
+         */
+        public PropertyCache(final Class clazz,
+                final PropertyDesc propertyDesc) {
+            this.clazz = clazz;
+            this.propertyDesc = propertyDesc;
+        }
+
+    }
+
+    /**
+     * メソッドの呼び出しを評価するクラスです。
+     * <p>
+     * メソッドは直前に評価したオブジェクトのクラスに対して保持します。
+     * </p>
+     */
+    protected static class MethodEvaluator extends Evaluator {
+
+        private final Evaluator target;
+
+        private final String name;
+
+        private final Evaluator[] arguments;
+
+        private final Object ognlExpression;
+
+        private volatile MethodCache cache;
+
+        /**
+         * {@link MethodEvaluator}を作成します。
+         * 
+         * @param target
+         *            対象のオブジェクトを評価するオブジェクト
+         * @param name
+         *            メソッドの名前
+         * @param arguments
+         *            引数を評価するオブジェクトの配列
+         */
+        public MethodEvaluator(final Evaluator target, final String name,
+                final Evaluator[] arguments) {
+            this.target = target;
+            this.name = name;
+            this.arguments = arguments;
+            ognlExpression = parseOgnlExpression("#v0." + name
+                    + toArgumentVariables(arguments.length, 1));
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object value = target.evaluate(ctx);
+            final Object[] args = evaluateArguments(arguments, ctx);
+            if (value == null || value instanceof SqlContext) {
+                return evaluateByOgnl(ognlExpression, toValues(value, args));
+            }
+            final Method method = getMethod(value.getClass());
+            if (method == null || !isApplicable(method, args)) {
+                return evaluateByOgnl(ognlExpression, toValues(value, args));
+            }
+            return invoke(method, value, args);
+        }
+
+        /**
+         * メソッドを返します。
+         * 
+         * @param clazz
+         *            クラス
+         * @return メソッド、見つからないか一つに決まらない場合は<code>null</code>
+         */
+        protected Method getMethod(final Class clazz) {
+            MethodCache current = cache;
+            if (current == null || current.clazz != clazz) {
+                current = new MethodCache(clazz, findMethod(clazz, name,
+                        arguments.length, false));
+                cache = current;
+            }
+            return current.method;
+        }
+
+    }
+
+    /**
+     * クラスとメソッドの組です。
+     */
+    protected static class MethodCache {
+
+        /**
+         * クラス
+         */
+        protected final Class clazz;
+
+        /**
+         * メソッド
+         */
+        protected final Method method;
+
+        /**
+         * {@link MethodCache}を作成します。
+         * 
+         * @param clazz
+         *            クラス
+         * @param method
+         *            メソッド
+         */
+        public MethodCache(final Class clazz, final Method method) {
+            this.clazz = clazz;
+            this.method = method;
+        }
+
+    }
+
+    /**
+     * staticメソッドの呼び出しを評価するクラスです。
+     */
+    protected static class StaticMethodEvaluator extends Evaluator {
+
+        private final Method method;
+
+        private final Evaluator[] arguments;
+
+        private final Object ognlExpression;
+
+        /**
+         * {@link StaticMethodEvaluator}を作成します。
+         * 
+         * @param className
+         *            式に記述されたクラス名
+         * @param method
+         *            メソッド
+         * @param arguments
+         *            引数を評価するオブジェクトの配列
+         */
+        public StaticMethodEvaluator(final String className,
+                final Method method, final Evaluator[] arguments) {
+            this.method = method;
+            this.arguments = arguments;
+            ognlExpression = parseOgnlExpression("@" + className + "@"
+                    + method.getName()
+                    + toArgumentVariables(arguments.length, 0));
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object[] args = evaluateArguments(arguments, ctx);
+            if (!isApplicable(method, args)) {
+                return evaluateByOgnl(ognlExpression, args);
+            }
+            return invoke(method, null, args);
+        }
+
+    }
+
+    /**
+     * <code>!</code>を評価するクラスです。
+     */
+    protected static class NotEvaluator extends Evaluator {
+
+        private final Evaluator operand;
+
+        /**
+         * {@link NotEvaluator}を作成します。
+         * 
+         * @param operand
+         *            オペランドを評価するオブジェクト
+         */
+        public NotEvaluator(final Evaluator operand) {
+            this.operand = operand;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object value = operand.evaluate(ctx);
+            return booleanValue(value) ? Boolean.FALSE : Boolean.TRUE;
+        }
+
+    }
+
+    /**
+     * <code>&amp;&amp;</code>を評価するクラスです。
+     * <p>
+     * OGNLと同じく、最後に評価したオペランドの値を返します。
+     * </p>
+     */
+    protected static class AndEvaluator extends Evaluator {
+
+        private final Evaluator[] operands;
+
+        /**
+         * {@link AndEvaluator}を作成します。
+         * 
+         * @param operands
+         *            オペランドを評価するオブジェクトの配列
+         */
+        public AndEvaluator(final Evaluator[] operands) {
+            this.operands = operands;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            Object value = null;
+            for (int i = 0; i < operands.length; ++i) {
+                value = operands[i].evaluate(ctx);
+                if (!booleanValue(value)) {
+                    return value;
+                }
+            }
+            return value;
+        }
+
+    }
+
+    /**
+     * <code>||</code>を評価するクラスです。
+     * <p>
+     * OGNLと同じく、最後に評価したオペランドの値を返します。
+     * </p>
+     */
+    protected static class OrEvaluator extends Evaluator {
+
+        private final Evaluator[] operands;
+
+        /**
+         * {@link OrEvaluator}を作成します。
+         * 
+         * @param operands
+         *            オペランドを評価するオブジェクトの配列
+         */
+        public OrEvaluator(final Evaluator[] operands) {
+            this.operands = operands;
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            Object value = null;
+            for (int i = 0; i < operands.length; ++i) {
+                value = operands[i].evaluate(ctx);
+                if (booleanValue(value)) {
+                    return value;
+                }
+            }
+            return value;
+        }
+
+    }
+
+    /**
+     * <code>==</code>と<code>!=</code>を評価するクラスです。
+     */
+    protected static class EqualEvaluator extends Evaluator {
+
+        private final Evaluator left;
+
+        private final Evaluator right;
+
+        private final boolean not;
+
+        private final Object ognlExpression;
+
+        /**
+         * {@link EqualEvaluator}を作成します。
+         * 
+         * @param left
+         *            左辺を評価するオブジェクト
+         * @param right
+         *            右辺を評価するオブジェクト
+         * @param not
+         *            <code>!=</code>の場合は<code>true</code>
+         */
+        public EqualEvaluator(final Evaluator left, final Evaluator right,
+                final boolean not) {
+            this.left = left;
+            this.right = right;
+            this.not = not;
+            ognlExpression = parseOgnlExpression(not ? "#v0 != #v1"
+                    : "#v0 == #v1");
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object l = left.evaluate(ctx);
+            final Object r = right.evaluate(ctx);
+            final boolean equal;
+            if (l == r) {
+                equal = true;
+            } else if (l == null || r == null) {
+                equal = false;
+            } else {
+                final int result = compare(l, r);
+                if (result != INCOMPARABLE) {
+                    equal = result == 0;
+                } else if (l.getClass() == r.getClass()
+                        && (l instanceof Boolean || l instanceof Character)) {
+                    equal = l.equals(r);
+                } else {
+                    return evaluateByOgnl(ognlExpression, new Object[] { l,
+                            r });
+                }
+            }
+            return equal != not ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+    }
+
+    /**
+     * <code>&lt;</code>、<code>&gt;</code>、<code>&lt;=</code>、<code>&gt;=</code>を評価するクラスです。
+     */
+    protected static class CompareEvaluator extends Evaluator {
+
+        private final Evaluator left;
+
+        private final Evaluator right;
+
+        private final char operator;
+
+        private final boolean orEqual;
+
+        private final Object ognlExpression;
+
+        /**
+         * {@link CompareEvaluator}を作成します。
+         * 
+         * @param left
+         *            左辺を評価するオブジェクト
+         * @param right
+         *            右辺を評価するオブジェクト
+         * @param operator
+         *            演算子
+         */
+        public CompareEvaluator(final Evaluator left, final Evaluator right,
+                final String operator) {
+            this.left = left;
+            this.right = right;
+            this.operator = operator.charAt(0);
+            orEqual = operator.length() > 1;
+            ognlExpression = parseOgnlExpression("#v0 " + operator + " #v1");
+        }
+
+        public Object evaluate(final SqlContext ctx) {
+            final Object l = left.evaluate(ctx);
+            final Object r = right.evaluate(ctx);
+            final int result = compare(l, r);
+            if (result == INCOMPARABLE) {
+                return evaluateByOgnl(ognlExpression, new Object[] { l, r });
+            }
+            final boolean b;
+            if (result == 0) {
+                b = orEqual;
+            } else {
+                b = operator == '<' ? result < 0 : result > 0;
+            }
+            return b ? Boolean.TRUE : Boolean.FALSE;
+        }
+
+    }
+
+}
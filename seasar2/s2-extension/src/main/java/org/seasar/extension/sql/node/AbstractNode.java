@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.seasar.extension.sql.Node;
+import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.context.SqlContextImpl;
 
 /**
  * <code>Node</code>の抽象クラスです。
@@ -47,4 +49,19 @@ public abstract class AbstractNode implements Node {
     public void addChild(Node node) {
         children.add(node);
     }
+
+    /**
+     * 組み立てられるSQLの形を決める分岐の結果をコンテキストに記録します。
+     * 
+     * @param ctx
+     *            コンテキスト
+     * @param result
+     *            分岐の結果
+     * @see SqlContextImpl#addBranchResult(Object)
+     */
+    protected void addBranchResult(SqlContext ctx, Object result) {
+        if (ctx instanceof SqlContextImpl) {
+            ((SqlContextImpl) ctx).addBranchResult(result);
+        }
+    }
 }
\ No newline at end of file
@@ -30,10 +30,14 @@ import org.seasar.framework.util.StringUtil;
  */
 public class BindVariableNode extends AbstractNode {
 
+    private static final PropertyDesc[] EMPTY_DESCS = new PropertyDesc[0];
+
     private String expression;
 
     private String[] names;
 
+    private volatile PropertyChain propertyChain;
+
     /**
      * <code>BindVariableNode</code>を作成します。
      * 
@@ -56,6 +60,18 @@ public class BindVariableNode extends AbstractNode {
     public void accept(SqlContext ctx) {
         Object value = ctx.getArg(names[0]);
         Class clazz = ctx.getArgType(names[0]);
+        PropertyDesc[] propertyDescs = getPropertyDescs(clazz);
+        if (propertyDescs != null) {
+            for (int i = 0; i < propertyDescs.length; ++i) {
+                if (value == null) {
+                    break;
+                }
+                value = propertyDescs[i].getValue(value);
+                clazz = propertyDescs[i].getPropertyType();
+            }
+            ctx.addSql("?", value, clazz);
+            return;
+        }
         for (int pos = 1; pos < names.length; pos++) {
             BeanDesc beanDesc = BeanDescFactory.getBeanDesc(clazz);
             PropertyDesc pd = beanDesc.getPropertyDesc(names[pos]);
@@ -67,4 +83,59 @@ public class BindVariableNode extends AbstractNode {
         }
         ctx.addSql("?", value, clazz);
     }
+
+    /**
+     * パラメータの型からたどったプロパティ記述の配列を返します。
+     * <p>
+     * プロパティ記述は直前に使用したパラメータの型に対して保持するため、
+     * 同じ型のパラメータで実行する限り{@link BeanDesc}を検索しません。
+     * </p>
+     * 
+     * @param clazz
+     *            パラメータの型
+     * @return プロパティ記述の配列、プロパティがたどれない場合は<code>null</code>
+     */
+    protected PropertyDesc[] getPropertyDescs(Class clazz) {
+        if (names.length == 1) {
+            return EMPTY_DESCS;
+        }
+        if (clazz == null) {
+            return null;
+        }
+        PropertyChain chain = propertyChain;
+        if (chain == null || chain.clazz != clazz) {
+            chain = new PropertyChain(clazz, createPropertyDescs(clazz));
+            propertyChain = chain;
+        }
+        return chain.propertyDescs;
+    }
+
+    private PropertyDesc[] createPropertyDescs(Class clazz) {
+        PropertyDesc[] propertyDescs = new PropertyDesc[names.length - 1];
+        for (int pos = 1; pos < names.length; pos++) {
+            BeanDesc beanDesc = BeanDescFactory.getBeanDesc(clazz);
+            if (!beanDesc.hasPropertyDesc(names[pos])) {
+                return null;
+            }
+            PropertyDesc pd = beanDesc.getPropertyDesc(names[pos]);
+            propertyDescs[pos - 1] = pd;
+            clazz = pd.getPropertyType();
+        }
+        return propertyDescs;
+    }
+
+    /**
+     * 直前に使用したパラメータの型と、その型からたどったプロパティ記述の配列の組です。
+     */
+    private static class PropertyChain {
+
+        private final Class clazz;
+
+        private final PropertyDesc[] propertyDescs;
+
+        PropertyChain(Class clazz, PropertyDesc[] propertyDescs) {
+            this.clazz = clazz;
+            this.propertyDescs = propertyDescs;
+        }
+    }
 }
\ No newline at end of file
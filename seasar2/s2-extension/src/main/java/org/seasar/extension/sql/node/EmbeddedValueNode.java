@@ -74,7 +74,10 @@ public class EmbeddedValueNode extends AbstractNode {
             if (sql.indexOf(';') >= 0) {
                 throw new SemicolonNotAllowedRuntimeException();
             }
+            addBranchResult(ctx, sql);
             ctx.addSql(sql);
+        } else {
+            addBranchResult(ctx, null);
         }
     }
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ package org.seasar.extension.sql.node;
 import org.seasar.extension.sql.IllegalBoolExpressionRuntimeException;
 import org.seasar.extension.sql.Node;
 import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.expression.SqlExpression;
+import org.seasar.extension.sql.expression.SqlExpressionCompiler;
 import org.seasar.framework.util.OgnlUtil;
 
 /**
@@ -30,7 +32,7 @@ public class IfNode extends ContainerNode {
 
     private String expression;
 
-    private Object parsedExpression;
+    private SqlExpression compiledExpression;
 
     private ElseNode elseNode;
 
@@ -41,7 +43,8 @@ public class IfNode extends ContainerNode {
      */
     public IfNode(String expression) {
         this.expression = expression;
-        this.parsedExpression = OgnlUtil.parseExpression(expression);
+        this.compiledExpression = SqlExpressionCompiler.compile(expression,
+                OgnlUtil.parseExpression(expression));
     }
 
     /**
@@ -72,8 +75,9 @@ public class IfNode extends ContainerNode {
     }
 
     public void accept(SqlContext ctx) {
-        Object result = OgnlUtil.getValue(parsedExpression, ctx);
+        Object result = compiledExpression.evaluate(ctx);
         if (result instanceof Boolean) {
+            addBranchResult(ctx, result);
             if (((Boolean) result).booleanValue()) {
                 super.accept(ctx);
                 ctx.setEnabled(true);
@@ -20,6 +20,8 @@ import java.util.List;
 
 import org.seasar.extension.sql.Node;
 import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.expression.SqlExpression;
+import org.seasar.extension.sql.expression.SqlExpressionCompiler;
 import org.seasar.framework.util.OgnlUtil;
 
 /**
@@ -32,7 +34,7 @@ public class ParenBindVariableNode extends AbstractNode {
 
     private String expression;
 
-    private Object parsedExpression;
+    private SqlExpression compiledExpression;
 
     /**
      * <code>ParenBindVariableNode</code>を作成します。
@@ -41,7 +43,8 @@ public class ParenBindVariableNode extends AbstractNode {
      */
     public ParenBindVariableNode(String expression) {
         this.expression = expression;
-        this.parsedExpression = OgnlUtil.parseExpression(expression);
+        this.compiledExpression = SqlExpressionCompiler.compile(expression,
+                OgnlUtil.parseExpression(expression));
     }
 
     /**
@@ -54,14 +57,16 @@ public class ParenBindVariableNode extends AbstractNode {
     }
 
     public void accept(SqlContext ctx) {
-        Object var = OgnlUtil.getValue(parsedExpression, ctx);
+        Object var = compiledExpression.evaluate(ctx);
         if (var instanceof List) {
             bindArray(ctx, ((List) var).toArray());
         } else if (var == null) {
+            addBranchResult(ctx, new Integer(0));
             return;
         } else if (var.getClass().isArray()) {
             bindArray(ctx, var);
         } else {
+            addBranchResult(ctx, new Integer(-1));
             ctx.addSql("?", var, var.getClass());
         }
 
@@ -73,6 +78,7 @@ public class ParenBindVariableNode extends AbstractNode {
      */
     protected void bindArray(SqlContext ctx, Object array) {
         int length = Array.getLength(array);
+        addBranchResult(ctx, new Integer(length));
         if (length == 0) {
             return;
         }
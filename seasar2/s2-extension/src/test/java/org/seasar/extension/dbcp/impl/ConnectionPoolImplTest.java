@@ -16,6 +16,7 @@
 package org.seasar.extension.dbcp.impl;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import javax.sql.XAConnection;
@@ -495,6 +496,126 @@ public class ConnectionPoolImplTest extends S2TestCase {
         assertTrue(t2 - t1 >= 2000);
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testMetrics() throws Exception {
+        ConnectionPoolImpl pool = (ConnectionPoolImpl) pool_;
+        ConnectionPoolMetrics metrics = new ConnectionPoolMetrics();
+        metrics.setLeakThreshold(1);
+        metrics.setCaptureCheckOutStack(true);
+        pool.setMetrics(metrics);
+        pool.setMaxWait(0);
+        ConnectionWrapper con = pool.checkOut();
+        try {
+            pool.checkOut();
+            fail();
+        } catch (SQLException expected) {
+        }
+        Thread.sleep(10);
+        ConnectionPoolStatistics stats = metrics.snapshot();
+        assertEquals(1, stats.getCheckOutCount());
+        assertEquals(1, stats.getTimeoutCount());
+        assertEquals(1, stats.getPhysicalConnectCount());
+        assertEquals(1, stats.getLeakSuspects().length);
+        assertNotNull(stats.getLeakSuspects()[0].getCheckOutStack());
+        assertEquals(1, stats.getCheckedOutConnections().length);
+        assertTrue(stats.getLongestHeldTime() >= 10);
+
+        pool.checkIn(con);
+        pool.close();
+        stats = metrics.snapshot();
+        assertEquals(1, stats.getHoldTimeHistogram().getCount());
+        assertEquals(1, stats.getLeakSuspectCount());
+        assertEquals(0, stats.getLeakSuspects().length);
+        assertEquals(0, stats.getCheckedOutConnections().length);
+        assertEquals(0, stats.getLongestHeldTime());
+        assertEquals(1, stats.getPhysicalCloseCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPreparedStatementCache() throws Exception {
+        ConnectionPoolImpl pool = (ConnectionPoolImpl) pool_;
+        pool.setPreparedStatementCacheSize(10);
+        ConnectionWrapper con = pool.checkOut();
+        Connection pc = con.getPhysicalConnection();
+        PreparedStatement ps = con.prepareStatement("select * from emp");
+        PreparedStatement physical = ((CachedPreparedStatement) ps)
+                .getPhysicalStatement();
+        ps.close();
+        pool.checkIn(con);
+
+        ConnectionWrapper con2 = pool.checkOut();
+        assertSame(pc, con2.getPhysicalConnection());
+        PreparedStatement ps2 = con2.prepareStatement("select * from emp");
+        assertSame(physical, ((CachedPreparedStatement) ps2)
+                .getPhysicalStatement());
+        ps2.close();
+        pool.checkIn(con2);
+        pool.close();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaintenance_fillFreePool() throws Exception {
+        ConnectionPoolImpl pool = (ConnectionPoolImpl) pool_;
+        pool.setMaxPoolSize(3);
+        pool.setMinPoolSize(2);
+        pool.setMaintenanceInterval(1);
+        pool.initialize();
+        Thread.sleep(500);
+        assertEquals(2, pool.getFreePoolSize());
+        ConnectionWrapper con = pool.checkOut();
+        assertEquals(1, pool.getFreePoolSize());
+        pool.checkIn(con);
+        assertEquals(2, pool.getFreePoolSize());
+        pool.close();
+        assertEquals(0, pool.getFreePoolSize());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaintenance_validateFreePool() throws Exception {
+        ConnectionPoolImpl pool = (ConnectionPoolImpl) pool_;
+        pool.setMaxPoolSize(2);
+        pool.setValidationQuery("select * from hogehoge");
+        pool.setValidationInterval(600 * 1000);
+        ConnectionWrapper con1 = pool.checkOut();
+        ConnectionWrapper con2 = pool.checkOut();
+        Connection pc1 = con1.getPhysicalConnection();
+        Connection pc2 = con2.getPhysicalConnection();
+        pool.checkIn(con1);
+        pool.checkIn(con2);
+        assertEquals(2, pool.getFreePoolSize());
+        Thread.sleep(10);
+        pool.maintain();
+        assertEquals(0, pool.getFreePoolSize());
+        assertTrue(pc1.isClosed());
+        assertTrue(pc2.isClosed());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMaintenance_validateFreePool_valid() throws Exception {
+        ConnectionPoolImpl pool = (ConnectionPoolImpl) pool_;
+        pool.setValidationQuery("select count(*) from INFORMATION_SCHEMA.SYSTEM_USERS");
+        pool.setValidationInterval(600 * 1000);
+        ConnectionWrapper con = pool.checkOut();
+        XAConnection xaCon = con.getXAConnection();
+        pool.checkIn(con);
+        Thread.sleep(10);
+        pool.maintain();
+        assertEquals(1, pool.getFreePoolSize());
+        con = pool.checkOut();
+        assertSame(xaCon, con.getXAConnection());
+        pool.checkIn(con);
+    }
+
     protected void setUp() throws Exception {
         include(PATH);
     }
@@ -15,6 +15,8 @@
  */
 package org.seasar.extension.dbcp.impl;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import javax.sql.ConnectionEvent;
@@ -27,6 +29,8 @@ import org.seasar.extension.dbcp.ConnectionWrapper;
 import org.seasar.extension.jta.TransactionManagerImpl;
 import org.seasar.extension.unit.S2TestCase;
 import org.seasar.framework.mock.sql.MockConnection;
+import org.seasar.framework.mock.sql.MockPreparedStatement;
+import org.seasar.framework.mock.sql.MockResultSet;
 import org.seasar.framework.mock.sql.MockXAConnection;
 
 /**
@@ -189,6 +193,85 @@ public class ConnectionWrapperImplTest extends S2TestCase {
         }
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testPreparedStatementCache() throws Exception {
+        MockXAConnection xaCon = new MockXAConnection();
+        PreparedStatementCache cache = new PreparedStatementCache(1);
+        ConnectionWrapperImpl wrapper = new ConnectionWrapperImpl(xaCon, xaCon
+                .getConnection(), dummyPool_, null, cache);
+        PreparedStatement ps = wrapper.prepareStatement("select * from emp");
+        assertTrue(ps instanceof CachedPreparedStatement);
+        MockPreparedStatement physical = (MockPreparedStatement) ((CachedPreparedStatement) ps)
+                .getPhysicalStatement();
+        ps.setMaxRows(10);
+        ps.close();
+        assertFalse(physical.isClosed());
+        assertEquals(0, physical.getMaxRows());
+        assertEquals(1, cache.size());
+        try {
+            ps.executeQuery();
+            fail();
+        } catch (SQLException expected) {
+        }
+
+        PreparedStatement ps2 = wrapper.prepareStatement("select * from emp");
+        assertSame(physical, ((CachedPreparedStatement) ps2)
+                .getPhysicalStatement());
+        assertEquals(0, cache.size());
+        PreparedStatement ps3 = wrapper.prepareStatement("select * from emp",
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        assertNotSame(physical, ((CachedPreparedStatement) ps3)
+                .getPhysicalStatement());
+        ps2.close();
+        ps3.close();
+        assertEquals(1, cache.size());
+        assertTrue(physical.isClosed());
+
+        wrapper.closeReally();
+        assertTrue(((MockPreparedStatement) ((CachedPreparedStatement) ps3)
+                .getPhysicalStatement()).isClosed());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPreparedStatementCache_reset() throws Exception {
+        MockXAConnection xaCon = new MockXAConnection();
+        PreparedStatementCache cache = new PreparedStatementCache(1);
+        ConnectionWrapperImpl wrapper = new ConnectionWrapperImpl(xaCon, xaCon
+                .getConnection(), dummyPool_, null, cache);
+        PreparedStatement ps = wrapper.prepareStatement("select * from emp");
+        MockPreparedStatement physical = (MockPreparedStatement) ((CachedPreparedStatement) ps)
+                .getPhysicalStatement();
+        MockResultSet keys = new MockResultSet();
+        physical.setGeneratedKeys(keys);
+        assertSame(keys, ps.getGeneratedKeys());
+        ps.setEscapeProcessing(false);
+        ps.close();
+        assertTrue(keys.isClosed());
+        assertTrue(physical.isEscapeProcessing());
+        assertFalse(physical.isClosed());
+        assertEquals(1, cache.size());
+
+        ps = wrapper.prepareStatement("select * from emp");
+        ps.setCursorName("hoge");
+        ps.close();
+        assertTrue(physical.isClosed());
+        assertEquals(0, cache.size());
+
+        ps = wrapper.prepareStatement("select * from emp");
+        physical = (MockPreparedStatement) ((CachedPreparedStatement) ps)
+                .getPhysicalStatement();
+        ((CachedPreparedStatement) ps).setPoolable(false);
+        ps.close();
+        assertTrue(physical.isClosed());
+        assertEquals(0, cache.size());
+        wrapper.closeReally();
+    }
+
     protected void setUp() throws Exception {
         include(PATH);
     }
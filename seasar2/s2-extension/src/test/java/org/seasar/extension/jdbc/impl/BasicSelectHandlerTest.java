@@ -17,6 +17,8 @@ package org.seasar.extension.jdbc.impl;
 
 import java.util.Map;
 
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.unit.S2TestCase;
 import org.seasar.framework.exception.SQLRuntimeException;
 import org.seasar.framework.exception.SSQLException;
@@ -39,6 +41,26 @@ public class BasicSelectHandlerTest extends S2TestCase {
         assertNotNull("1", ret);
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testExecute_statistics() throws Exception {
+        String sql = "select * from emp where deptno = ?";
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        SqlStatisticsRegistryLocator.setInstance(registry);
+        try {
+            BasicSelectHandler handler = new BasicSelectHandler(
+                    getDataSource(), sql, new MapListResultSetHandler());
+            handler.execute(new Object[] { new Integer(20) });
+            SqlStatistics statistics = registry.get(sql);
+            assertEquals(1, statistics.getExecutionCount());
+            assertEquals(5, statistics.getFetchedRows());
+            assertEquals(0, statistics.getErrorCount());
+        } finally {
+            SqlStatisticsRegistryLocator.setInstance(null);
+        }
+    }
+
     /**
      * @throws Exception
      */
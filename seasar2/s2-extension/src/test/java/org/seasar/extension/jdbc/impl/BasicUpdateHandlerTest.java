@@ -17,6 +17,8 @@ package org.seasar.extension.jdbc.impl;
 
 import java.util.Date;
 
+import org.seasar.extension.jdbc.SqlStatistics;
+import org.seasar.extension.jdbc.SqlStatisticsRegistryLocator;
 import org.seasar.extension.unit.S2TestCase;
 import org.seasar.framework.exception.SQLRuntimeException;
 import org.seasar.framework.exception.SSQLException;
@@ -39,6 +41,26 @@ public class BasicUpdateHandlerTest extends S2TestCase {
         assertEquals(1, ret);
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testExecute_statisticsTx() throws Exception {
+        String sql = "update emp set comm = ? where deptno = ?";
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        SqlStatisticsRegistryLocator.setInstance(registry);
+        try {
+            BasicUpdateHandler handler = new BasicUpdateHandler(
+                    getDataSource(), sql);
+            int ret = handler.execute(new Object[] { null, new Integer(20) });
+            SqlStatistics statistics = registry.get(sql);
+            assertEquals(1, statistics.getExecutionCount());
+            assertEquals(ret, statistics.getUpdatedRows());
+            assertEquals(0, statistics.getFetchedRows());
+        } finally {
+            SqlStatisticsRegistryLocator.setInstance(null);
+        }
+    }
+
     /**
      * @throws Exception
      */
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.SqlLog;
+
+public class SqlLogImplTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testGetCompleteSql() throws Exception {
+        SqlLog sqlLog = new SqlLogImpl("select * from emp where empno = ?",
+                "select * from emp where empno = 10", new Object[] { "x" },
+                new Class[] { String.class });
+        assertEquals("select * from emp where empno = 10", sqlLog
+                .getCompleteSql());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetCompleteSql_lazy() throws Exception {
+        SqlLog sqlLog = new SqlLogImpl("select * from emp where ename = ?",
+                new Object[] { "SCOTT" }, new Class[] { String.class });
+        assertEquals("select * from emp where ename = ?", sqlLog.getRawSql());
+        String completeSql = sqlLog.getCompleteSql();
+        assertEquals("select * from emp where ename = 'SCOTT'", completeSql);
+        assertSame(completeSql, sqlLog.getCompleteSql());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testBatchSqlLog() throws Exception {
+        SqlLog sample = new SqlLogImpl("delete from emp where empno = ?",
+                new Object[] { new Integer(10) },
+                new Class[] { Integer.class });
+        BatchSqlLogImpl batchSqlLog = new BatchSqlLogImpl(
+                "delete from emp where empno = ?", 100,
+                new SqlLog[] { sample });
+        assertEquals(100, batchSqlLog.getBatchSize());
+        assertEquals(1, batchSqlLog.getSampleSize());
+        assertSame(sample, batchSqlLog.getSample(0));
+        assertEquals("delete from emp where empno = 10", batchSqlLog
+                .getCompleteSql());
+
+        batchSqlLog = new BatchSqlLogImpl("delete from emp where empno = ?",
+                100, null);
+        assertEquals(0, batchSqlLog.getSampleSize());
+        assertEquals("delete from emp where empno = ?", batchSqlLog
+                .getCompleteSql());
+        assertNull(batchSqlLog.getBindArgs());
+    }
+
+}
@@ -86,6 +86,47 @@ public class SqlLogRegistryImplTest extends S2TestCase {
         assertSame(sqlLog4, registry.get(1));
     }
 
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testAdd_wrapAround() throws Exception {
+        SqlLogRegistryImpl registry = new SqlLogRegistryImpl(3);
+        SqlLog[] sqlLogs = new SqlLog[7];
+        for (int i = 0; i < sqlLogs.length; ++i) {
+            sqlLogs[i] = new SqlLogImpl(rawSql, bindArgs, bindArgTypes);
+            registry.add(sqlLogs[i]);
+        }
+        assertEquals(3, registry.getSize());
+        assertSame(sqlLogs[4], registry.get(0));
+        assertSame(sqlLogs[5], registry.get(1));
+        assertSame(sqlLogs[6], registry.getLast());
+        try {
+            registry.get(3);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    /**
+     * 
+     * @throws Exception
+     */
+    public void testAdd_otherThread() throws Exception {
+        final SqlLogRegistryImpl registry = new SqlLogRegistryImpl(3);
+        registry.add(sqlLog);
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                registry.add(sqlLog2);
+                registry.add(sqlLog3);
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(1, registry.getSize());
+        assertSame(sqlLog, registry.getLast());
+    }
+
     /**
      * 
      * @throws Exception
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.jdbc.impl;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.jdbc.SqlStatistics;
+
+public class SqlStatisticsRegistryImplTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        registry.record("select * from emp", 10, 3, 0);
+        registry.record("select * from emp", 30, 2, 0);
+        registry.recordFailure("select * from emp", 5);
+        registry.record("update emp set ename = ?", 4, 0, 1);
+        assertEquals(2, registry.getSize());
+
+        SqlStatistics statistics = registry.get("select * from emp");
+        assertEquals("select * from emp", statistics.getRawSql());
+        assertEquals(3, statistics.getExecutionCount());
+        assertEquals(1, statistics.getErrorCount());
+        assertEquals(45, statistics.getTotalTime());
+        assertEquals(15.0, statistics.getMeanTime(), 0.0);
+        assertEquals(30, statistics.getMaxTime());
+        assertEquals(30, statistics.getPercentileTime(99));
+        assertEquals(5, statistics.getFetchedRows());
+        assertEquals(0, statistics.getUpdatedRows());
+
+        statistics = registry.get("update emp set ename = ?");
+        assertEquals(1, statistics.getExecutionCount());
+        assertEquals(1, statistics.getUpdatedRows());
+        assertNull(registry.get("delete from emp"));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord_snapshot() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        registry.record("select * from emp", 10, 3, 0);
+        SqlStatistics statistics = registry.get("select * from emp");
+        registry.record("select * from emp", 10, 3, 0);
+        assertEquals(1, statistics.getExecutionCount());
+        assertEquals(2, registry.get("select * from emp").getExecutionCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testRecord_limitSize() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl(2);
+        registry.record("aaa", 1, 0, 0);
+        registry.record("bbb", 1, 0, 0);
+        registry.record("ccc", 1, 0, 0);
+        registry.record("aaa", 1, 0, 0);
+        assertEquals(2, registry.getSize());
+        assertEquals(2, registry.get("aaa").getExecutionCount());
+        assertNull(registry.get("ccc"));
+        assertEquals(2, registry.getAll().length);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testClear() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        registry.record("aaa", 1, 0, 0);
+        registry.clear();
+        assertEquals(0, registry.getSize());
+        assertNull(registry.get("aaa"));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testSlowQueryThreshold() throws Exception {
+        SqlStatisticsRegistryImpl registry = new SqlStatisticsRegistryImpl();
+        assertEquals(-1, registry.getSlowQueryThreshold());
+        registry.setSlowQueryThreshold(10);
+        registry.record("aaa", 20, 0, 0);
+        assertEquals(10, registry.getSlowQueryThreshold());
+        assertEquals(1, registry.get("aaa").getExecutionCount());
+    }
+
+}
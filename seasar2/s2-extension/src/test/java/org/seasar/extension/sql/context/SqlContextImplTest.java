@@ -15,8 +15,13 @@
  */
 package org.seasar.extension.sql.context;
 
+import java.util.Arrays;
+
 import junit.framework.TestCase;
 
+import org.seasar.extension.sql.Node;
+import org.seasar.extension.sql.parser.SqlParserImpl;
+
 /**
  * @author li0934
  * 
@@ -60,4 +65,32 @@ public class SqlContextImplTest extends TestCase {
         ctx.addArg("?2", "111", String.class);
         ctx.getArgType("hoge");
     }
-}
+
+    /**
+     * 
+     */
+    public void testRecordingBranchResults() {
+        String sql = "SELECT * FROM emp/*BEGIN*/ WHERE /*IF job != null*/"
+                + "job = /*job*/'CLERK'/*END*//*IF deptno != null*/ "
+                + "AND deptno = /*deptno*/20/*END*//*END*/";
+        Node root = new SqlParserImpl(sql).parse();
+        SqlContextImpl ctx = new SqlContextImpl();
+        ctx.setRecordingBranchResults(true);
+        assertTrue(ctx.isRecordingBranchResults());
+        ctx.addArg("job", null, String.class);
+        ctx.addArg("deptno", new Integer(20), Integer.class);
+        root.accept(ctx);
+        assertEquals("", ctx.getSql());
+        assertEquals(Arrays.asList(new Object[] { Boolean.FALSE,
+                Boolean.TRUE }), ctx.getBranchResults());
+        assertEquals(1, ctx.getBindVariables().length);
+        assertEquals(new Integer(20), ctx.getBindVariables()[0]);
+
+        SqlContextImpl ctx2 = ctx.copyArgs();
+        assertFalse(ctx2.isRecordingBranchResults());
+        assertNull(ctx2.getBranchResults());
+        root.accept(ctx2);
+        assertEquals("SELECT * FROM emp WHERE deptno = ?", ctx2.getSql());
+        assertEquals(new Integer(20), ctx2.getBindVariables()[0]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.extension.sql.expression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.seasar.extension.sql.SqlContext;
+import org.seasar.extension.sql.context.SqlContextImpl;
+import org.seasar.extension.sql.expression.SqlExpressionCompiler.CompiledExpression;
+import org.seasar.extension.sql.expression.SqlExpressionCompiler.OgnlExpression;
+import org.seasar.framework.exception.OgnlRuntimeException;
+import org.seasar.framework.util.OgnlUtil;
+
+public class SqlExpressionCompilerTest extends TestCase {
+
+    private SqlContext ctx;
+
+    protected void setUp() throws Exception {
+        ctx = new SqlContextImpl();
+        Map map = new HashMap();
+        map.put("bbb", "222");
+        List list = new ArrayList();
+        list.add("x");
+        Hoge hoge = new Hoge();
+        hoge.setName("hoge");
+        hoge.setChild(new Hoge());
+        ctx.addArg("aaa", "111", String.class);
+        ctx.addArg("num", new Integer(10), Integer.class);
+        ctx.addArg("dbl", new Double(10.5), Double.class);
+        ctx.addArg("nul", null, String.class);
+        ctx.addArg("map", map, Map.class);
+        ctx.addArg("list", list, List.class);
+        ctx.addArg("array", new String[] { "a", "b" }, String[].class);
+        ctx.addArg("hoge", hoge, Hoge.class);
+        ctx.addArg("flag", Boolean.TRUE, Boolean.class);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testLiteral() throws Exception {
+        assertCompiled("null");
+        assertCompiled("true");
+        assertCompiled("false");
+        assertCompiled("123");
+        assertCompiled("123L");
+        assertCompiled("1.5");
+        assertCompiled("\"abc\"");
+        assertCompiled("'abc'");
+        assertCompiled("'a'");
+        assertCompiled("'a\\'b'");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testParameter() throws Exception {
+        assertCompiled("aaa");
+        assertCompiled("has_aaa");
+        assertCompiled("has_xxx");
+        assertCompiled("map.bbb");
+        assertCompiled("array.length");
+        assertCompiled("hoge.name");
+        assertCompiled("hoge.child.name");
+        assertCompiled("hoge.child.name == null");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testMethod() throws Exception {
+        assertCompiled("aaa.length()");
+        assertCompiled("list.isEmpty()");
+        assertCompiled("list.size() > 0");
+        assertCompiled("aaa.startsWith(\"1\")");
+        assertCompiled("@org.seasar.framework.util.StringUtil@isEmpty(aaa)");
+        assertCompiled("@org.seasar.framework.util.StringUtil@isEmpty(nul)");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testComparison() throws Exception {
+        assertCompiled("aaa != null");
+        assertCompiled("nul == null");
+        assertCompiled("num == 10");
+        assertCompiled("num eq 10L");
+        assertCompiled("num != 11");
+        assertCompiled("num < 10.5");
+        assertCompiled("dbl > num");
+        assertCompiled("num <= 10");
+        assertCompiled("num gte 11");
+        assertCompiled("aaa == \"111\"");
+        assertCompiled("aaa < \"2\"");
+        assertCompiled("flag == true");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testLogical() throws Exception {
+        assertCompiled("aaa != null && num > 5");
+        assertCompiled("aaa == null || num > 5");
+        assertCompiled("aaa != null and nul != null or !flag");
+        assertCompiled("not (num > 5)");
+        assertCompiled("nul && aaa");
+        assertCompiled("aaa && num");
+        assertCompiled("nul || num");
+        assertCompiled("!aaa");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPartialOgnl() throws Exception {
+        assertCompiled("aaa == 'a'");
+        assertCompiled("num == \"10\"");
+        assertCompiled("map.size");
+        assertCompiled("list.size");
+        assertCompiled("aaa.indexOf(\"1\")");
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPartialOgnl_exception() throws Exception {
+        try {
+            compile("nul.length()").evaluate(ctx);
+            fail();
+        } catch (OgnlRuntimeException expected) {
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPartialOgnl_nullProperty() throws Exception {
+        try {
+            compile("hoge.child.child.name").evaluate(ctx);
+            fail();
+        } catch (OgnlRuntimeException expected) {
+        }
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPartialOgnl_invokeOnce() throws Exception {
+        Hoge hoge = new Hoge();
+        ctx.addArg("counter", hoge, Hoge.class);
+        assertEquals(Boolean.TRUE, compile("counter.countUp() == 1")
+                .evaluate(ctx));
+        assertEquals(1, hoge.getCount());
+        assertEquals(Boolean.TRUE, compile(
+                "!(counter.countUp() == 'a') && counter.countUp() >= 3")
+                .evaluate(ctx));
+        assertEquals(3, hoge.getCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testInvoke_exception() throws Exception {
+        Hoge hoge = new Hoge();
+        ctx.addArg("counter", hoge, Hoge.class);
+        try {
+            compile("counter.fail() == 1").evaluate(ctx);
+            fail();
+        } catch (OgnlRuntimeException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(1, hoge.getCount());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testUnsupportedSyntax() throws Exception {
+        assertNotCompiled("num + 1");
+        assertNotCompiled("array[0]");
+        assertNotCompiled("#this");
+        assertNotCompiled("num in {1, 2}");
+        assertNotCompiled("flag ? 1 : 2");
+        assertNotCompiled("-1");
+        assertNotCompiled("0x10");
+        assertNotCompiled("1.5f");
+        assertNotCompiled("size()");
+        assertNotCompiled("@java.lang.Integer@MAX_VALUE");
+        assertNotCompiled("@xxx.Yyy@zzz()");
+    }
+
+    private SqlExpression compile(String expression) {
+        return SqlExpressionCompiler.compile(expression, OgnlUtil
+                .parseExpression(expression));
+    }
+
+    private void assertCompiled(String expression) {
+        SqlExpression compiled = compile(expression);
+        assertTrue(expression, compiled instanceof CompiledExpression);
+        assertEquals(expression, OgnlUtil.getValue(OgnlUtil
+                .parseExpression(expression), ctx), compiled.evaluate(ctx));
+    }
+
+    private void assertNotCompiled(String expression) {
+        assertTrue(expression,
+                compile(expression) instanceof OgnlExpression);
+    }
+
+    /**
+     * 
+     */
+    public static class Hoge {
+
+        private String name;
+
+        private Hoge child;
+
+        private int count;
+
+        /**
+         * @return Returns the name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param name
+         *            The name to set.
+         */
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return Returns the child.
+         */
+        public Hoge getChild() {
+            return child;
+        }
+
+        /**
+         * @param child
+         *            The child to set.
+         */
+        public void setChild(Hoge child) {
+            this.child = child;
+        }
+
+        /**
+         * @return Returns the count.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return Returns the count as string.
+         */
+        public String countUp() {
+            return String.valueOf(++count);
+        }
+
+        /**
+         * @return never returns
+         */
+        public String fail() {
+            ++count;
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.beans.impl;
+
+/**
+ * Beanのプロパティにリフレクションを使わずにアクセスするためのクラスです。
+ * <p>
+ * このクラスのサブクラスは{@link BeanAccessorGenerator}によってBeanのクラスごとに生成されます。
+ * プロパティはインデックスで指定します。
+ * </p>
+ * 
+ * @see BeanDescImpl#setBeanAccessorEnabled(boolean)
+ */
+public abstract class BeanAccessor {
+
+    /**
+     * プロパティ名の配列を返します。
+     * <p>
+     * 配列のインデックスは{@link #getValue(int, Object)}や{@link #setValue(int, Object, Object)}
+     * で指定するインデックスに対応します。 アクセスできないプロパティの要素は<code>null</code>です。
+     * </p>
+     * 
+     * @return プロパティ名の配列
+     */
+    public abstract String[] getPropertyNames();
+
+    /**
+     * プロパティの値を返します。
+     * 
+     * @param index
+     *            プロパティのインデックス
+     * @param target
+     *            対象のオブジェクト
+     * @return プロパティの値
+     */
+    public abstract Object getValue(int index, Object target);
+
+    /**
+     * プロパティに値を設定します。
+     * 
+     * @param index
+     *            プロパティのインデックス
+     * @param target
+     *            対象のオブジェクト
+     * @param value
+     *            プロパティの値
+     */
+    public abstract void setValue(int index, Object target, Object value);
+
+}
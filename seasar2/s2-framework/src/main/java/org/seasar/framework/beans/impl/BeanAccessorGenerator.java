@@ -0,0 +1,320 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.beans.impl;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+
+import org.seasar.framework.aop.javassist.AbstractGenerator;
+import org.seasar.framework.beans.PropertyDesc;
+import org.seasar.framework.util.ClassPoolUtil;
+import org.seasar.framework.util.ClassUtil;
+
+/**
+ * {@link BeanAccessor}のサブクラスを生成するクラスです。
+ * <p>
+ * 生成されるクラスはBeanのクラスと同じクラスローダ、同じパッケージに定義されます。
+ * 次のプロパティはアクセスの対象外となり、リフレクションでアクセスされます。
+ * </p>
+ * <ul>
+ * <li>生成されるクラスから参照できない型のプロパティ</li>
+ * <li>publicでないメソッドまたはフィールドでアクセスするプロパティ</li>
+ * </ul>
+ * <p>
+ * Beanのクラスがブートストラップクラスローダでロードされた場合や<code>java.</code>パッケージの場合は
+ * {@link BeanAccessor}を生成できません。
+ * </p>
+ */
+public class BeanAccessorGenerator extends AbstractGenerator {
+
+    /**
+     * 生成されるクラス名のサフィックスです。
+     */
+    public static final String SUFFIX = "$$BeanAccessor";
+
+    /**
+     * Beanのクラスです。
+     */
+    protected final Class beanClass;
+
+    /**
+     * プロパティ記述の配列です。
+     */
+    protected final PropertyDesc[] propertyDescs;
+
+    /**
+     * {@link BeanAccessorGenerator}を作成します。
+     *
+     * @param classPool
+     *            クラスプール
+     * @param beanClass
+     *            Beanのクラス
+     * @param propertyDescs
+     *            プロパティ記述の配列
+     */
+    public BeanAccessorGenerator(final ClassPool classPool,
+            final Class beanClass, final PropertyDesc[] propertyDescs) {
+        super(classPool);
+        this.beanClass = beanClass;
+        this.propertyDescs = propertyDescs;
+    }
+
+    /**
+     * Beanのクラスに対する{@link BeanAccessor}を返します。
+     * <p>
+     * すでに生成されたクラスがある場合はそのクラスを再利用します。
+     * </p>
+     *
+     * @param beanClass
+     *            Beanのクラス
+     * @param propertyDescs
+     *            プロパティ記述の配列
+     * @return {@link BeanAccessor}、生成できない場合は<code>null</code>
+     */
+    public static BeanAccessor getBeanAccessor(final Class beanClass,
+            final PropertyDesc[] propertyDescs) {
+        if (!isGeneratable(beanClass)) {
+            return null;
+        }
+        final ClassLoader classLoader = beanClass.getClassLoader();
+        final String accessorClassName = beanClass.getName() + SUFFIX;
+        synchronized (BeanAccessorGenerator.class) {
+            Class accessorClass = findClass(classLoader, accessorClassName);
+            if (accessorClass == null) {
+                final BeanAccessorGenerator generator = new BeanAccessorGenerator(
+                        ClassPoolUtil.getClassPool(beanClass), beanClass,
+                        propertyDescs);
+                accessorClass = generator.generate(classLoader,
+                        accessorClassName);
+            }
+            if (!BeanAccessor.class.isAssignableFrom(accessorClass)) {
+                return null;
+            }
+            return (BeanAccessor) ClassUtil.newInstance(accessorClass);
+        }
+    }
+
+    /**
+     * {@link BeanAccessor}を生成できるクラスなら<code>true</code>を返します。
+     *
+     * @param beanClass
+     *            Beanのクラス
+     * @return {@link BeanAccessor}を生成できるクラスなら<code>true</code>
+     */
+    protected static boolean isGeneratable(final Class beanClass) {
+        if (beanClass.isArray() || beanClass.isPrimitive()
+                || beanClass.getClassLoader() == null
+                || beanClass.getName().startsWith("java.")) {
+            return false;
+        }
+        try {
+            return beanClass.getClassLoader().loadClass(
+                    BeanAccessor.class.getName()) == BeanAccessor.class;
+        } catch (final ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成済みのクラスを返します。
+     *
+     * @param classLoader
+     *            クラスローダ
+     * @param className
+     *            クラス名
+     * @return 生成済みのクラス、見つからない場合は<code>null</code>
+     */
+    protected static Class findClass(final ClassLoader classLoader,
+            final String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (final ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@link BeanAccessor}のサブクラスを生成します。
+     *
+     * @param classLoader
+     *            クラスローダ
+     * @param accessorClassName
+     *            生成するクラスの名前
+     * @return 生成したクラス
+     */
+    public Class generate(final ClassLoader classLoader,
+            final String accessorClassName) {
+        final CtClass accessorClass = createCtClass(accessorClassName,
+                BeanAccessor.class);
+        try {
+            createDefaultConstructor(accessorClass);
+            createMethod(accessorClass, createGetPropertyNamesSource());
+            createMethod(accessorClass, createGetValueSource());
+            createMethod(accessorClass, createSetValueSource());
+            return toClass(classLoader, accessorClass);
+        } finally {
+            accessorClass.detach();
+        }
+    }
+
+    /**
+     * <code>getPropertyNames()</code>メソッドのソースを作成します。
+     *
+     * @return <code>getPropertyNames()</code>メソッドのソース
+     */
+    protected String createGetPropertyNamesSource() {
+        final StringBuffer buf = new StringBuffer(200);
+        buf.append("public java.lang.String[] getPropertyNames() {");
+        buf.append("return new java.lang.String[] {");
+        for (int i = 0; i < propertyDescs.length; ++i) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            if (isAccessible(propertyDescs[i])) {
+                buf.append("\"").append(propertyDescs[i].getPropertyName())
+                        .append("\"");
+            } else {
+                buf.append("null");
+            }
+        }
+        buf.append("};}");
+        return buf.toString();
+    }
+
+    /**
+     * <code>getValue(int, Object)</code>メソッドのソースを作成します。
+     *
+     * @return <code>getValue(int, Object)</code>メソッドのソース
+     */
+    protected String createGetValueSource() {
+        final String beanClassName = ClassUtil.getSimpleClassName(beanClass);
+        final StringBuffer buf = new StringBuffer(1000);
+        buf.append("public java.lang.Object getValue(int index, "
+                + "java.lang.Object target) {");
+        buf.append(beanClassName).append(" bean = (").append(beanClassName)
+                .append(") target;");
+        buf.append("switch (index) {");
+        for (int i = 0; i < propertyDescs.length; ++i) {
+            final PropertyDesc pd = propertyDescs[i];
+            if (!isAccessible(pd) || !pd.isReadable()) {
+                continue;
+            }
+            final String expr = pd.hasReadMethod() ? "bean."
+                    + pd.getReadMethod().getName() + "()" : "bean."
+                    + pd.getField().getName();
+            buf.append("case ").append(i).append(": return ").append(
+                    toObject(pd.getPropertyType(), expr)).append(";");
+        }
+        buf.append("}");
+        buf.append("throw new java.lang.IllegalArgumentException("
+                + "java.lang.String.valueOf(index));}");
+        return buf.toString();
+    }
+
+    /**
+     * <code>setValue(int, Object, Object)</code>メソッドのソースを作成します。
+     *
+     * @return <code>setValue(int, Object, Object)</code>メソッドのソース
+     */
+    protected String createSetValueSource() {
+        final String beanClassName = ClassUtil.getSimpleClassName(beanClass);
+        final StringBuffer buf = new StringBuffer(1000);
+        buf.append("public void setValue(int index, java.lang.Object target, "
+                + "java.lang.Object value) {");
+        buf.append(beanClassName).append(" bean = (").append(beanClassName)
+                .append(") target;");
+        buf.append("switch (index) {");
+        for (int i = 0; i < propertyDescs.length; ++i) {
+            final PropertyDesc pd = propertyDescs[i];
+            if (!isAccessible(pd) || !pd.isWritable()) {
+                continue;
+            }
+            final String value = fromObject(pd.getPropertyType(), "value");
+            buf.append("case ").append(i).append(": ");
+            if (pd.hasWriteMethod()) {
+                buf.append("bean.").append(pd.getWriteMethod().getName())
+                        .append("(").append(value).append(");");
+            } else {
+                buf.append("bean.").append(pd.getField().getName()).append(
+                        " = ").append(value).append(";");
+            }
+            buf.append("return;");
+        }
+        buf.append("}");
+        buf.append("throw new java.lang.IllegalArgumentException("
+                + "java.lang.String.valueOf(index));}");
+        return buf.toString();
+    }
+
+    /**
+     * 生成されるクラスからプロパティにアクセスできる場合は<code>true</code>を返します。
+     *
+     * @param propertyDesc
+     *            プロパティ記述
+     * @return 生成されるクラスからプロパティにアクセスできる場合は<code>true</code>
+     */
+    protected boolean isAccessible(final PropertyDesc propertyDesc) {
+        if (!isAccessible(propertyDesc.getPropertyType())) {
+            return false;
+        }
+        final Method readMethod = propertyDesc.getReadMethod();
+        if (readMethod != null && !Modifier.isPublic(readMethod.getModifiers())) {
+            return false;
+        }
+        final Method writeMethod = propertyDesc.getWriteMethod();
+        if (writeMethod != null
+                && !Modifier.isPublic(writeMethod.getModifiers())) {
+            return false;
+        }
+        if (readMethod == null || writeMethod == null) {
+            final Field field = propertyDesc.getField();
+            if (field != null && !Modifier.isPublic(field.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成されるクラスから型にアクセスできる場合は<code>true</code>を返します。
+     *
+     * @param type
+     *            型
+     * @return 生成されるクラスから型にアクセスできる場合は<code>true</code>
+     */
+    protected boolean isAccessible(final Class type) {
+        Class clazz = type;
+        while (clazz.isArray()) {
+            clazz = clazz.getComponentType();
+        }
+        if (clazz.isPrimitive() || Modifier.isPublic(clazz.getModifiers())) {
+            return true;
+        }
+        return clazz.getClassLoader() == beanClass.getClassLoader()
+                && getPackageName(clazz).equals(getPackageName(beanClass));
+    }
+
+    private static String getPackageName(final Class clazz) {
+        final String name = clazz.getName();
+        final int pos = name.lastIndexOf('.');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+
+}
@@ -78,6 +78,8 @@ public class BeanDescImpl implements BeanDesc {
 
     private static final String PARAMETER_NAME_ANNOTATION = "org.seasar.framework.beans.annotation.ParameterName";
 
+    private static volatile boolean beanAccessorEnabled = false;
+
     private Class beanClass;
 
     private Constructor[] constructors;
@@ -113,6 +115,37 @@ public class BeanDescImpl implements BeanDesc {
         setupPropertyDescs();
         setupMethods();
         setupFields();
+        if (beanAccessorEnabled) {
+            setupBeanAccessor();
+        }
+    }
+
+    /**
+     * プロパティへのアクセスに生成した{@link BeanAccessor}を使う場合は<code>true</code>を返します。
+     * 
+     * @return プロパティへのアクセスに生成した{@link BeanAccessor}を使う場合は<code>true</code>
+     */
+    public static boolean isBeanAccessorEnabled() {
+        return beanAccessorEnabled;
+    }
+
+    /**
+     * プロパティへのアクセスに生成した{@link BeanAccessor}を使うかどうかを設定します。
+     * <p>
+     * <code>true</code>を設定すると、以降に作成される{@link BeanDescImpl}はBeanのクラスごとに
+     * {@link BeanAccessor}を生成し、 {@link PropertyDescImpl#getValue(Object)}や
+     * {@link PropertyDescImpl#setValue(Object, Object)}はリフレクションを使わずにプロパティにアクセスします。
+     * {@link BeanAccessor}を生成できないクラスやアクセスできないプロパティは従来どおりリフレクションでアクセスします。
+     * すでに作成されている{@link BeanDescImpl}には影響しないため、
+     * 必要に応じて{@link org.seasar.framework.beans.factory.BeanDescFactory#clear()}を呼び出してください。
+     * デフォルトは<code>false</code>です。
+     * </p>
+     * 
+     * @param beanAccessorEnabled
+     *            プロパティへのアクセスに生成した{@link BeanAccessor}を使う場合は<code>true</code>
+     */
+    public static void setBeanAccessorEnabled(boolean beanAccessorEnabled) {
+        BeanDescImpl.beanAccessorEnabled = beanAccessorEnabled;
     }
 
     /**
@@ -566,6 +599,34 @@ public class BeanDescImpl implements BeanDesc {
         invalidPropertyNames.clear();
     }
 
+    private void setupBeanAccessor() {
+        int size = getPropertyDescSize();
+        PropertyDesc[] propertyDescs = new PropertyDesc[size];
+        for (int i = 0; i < size; ++i) {
+            propertyDescs[i] = getPropertyDesc(i);
+        }
+        BeanAccessor beanAccessor;
+        try {
+            beanAccessor = BeanAccessorGenerator.getBeanAccessor(beanClass,
+                    propertyDescs);
+        } catch (Throwable t) {
+            logger.log("WSSR0017", new Object[] { beanClass.getName() }, t);
+            return;
+        }
+        if (beanAccessor == null) {
+            return;
+        }
+        String[] propertyNames = beanAccessor.getPropertyNames();
+        for (int i = 0; i < size && i < propertyNames.length; ++i) {
+            if (propertyDescs[i] instanceof PropertyDescImpl
+                    && propertyDescs[i].getPropertyName().equals(
+                            propertyNames[i])) {
+                ((PropertyDescImpl) propertyDescs[i]).setBeanAccessor(
+                        beanAccessor, i);
+            }
+        }
+    }
+
     private static String decapitalizePropertyName(String name) {
         if (StringUtil.isEmpty(name)) {
             return name;
@@ -73,6 +73,10 @@ public class PropertyDescImpl implements PropertyDesc {
 
     private ParameterizedClassDesc parameterizedClassDesc;
 
+    private BeanAccessor beanAccessor;
+
+    private int beanAccessorIndex;
+
     /**
      * {@link PropertyDescImpl}を作成します。
      * 
@@ -178,6 +182,7 @@ public class PropertyDescImpl implements PropertyDesc {
 
     public final void setReadMethod(Method readMethod) {
         this.readMethod = readMethod;
+        beanAccessor = null;
         if (readMethod != null) {
             readable = true;
             readMethod.setAccessible(true);
@@ -194,6 +199,7 @@ public class PropertyDescImpl implements PropertyDesc {
 
     public final void setWriteMethod(Method writeMethod) {
         this.writeMethod = writeMethod;
+        beanAccessor = null;
         if (writeMethod != null) {
             writable = true;
             writeMethod.setAccessible(true);
@@ -210,6 +216,7 @@ public class PropertyDescImpl implements PropertyDesc {
 
     public void setField(Field field) {
         this.field = field;
+        beanAccessor = null;
         if (field != null && ModifierUtil.isPublic(field)) {
             readable = true;
             writable = true;
@@ -229,6 +236,8 @@ public class PropertyDescImpl implements PropertyDesc {
             if (!readable) {
                 throw new IllegalStateException(propertyName
                         + " is not readable.");
+            } else if (beanAccessor != null) {
+                return beanAccessor.getValue(beanAccessorIndex, target);
             } else if (hasReadMethod()) {
                 return MethodUtil.invoke(readMethod, target, EMPTY_ARGS);
             } else {
@@ -248,8 +257,12 @@ public class PropertyDescImpl implements PropertyDesc {
                         + " is not writable.");
             } else if (hasWriteMethod()) {
                 try {
-                    MethodUtil.invoke(writeMethod, target,
-                            new Object[] { value });
+                    if (beanAccessor != null) {
+                        beanAccessor.setValue(beanAccessorIndex, target, value);
+                    } else {
+                        MethodUtil.invoke(writeMethod, target,
+                                new Object[] { value });
+                    }
                 } catch (Throwable t) {
                     Class clazz = writeMethod.getDeclaringClass();
                     Class valueClass = value == null ? null : value.getClass();
@@ -272,6 +285,8 @@ public class PropertyDescImpl implements PropertyDesc {
                                     targetClass == null ? null : targetClass
                                             .getClassLoader() }).initCause(t);
                 }
+            } else if (beanAccessor != null) {
+                beanAccessor.setValue(beanAccessorIndex, target, value);
             } else {
                 FieldUtil.set(field, target, value);
             }
@@ -281,6 +296,19 @@ public class PropertyDescImpl implements PropertyDesc {
         }
     }
 
+    /**
+     * プロパティへのアクセスに使用する{@link BeanAccessor}を設定します。
+     * 
+     * @param beanAccessor
+     *            {@link BeanAccessor}
+     * @param index
+     *            {@link BeanAccessor}上のプロパティのインデックス
+     */
+    void setBeanAccessor(BeanAccessor beanAccessor, int index) {
+        this.beanAccessor = beanAccessor;
+        this.beanAccessorIndex = index;
+    }
+
     public BeanDesc getBeanDesc() {
         return beanDesc;
     }
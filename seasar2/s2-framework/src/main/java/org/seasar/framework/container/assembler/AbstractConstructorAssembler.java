@@ -38,6 +38,8 @@ import org.seasar.framework.util.ConstructorUtil;
 public abstract class AbstractConstructorAssembler extends AbstractAssembler
         implements ConstructorAssembler {
 
+    private volatile Constructor defaultConstructor;
+
     /**
      * @param componentDef
      */
@@ -110,8 +112,24 @@ public abstract class AbstractConstructorAssembler extends AbstractAssembler
      * @return コンポーネント
      */
     protected Object assembleDefault() {
+        return ConstructorUtil.newInstance(getDefaultConstructor(), null);
+    }
+
+    /**
+     * デフォルトのコンストラクタを返します。
+     * <p>
+     * コンストラクタは最初に呼び出された時に検索され、以降の呼び出しでは再利用されます。
+     * </p>
+     * 
+     * @return デフォルトのコンストラクタ
+     */
+    protected Constructor getDefaultConstructor() {
         Class clazz = getComponentDef().getConcreteClass();
-        Constructor constructor = ClassUtil.getConstructor(clazz, null);
-        return ConstructorUtil.newInstance(constructor, null);
+        Constructor constructor = defaultConstructor;
+        if (constructor == null || constructor.getDeclaringClass() != clazz) {
+            constructor = ClassUtil.getConstructor(clazz, null);
+            defaultConstructor = constructor;
+        }
+        return constructor;
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import org.seasar.framework.container.MethodAssembler;
 import org.seasar.framework.container.MethodDef;
 import org.seasar.framework.container.S2Container;
 import org.seasar.framework.container.util.BindingUtil;
+import org.seasar.framework.util.MapUtil;
 import org.seasar.framework.util.MethodUtil;
 
 /**
@@ -39,6 +40,8 @@ import org.seasar.framework.util.MethodUtil;
 public abstract class AbstractMethodAssembler extends AbstractAssembler
         implements MethodAssembler {
 
+    private final Map suitableMethods = MapUtil.createHashMap();
+
     /**
      * @param componentDef
      */
@@ -80,8 +83,7 @@ public abstract class AbstractMethodAssembler extends AbstractAssembler
                 if (methodDef.getArgDefSize() > 0) {
                     args = methodDef.getArgs();
                 } else {
-                    Method[] methods = beanDesc.getMethods(methodName);
-                    method = getSuitableMethod(methods);
+                    method = getSuitableMethod(beanDesc, methodDef);
                     if (method != null) {
                         args = getArgs(method.getParameterTypes());
                     }
@@ -110,6 +112,28 @@ public abstract class AbstractMethodAssembler extends AbstractAssembler
         methodDef.getExpression().evaluate(container, ctx);
     }
 
+    /**
+     * 適したメソッドを返します。
+     * <p>
+     * 結果は{@link MethodDef}ごとに保持され、以降の呼び出しでは再利用されます。
+     * </p>
+     * 
+     * @param beanDesc
+     * @param methodDef
+     * @return 適したメソッド、見つからない場合は<code>null</code>
+     */
+    protected Method getSuitableMethod(BeanDesc beanDesc, MethodDef methodDef) {
+        SuitableMethod suitableMethod = (SuitableMethod) suitableMethods
+                .get(methodDef);
+        if (suitableMethod == null || suitableMethod.beanDesc != beanDesc) {
+            Method[] methods = beanDesc.getMethods(methodDef.getMethodName());
+            suitableMethod = new SuitableMethod(beanDesc,
+                    getSuitableMethod(methods));
+            suitableMethods.put(methodDef, suitableMethod);
+        }
+        return suitableMethod.method;
+    }
+
     private Method getSuitableMethod(Method[] methods) {
         int argSize = -1;
         Method method = null;
@@ -135,4 +159,19 @@ public abstract class AbstractMethodAssembler extends AbstractAssembler
                     .getComponentClass(), methodName, ex);
         }
     }
+
+    /**
+     * {@link BeanDesc}ごとの適したメソッドを保持するクラスです。
+     */
+    private static class SuitableMethod {
+
+        private final BeanDesc beanDesc;
+
+        private final Method method;
+
+        SuitableMethod(BeanDesc beanDesc, Method method) {
+            this.beanDesc = beanDesc;
+            this.method = method;
+        }
+    }
 }
@@ -29,6 +29,8 @@ import org.seasar.framework.util.ConstructorUtil;
  */
 public class AutoConstructorAssembler extends AbstractConstructorAssembler {
 
+    private volatile Constructor resolvedConstructor;
+
     /**
      * {@link AutoConstructorAssembler}を作成します。
      * 
@@ -39,14 +41,34 @@ public class AutoConstructorAssembler extends AbstractConstructorAssembler {
     }
 
     protected Object doAssemble() {
-        Constructor constructor = getSuitableConstructor();
-        if (constructor == null) {
-            return assembleDefault();
-        }
-        Object[] args = getArgs(constructor.getParameterTypes());
+        Constructor constructor = getResolvedConstructor();
+        Class[] argTypes = constructor.getParameterTypes();
+        Object[] args = argTypes.length == 0 ? null : getArgs(argTypes);
         return ConstructorUtil.newInstance(constructor, args);
     }
 
+    /**
+     * インスタンス化に使用する {@link Constructor}を返します。
+     * <p>
+     * {@link #getSuitableConstructor()}の結果は最初に呼び出された時に求められ、 以降のインスタンス化では再利用されます。
+     * 適した {@link Constructor}がない場合はデフォルトのコンストラクタを返します。
+     * </p>
+     * 
+     * @return インスタンス化に使用する {@link Constructor}
+     */
+    protected Constructor getResolvedConstructor() {
+        Class clazz = getComponentDef().getConcreteClass();
+        Constructor constructor = resolvedConstructor;
+        if (constructor == null || constructor.getDeclaringClass() != clazz) {
+            constructor = getSuitableConstructor();
+            if (constructor == null) {
+                constructor = getDefaultConstructor();
+            }
+            resolvedConstructor = constructor;
+        }
+        return constructor;
+    }
+
     /**
      * 適した {@link Constructor}を返します。
      * 
@@ -24,6 +24,7 @@ import org.seasar.framework.container.AccessTypeDef;
 import org.seasar.framework.container.BindingTypeDef;
 import org.seasar.framework.container.ComponentDef;
 import org.seasar.framework.container.PropertyDef;
+import org.seasar.framework.container.hotdeploy.HotdeployUtil;
 
 /**
  * プロパティアセンブラの自動版です。
@@ -33,6 +34,8 @@ import org.seasar.framework.container.PropertyDef;
  */
 public class AutoPropertyAssembler extends AbstractPropertyAssembler {
 
+    private volatile PropertyBindingPlan propertyBindingPlan;
+
     /**
      * {@link AutoPropertyAssembler}を作成します。
      * 
@@ -57,8 +60,16 @@ public class AutoPropertyAssembler extends AbstractPropertyAssembler {
             String propName = propDef.getPropertyName();
             names.add(propName);
         }
+        PropertyBindingPlan plan = getPropertyBindingPlan(beanDesc, names);
         if (cd.isExternalBinding()) {
             bindExternally(beanDesc, cd, component, names);
+            if (plan != null) {
+                plan.bind(cd, component, names);
+                return;
+            }
+        } else if (plan != null) {
+            plan.bind(cd, component, null);
+            return;
         }
         size = beanDesc.getPropertyDescSize();
         for (int i = 0; i < size; ++i) {
@@ -71,4 +82,36 @@ public class AutoPropertyAssembler extends AbstractPropertyAssembler {
             }
         }
     }
+
+    /**
+     * 自動バインディングするプロパティの組み立て計画を返します。
+     * <p>
+     * 組み立て計画は最初に呼び出された時に作成され、以降のインスタンス化で再利用されます。
+     * HOT deployの場合は{@link ComponentDef}がリクエストごとに作り直されるため、組み立て計画を使用しません。
+     * </p>
+     * 
+     * @param beanDesc
+     * @param names
+     *            明示的に設定されるプロパティの名前
+     * @return 組み立て計画、使用しない場合は<code>null</code>
+     */
+    protected PropertyBindingPlan getPropertyBindingPlan(BeanDesc beanDesc,
+            Set names) {
+        if (HotdeployUtil.isHotdeploy()) {
+            return null;
+        }
+        PropertyBindingPlan plan = propertyBindingPlan;
+        if (plan != null && plan.getBeanDesc() == beanDesc) {
+            return plan;
+        }
+        BindingTypeDef bindingTypeDef = BindingTypeDefFactory
+                .getBindingTypeDef(BindingTypeDef.SHOULD_NAME);
+        if (!(bindingTypeDef instanceof AbstractBindingTypeDef)) {
+            return null;
+        }
+        plan = new PropertyBindingPlan(getComponentDef(), beanDesc,
+                (AbstractBindingTypeDef) bindingTypeDef, names);
+        propertyBindingPlan = plan;
+        return plan;
+    }
 }
\ No newline at end of file
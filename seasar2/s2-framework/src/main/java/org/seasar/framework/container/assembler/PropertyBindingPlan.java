@@ -0,0 +1,313 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.container.assembler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.seasar.framework.beans.BeanDesc;
+import org.seasar.framework.beans.IllegalPropertyRuntimeException;
+import org.seasar.framework.beans.PropertyDesc;
+import org.seasar.framework.container.ComponentDef;
+import org.seasar.framework.container.S2Container;
+import org.seasar.framework.container.util.BindingUtil;
+import org.seasar.framework.log.Logger;
+
+/**
+ * 自動バインディングするプロパティの組み立て計画です。
+ * <p>
+ * {@link AutoPropertyAssembler}はプロパティを自動バインディングするたびに、 {@link BeanDesc}の
+ * プロパティをたどってコンテナを何度も検索します。 このクラスはその検索結果(どのプロパティにどの{@link ComponentDef}を
+ * 結び付けるか)を一度だけ求めて保持し、 以降のインスタンス化ではコンテナを検索せずにバインディングを行います。
+ * </p>
+ * <p>
+ * 組み立て計画を作成した時点で結び付ける{@link ComponentDef}が見つからなかったインターフェース型のプロパティは、
+ * 組み立て計画を作成した時に一度だけ<code>WSSR0008</code>を出力し、 後から登録されたコンポーネントを結び付けられるように、
+ * 毎回{@link AbstractBindingTypeDef#bindAuto(ComponentDef, PropertyDesc, Object)}でバインディングします。
+ * </p>
+ */
+public class PropertyBindingPlan {
+
+    /**
+     * 型で検索した{@link ComponentDef}を結び付けることをあらわします。
+     */
+    protected static final int BY_TYPE = 0;
+
+    /**
+     * 名前で検索した{@link ComponentDef}を結び付けることをあらわします。
+     */
+    protected static final int BY_NAME = 1;
+
+    /**
+     * 自分自身の{@link ComponentDef}を結び付けることをあらわします。
+     */
+    protected static final int COMPONENT_DEF = 2;
+
+    /**
+     * 配列の要素型で検索したすべてのコンポーネントを結び付けることをあらわします。
+     */
+    protected static final int ARRAY = 3;
+
+    /**
+     * 従来どおりにバインディングすることをあらわします。
+     */
+    protected static final int FALLBACK = 4;
+
+    private static final Logger logger = Logger
+            .getLogger(PropertyBindingPlan.class);
+
+    private final BeanDesc beanDesc;
+
+    private final AbstractBindingTypeDef bindingTypeDef;
+
+    private final PropertyBinding[] bindings;
+
+    /**
+     * {@link PropertyBindingPlan}を作成します。
+     *
+     * @param componentDef
+     *            コンポーネント定義
+     * @param beanDesc
+     *            コンポーネントの{@link BeanDesc}
+     * @param bindingTypeDef
+     *            バインディングタイプ定義
+     * @param names
+     *            明示的に設定されるプロパティの名前
+     */
+    public PropertyBindingPlan(final ComponentDef componentDef,
+            final BeanDesc beanDesc,
+            final AbstractBindingTypeDef bindingTypeDef, final Set names) {
+        this.beanDesc = beanDesc;
+        this.bindingTypeDef = bindingTypeDef;
+        final List list = new ArrayList();
+        final int size = beanDesc.getPropertyDescSize();
+        for (int i = 0; i < size; ++i) {
+            final PropertyDesc propertyDesc = beanDesc.getPropertyDesc(i);
+            if (!propertyDesc.isWritable()
+                    || names.contains(propertyDesc.getPropertyName())) {
+                continue;
+            }
+            final PropertyBinding binding = createPropertyBinding(
+                    componentDef, propertyDesc);
+            if (binding == null) {
+                continue;
+            }
+            if (binding.type == FALLBACK) {
+                logger.log("WSSR0008", new Object[] {
+                        beanDesc.getBeanClass().getName(),
+                        propertyDesc.getPropertyName() });
+            }
+            list.add(binding);
+        }
+        bindings = (PropertyBinding[]) list.toArray(new PropertyBinding[list
+                .size()]);
+    }
+
+    /**
+     * 組み立て計画を作成した{@link BeanDesc}を返します。
+     *
+     * @return {@link BeanDesc}
+     */
+    public BeanDesc getBeanDesc() {
+        return beanDesc;
+    }
+
+    /**
+     * 自動バインディングするプロパティの数を返します。
+     *
+     * @return 自動バインディングするプロパティの数
+     */
+    public int getPropertyBindingSize() {
+        return bindings.length;
+    }
+
+    /**
+     * 組み立て計画にしたがってプロパティを自動バインディングします。
+     *
+     * @param componentDef
+     *            コンポーネント定義
+     * @param component
+     *            コンポーネント
+     * @param names
+     *            設定済みのプロパティの名前、外部バインディングを行わない場合は<code>null</code>
+     */
+    public void bind(final ComponentDef componentDef, final Object component,
+            final Set names) {
+        for (int i = 0; i < bindings.length; ++i) {
+            final PropertyBinding binding = bindings[i];
+            if (names != null
+                    && names.contains(binding.propertyDesc.getPropertyName())) {
+                continue;
+            }
+            bindProperty(componentDef, component, binding);
+        }
+    }
+
+    /**
+     * プロパティを自動バインディングします。
+     *
+     * @param componentDef
+     *            コンポーネント定義
+     * @param component
+     *            コンポーネント
+     * @param binding
+     *            プロパティのバインディング
+     */
+    protected void bindProperty(final ComponentDef componentDef,
+            final Object component, final PropertyBinding binding) {
+        final PropertyDesc propertyDesc = binding.propertyDesc;
+        switch (binding.type) {
+        case BY_TYPE:
+            bindingTypeDef.setValue(componentDef, propertyDesc, component,
+                    getComponent(componentDef, component, binding));
+            return;
+        case BY_NAME:
+            final Object value = getComponent(componentDef, component, binding);
+            if (propertyDesc.getPropertyType().isInstance(value)) {
+                bindingTypeDef.setValue(componentDef, propertyDesc, component,
+                        value);
+                return;
+            }
+            break;
+        case COMPONENT_DEF:
+            bindingTypeDef.setValue(componentDef, propertyDesc, component,
+                    componentDef);
+            return;
+        case ARRAY:
+            final Object[] values = componentDef.getContainer()
+                    .findAllComponents(
+                            propertyDesc.getPropertyType().getComponentType());
+            if (values.length > 0) {
+                bindingTypeDef.setValue(componentDef, propertyDesc, component,
+                        values);
+            }
+            return;
+        case FALLBACK:
+            bindingTypeDef.bindAuto(componentDef, propertyDesc, component);
+            return;
+        }
+        bindingTypeDef.bind(componentDef, null, propertyDesc, component);
+    }
+
+    /**
+     * 結び付ける{@link ComponentDef}からコンポーネントを返します。
+     *
+     * @param componentDef
+     *            コンポーネント定義
+     * @param component
+     *            コンポーネント
+     * @param binding
+     *            プロパティのバインディング
+     * @return コンポーネント
+     * @throws IllegalPropertyRuntimeException
+     *             {@link RuntimeException}が発生した場合
+     */
+    protected Object getComponent(final ComponentDef componentDef,
+            final Object component, final PropertyBinding binding)
+            throws IllegalPropertyRuntimeException {
+        try {
+            return binding.target.getComponent();
+        } catch (final RuntimeException cause) {
+            throw new IllegalPropertyRuntimeException(BindingUtil
+                    .getComponentClass(componentDef, component),
+                    binding.propertyDesc.getPropertyName(), cause);
+        }
+    }
+
+    /**
+     * プロパティのバインディングを作成します。
+     * <p>
+     * 検索の順序は{@link AbstractBindingTypeDef#bindAuto(ComponentDef, PropertyDesc, Object)}と同じです。
+     * </p>
+     *
+     * @param componentDef
+     *            コンポーネント定義
+     * @param propertyDesc
+     *            プロパティ記述
+     * @return プロパティのバインディング、自動バインディングしない場合は<code>null</code>
+     */
+    protected PropertyBinding createPropertyBinding(
+            final ComponentDef componentDef, final PropertyDesc propertyDesc) {
+        final S2Container container = componentDef.getContainer();
+        final String propName = propertyDesc.getPropertyName();
+        final Class propType = propertyDesc.getPropertyType();
+        if (container.hasComponentDef(propType)) {
+            final ComponentDef cd = container.getComponentDef(propType);
+            if (bindingTypeDef.isAutoBindable(propName, propType, cd)) {
+                return new PropertyBinding(propertyDesc, BY_TYPE, cd);
+            }
+        }
+        if (container.hasComponentDef(propName)) {
+            return new PropertyBinding(propertyDesc, BY_NAME, container
+                    .getComponentDef(propName));
+        }
+        if (BindingUtil.isAutoBindable(propType)) {
+            if (container.hasComponentDef(propType)) {
+                return new PropertyBinding(propertyDesc, BY_TYPE, container
+                        .getComponentDef(propType));
+            }
+            if (propType.isAssignableFrom(ComponentDef.class)) {
+                return new PropertyBinding(propertyDesc, COMPONENT_DEF, null);
+            }
+            return new PropertyBinding(propertyDesc, FALLBACK, null);
+        }
+        if (BindingUtil.isAutoBindableArray(propType)) {
+            return new PropertyBinding(propertyDesc, ARRAY, null);
+        }
+        return null;
+    }
+
+    /**
+     * プロパティのバインディングです。
+     */
+    protected static class PropertyBinding {
+
+        /**
+         * プロパティ記述
+         */
+        protected final PropertyDesc propertyDesc;
+
+        /**
+         * バインディングの種類
+         */
+        protected final int type;
+
+        /**
+         * 結び付ける{@link ComponentDef}
+         */
+        protected final ComponentDef target;
+
+        /**
+         * {@link PropertyBinding}を作成します。
+         *
+         * @param propertyDesc
+         *            プロパティ記述
+         * @param type
+         *            バインディングの種類
+         * @param target
+         *            結び付ける{@link ComponentDef}
+         */
+        public PropertyBinding(final PropertyDesc propertyDesc,
+                final int type, final ComponentDef target) {
+            this.propertyDesc = propertyDesc;
+            this.type = type;
+            this.target = target;
+        }
+
+    }
+
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.container.impl;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.seasar.framework.container.ComponentDef;
+import org.seasar.framework.container.ExternalContext;
+import org.seasar.framework.container.ExternalContextComponentDefRegister;
+import org.seasar.framework.container.MetaDef;
+import org.seasar.framework.container.S2Container;
+import org.seasar.framework.util.MapUtil;
+
+/**
+ * コンポーネントの検索でロックを取得しないThreadSafeな {@link S2Container}の実装です。
+ * <p>
+ * {@link ThreadSafeS2ContainerImpl}はすべての操作でルートのコンテナを同期するため、
+ * コンポーネントの取得がアプリケーション全体で直列化されます。 このクラスは
+ * {@link ComponentDef}の登録や子供の追加などの更新操作だけをルートのコンテナで同期し、
+ * <code>getComponent()</code>や<code>hasComponentDef()</code>、<code>findComponents()</code>
+ * などの検索はロックを取得せずに行います。
+ * </p>
+ * <p>
+ * {@link ComponentDef}は{@link MapUtil#createHashMap()}で作成したマップ(Java5以降では
+ * <code>ConcurrentHashMap</code>)で保持し、子供や親のコンテナは更新時にコピーを作成するリストで保持します。
+ * そのため、ホットデプロイやウォームデプロイでの実行中の登録と検索を並行して安全に行うことができます。
+ * </p>
+ * <p>
+ * このクラスを使用するには、<code>ComponentsTagHandler</code>の<code>containerImplClass</code>プロパティに
+ * このクラスを指定します。
+ * </p>
+ *
+ * <pre>
+ * &lt;component class=&quot;org.seasar.framework.container.factory.ComponentsTagHandler&quot;&gt;
+ *     &lt;property name=&quot;containerImplClass&quot;&gt;
+ *         &#064;org.seasar.framework.container.impl.ConcurrentS2ContainerImpl&#064;class
+ *     &lt;/property&gt;
+ * &lt;/component&gt;
+ * </pre>
+ */
+public class ConcurrentS2ContainerImpl extends S2ContainerImpl {
+
+    protected Map createComponentDefMap() {
+        return new NullKeyConcurrentMap();
+    }
+
+    protected Map createDescendantMap() {
+        return new CaseInsensitiveConcurrentMap();
+    }
+
+    protected List createList() {
+        return new CopyOnWriteList();
+    }
+
+    public void addMetaDef(final MetaDef metaDef) {
+        synchronized (getRoot()) {
+            super.addMetaDef(metaDef);
+        }
+    }
+
+    public void addParent(final S2Container parent) {
+        synchronized (getRoot()) {
+            super.addParent(parent);
+        }
+    }
+
+    public void destroy() {
+        synchronized (getRoot()) {
+            super.destroy();
+        }
+    }
+
+    public MetaDef getMetaDef(final int index) {
+        synchronized (getRoot()) {
+            return super.getMetaDef(index);
+        }
+    }
+
+    public MetaDef getMetaDef(final String name) {
+        synchronized (getRoot()) {
+            return super.getMetaDef(name);
+        }
+    }
+
+    public MetaDef[] getMetaDefs(final String name) {
+        synchronized (getRoot()) {
+            return super.getMetaDefs(name);
+        }
+    }
+
+    public int getMetaDefSize() {
+        synchronized (getRoot()) {
+            return super.getMetaDefSize();
+        }
+    }
+
+    public void include(final S2Container child) {
+        synchronized (getRoot()) {
+            super.include(child);
+        }
+    }
+
+    public void init() {
+        synchronized (getRoot()) {
+            super.init();
+        }
+    }
+
+    public void register(final ComponentDef componentDef) {
+        synchronized (getRoot()) {
+            super.register(componentDef);
+        }
+    }
+
+    public void register0(final ComponentDef componentDef) {
+        synchronized (getRoot()) {
+            super.register0(componentDef);
+        }
+    }
+
+    public void registerDescendant(final S2Container descendant) {
+        synchronized (getRoot()) {
+            super.registerDescendant(descendant);
+        }
+    }
+
+    public void registerMap(final Object key, final ComponentDef componentDef,
+            final S2Container container) {
+        synchronized (getRoot()) {
+            super.registerMap(key, componentDef, container);
+        }
+    }
+
+    public void setClassLoader(final ClassLoader classLoader) {
+        synchronized (getRoot()) {
+            super.setClassLoader(classLoader);
+        }
+    }
+
+    public void setExternalContext(final ExternalContext externalContext) {
+        synchronized (getRoot()) {
+            super.setExternalContext(externalContext);
+        }
+    }
+
+    public void setExternalContextComponentDefRegister(
+            final ExternalContextComponentDefRegister register) {
+        synchronized (getRoot()) {
+            super.setExternalContextComponentDefRegister(register);
+        }
+    }
+
+    public void setNamespace(final String namespace) {
+        synchronized (getRoot()) {
+            super.setNamespace(namespace);
+        }
+    }
+
+    /**
+     * 更新時に配列のコピーを作成する{@link List}です。
+     * <p>
+     * 参照はロックを取得せずに行われ、更新はこのリストで同期されます。 {@link #iterator()}は呼び出した時点の要素を返すため、
+     * 反復中に更新されても<code>ConcurrentModificationException</code>はスローされません。
+     * </p>
+     */
+    protected static class CopyOnWriteList extends AbstractList {
+
+        private volatile Object[] elements = new Object[0];
+
+        public Object get(final int index) {
+            return elements[index];
+        }
+
+        public int size() {
+            return elements.length;
+        }
+
+        public synchronized Object set(final int index, final Object element) {
+            final Object[] newElements = (Object[]) elements.clone();
+            final Object old = newElements[index];
+            newElements[index] = element;
+            elements = newElements;
+            return old;
+        }
+
+        public synchronized void add(final int index, final Object element) {
+            final Object[] oldElements = elements;
+            if (index < 0 || index > oldElements.length) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            final Object[] newElements = new Object[oldElements.length + 1];
+            System.arraycopy(oldElements, 0, newElements, 0, index);
+            newElements[index] = element;
+            System.arraycopy(oldElements, index, newElements, index + 1,
+                    oldElements.length - index);
+            elements = newElements;
+        }
+
+        public synchronized Object remove(final int index) {
+            final Object[] oldElements = elements;
+            final Object old = oldElements[index];
+            final Object[] newElements = new Object[oldElements.length - 1];
+            System.arraycopy(oldElements, 0, newElements, 0, index);
+            System.arraycopy(oldElements, index + 1, newElements, index,
+                    oldElements.length - index - 1);
+            elements = newElements;
+            return old;
+        }
+
+        /**
+         * 呼び出した時点の要素に対する{@link Iterator}を返します。
+         * <p>
+         * 返される{@link Iterator}は要素を変更できません。
+         * </p>
+         *
+         * @return {@link Iterator}
+         */
+        public Iterator iterator() {
+            return Collections.unmodifiableList(Arrays.asList(elements))
+                    .iterator();
+        }
+
+        public Object[] toArray() {
+            return (Object[]) elements.clone();
+        }
+
+    }
+
+    /**
+     * キーの大文字小文字を区別しないスレッドセーフな{@link Map}です。
+     * <p>
+     * キーは小文字に変換して{@link MapUtil#createHashMap()}で作成したマップに保持されます。
+     * </p>
+     */
+    protected static class CaseInsensitiveConcurrentMap extends AbstractMap {
+
+        private final Map map = MapUtil.createHashMap();
+
+        public boolean containsKey(final Object key) {
+            return map.containsKey(convertKey(key));
+        }
+
+        public Object get(final Object key) {
+            return map.get(convertKey(key));
+        }
+
+        public Object put(final Object key, final Object value) {
+            return map.put(convertKey(key), value);
+        }
+
+        public Object remove(final Object key) {
+            return map.remove(convertKey(key));
+        }
+
+        public int size() {
+            return map.size();
+        }
+
+        public void clear() {
+            map.clear();
+        }
+
+        public Set entrySet() {
+            return map.entrySet();
+        }
+
+        private static String convertKey(final Object key) {
+            return ((String) key).toLowerCase();
+        }
+
+    }
+
+    /**
+     * <code>null</code>のキーを扱えるスレッドセーフな{@link Map}です。
+     * <p>
+     * <code>ConcurrentHashMap</code>は<code>null</code>のキーを扱えませんが、
+     * {@link S2ContainerImpl}は名前空間が<code>null</code>の場合に<code>null</code>のキーで
+     * コンテナ自身を登録します。 このマップは<code>null</code>のキーを内部のキーに置き換えて
+     * {@link MapUtil#createHashMap()}で作成したマップに保持します。
+     * {@link #entrySet()}は呼び出した時点のエントリのコピーを返します。
+     * </p>
+     */
+    protected static class NullKeyConcurrentMap extends AbstractMap {
+
+        private static final Object NULL_KEY = new Object();
+
+        private final Map map = MapUtil.createHashMap();
+
+        public boolean containsKey(final Object key) {
+            return map.containsKey(maskNull(key));
+        }
+
+        public Object get(final Object key) {
+            return map.get(maskNull(key));
+        }
+
+        public Object put(final Object key, final Object value) {
+            return map.put(maskNull(key), value);
+        }
+
+        public Object remove(final Object key) {
+            return map.remove(maskNull(key));
+        }
+
+        public int size() {
+            return map.size();
+        }
+
+        public void clear() {
+            map.clear();
+        }
+
+        public Set entrySet() {
+            final Map copy = new HashMap();
+            for (final Iterator it = map.entrySet().iterator(); it.hasNext();) {
+                final Entry entry = (Entry) it.next();
+                copy.put(unmaskNull(entry.getKey()), entry.getValue());
+            }
+            return copy.entrySet();
+        }
+
+        private static Object maskNull(final Object key) {
+            return key == null ? NULL_KEY : key;
+        }
+
+        private static Object unmaskNull(final Object key) {
+            return key == NULL_KEY ? null : key;
+        }
+
+    }
+
+}
@@ -58,9 +58,9 @@ public class S2ContainerImpl implements S2Container, ContainerConstants {
     private static final Logger logger = Logger
             .getLogger(S2ContainerImpl.class);
 
-    private Map componentDefMap = new HashMap();
+    private Map componentDefMap = createComponentDefMap();
 
-    private List componentDefList = new ArrayList();
+    private List componentDefList = createList();
 
     private String namespace;
 
@@ -68,13 +68,13 @@ public class S2ContainerImpl implements S2Container, ContainerConstants {
 
     private boolean initializeOnCreate;
 
-    private List children = new ArrayList();
+    private List children = createList();
 
     private Map childPositions = new HashMap();
 
-    private List parents = new ArrayList();
+    private List parents = createList();
 
-    private CaseInsensitiveMap descendants = new CaseInsensitiveMap();
+    private Map descendants = createDescendantMap();
 
     private S2Container root;
 
@@ -108,6 +108,42 @@ public class S2ContainerImpl implements S2Container, ContainerConstants {
         classLoader = Thread.currentThread().getContextClassLoader();
     }
 
+    /**
+     * {@link ComponentDef}を保持する{@link Map}を作成します。
+     * <p>
+     * このメソッドはコンストラクタから呼び出されるため、サブクラスのフィールドを参照してはいけません。
+     * </p>
+     * 
+     * @return {@link ComponentDef}を保持する{@link Map}
+     */
+    protected Map createComponentDefMap() {
+        return new HashMap();
+    }
+
+    /**
+     * パスをキーにして子孫の{@link S2Container}を保持する{@link Map}を作成します。
+     * <p>
+     * このメソッドはコンストラクタから呼び出されるため、サブクラスのフィールドを参照してはいけません。
+     * </p>
+     * 
+     * @return 子孫の{@link S2Container}を保持する大文字小文字を区別しない{@link Map}
+     */
+    protected Map createDescendantMap() {
+        return new CaseInsensitiveMap();
+    }
+
+    /**
+     * {@link ComponentDef}や子供、親の{@link S2Container}を保持する{@link List}を作成します。
+     * <p>
+     * このメソッドはコンストラクタから呼び出されるため、サブクラスのフィールドを参照してはいけません。
+     * </p>
+     * 
+     * @return {@link List}
+     */
+    protected List createList() {
+        return new ArrayList();
+    }
+
     public S2Container getRoot() {
         return root;
     }
@@ -729,9 +765,9 @@ public class S2ContainerImpl implements S2Container, ContainerConstants {
      * 子供の位置を保持するクラスです。
      */
     static class ComponentDefHolder {
-        private int position;
+        private volatile int position;
 
-        private ComponentDef componentDef;
+        private volatile ComponentDef componentDef;
 
         /**
          * {@link ComponentDefHolder}を作成します。
@@ -39,6 +39,10 @@ public class MockStatement implements Statement {
 
     private int queryTimeout;
 
+    private boolean escapeProcessing = true;
+
+    private ResultSet generatedKeys;
+
     private int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
 
     private int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
@@ -127,6 +131,25 @@ public class MockStatement implements Statement {
         this.closed = closed;
     }
 
+    /**
+     * エスケープ処理が有効かどうかを返します。
+     * 
+     * @return エスケープ処理が有効かどうか
+     */
+    public boolean isEscapeProcessing() {
+        return escapeProcessing;
+    }
+
+    /**
+     * 自動生成されたキーの結果セットを設定します。
+     * 
+     * @param generatedKeys
+     *            自動生成されたキーの結果セット
+     */
+    public void setGeneratedKeys(ResultSet generatedKeys) {
+        this.generatedKeys = generatedKeys;
+    }
+
     public boolean execute(String sql) throws SQLException {
         return false;
     }
@@ -185,7 +208,7 @@ public class MockStatement implements Statement {
     }
 
     public ResultSet getGeneratedKeys() throws SQLException {
-        return null;
+        return generatedKeys;
     }
 
     public int getMaxFieldSize() throws SQLException {
@@ -236,6 +259,7 @@ public class MockStatement implements Statement {
     }
 
     public void setEscapeProcessing(boolean enable) throws SQLException {
+        escapeProcessing = enable;
     }
 
     public void setFetchDirection(int direction) throws SQLException {
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.util;
+
+/**
+ * 経過時間(ミリ秒)の分布を固定の区間で集計するヒストグラムです。
+ * <p>
+ * このクラスはスレッドセーフではありません。 複数のスレッドから使用する場合は呼び出し側で同期してください。
+ * </p>
+ */
+public class TimeHistogram {
+
+    /**
+     * 各区間の上限(ミリ秒)です。 最後の区間より大きな値はオーバーフロー区間に集計されます。
+     */
+    protected static final long[] BOUNDS = new long[] { 1, 2, 5, 10, 20, 50,
+            100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000 };
+
+    private final long[] counts;
+
+    private long count;
+
+    private long total;
+
+    private long max;
+
+    /**
+     * インスタンスを構築します。
+     */
+    public TimeHistogram() {
+        counts = new long[BOUNDS.length + 1];
+    }
+
+    /**
+     * コピーを作成します。
+     *
+     * @param other
+     *            コピー元
+     */
+    protected TimeHistogram(final TimeHistogram other) {
+        counts = (long[]) other.counts.clone();
+        count = other.count;
+        total = other.total;
+        max = other.max;
+    }
+
+    /**
+     * 集計済みの値からインスタンスを構築します。
+     *
+     * @param counts
+     *            各区間に記録された数
+     * @param count
+     *            記録された数
+     * @param total
+     *            経過時間の合計(ミリ秒)
+     * @param max
+     *            経過時間の最大値(ミリ秒)
+     */
+    protected TimeHistogram(final long[] counts, final long count,
+            final long total, final long max) {
+        this.counts = (long[]) counts.clone();
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    /**
+     * 経過時間を記録します。
+     *
+     * @param time
+     *            経過時間(ミリ秒)
+     */
+    public void record(final long time) {
+        final long value = Math.max(0L, time);
+        ++counts[indexOf(value)];
+        ++count;
+        total += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * 記録をすべて消去します。
+     */
+    public void clear() {
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = 0L;
+        }
+        count = 0L;
+        total = 0L;
+        max = 0L;
+    }
+
+    /**
+     * コピーを返します。
+     *
+     * @return コピー
+     */
+    public TimeHistogram copy() {
+        return new TimeHistogram(this);
+    }
+
+    /**
+     * 記録された数を返します。
+     *
+     * @return 記録された数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 経過時間の合計(ミリ秒)を返します。
+     *
+     * @return 経過時間の合計(ミリ秒)
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * 経過時間の最大値(ミリ秒)を返します。
+     *
+     * @return 経過時間の最大値(ミリ秒)
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * 経過時間の平均値(ミリ秒)を返します。
+     *
+     * @return 経過時間の平均値(ミリ秒)
+     */
+    public double getMean() {
+        return count == 0L ? 0.0 : (double) total / count;
+    }
+
+    /**
+     * 経過時間のパーセンタイル値(ミリ秒)を返します。
+     * <p>
+     * 返される値は該当する区間の上限です。 オーバーフロー区間に該当する場合は最大値を返します。
+     * </p>
+     *
+     * @param percentile
+     *            パーセンタイル(<code>0</code>～<code>100</code>)
+     * @return パーセンタイル値(ミリ秒)
+     */
+    public long getPercentile(final double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        final double rank = Math.ceil(count * percentile / 100.0);
+        long sum = 0L;
+        for (int i = 0; i < BOUNDS.length; ++i) {
+            sum += counts[i];
+            if (sum >= rank) {
+                return Math.min(BOUNDS[i], max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 各区間の上限(ミリ秒)を返します。
+     *
+     * @return 各区間の上限(ミリ秒)
+     */
+    public long[] getBounds() {
+        return (long[]) BOUNDS.clone();
+    }
+
+    /**
+     * 各区間に記録された数を返します。
+     * <p>
+     * 配列の長さは{@link #getBounds()}より1大きく、最後の要素はオーバーフロー区間の数です。
+     * </p>
+     *
+     * @return 各区間に記録された数
+     */
+    public long[] getCounts() {
+        return (long[]) counts.clone();
+    }
+
+    /**
+     * 経過時間が該当する区間のインデックスを返します。
+     *
+     * @param time
+     *            経過時間(ミリ秒)
+     * @return 区間のインデックス
+     */
+    protected static int indexOf(final long time) {
+        for (int i = 0; i < BOUNDS.length; ++i) {
+            if (time <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    public String toString() {
+        final StringBuffer buf = new StringBuffer(100);
+        buf.append("count=").append(count).append(", mean=").append(
+                (long) getMean()).append("ms, p95=").append(getPercentile(95))
+                .append("ms, p99=").append(getPercentile(99)).append(
+                        "ms, max=").append(max).append("ms");
+        return buf.toString();
+    }
+
+}
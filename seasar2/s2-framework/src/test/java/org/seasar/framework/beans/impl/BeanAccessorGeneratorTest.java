@@ -0,0 +1,216 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.beans.impl;
+
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.seasar.framework.beans.BeanDesc;
+import org.seasar.framework.beans.PropertyDesc;
+
+public class BeanAccessorGeneratorTest extends TestCase {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        BeanDescImpl.setBeanAccessorEnabled(true);
+    }
+
+    protected void tearDown() throws Exception {
+        BeanDescImpl.setBeanAccessorEnabled(false);
+        super.tearDown();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testGetBeanAccessor() throws Exception {
+        BeanDesc beanDesc = new BeanDescImpl(Hoge.class);
+        PropertyDesc[] propertyDescs = new PropertyDesc[beanDesc
+                .getPropertyDescSize()];
+        for (int i = 0; i < propertyDescs.length; ++i) {
+            propertyDescs[i] = beanDesc.getPropertyDesc(i);
+        }
+        BeanAccessor accessor = BeanAccessorGenerator.getBeanAccessor(
+                Hoge.class, propertyDescs);
+        assertNotNull(accessor);
+        assertEquals(Hoge.class.getName() + BeanAccessorGenerator.SUFFIX,
+                accessor.getClass().getName());
+        String[] names = accessor.getPropertyNames();
+        assertEquals(propertyDescs.length, names.length);
+
+        Hoge hoge = new Hoge();
+        for (int i = 0; i < names.length; ++i) {
+            if ("aaa".equals(names[i])) {
+                accessor.setValue(i, hoge, "hoge");
+                assertEquals("hoge", accessor.getValue(i, hoge));
+            } else if ("bbb".equals(names[i])) {
+                accessor.setValue(i, hoge, new Integer(10));
+                assertEquals(new Integer(10), accessor.getValue(i, hoge));
+            } else if ("ccc".equals(names[i])) {
+                accessor.setValue(i, hoge, new Date(0));
+                assertEquals(new Date(0), accessor.getValue(i, hoge));
+            } else if ("ddd".equals(names[i])) {
+                accessor.setValue(i, hoge, Boolean.TRUE);
+                assertEquals(Boolean.TRUE, accessor.getValue(i, hoge));
+            }
+        }
+        assertEquals("hoge", hoge.getAaa());
+        assertEquals(10, hoge.getBbb());
+        assertEquals(new Date(0), hoge.ccc);
+        assertTrue(hoge.isDdd());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testPropertyDesc() throws Exception {
+        BeanDesc beanDesc = new BeanDescImpl(Hoge.class);
+        Hoge hoge = new Hoge();
+        beanDesc.getPropertyDesc("aaa").setValue(hoge, "hoge");
+        beanDesc.getPropertyDesc("bbb").setValue(hoge, "20");
+        beanDesc.getPropertyDesc("eee").setValue(hoge, new Integer(1));
+        assertEquals("hoge", beanDesc.getPropertyDesc("aaa").getValue(hoge));
+        assertEquals(new Integer(20), beanDesc.getPropertyDesc("bbb")
+                .getValue(hoge));
+        assertEquals(1, hoge.eee);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testReuseGeneratedClass() throws Exception {
+        BeanDesc beanDesc1 = new BeanDescImpl(Hoge.class);
+        BeanDesc beanDesc2 = new BeanDescImpl(Hoge.class);
+        Hoge hoge = new Hoge();
+        beanDesc1.getPropertyDesc("aaa").setValue(hoge, "1");
+        beanDesc2.getPropertyDesc("aaa").setValue(hoge, "2");
+        assertEquals("2", hoge.getAaa());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testNotGeneratable() throws Exception {
+        assertNull(BeanAccessorGenerator.getBeanAccessor(Date.class,
+                new PropertyDesc[0]));
+        BeanDesc beanDesc = new BeanDescImpl(Date.class);
+        Date date = new Date();
+        beanDesc.getPropertyDesc("time").setValue(date, new Long(0));
+        assertEquals(new Long(0), beanDesc.getPropertyDesc("time").getValue(
+                date));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testNonPublicPropertyType() throws Exception {
+        BeanDesc beanDesc = new BeanDescImpl(Foo.class);
+        Foo foo = new Foo();
+        Bar bar = new Bar();
+        beanDesc.getPropertyDesc("bar").setValue(foo, bar);
+        assertSame(bar, beanDesc.getPropertyDesc("bar").getValue(foo));
+    }
+
+    /**
+     * 
+     */
+    public static class Hoge {
+
+        private String aaa;
+
+        private int bbb;
+
+        /**
+         * 
+         */
+        public Date ccc;
+
+        private boolean ddd;
+
+        /**
+         * 
+         */
+        public int eee;
+
+        /**
+         * @return
+         */
+        public String getAaa() {
+            return aaa;
+        }
+
+        /**
+         * @param aaa
+         */
+        public void setAaa(String aaa) {
+            this.aaa = aaa;
+        }
+
+        /**
+         * @return
+         */
+        public int getBbb() {
+            return bbb;
+        }
+
+        /**
+         * @param bbb
+         */
+        public void setBbb(int bbb) {
+            this.bbb = bbb;
+        }
+
+        /**
+         * @return
+         */
+        public boolean isDdd() {
+            return ddd;
+        }
+
+        /**
+         * @param ddd
+         */
+        public void setDdd(boolean ddd) {
+            this.ddd = ddd;
+        }
+    }
+
+    /**
+     * 
+     */
+    public static class Foo {
+
+        private Bar bar;
+
+        /**
+         * @return
+         */
+        public Object getBar() {
+            return bar;
+        }
+
+        /**
+         * @param bar
+         */
+        public void setBar(Object bar) {
+            this.bar = (Bar) bar;
+        }
+    }
+
+    static class Bar {
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.beans.impl;
+
+/**
+ * {@link BeanAccessor}を使用して{@link PropertyDescImplTest}を実行します。
+ */
+public class PropertyDescImplBeanAccessorTest extends PropertyDescImplTest {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        BeanDescImpl.setBeanAccessorEnabled(true);
+    }
+
+    protected void tearDown() throws Exception {
+        BeanDescImpl.setBeanAccessorEnabled(false);
+        super.tearDown();
+    }
+}
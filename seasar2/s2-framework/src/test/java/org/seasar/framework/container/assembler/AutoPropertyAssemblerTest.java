@@ -22,6 +22,7 @@ import junit.framework.TestCase;
 import org.seasar.framework.container.ExternalContext;
 import org.seasar.framework.container.PropertyAssembler;
 import org.seasar.framework.container.S2Container;
+import org.seasar.framework.container.deployer.InstanceDefFactory;
 import org.seasar.framework.container.external.servlet.HttpServletExternalContext;
 import org.seasar.framework.container.impl.ComponentDefImpl;
 import org.seasar.framework.container.impl.PropertyDefImpl;
@@ -50,6 +51,43 @@ public class AutoPropertyAssemblerTest extends TestCase {
         assertEquals("1", "B", a.getHogeName());
     }
 
+    /**
+     * @throws Exception
+     */
+    public void testAssemblePrototypeWithPlan() throws Exception {
+        S2Container container = new S2ContainerImpl();
+        ComponentDefImpl cd = new ComponentDefImpl(A.class);
+        container.register(cd);
+        ComponentDefImpl hogeCd = new ComponentDefImpl(B.class);
+        hogeCd.setInstanceDef(InstanceDefFactory.PROTOTYPE);
+        container.register(hogeCd);
+        PropertyAssembler assembler = new AutoPropertyAssembler(cd);
+        A a1 = new A();
+        assembler.assemble(a1);
+        A a2 = new A();
+        assembler.assemble(a2);
+        assertEquals("B", a1.getHogeName());
+        assertEquals("B", a2.getHogeName());
+        assertNotSame(a1.getHoge(), a2.getHoge());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testAssembleLateRegistrationWithPlan() throws Exception {
+        S2Container container = new S2ContainerImpl();
+        ComponentDefImpl cd = new ComponentDefImpl(A.class);
+        container.register(cd);
+        PropertyAssembler assembler = new AutoPropertyAssembler(cd);
+        A a1 = new A();
+        assembler.assemble(a1);
+        assertNull(a1.getHoge());
+        container.register(B.class);
+        A a2 = new A();
+        assembler.assemble(a2);
+        assertEquals("B", a2.getHogeName());
+    }
+
     /**
      * @throws Exception
      */
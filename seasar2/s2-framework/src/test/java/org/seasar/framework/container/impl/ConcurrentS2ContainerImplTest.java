@@ -0,0 +1,150 @@
+/*
+ * Copyright 2004-2013 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.framework.container.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.seasar.framework.container.S2Container;
+import org.seasar.framework.container.impl.ConcurrentS2ContainerImpl.CaseInsensitiveConcurrentMap;
+import org.seasar.framework.container.impl.ConcurrentS2ContainerImpl.CopyOnWriteList;
+import org.seasar.framework.container.impl.ConcurrentS2ContainerImpl.NullKeyConcurrentMap;
+
+public class ConcurrentS2ContainerImplTest extends TestCase {
+
+    /**
+     * @throws Exception
+     */
+    public void testRegisterAndLookup() throws Exception {
+        S2Container root = new ConcurrentS2ContainerImpl();
+        S2Container child = new ConcurrentS2ContainerImpl();
+        child.setNamespace("aaa");
+        child.setPath("Child.dicon");
+        child.register(ArrayList.class, "list");
+        root.include(child);
+        root.registerDescendant(child);
+        root.register(HashMap.class, "map");
+        root.init();
+
+        assertTrue(root.hasComponentDef("map"));
+        assertTrue(root.hasComponentDef("list"));
+        assertTrue(root.hasComponentDef("aaa.list"));
+        assertTrue(root.getComponent(Map.class) instanceof HashMap);
+        assertTrue(root.getComponent("aaa.list") instanceof ArrayList);
+        assertEquals(1, root.findComponents(List.class).length);
+        assertEquals(1, root.getChildSize());
+        assertSame(root, child.getParent(0));
+        assertTrue(root.hasDescendant("child.DICON"));
+        assertSame(child, root.getDescendant("CHILD.dicon"));
+        root.destroy();
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testConcurrentLookup() throws Exception {
+        final S2Container container = new ConcurrentS2ContainerImpl();
+        container.register(HashMap.class, "map");
+        container.init();
+        final boolean[] failed = new boolean[1];
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 1000; ++j) {
+                        if (!container.hasComponentDef("map")
+                                || container.getComponent("map") == null) {
+                            failed[0] = true;
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < 100; ++i) {
+            container.register(ArrayList.class, "list" + i);
+        }
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i].join();
+        }
+        assertFalse(failed[0]);
+        assertEquals(101, container.getComponentDefSize());
+        assertTrue(container.hasComponentDef("list99"));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCopyOnWriteList() throws Exception {
+        List list = new CopyOnWriteList();
+        list.add("a");
+        list.add("c");
+        list.add(1, "b");
+        Iterator it = list.iterator();
+        list.remove(0);
+        assertEquals("a", it.next());
+        assertEquals(2, list.size());
+        assertEquals("b", list.get(0));
+        assertEquals("b", list.set(0, "x"));
+        assertEquals("x", list.toArray()[0]);
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testCaseInsensitiveConcurrentMap() throws Exception {
+        Map map = new CaseInsensitiveConcurrentMap();
+        map.put("Foo", "bar");
+        assertTrue(map.containsKey("FOO"));
+        assertEquals("bar", map.get("foo"));
+        assertEquals(1, map.size());
+        assertEquals("bar", map.remove("fOO"));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testNullKeyConcurrentMap() throws Exception {
+        Map map = new NullKeyConcurrentMap();
+        map.put(null, "foo");
+        map.put("bar", "baz");
+        assertTrue(map.containsKey(null));
+        assertEquals("foo", map.get(null));
+        assertEquals(2, map.entrySet().size());
+        Map copy = new HashMap(map);
+        assertEquals("foo", copy.get(null));
+        assertEquals("foo", map.remove(null));
+        assertFalse(map.containsKey(null));
+    }
+
+    /**
+     * @throws Exception
+     */
+    public void testSetNamespace_null() throws Exception {
+        ConcurrentS2ContainerImpl container = new ConcurrentS2ContainerImpl();
+        container.setNamespace(null);
+        assertNull(container.getNamespace());
+        ConcurrentS2ContainerImpl parent = new ConcurrentS2ContainerImpl();
+        parent.include(container);
+        assertSame(parent, container.getParent(0));
+    }
+}